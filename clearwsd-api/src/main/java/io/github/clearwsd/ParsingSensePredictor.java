@@ -17,6 +17,7 @@
 package io.github.clearwsd;
 
 import java.util.List;
+import java.util.stream.Stream;
 
 import io.github.clearwsd.parser.NlpParser;
 import io.github.clearwsd.type.DepTree;
@@ -38,4 +39,15 @@ public interface ParsingSensePredictor<S> extends SensePredictor<S>, NlpParser {
      */
     List<SensePrediction<S>> predict(@NonNull DepTree depTree);
 
+    /**
+     * Tokenize and predict senses for a stream of raw (untokenized) sentences, returning a stream of
+     * {@link SensePrediction sense predictions} for each sentence in input order.
+     *
+     * @param sentences raw sentences
+     * @return stream of sense predictions for each input sentence
+     */
+    default Stream<List<SensePrediction<S>>> predictAll(@NonNull Stream<String> sentences) {
+        return sentences.map(sentence -> predict(tokenize(sentence)));
+    }
+
 }
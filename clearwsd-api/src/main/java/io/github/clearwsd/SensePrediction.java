@@ -16,6 +16,9 @@
 
 package io.github.clearwsd;
 
+import java.util.Collections;
+import java.util.List;
+
 /**
  * Sense prediction.
  *
@@ -44,4 +47,20 @@ public interface SensePrediction<T> {
      */
     T sense();
 
+    /**
+     * Return the confidence of the prediction, normalized over the candidate senses of the input word, or {@link Double#NaN} if
+     * not available.
+     */
+    default double confidence() {
+        return Double.NaN;
+    }
+
+    /**
+     * Return the highest-confidence candidate senses of the input word in descending order of confidence, starting with the
+     * predicted sense, or an empty list if alternatives are not available.
+     */
+    default List<SensePrediction<T>> alternatives() {
+        return Collections.emptyList();
+    }
+
 }
@@ -17,6 +17,7 @@
 package io.github.clearwsd;
 
 import java.util.List;
+import java.util.stream.Collectors;
 
 /**
  * Minimal prediction interface for word senses. For most NLP applications, tokenization will already be present. Providing a
@@ -39,4 +40,17 @@ public interface SensePredictor<S> {
      */
     List<SensePrediction<S>> predict(List<String> sentence);
 
+    /**
+     * Given a list of tokenized sentences, return a list of {@link SensePrediction sense predictions} for each sentence, in the
+     * same order as the input sentences.
+     *
+     * @param sentences tokenized sentences
+     * @return list of sense predictions for each input sentence
+     */
+    default List<List<SensePrediction<S>>> predictBatch(List<List<String>> sentences) {
+        return sentences.stream()
+                .map(this::predict)
+                .collect(Collectors.toList());
+    }
+
 }
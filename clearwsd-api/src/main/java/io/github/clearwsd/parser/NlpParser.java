@@ -16,6 +16,7 @@
 
 package io.github.clearwsd.parser;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import io.github.clearwsd.type.DepTree;
@@ -36,4 +37,19 @@ public interface NlpParser extends NlpTokenizer {
      */
     DepTree parse(List<String> tokens);
 
+    /**
+     * Parse a batch of tokenized sentences, producing a {@link DepTree} for each sentence in input order. Implementations able to
+     * process several sentences at once should override this method; by default, each sentence is parsed independently.
+     *
+     * @param sentences list of tokenized sentences
+     * @return list of syntactic dependency trees, one per input sentence
+     */
+    default List<DepTree> parseAll(List<List<String>> sentences) {
+        List<DepTree> results = new ArrayList<>(sentences.size());
+        for (List<String> tokens : sentences) {
+            results.add(parse(tokens));
+        }
+        return results;
+    }
+
 }
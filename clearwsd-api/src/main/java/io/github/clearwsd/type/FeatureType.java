@@ -35,5 +35,6 @@ public enum FeatureType {
     GoldLemma,
     AllSenses,
     Id,
+    SenseScores,
 
 }
@@ -0,0 +1,343 @@
+/*
+ * Copyright 2017 James Gung
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.clearwsd.benchmarks;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Sets;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+import io.github.clearwsd.WordSenseClassifier;
+import io.github.clearwsd.classifier.Classifier;
+import io.github.clearwsd.classifier.MultiClassifier;
+import io.github.clearwsd.classifier.PaClassifier;
+import io.github.clearwsd.corpus.CoNllDepTreeReader;
+import io.github.clearwsd.feature.annotator.AggregateAnnotator;
+import io.github.clearwsd.feature.context.DepContextFactory;
+import io.github.clearwsd.feature.extractor.StringExtractor;
+import io.github.clearwsd.feature.function.AggregateFeatureFunction;
+import io.github.clearwsd.feature.function.FeatureFunction;
+import io.github.clearwsd.feature.pipeline.AnnotatingClassifier;
+import io.github.clearwsd.feature.pipeline.DefaultFeaturePipeline;
+import io.github.clearwsd.feature.pipeline.FeaturePipeline;
+import io.github.clearwsd.feature.pipeline.NlpClassifier;
+import io.github.clearwsd.io.LazyClassifier;
+import io.github.clearwsd.type.DefaultNlpFocus;
+import io.github.clearwsd.type.DepNode;
+import io.github.clearwsd.type.DepTree;
+import io.github.clearwsd.type.FeatureType;
+import io.github.clearwsd.type.NlpFocus;
+import io.github.clearwsd.utils.CountingSenseInventory;
+import io.github.clearwsd.utils.LemmaDictionary;
+import io.github.clearwsd.verbnet.DefaultVerbNetClassifier;
+import lombok.extern.slf4j.Slf4j;
+
+import static io.github.clearwsd.feature.context.Contexts.excludingDeps;
+import static io.github.clearwsd.feature.context.Contexts.head;
+import static io.github.clearwsd.feature.context.Contexts.window;
+import static io.github.clearwsd.feature.extractor.Extractors.concat;
+import static io.github.clearwsd.feature.extractor.Extractors.lookup;
+import static io.github.clearwsd.feature.extractor.Extractors.lowerLemma;
+import static io.github.clearwsd.feature.function.Features.bias;
+import static io.github.clearwsd.feature.function.Features.cross;
+import static io.github.clearwsd.feature.function.Features.function;
+
+/**
+ * Fixtures shared by benchmarks. Benchmarks are run against the models shipped in the clearwsd-models module, using synthetic
+ * dependency trees built from the predicates covered by the model. When the shipped model is unavailable (e.g. a checkout
+ * without Git LFS), a small synthetic model using the default VerbNet feature templates (excluding those that require external
+ * resources) is trained and used instead.
+ *
+ * @author jamesgung
+ */
+@Slf4j
+public final class BenchmarkFixtures {
+
+    /**
+     * Default model used by benchmarks.
+     */
+    public static final String VERBNET_MODEL = "models/nlp4j-verbnet-3.3.bin";
+    /**
+     * Seed used to generate synthetic trees.
+     */
+    public static final long SEED = 0;
+
+    private static final String LFS_POINTER = "version https://git-lfs";
+    private static final List<String> SYNTHETIC_PREDICATES = Arrays.asList(
+            "break", "call", "draw", "give", "hold", "make", "run", "stop", "take", "turn");
+    private static final List<String> DETERMINERS = Arrays.asList("the", "a", "this", "every");
+    private static final List<String> NOUNS = Arrays.asList("dog", "company", "market", "price", "government", "child", "car",
+            "letter", "idea", "water", "bank", "game", "line", "record", "plant", "court", "paper", "light");
+    private static final List<String> ADVERBS = Arrays.asList("quickly", "again", "today", "now", "often");
+    private static final List<String> PREPOSITIONS = Arrays.asList("in", "on", "with", "for", "from");
+
+    private static Path syntheticModel;
+
+    private BenchmarkFixtures() {
+    }
+
+    /**
+     * Return a classpath resource or path that can be loaded using {@link WordSenseClassifier#loadFromResource(String)}. If the
+     * requested model is unavailable, a synthetic model is trained and saved to a temporary file.
+     *
+     * @param resource requested model classpath resource or path
+     * @return loadable model resource or path
+     */
+    public static synchronized String resolveModel(String resource) {
+        if (available(resource)) {
+            return resource;
+        }
+        if (syntheticModel == null) {
+            log.warn("Model at {} is unavailable, benchmarking a synthetic model instead", resource);
+            WordSenseClassifier classifier = trainSyntheticModel();
+            try {
+                syntheticModel = Files.createTempFile("clearwsd-benchmark", ".bin");
+                syntheticModel.toFile().deleteOnExit();
+                try (ObjectOutputStream outputStream = new ObjectOutputStream(Files.newOutputStream(syntheticModel))) {
+                    classifier.save(outputStream);
+                }
+            } catch (IOException e) {
+                throw new RuntimeException("Unable to save synthetic model: " + e.getMessage(), e);
+            }
+        }
+        return syntheticModel.toString();
+    }
+
+    /**
+     * Load a model, or a synthetic model if the requested model is unavailable.
+     *
+     * @param resource model classpath resource or path
+     * @return word sense classifier
+     */
+    public static WordSenseClassifier loadModel(String resource) {
+        return WordSenseClassifier.loadFromResource(resolveModel(resource));
+    }
+
+    /**
+     * Return the annotating classifier applying feature annotations (e.g. clusters and WordNet) prior to per-predicate sub-models.
+     *
+     * @param classifier word sense classifier
+     * @return annotating classifier
+     */
+    @SuppressWarnings("unchecked")
+    public static AnnotatingClassifier<NlpFocus<DepNode, DepTree>> annotatingClassifier(WordSenseClassifier classifier) {
+        Classifier<NlpFocus<DepNode, DepTree>, String> model = classifier.classifier();
+        if (model instanceof DefaultVerbNetClassifier) {
+            model = ((DefaultVerbNetClassifier) model).classifier();
+        }
+        Preconditions.checkState(model instanceof AnnotatingClassifier, "Unsupported classifier type: %s", model.getClass());
+        return (AnnotatingClassifier<NlpFocus<DepNode, DepTree>>) model;
+    }
+
+    /**
+     * Return linear (non-trivial) sub-models of a multi-model classifier by key, decoding any lazily loaded sub-models.
+     *
+     * @param classifier annotating classifier wrapping a multi-model classifier
+     * @return sub-models in key order
+     */
+    @SuppressWarnings("unchecked")
+    public static Map<String, NlpClassifier<NlpFocus<DepNode, DepTree>>> subModels(
+            AnnotatingClassifier<NlpFocus<DepNode, DepTree>> classifier) {
+        Preconditions.checkState(classifier.classifier() instanceof MultiClassifier, "Unsupported classifier type: %s",
+                classifier.classifier().getClass());
+        MultiClassifier<NlpFocus<DepNode, DepTree>, String> multi =
+                (MultiClassifier<NlpFocus<DepNode, DepTree>, String>) classifier.classifier();
+        Map<String, NlpClassifier<NlpFocus<DepNode, DepTree>>> result = new TreeMap<>();
+        multi.classifiers().forEach((key, model) -> {
+            if (model instanceof LazyClassifier) {
+                model = ((LazyClassifier<NlpFocus<DepNode, DepTree>>) model).model();
+            }
+            if (model instanceof NlpClassifier
+                    && ((NlpClassifier) model).sparseClassifier() instanceof PaClassifier) {
+                result.put(key, (NlpClassifier<NlpFocus<DepNode, DepTree>>) model);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Generate synthetic dependency trees in CoNLL format, each containing a main verb chosen from a list of predicates.
+     *
+     * @param predicates predicate lemmas
+     * @param count      number of trees
+     * @param seed       random seed
+     * @return UTF-8 encoded CoNLL trees, readable by {@link CoNllDepTreeReader}
+     */
+    public static byte[] conll(List<String> predicates, int count, long seed) {
+        Preconditions.checkArgument(!predicates.isEmpty(), "At least one predicate is required");
+        Random random = new Random(seed);
+        StringBuilder result = new StringBuilder();
+        for (int i = 0; i < count; ++i) {
+            String predicate = predicates.get(random.nextInt(predicates.size()));
+            List<String[]> tree = random.nextBoolean() ? simpleTree(predicate, random) : prepositionalTree(predicate, random);
+            int index = 0;
+            for (String[] token : tree) {
+                result.append(index++).append('\t').append(String.join("\t", token)).append('\n');
+            }
+            result.append('\n');
+        }
+        return result.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Read dependency trees from CoNLL-formatted bytes.
+     *
+     * @param conll CoNLL trees
+     * @return dependency trees
+     */
+    public static List<DepTree> trees(byte[] conll) {
+        return new CoNllDepTreeReader().readInstances(new ByteArrayInputStream(conll));
+    }
+
+    /**
+     * Generate synthetic dependency trees using a default set of predicates, without requiring a model.
+     *
+     * @param count number of trees
+     * @return UTF-8 encoded CoNLL trees
+     */
+    public static byte[] syntheticConll(int count) {
+        return conll(SYNTHETIC_PREDICATES, count, SEED);
+    }
+
+    // the dog run the car quickly .
+    private static List<String[]> simpleTree(String predicate, Random random) {
+        return Arrays.asList(
+                token(pick(DETERMINERS, random), "DT", "det", 1),
+                noun("nsubj", 2, random),
+                new String[]{predicate, predicate, "VB", "root", "-1"},
+                token(pick(DETERMINERS, random), "DT", "det", 4),
+                noun("dobj", 2, random),
+                token(pick(ADVERBS, random), "RB", "advmod", 2),
+                token(".", ".", "punct", 2));
+    }
+
+    // the dog will run the car in the market .
+    private static List<String[]> prepositionalTree(String predicate, Random random) {
+        return Arrays.asList(
+                token(pick(DETERMINERS, random), "DT", "det", 1),
+                noun("nsubj", 3, random),
+                token("will", "MD", "aux", 3),
+                new String[]{predicate, predicate, "VB", "root", "-1"},
+                token(pick(DETERMINERS, random), "DT", "det", 5),
+                noun("dobj", 3, random),
+                token(pick(PREPOSITIONS, random), "IN", "prep", 3),
+                token(pick(DETERMINERS, random), "DT", "det", 8),
+                noun("pobj", 6, random),
+                token(".", ".", "punct", 3));
+    }
+
+    private static String[] noun(String dep, int head, Random random) {
+        return token(pick(NOUNS, random), "NN", dep, head);
+    }
+
+    private static String[] token(String form, String pos, String dep, int head) {
+        return new String[]{form, form, pos, dep, Integer.toString(head)};
+    }
+
+    private static String pick(List<String> options, Random random) {
+        return options.get(random.nextInt(options.size()));
+    }
+
+    private static boolean available(String resource) {
+        URL url = BenchmarkFixtures.class.getClassLoader().getResource(resource);
+        try {
+            if (url == null) {
+                Path path = Paths.get(resource);
+                if (!Files.exists(path)) {
+                    return false;
+                }
+                url = path.toUri().toURL();
+            }
+            byte[] header = new byte[LFS_POINTER.length()];
+            try (InputStream inputStream = url.openStream()) {
+                int read = inputStream.read(header);
+                return read < header.length || !new String(header, StandardCharsets.UTF_8).equals(LFS_POINTER);
+            }
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private static WordSenseClassifier trainSyntheticModel() {
+        List<NlpFocus<DepNode, DepTree>> instances = new ArrayList<>();
+        for (DepTree tree : trees(syntheticConll(2000))) {
+            for (DepNode token : tree) {
+                if (!token.feature(FeatureType.Pos).equals("VB")) {
+                    continue;
+                }
+                String lemma = token.feature(FeatureType.Lemma);
+                // sense determined by the direct object, so that sub-models have something to learn
+                String sense = String.format("%s.%02d", lemma, objectIndex(token, tree) % 3 + 1);
+                NlpFocus<DepNode, DepTree> instance = new DefaultNlpFocus<>(instances.size(), token, tree);
+                token.addFeature(FeatureType.Predicate, lemma);
+                token.addFeature(FeatureType.Gold, sense);
+                instance.addFeature(FeatureType.Gold, sense);
+                instances.add(instance);
+            }
+        }
+        MultiClassifier<NlpFocus<DepNode, DepTree>, String> multiClassifier = new MultiClassifier<>(
+                (Serializable & Function<NlpFocus<DepNode, DepTree>, String>) i -> i.focus().feature(FeatureType.Predicate),
+                () -> new NlpClassifier<>(new PaClassifier(), syntheticFeatures()));
+        AnnotatingClassifier<NlpFocus<DepNode, DepTree>> classifier = new AnnotatingClassifier<>(multiClassifier,
+                new AggregateAnnotator<>(new ArrayList<>()));
+        WordSenseClassifier result = new WordSenseClassifier(classifier, new CountingSenseInventory(), new LemmaDictionary());
+        result.train(instances, new ArrayList<>());
+        return result;
+    }
+
+    // default VerbNet feature templates, excluding those requiring cluster, DDN or WordNet resources
+    private static FeaturePipeline<NlpFocus<DepNode, DepTree>> syntheticFeatures() {
+        StringExtractor<DepNode> lemma = lowerLemma();
+        StringExtractor<DepNode> dep = lookup(FeatureType.Dep);
+        StringExtractor<DepNode> pos = lookup(FeatureType.Pos);
+        DepContextFactory depContexts = excludingDeps(Sets.newHashSet("punct"));
+        List<FeatureFunction<NlpFocus<DepNode, DepTree>>> features = Arrays.asList(
+                cross(function(depContexts, concat(pos, dep))),
+                function(window(Sets.newHashSet(-2, -1, 1, 2)), Arrays.asList(lemma, pos)),
+                function(depContexts, concat(dep, Arrays.asList(lemma, pos))),
+                function(depContexts, dep),
+                function(head(), Arrays.asList(dep, lemma, pos)),
+                bias());
+        return new DefaultFeaturePipeline<>(new AggregateFeatureFunction<>(features));
+    }
+
+    private static int objectIndex(DepNode verb, DepTree tree) {
+        for (DepNode token : tree) {
+            if (token.head() == verb && token.feature(FeatureType.Dep).equals("dobj")) {
+                return NOUNS.indexOf(token.feature(FeatureType.Text));
+            }
+        }
+        return 0;
+    }
+
+}
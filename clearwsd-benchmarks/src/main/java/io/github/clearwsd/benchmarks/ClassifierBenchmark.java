@@ -0,0 +1,66 @@
+/*
+ * Copyright 2017 James Gung
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.clearwsd.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import io.github.clearwsd.benchmarks.ModelState.SubModelInput;
+import io.github.clearwsd.classifier.LibLinearClassifier;
+import io.github.clearwsd.classifier.PaClassifier;
+
+/**
+ * Sparse classifier benchmarks over pre-extracted features: {@link PaClassifier#score} using the sub-models of the loaded model,
+ * and {@link LibLinearClassifier#classify} using a LibLinear model trained on the features of a single sub-model.
+ *
+ * @author jamesgung
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Thread)
+public class ClassifierBenchmark {
+
+    private int paIndex;
+    private int libLinearIndex;
+
+    @Benchmark
+    public Map<Integer, Double> paScore(ModelState state) {
+        paIndex = (paIndex + 1) % state.inputs().size();
+        SubModelInput input = state.inputs().get(paIndex);
+        return input.classifier().sparseClassifier().score(input.features());
+    }
+
+    @Benchmark
+    public Integer libLinearClassify(ModelState state) {
+        libLinearIndex = (libLinearIndex + 1) % state.libLinearInputs().size();
+        return state.libLinearClassifier().classify(state.libLinearInputs().get(libLinearIndex));
+    }
+
+}
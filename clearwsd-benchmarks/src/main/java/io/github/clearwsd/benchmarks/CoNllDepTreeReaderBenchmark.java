@@ -0,0 +1,97 @@
+/*
+ * Copyright 2017 James Gung
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.clearwsd.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import io.github.clearwsd.corpus.BinaryCorpus;
+import io.github.clearwsd.corpus.CoNllDepTreeReader;
+import io.github.clearwsd.type.DepTree;
+
+/**
+ * {@link CoNllDepTreeReader} benchmark, reading an in-memory corpus of synthetic CoNLL-formatted dependency trees, compared
+ * with reading the same trees from a {@link BinaryCorpus}.
+ *
+ * @author jamesgung
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CoNllDepTreeReaderBenchmark {
+
+    @Param("10000")
+    private int trees;
+    @Param("4")
+    private int threads;
+
+    private byte[] conll;
+    private byte[] binary;
+    private CoNllDepTreeReader reader;
+
+    @Setup
+    public void setup() {
+        conll = BenchmarkFixtures.syntheticConll(trees);
+        reader = new CoNllDepTreeReader();
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        try {
+            BinaryCorpus.write(reader.readInstances(new ByteArrayInputStream(conll)), outputStream);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        binary = outputStream.toByteArray();
+    }
+
+    @Benchmark
+    public List<DepTree> readInstances() {
+        return reader.readInstances(new ByteArrayInputStream(conll));
+    }
+
+    @Benchmark
+    public List<DepTree> readBinaryCorpus() {
+        return BinaryCorpus.read(ByteBuffer.wrap(binary));
+    }
+
+    @Benchmark
+    public List<DepTree> stream() {
+        try (Stream<DepTree> stream = reader.stream(new ByteArrayInputStream(conll), threads, true)) {
+            return stream.collect(Collectors.toList());
+        }
+    }
+
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright 2017 James Gung
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.clearwsd.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+import io.github.clearwsd.benchmarks.ModelState.SubModelInput;
+import io.github.clearwsd.classifier.SparseInstance;
+import io.github.clearwsd.feature.pipeline.DefaultFeaturePipeline;
+
+/**
+ * {@link DefaultFeaturePipeline#process} benchmark, extracting features for feature-annotated focus instances using the feature
+ * pipeline of the sub-model for each instance's predicate.
+ *
+ * @author jamesgung
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Thread)
+public class FeaturePipelineBenchmark {
+
+    private int index;
+
+    @Benchmark
+    public SparseInstance process(ModelState state) {
+        index = (index + 1) % state.inputs().size();
+        SubModelInput input = state.inputs().get(index);
+        return input.classifier().featurePipeline().process(input.instance());
+    }
+
+}
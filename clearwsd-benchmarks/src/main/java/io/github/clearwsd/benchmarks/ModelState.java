@@ -0,0 +1,136 @@
+/*
+ * Copyright 2017 James Gung
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.clearwsd.benchmarks;
+
+import com.google.common.base.Preconditions;
+
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+import io.github.clearwsd.WordSenseAnnotator;
+import io.github.clearwsd.WordSenseClassifier;
+import io.github.clearwsd.classifier.DefaultSparseInstance;
+import io.github.clearwsd.classifier.LibLinearClassifier;
+import io.github.clearwsd.classifier.SparseInstance;
+import io.github.clearwsd.feature.annotator.Annotator;
+import io.github.clearwsd.feature.pipeline.AnnotatingClassifier;
+import io.github.clearwsd.feature.pipeline.NlpClassifier;
+import io.github.clearwsd.type.DefaultNlpFocus;
+import io.github.clearwsd.type.DepNode;
+import io.github.clearwsd.type.DepTree;
+import io.github.clearwsd.type.FeatureType;
+import io.github.clearwsd.type.NlpFocus;
+import io.github.clearwsd.verbnet.DefaultPredicateAnnotator;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.experimental.Accessors;
+
+/**
+ * Benchmark state holding a loaded model and synthetic inputs derived from it: dependency trees containing predicates covered by
+ * the model, and feature-annotated focus instances paired with their sub-models and extracted features.
+ *
+ * @author jamesgung
+ */
+@Getter
+@Accessors(fluent = true)
+@State(Scope.Benchmark)
+public class ModelState {
+
+    /**
+     * Model input paired with the sub-model that classifies it, and its extracted features.
+     */
+    @Getter
+    @Accessors(fluent = true)
+    @AllArgsConstructor
+    public static class SubModelInput {
+        private NlpClassifier<NlpFocus<DepNode, DepTree>> classifier;
+        private NlpFocus<DepNode, DepTree> instance;
+        private SparseInstance features;
+    }
+
+    @Param(BenchmarkFixtures.VERBNET_MODEL)
+    private String model;
+    @Param("1000")
+    private int trees;
+
+    private WordSenseClassifier classifier;
+    private WordSenseAnnotator annotator;
+    private byte[] conll;
+    private List<SubModelInput> inputs;
+    private LibLinearClassifier libLinearClassifier;
+    private List<SparseInstance> libLinearInputs;
+
+    @Setup
+    public void setup() {
+        classifier = BenchmarkFixtures.loadModel(model);
+        annotator = new WordSenseAnnotator(classifier, new DefaultPredicateAnnotator(classifier.predicateDictionary()));
+        AnnotatingClassifier<NlpFocus<DepNode, DepTree>> annotating = BenchmarkFixtures.annotatingClassifier(classifier);
+        Map<String, NlpClassifier<NlpFocus<DepNode, DepTree>>> subModels = BenchmarkFixtures.subModels(annotating);
+        Preconditions.checkState(!subModels.isEmpty(), "Model at %s has no linear sub-models", model);
+
+        conll = BenchmarkFixtures.conll(new ArrayList<>(subModels.keySet()), trees, BenchmarkFixtures.SEED);
+        inputs = inputs(BenchmarkFixtures.trees(conll), subModels, annotating.annotator());
+
+        // train a LibLinear model on the features of the sub-model with the most senses, labeled by the sub-model itself
+        String predicate = Collections.max(subModels.keySet(), Comparator.comparingInt(
+                key -> subModels.get(key).featurePipeline().model().labels().indices().size()));
+        byte[] predicateTrees = BenchmarkFixtures.conll(Collections.singletonList(predicate), trees, BenchmarkFixtures.SEED);
+        libLinearInputs = new ArrayList<>();
+        for (SubModelInput input : inputs(BenchmarkFixtures.trees(predicateTrees), subModels, annotating.annotator())) {
+            int label = input.classifier().sparseClassifier().classify(input.features());
+            libLinearInputs.add(new DefaultSparseInstance(libLinearInputs.size(), label, input.features()));
+        }
+        libLinearClassifier = new LibLinearClassifier();
+        libLinearClassifier.train(libLinearInputs, new ArrayList<>());
+    }
+
+    /**
+     * Return a fresh copy of the synthetic dependency trees, without predicate or sense annotations.
+     */
+    public List<DepTree> parseTrees() {
+        return BenchmarkFixtures.trees(conll);
+    }
+
+    private List<SubModelInput> inputs(List<DepTree> trees, Map<String, NlpClassifier<NlpFocus<DepNode, DepTree>>> subModels,
+                                       Annotator<NlpFocus<DepNode, DepTree>> featureAnnotator) {
+        List<SubModelInput> results = new ArrayList<>();
+        for (DepTree tree : trees) {
+            annotator.targetAnnotator().annotate(tree);
+            for (DepNode token : tree) {
+                String predicate = token.feature(FeatureType.Predicate);
+                if (predicate == null || !subModels.containsKey(predicate)) {
+                    continue;
+                }
+                NlpClassifier<NlpFocus<DepNode, DepTree>> subModel = subModels.get(predicate);
+                NlpFocus<DepNode, DepTree> instance = featureAnnotator.annotate(
+                        new DefaultNlpFocus<>(token.index(), token, tree));
+                results.add(new SubModelInput(subModel, instance, subModel.featurePipeline().process(instance)));
+            }
+        }
+        Preconditions.checkState(!results.isEmpty(), "No synthetic trees contained predicates covered by %s", model);
+        return results;
+    }
+
+}
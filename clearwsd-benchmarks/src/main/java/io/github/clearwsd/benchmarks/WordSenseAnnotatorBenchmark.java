@@ -0,0 +1,64 @@
+/*
+ * Copyright 2017 James Gung
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.clearwsd.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import io.github.clearwsd.WordSenseAnnotator;
+import io.github.clearwsd.type.DepTree;
+
+/**
+ * End-to-end {@link WordSenseAnnotator#annotate} benchmark on pre-parsed dependency trees: predicate identification, feature
+ * annotation, feature extraction and classification of each predicate in a tree.
+ *
+ * @author jamesgung
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Thread)
+public class WordSenseAnnotatorBenchmark {
+
+    private List<DepTree> trees;
+    private int index;
+
+    @Setup
+    public void setup(ModelState state) {
+        trees = state.parseTrees();
+    }
+
+    @Benchmark
+    public DepTree annotate(ModelState state) {
+        index = (index + 1) % trees.size();
+        return state.annotator().annotate(trees.get(index));
+    }
+
+}
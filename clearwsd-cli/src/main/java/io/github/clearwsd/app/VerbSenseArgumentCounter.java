@@ -279,6 +279,7 @@ public class VerbSenseArgumentCounter {
                 .collect(Collectors.toList());
         if (toParse.size() > 0) {
             log.debug("Found {} files ending in {} at {}", toParse.size(), rawExt, corpusPath);
+            // files are parsed in parallel, sharing a single parser, which is threadsafe
             TextCorpusReader reader = new TextCorpusReader(new StanfordDependencyParser());
             toParse.parallelStream().forEach(
                     file -> {
@@ -17,6 +17,7 @@
 package io.github.clearwsd;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 import io.github.clearwsd.parser.NlpParser;
@@ -58,15 +59,28 @@ public abstract class BaseSensePredictor<T> implements ParsingSensePredictor<T>
         for (DepNode token : depTree) {
             String sense = token.feature(FeatureType.Sense);
             if (sense != null) {
-                predictions.add(new DefaultSensePrediction<>(
-                        token.index(),
-                        token.feature(FeatureType.Text),
-                        sense, senseInventory().getSense(sense)));
+                predictions.add(prediction(token, sense));
             }
         }
         return predictions;
     }
 
+    private SensePrediction<T> prediction(DepNode token, String sense) {
+        List<SenseScore> scores = token.feature(FeatureType.SenseScores);
+        if (scores == null || scores.isEmpty() || !sense.equals(scores.get(0).id())) {
+            return new DefaultSensePrediction<>(token.index(), token.feature(FeatureType.Text), sense,
+                    senseInventory().getSense(sense));
+        }
+        List<SensePrediction<T>> alternatives = new ArrayList<>(scores.size());
+        for (SenseScore score : scores) {
+            alternatives.add(new DefaultSensePrediction<>(token.index(), token.feature(FeatureType.Text), score.id(),
+                    senseInventory().getSense(score.id()), score.confidence(), Collections.emptyList()));
+        }
+        SensePrediction<T> top = alternatives.get(0);
+        return new DefaultSensePrediction<>(top.index(), top.originalText(), top.id(), top.sense(), top.confidence(),
+                alternatives);
+    }
+
     /**
      * Return the {@link SenseInventory} associated with this sense predictor.
      */
@@ -16,6 +16,9 @@
 
 package io.github.clearwsd;
 
+import java.util.Collections;
+import java.util.List;
+
 import lombok.AllArgsConstructor;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
@@ -27,7 +30,7 @@ import lombok.experimental.Accessors;
  * @author jamesgung
  */
 @Getter
-@EqualsAndHashCode(exclude = "sense")
+@EqualsAndHashCode(exclude = {"sense", "alternatives"})
 @Accessors(fluent = true)
 @AllArgsConstructor
 public class DefaultSensePrediction<T> implements SensePrediction<T> {
@@ -36,6 +39,12 @@ public class DefaultSensePrediction<T> implements SensePrediction<T> {
     private String originalText;
     private String id;
     private T sense;
+    private double confidence;
+    private List<SensePrediction<T>> alternatives;
+
+    public DefaultSensePrediction(int index, String originalText, String id, T sense) {
+        this(index, originalText, id, sense, Double.NaN, Collections.emptyList());
+    }
 
     @Override
     public String toString() {
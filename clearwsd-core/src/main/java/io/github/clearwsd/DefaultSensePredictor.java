@@ -16,18 +16,52 @@
 
 package io.github.clearwsd;
 
+import com.google.common.base.Preconditions;
+import com.google.common.base.Stopwatch;
+import com.google.common.collect.Iterators;
+import com.google.common.collect.Lists;
+
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import io.github.clearwsd.parser.NlpParser;
 import io.github.clearwsd.type.DepTree;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.experimental.Accessors;
 
 /**
  * Parser wrapper that applies word sense annotations via a {@link WordSenseAnnotator} to inputs following parsing.
+ * <p>
+ * Batches of sentences ({@link #predictBatch(List)}, {@link #predictAll(Stream)}) are split into sub-batches of at most
+ * {@link #batchSize()} sentences. If an {@link Executor} is provided, sub-batches are processed concurrently on that executor,
+ * in which case the underlying parser and annotator must be safe to call from multiple threads. Results are always returned in
+ * input order.
  *
  * @author jamesgung
  */
+@Accessors(fluent = true)
 public class DefaultSensePredictor<T> extends BaseSensePredictor<T> {
 
+    private static final int DEFAULT_BATCH_SIZE = 256;
+
+    @Getter
+    private Executor executor;
+    @Getter
+    private int batchSize = DEFAULT_BATCH_SIZE;
+    @Getter
+    private final PredictionStatistics statistics = new PredictionStatistics();
+
     public DefaultSensePredictor(WordSenseAnnotator annotator, NlpParser dependencyParser) {
         super(annotator, dependencyParser);
     }
@@ -38,6 +72,81 @@ public class DefaultSensePredictor<T> extends BaseSensePredictor<T> {
         return predict(depTree);
     }
 
+    @Override
+    public List<List<SensePrediction<T>>> predictBatch(@NonNull List<List<String>> sentences) {
+        Stopwatch sw = Stopwatch.createStarted();
+        List<List<SensePrediction<T>>> results;
+        if (executor == null || sentences.size() <= batchSize) {
+            results = predictSubBatch(sentences);
+        } else {
+            List<CompletableFuture<List<List<SensePrediction<T>>>>> futures = Lists.partition(sentences, batchSize).stream()
+                    .map(batch -> CompletableFuture.supplyAsync(() -> predictSubBatch(batch), executor))
+                    .collect(Collectors.toList());
+            results = new ArrayList<>(sentences.size());
+            for (CompletableFuture<List<List<SensePrediction<T>>>> future : futures) {
+                results.addAll(join(future));
+            }
+        }
+        statistics.record(sentences.size(),
+                sentences.stream().mapToInt(List::size).sum(),
+                results.stream().mapToInt(List::size).sum(),
+                sw.elapsed(TimeUnit.NANOSECONDS));
+        return results;
+    }
+
+    @Override
+    public Stream<List<SensePrediction<T>>> predictAll(@NonNull Stream<String> sentences) {
+        int chunkSize = executor == null ? batchSize : batchSize * Runtime.getRuntime().availableProcessors();
+        Iterator<List<List<String>>> batches = Iterators.partition(sentences.map(this::tokenize).iterator(), chunkSize);
+        Iterator<List<SensePrediction<T>>> results = Iterators.concat(Iterators.transform(batches,
+                batch -> predictBatch(batch).iterator()));
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(results, Spliterator.ORDERED), false)
+                .onClose(sentences::close);
+    }
+
+    /**
+     * Set the {@link Executor} used to process sub-batches concurrently, or null to process batches on the calling thread.
+     *
+     * @param executor executor for sub-batches
+     * @return this sense predictor
+     */
+    public DefaultSensePredictor<T> executor(Executor executor) {
+        this.executor = executor;
+        return this;
+    }
+
+    /**
+     * Set the maximum number of sentences processed together in a single sub-batch.
+     *
+     * @param batchSize maximum sub-batch size
+     * @return this sense predictor
+     */
+    public DefaultSensePredictor<T> batchSize(int batchSize) {
+        Preconditions.checkArgument(batchSize > 0, "Batch size must be positive, got %s", batchSize);
+        this.batchSize = batchSize;
+        return this;
+    }
+
+    private List<List<SensePrediction<T>>> predictSubBatch(List<List<String>> sentences) {
+        List<DepTree> trees = dependencyParser.parseAll(sentences);
+        List<List<SensePrediction<T>>> results = new ArrayList<>(trees.size());
+        for (DepTree tree : trees) {
+            results.add(predict(annotator.annotate(tree)));
+        }
+        return results;
+    }
+
+    private static <R> R join(CompletableFuture<R> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
     /**
      * Initialize a {@link DefaultSensePredictor} from a classpath resource and parser.
      *
@@ -0,0 +1,125 @@
+/*
+ * Copyright 2017 James Gung
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.clearwsd;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Thread-safe throughput counters for batch sense prediction, used to size batches and executors.
+ *
+ * @author jamesgung
+ */
+public class PredictionStatistics {
+
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder sentences = new LongAdder();
+    private final LongAdder tokens = new LongAdder();
+    private final LongAdder predictions = new LongAdder();
+    private final LongAdder nanos = new LongAdder();
+
+    /**
+     * Record the results of a single batch.
+     *
+     * @param sentences   number of sentences in the batch
+     * @param tokens      number of tokens in the batch
+     * @param predictions number of sense predictions produced for the batch
+     * @param nanos       wall-clock time spent on the batch in nanoseconds
+     */
+    public void record(long sentences, long tokens, long predictions, long nanos) {
+        this.batches.increment();
+        this.sentences.add(sentences);
+        this.tokens.add(tokens);
+        this.predictions.add(predictions);
+        this.nanos.add(nanos);
+    }
+
+    /**
+     * Number of batches processed.
+     */
+    public long batches() {
+        return batches.sum();
+    }
+
+    /**
+     * Number of sentences processed.
+     */
+    public long sentences() {
+        return sentences.sum();
+    }
+
+    /**
+     * Number of tokens processed.
+     */
+    public long tokens() {
+        return tokens.sum();
+    }
+
+    /**
+     * Number of sense predictions produced.
+     */
+    public long predictions() {
+        return predictions.sum();
+    }
+
+    /**
+     * Total wall-clock time spent processing batches, in the given unit.
+     *
+     * @param unit time unit
+     */
+    public long elapsed(TimeUnit unit) {
+        return unit.convert(nanos.sum(), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Sentences processed per second of batch processing time.
+     */
+    public double sentencesPerSecond() {
+        return perSecond(sentences());
+    }
+
+    /**
+     * Sense predictions produced per second of batch processing time.
+     */
+    public double predictionsPerSecond() {
+        return perSecond(predictions());
+    }
+
+    /**
+     * Clear all counters.
+     */
+    public void reset() {
+        batches.reset();
+        sentences.reset();
+        tokens.reset();
+        predictions.reset();
+        nanos.reset();
+    }
+
+    private double perSecond(long count) {
+        long elapsed = nanos.sum();
+        return elapsed == 0 ? 0 : count / (elapsed / 1e9);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d batches, %d sentences, %d tokens, %d predictions in %d ms (%.1f sentences/s, %.1f predictions/s)",
+                batches(), sentences(), tokens(), predictions(), elapsed(TimeUnit.MILLISECONDS),
+                sentencesPerSecond(), predictionsPerSecond());
+    }
+
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright 2017 James Gung
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.clearwsd;
+
+import java.io.Serializable;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.experimental.Accessors;
+
+/**
+ * Candidate sense of a word with its classifier score and confidence, produced by
+ * {@link WordSenseClassifier#classify(io.github.clearwsd.type.NlpFocus, int)}.
+ *
+ * @author jamesgung
+ */
+@Getter
+@EqualsAndHashCode
+@Accessors(fluent = true)
+@AllArgsConstructor
+public class SenseScore implements Serializable {
+
+    private static final long serialVersionUID = -3307472095219853312L;
+
+    /**
+     * Sense identifier.
+     */
+    private String id;
+    /**
+     * Raw classifier score, or {@link Double#NaN} for a default sense that was not scored.
+     */
+    private double score;
+    /**
+     * Softmax-normalized score over all scored candidate senses of the word.
+     */
+    private double confidence;
+
+    @Override
+    public String toString() {
+        return String.format("%s (%.4f)", id, confidence);
+    }
+
+}
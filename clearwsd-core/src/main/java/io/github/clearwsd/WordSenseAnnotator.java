@@ -16,6 +16,8 @@
 
 package io.github.clearwsd;
 
+import java.util.List;
+
 import io.github.clearwsd.classifier.Classifier;
 import io.github.clearwsd.feature.annotator.Annotator;
 import io.github.clearwsd.type.DefaultNlpFocus;
@@ -32,7 +34,8 @@ import lombok.experimental.Accessors;
 /**
  * Annotates a dependency tree with word sense annotations. Identifies word sense candidates using a target annotator,
  * and classifies each target word. This can be used to, for example, filter out auxiliary verbs as candidates for sense annotation.
- * Applies {@link FeatureType#Sense} annotations by default, but this is configurable.
+ * Applies {@link FeatureType#Sense} annotations by default, but this is configurable. The {@link #topK() top-scoring} candidate
+ * senses of each target word, with their confidences, are added as a {@link FeatureType#SenseScores} annotation.
  *
  * @author jamesgung
  */
@@ -47,6 +50,11 @@ public class WordSenseAnnotator implements Annotator<DepTree> {
 
     @Setter
     private String annotationType = FeatureType.Sense.name();
+    /**
+     * Maximum number of ranked candidate senses recorded for each target word.
+     */
+    @Setter
+    private int topK = 1;
 
     /**
      * Initialize an {@link WordSenseAnnotator} with a given sense {@link Classifier} and {@link Annotator} used to identify
@@ -69,7 +77,10 @@ public class WordSenseAnnotator implements Annotator<DepTree> {
             String predicate = token.feature(FeatureType.Predicate);
             if (predicate != null) {
                 NlpFocus<DepNode, DepTree> input = new DefaultNlpFocus<>(token.index(), token, instance);
-                token.addFeature(annotationType, classifier.classify(input));
+                // annotators deserialized from older versions have no top-k setting
+                List<SenseScore> senses = classifier.classify(input, Math.max(topK, 1));
+                token.addFeature(annotationType, senses.isEmpty() ? null : senses.get(0).id());
+                token.addFeature(FeatureType.SenseScores, senses);
             }
         }
         return instance;
@@ -80,6 +91,23 @@ public class WordSenseAnnotator implements Annotator<DepTree> {
         return targetAnnotator.initialized();
     }
 
+    /**
+     * Return a read-only snapshot of this annotator, using a {@link WordSenseClassifier#freeze() frozen} classifier. The snapshot
+     * can be shared by any number of threads without locking, provided that the target annotator does not modify shared state.
+     * A {@link DefaultPredicateAnnotator} using the classifier's predicate dictionary is rebound to the frozen dictionary.
+     *
+     * @return frozen word sense annotator
+     */
+    public WordSenseAnnotator freeze() {
+        WordSenseClassifier frozen = classifier.freeze();
+        Annotator<DepTree> target = targetAnnotator;
+        if (target instanceof DefaultPredicateAnnotator
+                && ((DefaultPredicateAnnotator) target).getDictionary() == classifier.predicateDictionary()) {
+            target = new DefaultPredicateAnnotator(frozen.predicateDictionary());
+        }
+        return new WordSenseAnnotator(frozen, target).annotationType(annotationType).topK(topK);
+    }
+
     /**
      * Return the {@link SenseInventory} associated with this annotator.
      */
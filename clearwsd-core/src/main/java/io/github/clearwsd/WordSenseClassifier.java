@@ -16,12 +16,19 @@
 
 package io.github.clearwsd;
 
+import com.google.common.base.Preconditions;
+import com.google.common.io.ByteStreams;
+
+import java.io.BufferedInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -31,13 +38,14 @@ import java.util.stream.Stream;
 
 import io.github.clearwsd.classifier.Classifier;
 import io.github.clearwsd.classifier.Hyperparameter;
+import io.github.clearwsd.io.BinaryModelFormat;
+import io.github.clearwsd.io.BinaryModelReader;
 import io.github.clearwsd.type.DepNode;
 import io.github.clearwsd.type.DepTree;
 import io.github.clearwsd.type.FeatureType;
 import io.github.clearwsd.type.NlpFocus;
 import io.github.clearwsd.utils.LemmaDictionary;
 import io.github.clearwsd.utils.SenseInventory;
-import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.experimental.Accessors;
 import lombok.extern.slf4j.Slf4j;
@@ -52,7 +60,6 @@ import static io.github.clearwsd.type.FeatureType.Predicate;
 @Slf4j
 @Getter
 @Accessors(fluent = true)
-@AllArgsConstructor
 public class WordSenseClassifier implements Classifier<NlpFocus<DepNode, DepTree>, String> {
 
     private static final long serialVersionUID = -7555582268789530929L;
@@ -60,6 +67,14 @@ public class WordSenseClassifier implements Classifier<NlpFocus<DepNode, DepTree
     private Classifier<NlpFocus<DepNode, DepTree>, String> classifier;
     private SenseInventory<?> senseInventory;
     private LemmaDictionary predicateDictionary;
+    private boolean frozen;
+
+    public WordSenseClassifier(Classifier<NlpFocus<DepNode, DepTree>, String> classifier, SenseInventory<?> senseInventory,
+                               LemmaDictionary predicateDictionary) {
+        this.classifier = classifier;
+        this.senseInventory = senseInventory;
+        this.predicateDictionary = predicateDictionary;
+    }
 
     public WordSenseClassifier(ObjectInputStream is) {
         load(is);
@@ -67,15 +82,67 @@ public class WordSenseClassifier implements Classifier<NlpFocus<DepNode, DepTree
 
     @Override
     public String classify(NlpFocus<DepNode, DepTree> instance) {
+        List<SenseScore> senses = classify(instance, 1);
+        // highest scoring sense for a given predicate, or the default sense for the predicate
+        return senses.isEmpty() ? null : senses.get(0).id();
+    }
+
+    /**
+     * Return up to {@code k} highest scoring senses of an input instance, restricted to the candidate senses of its predicate in
+     * the sense inventory, in descending order of score. Confidences are softmax-normalized over all scored candidate senses.
+     * Scores are computed once, and candidates are selected in a single pass without sorting all labels. If no candidate sense
+     * is scored, the predicate's default sense is returned with a confidence of 1 (or nothing, if there is no default sense).
+     *
+     * @param instance input instance
+     * @param k        maximum number of senses to return
+     * @return top {@code k} senses
+     */
+    public List<SenseScore> classify(NlpFocus<DepNode, DepTree> instance, int k) {
+        Preconditions.checkArgument(k > 0, "Number of senses must be positive, got %s", k);
         String lemma = instance.focus().feature(Predicate);
         Set<String> options = senseInventory.senses(lemma);
         Map<String, Double> scores = classifier.score(instance);
-        return scores.entrySet().stream()
-                .filter(e -> options.contains(e.getKey()))
-                .sorted((e1, e2) -> Double.compare(e2.getValue(), e1.getValue()))
-                .map(Map.Entry::getKey)
-                .findFirst() // get highest scoring sense for a given predicate
-                .orElse(senseInventory.defaultSense(lemma)); // or return the default sense for the predicate
+
+        String[] ids = new String[k];
+        double[] top = new double[k];
+        int size = 0;
+        // running maximum and sum of exp(score - max) for the softmax normalizer
+        double max = Double.NEGATIVE_INFINITY;
+        double sum = 0;
+        for (Map.Entry<String, Double> entry : scores.entrySet()) {
+            if (!options.contains(entry.getKey())) {
+                continue;
+            }
+            double score = entry.getValue();
+            if (score > max) {
+                sum = sum * Math.exp(max - score) + 1;
+                max = score;
+            } else {
+                sum += Math.exp(score - max);
+            }
+            // insert into the fixed-size ranking, keeping earlier entries first among ties
+            if (size < k || score > top[size - 1]) {
+                int position = size < k ? size++ : size - 1;
+                while (position > 0 && score > top[position - 1]) {
+                    ids[position] = ids[position - 1];
+                    top[position] = top[position - 1];
+                    --position;
+                }
+                ids[position] = entry.getKey();
+                top[position] = score;
+            }
+        }
+
+        if (size == 0) {
+            String defaultSense = senseInventory.defaultSense(lemma);
+            return defaultSense == null ? Collections.emptyList()
+                    : Collections.singletonList(new SenseScore(defaultSense, Double.NaN, 1));
+        }
+        List<SenseScore> results = new ArrayList<>(size);
+        for (int i = 0; i < size; ++i) {
+            results.add(new SenseScore(ids[i], top[i], Math.exp(top[i] - max) / sum));
+        }
+        return results;
     }
 
     @Override
@@ -85,6 +152,7 @@ public class WordSenseClassifier implements Classifier<NlpFocus<DepNode, DepTree
 
     @Override
     public void train(List<NlpFocus<DepNode, DepTree>> train, List<NlpFocus<DepNode, DepTree>> valid) {
+        Preconditions.checkState(!frozen, "Frozen classifiers cannot be trained.");
         predicateDictionary.train(true);
         Set<String> missingSenses = new HashSet<>();
         Stream.concat(train.stream(), valid.stream()).forEach(instance -> {
@@ -112,6 +180,21 @@ public class WordSenseClassifier implements Classifier<NlpFocus<DepNode, DepTree
         classifier.initialize(properties);
     }
 
+    /**
+     * Return a read-only snapshot of this classifier, sense inventory and predicate dictionary. The snapshot can be shared by any
+     * number of threads for classification without locking, is unaffected by subsequent training of this classifier, and cannot
+     * itself be trained. Lazily loaded sub-models are decoded up front.
+     *
+     * @return frozen word sense classifier
+     */
+    @Override
+    public WordSenseClassifier freeze() {
+        WordSenseClassifier frozen = new WordSenseClassifier(classifier.freeze(), senseInventory.freeze(),
+                predicateDictionary.freeze());
+        frozen.frozen = true;
+        return frozen;
+    }
+
     @Override
     public void load(ObjectInputStream inputStream) {
         try {
@@ -136,14 +219,22 @@ public class WordSenseClassifier implements Classifier<NlpFocus<DepNode, DepTree
     }
 
     /**
-     * Load/initialize a word sense classifier from a provided {@link URL}.
+     * Load/initialize a word sense classifier from a provided {@link URL}. Models in the {@link BinaryModelFormat binary model
+     * format} are detected automatically, otherwise the model is read using Java serialization.
      *
      * @param path path to classifier model
      * @return initialized word sense classifier
      */
     public static WordSenseClassifier load(URL path) {
-        try (ObjectInputStream objectInputStream = new ObjectInputStream(path.openStream())) {
-            return new WordSenseClassifier(objectInputStream);
+        try (InputStream inputStream = new BufferedInputStream(path.openStream())) {
+            byte[] header = new byte[Integer.BYTES];
+            inputStream.mark(header.length);
+            int read = ByteStreams.read(inputStream, header, 0, header.length);
+            if (read == header.length && BinaryModelFormat.isBinaryModel(header)) {
+                return BinaryModelReader.read(path);
+            }
+            inputStream.reset();
+            return new WordSenseClassifier(new ObjectInputStream(inputStream));
         } catch (IOException e) {
             throw new RuntimeException("Unable to load classifier model at " + path.getPath() + ": " + e.getMessage(), e);
         }
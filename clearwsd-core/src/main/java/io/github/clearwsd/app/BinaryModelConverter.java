@@ -0,0 +1,116 @@
+/*
+ * Copyright 2017 James Gung
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.clearwsd.app;
+
+import com.google.common.base.Stopwatch;
+
+import com.beust.jcommander.JCommander;
+import com.beust.jcommander.Parameter;
+import com.beust.jcommander.ParameterException;
+
+import java.io.IOException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+
+import io.github.clearwsd.WordSenseClassifier;
+import io.github.clearwsd.io.BinaryModelWriter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Converts Java-serialized word sense classifier models to the binary model format, optionally comparing load time, file size,
+ * and heap usage after loading of both formats.
+ *
+ * @author jamesgung
+ */
+@Slf4j
+public class BinaryModelConverter {
+
+    @Parameter(names = {"-input", "-i"}, description = "Path to existing (Java-serialized) model", required = true)
+    private String inputPath;
+    @Parameter(names = {"-output", "-o"}, description = "Path to converted binary model (defaults to input path + .cwsd)")
+    private String outputPath;
+    @Parameter(names = "--benchmark", description = "Compare load time and heap usage of the original and converted models")
+    private Boolean benchmark = false;
+    @Parameter(names = "-trials", description = "Number of load trials per model when benchmarking")
+    private Integer trials = 5;
+
+    private BinaryModelConverter(String... args) {
+        JCommander cmd = new JCommander(this);
+        cmd.setProgramName(BinaryModelConverter.class.getSimpleName());
+        try {
+            cmd.parse(args);
+        } catch (ParameterException e) {
+            System.err.println(e.getMessage());
+            cmd.usage();
+            System.exit(1);
+        }
+    }
+
+    private void run() throws IOException {
+        Path input = Paths.get(inputPath);
+        Path output = Paths.get(outputPath == null ? inputPath + ".cwsd" : outputPath);
+
+        log.info("Loading model from {}", input);
+        WordSenseClassifier classifier = WordSenseClassifier.load(input.toUri().toURL());
+        log.info("Writing binary model to {}", output);
+        BinaryModelWriter.write(classifier, output);
+        log.info("Converted model ({} bytes -> {} bytes)", Files.size(input), Files.size(output));
+
+        if (benchmark) {
+            //noinspection UnusedAssignment
+            classifier = null;
+            benchmark(input.toUri().toURL());
+            benchmark(output.toUri().toURL());
+        }
+    }
+
+    private void benchmark(URL model) {
+        long baseline = usedMemory();
+        long totalNanos = 0;
+        WordSenseClassifier classifier = null;
+        for (int i = 0; i < trials; ++i) {
+            //noinspection UnusedAssignment
+            classifier = null;
+            usedMemory();
+            Stopwatch stopwatch = Stopwatch.createStarted();
+            classifier = WordSenseClassifier.load(model);
+            totalNanos += stopwatch.elapsed(TimeUnit.NANOSECONDS);
+        }
+        long retained = usedMemory() - baseline;
+        if (classifier == null) { // keep the last loaded model reachable until memory is measured
+            throw new IllegalStateException("No model loaded");
+        }
+        log.info("{}: mean load time {} ms over {} trials, ~{} MB retained after load", model.getPath(),
+                TimeUnit.NANOSECONDS.toMillis(totalNanos / Math.max(1, trials)), trials, retained / (1024 * 1024));
+    }
+
+    private static long usedMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; ++i) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    public static void main(String... args) throws IOException {
+        new BinaryModelConverter(args).run();
+    }
+
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2017 James Gung
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.clearwsd.app;
+
+import com.beust.jcommander.JCommander;
+import com.beust.jcommander.Parameter;
+import com.beust.jcommander.ParameterException;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import io.github.clearwsd.feature.extractor.string.LowercaseFunction;
+import io.github.clearwsd.feature.resource.BrownClusterResourceInitializer;
+import io.github.clearwsd.feature.resource.CompiledMultimap;
+import io.github.clearwsd.feature.resource.DefaultTsvResourceInitializer;
+import io.github.clearwsd.feature.resource.TsvResourceInitializer;
+import io.github.clearwsd.verbnet.DefaultVerbNetClassifier;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Compiles TSV feature resources (e.g. word clusters) to the memory-mapped {@link CompiledMultimap} format. Without an input path,
+ * compiles all resources used by {@link DefaultVerbNetClassifier} to an output resource directory.
+ *
+ * @author jamesgung
+ */
+@Slf4j
+public class ResourceCompiler {
+
+    @Parameter(names = {"-input", "-i"}, description = "Path to a single TSV resource (compiles all VerbNet resources if omitted)")
+    private String inputPath;
+    @Parameter(names = {"-output", "-o"}, description = "Path to compiled resource (defaults to input path + .cwsr), or output "
+            + "resource directory when compiling VerbNet resources")
+    private String outputPath;
+    @Parameter(names = "--lowercase", description = "Lowercase keys of a single TSV resource")
+    private Boolean lowercase = false;
+    @Parameter(names = "--brown", description = "Read a single TSV resource as Brown clusters (bit string, word, count)")
+    private Boolean brown = false;
+
+    private ResourceCompiler(String... args) {
+        JCommander cmd = new JCommander(this);
+        cmd.setProgramName(ResourceCompiler.class.getSimpleName());
+        try {
+            cmd.parse(args);
+        } catch (ParameterException e) {
+            System.err.println(e.getMessage());
+            cmd.usage();
+            System.exit(1);
+        }
+    }
+
+    private void run() throws IOException {
+        if (inputPath == null) {
+            if (outputPath == null) {
+                throw new IllegalArgumentException("An output resource directory is required to compile VerbNet resources");
+            }
+            DefaultVerbNetClassifier.compileResources(Paths.get(outputPath));
+            return;
+        }
+        Path input = Paths.get(inputPath);
+        TsvResourceInitializer<String> initializer = brown
+                ? new BrownClusterResourceInitializer<>(BrownClusterResourceInitializer.BWC_KEY, input.toUri().toURL())
+                : new DefaultTsvResourceInitializer<>(input.getFileName().toString(), input.toUri().toURL());
+        if (lowercase) {
+            initializer.keyFunction(new LowercaseFunction());
+        }
+        Path output = Paths.get(outputPath == null ? inputPath + CompiledMultimap.EXTENSION : outputPath);
+        try (OutputStream outputStream = Files.newOutputStream(output)) {
+            initializer.compile(outputStream);
+        }
+        log.info("Compiled {} ({} bytes -> {} bytes)", input, Files.size(input), Files.size(output));
+    }
+
+    public static void main(String... args) throws IOException {
+        new ResourceCompiler(args).run();
+    }
+
+}
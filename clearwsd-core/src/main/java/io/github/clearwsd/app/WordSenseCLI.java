@@ -29,7 +29,6 @@ import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.io.OutputStream;
 import java.nio.charset.Charset;
@@ -49,6 +48,7 @@ import java.util.stream.Collectors;
 import io.github.clearwsd.DefaultSensePredictor;
 import io.github.clearwsd.WordSenseAnnotator;
 import io.github.clearwsd.WordSenseClassifier;
+import io.github.clearwsd.corpus.BinaryCorpus;
 import io.github.clearwsd.corpus.CoNllDepTreeReader;
 import io.github.clearwsd.corpus.CorpusReader;
 import io.github.clearwsd.corpus.LemmaMappingCorpusReader;
@@ -60,6 +60,8 @@ import io.github.clearwsd.corpus.semlink.VerbNetReader;
 import io.github.clearwsd.eval.CrossValidation;
 import io.github.clearwsd.eval.Evaluation;
 import io.github.clearwsd.eval.Predictions;
+import io.github.clearwsd.io.BinaryModelWriter;
+import io.github.clearwsd.parser.CachingParser;
 import io.github.clearwsd.parser.NlpParser;
 import io.github.clearwsd.parser.WhitespaceTokenizer;
 import io.github.clearwsd.type.DepNode;
@@ -180,6 +182,15 @@ public abstract class WordSenseCLI {
     private Boolean reparse = false;
     @Parameter(names = "-ext", description = "Parse file extension, appended to input file names to save parses")
     private String parseSuffix = ".dep";
+    @Parameter(names = "--cache", description = "Cache parsed instances in a binary corpus (input file name + .cwtc), which is "
+            + "reloaded on subsequent runs unless the input file is newer")
+    private Boolean binaryCache = false;
+    @Parameter(names = "-parseCache", description = "Directory of a persistent parse cache shared across inputs and runs")
+    private String parseCachePath;
+
+    @Parameter(names = "--serialized", description = "Save models using Java serialization instead of the binary model format",
+            hidden = true)
+    private Boolean serializedModel = false;
 
     @Parameter(names = "--om", description = "Output misses on evaluation data in separate files")
     private Boolean outputMisses = false;
@@ -189,6 +200,9 @@ public abstract class WordSenseCLI {
     @Parameter(names = {"-valid", "-dev", "-v"}, description = "Path to validation data", order = 3)
     private String validPath;
 
+    @Parameter(names = "-threads", description = "Number of threads used to train per-lemma models")
+    private Integer threads = 1;
+
     @Parameter(names = "-seed", description = "Random seed for cross-validation fold selection", hidden = true)
     private Integer seed = 0;
     @Parameter(names = {"-cv", "-folds"}, description = "Number of cross-validation folds", order = 5)
@@ -252,6 +266,14 @@ public abstract class WordSenseCLI {
 
     protected abstract NlpParser parser();
 
+    /**
+     * Identifier of the parser returned by {@link #parser()}, its models, and its configuration, used to key the persistent parse
+     * cache, so that parses from a different parser or model are never reused.
+     *
+     * @return parser ID
+     */
+    protected abstract String parserId();
+
     public void run() {
         try {
             checkParameters();     // (1) validate parameters
@@ -419,7 +441,7 @@ public abstract class WordSenseCLI {
             outputPath = inputPath + ".vn.txt";
             log.warn("No output path provided, saving predictions to {}", outputPath);
         }
-        WordSenseAnnotator annotator = getAnnotator();
+        WordSenseAnnotator annotator = getAnnotator().freeze();
         List<DepTree> instances = getParseTrees(inputPath,
                 parsed(inputPath) ? new CoNllDepTreeReader() : new TextCorpusReader(getParser()));
         log.info("Applying word sense annotator at {} to {} instances", modelPath, instances.size());
@@ -460,6 +482,9 @@ public abstract class WordSenseCLI {
             Stopwatch sw = Stopwatch.createStarted();
             parser = parser();
             log.debug("Initialized parser in {}", sw);
+            if (parseCachePath != null) {
+                parser = new CachingParser(parser, Paths.get(parseCachePath), parserId());
+            }
         }
         return parser;
     }
@@ -474,15 +499,16 @@ public abstract class WordSenseCLI {
     private WordSenseClassifier newClassifier() {
         SenseInventory inventory = senseInventoryPath != null ? senseInventory.senseInventory(senseInventoryPath)
                 : senseInventory.senseInventory();
-        return new WordSenseClassifier(new DefaultVerbNetClassifier(), inventory, new LemmaDictionary());
+        return new WordSenseClassifier(new DefaultVerbNetClassifier().threads(threads), inventory, new LemmaDictionary());
     }
 
     private WordSenseClassifier loadClassifier() {
         log.info("Loading saved classifier model from {}", modelPath);
-        try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream(modelPath))) {
-            return new WordSenseClassifier(ois);
-        } catch (FileNotFoundException e) {
-            throw new RuntimeException("Unable to locate model at path " + modelPath, e);
+        if (!new File(modelPath).exists()) {
+            throw new RuntimeException("Unable to locate model at path " + modelPath);
+        }
+        try {
+            return WordSenseClassifier.load(Paths.get(modelPath).toUri().toURL());
         } catch (Exception e) {
             throw new RuntimeException("Unable to load word sense classifier model: " + e.getMessage(), e);
         }
@@ -490,16 +516,45 @@ public abstract class WordSenseCLI {
 
     private void saveClassifier() {
         log.info("Saving trained classifier model to {}", modelPath);
-        try (ObjectOutputStream ois = new ObjectOutputStream(new FileOutputStream(modelPath))) {
-            classifier.save(ois);
-        } catch (FileNotFoundException e) {
-            throw new RuntimeException("Unable to save model to path " + modelPath, e);
-        } catch (Exception e) {
-            throw new RuntimeException("Unable to save word sense classifier model: " + e.getMessage(), e);
+        if (serializedModel) {
+            try (ObjectOutputStream ois = new ObjectOutputStream(new FileOutputStream(modelPath))) {
+                classifier.save(ois);
+            } catch (FileNotFoundException e) {
+                throw new RuntimeException("Unable to save model to path " + modelPath, e);
+            } catch (Exception e) {
+                throw new RuntimeException("Unable to save word sense classifier model: " + e.getMessage(), e);
+            }
+            return;
         }
+        BinaryModelWriter.write(classifier, Paths.get(modelPath));
     }
 
     private <T extends NlpInstance> List<T> getParseTrees(String path, CorpusReader<T> reader) {
+        // cached instances depend on lemma filters and sense mappings, so are only used without them
+        boolean cacheable = binaryCache && lemmas.isEmpty() && mappingsPath == null;
+        Path cachePath = Paths.get(path + BinaryCorpus.EXTENSION);
+        try {
+            if (cacheable && !reparse && Files.exists(cachePath)
+                    && Files.getLastModifiedTime(cachePath).compareTo(Files.getLastModifiedTime(Paths.get(path))) >= 0) {
+                log.info("Loading cached instances from {}", cachePath);
+                return BinaryCorpus.read(cachePath);
+            }
+        } catch (IOException e) {
+            log.warn("Unable to read cached instances at {}", cachePath, e);
+        }
+        List<T> instances = readParseTrees(path, reader);
+        if (cacheable) {
+            try {
+                log.info("Caching parsed instances to {}", cachePath);
+                BinaryCorpus.write(instances, cachePath);
+            } catch (RuntimeException e) {
+                log.warn("Unable to cache parsed instances", e);
+            }
+        }
+        return instances;
+    }
+
+    private <T extends NlpInstance> List<T> readParseTrees(String path, CorpusReader<T> reader) {
         boolean save = reparse || !parsed(path);
         try (InputStream inputStream = new FileInputStream(path)) {
             List<T> instances = reader.readInstances(inputStream, lemmas);
@@ -96,4 +96,16 @@ public interface Classifier<U, O> extends Serializable {
      */
     void save(ObjectOutputStream outputStream);
 
+    /**
+     * Return a read-only snapshot of this classifier for inference. The snapshot must not be trained, and may be shared by any
+     * number of threads calling {@link #classify(Object)} and {@link #score(Object)} without external synchronization. Later
+     * training of this classifier does not affect the snapshot. Classifiers that never change state outside of training may
+     * return themselves.
+     *
+     * @return frozen classifier
+     */
+    default Classifier<U, O> freeze() {
+        return this;
+    }
+
 }
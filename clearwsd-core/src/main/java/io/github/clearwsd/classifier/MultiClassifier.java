@@ -16,28 +16,43 @@
 
 package io.github.clearwsd.classifier;
 
-import com.google.common.collect.ImmutableList;
+import com.google.common.base.Preconditions;
+import com.google.common.base.Stopwatch;
 import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Multimaps;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
 import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
+import lombok.Getter;
+import lombok.experimental.Accessors;
 import lombok.extern.slf4j.Slf4j;
 
 /**
- * Multi-model classifier. Given a key function, map inputs onto sub-models, specialized for the input types.
+ * Multi-model classifier. Given a key function, map inputs onto sub-models, specialized for the input types. Sub-models are
+ * independent, and can be {@link #threads(int) trained in parallel}.
  *
  * @author jamesgung
  */
 @Slf4j
+@Accessors(fluent = true)
 public class MultiClassifier<U, V> implements Classifier<U, V> {
 
     private static final long serialVersionUID = 2665985487749568860L;
@@ -45,6 +60,9 @@ public class MultiClassifier<U, V> implements Classifier<U, V> {
     private Function<U, String> keyFunction;
     private transient Supplier<Classifier<U, V>> prototypeClassifier;
     private Map<String, Classifier<U, V>> classifierMap;
+    private boolean frozen;
+    @Getter
+    private transient int threads = 1;
 
     /**
      * Instantiate a multi-model classifier with a function used to determine which sub-model to apply to a given istanceinstance.
@@ -79,29 +97,108 @@ public class MultiClassifier<U, V> implements Classifier<U, V> {
 
     @Override
     public void train(List<U> train, List<U> valid) {
+        Preconditions.checkState(!frozen, "Frozen classifiers cannot be trained.");
         ImmutableListMultimap<String, U> trainSplits = Multimaps.index(train, keyFunction::apply);
         ImmutableListMultimap<String, U> validSplits = Multimaps.index(valid, keyFunction::apply);
-        int numCategories = trainSplits.keySet().size();
-        int index = 1;
-        for (String category : trainSplits.keySet().stream().sorted(String::compareTo).collect(Collectors.toList())) {
-            ImmutableList<U> trainCat = trainSplits.get(category);
-            ImmutableList<U> validCat = validSplits.get(category);
-            Classifier<U, V> classifier = prototypeClassifier.get();
-            if (numCategories > 1) {
-                log.debug("Training model {} of {} for \"{}\"", index++, numCategories, category);
-            } else {
-                log.debug("Training model for \"{}\"", category);
+        // schedule the largest sub-models first, so that they do not hold up completion when training in parallel
+        List<String> categories = trainSplits.keySet().stream()
+                .sorted(Comparator.<String>comparingInt(category -> trainSplits.get(category).size()).reversed()
+                        .thenComparing(Comparator.naturalOrder()))
+                .collect(Collectors.toList());
+        Map<String, Classifier<U, V>> classifiers = new LinkedHashMap<>();
+        for (String category : categories) {
+            classifiers.put(category, prototypeClassifier.get());
+        }
+
+        Stopwatch stopwatch = Stopwatch.createStarted();
+        int parallelism = Math.min(Math.max(threads, 1), categories.size());
+        AtomicInteger completed = new AtomicInteger();
+        if (parallelism <= 1) {
+            classifiers.forEach((category, classifier) -> train(category, classifier, trainSplits.get(category),
+                    validSplits.get(category), completed, classifiers.size()));
+        } else {
+            ExecutorService executor = Executors.newFixedThreadPool(parallelism, new ThreadFactoryBuilder()
+                    .setNameFormat("multi-classifier-%d")
+                    .setDaemon(true)
+                    .build());
+            try {
+                List<Future<?>> futures = classifiers.entrySet().stream()
+                        .map(e -> executor.submit(() -> train(e.getKey(), e.getValue(), trainSplits.get(e.getKey()),
+                                validSplits.get(e.getKey()), completed, classifiers.size())))
+                        .collect(Collectors.toList());
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Interrupted while training sub-models.", e);
+            } catch (ExecutionException e) {
+                throw new RuntimeException("An error occurred while training sub-models: " + e.getCause().getMessage(),
+                        e.getCause());
+            } finally {
+                executor.shutdownNow();
             }
-            classifier.train(trainCat, validCat);
-            classifierMap.put(category, classifier);
+        }
+        classifierMap.putAll(classifiers);
+        if (categories.size() > 1) {
+            log.debug("Trained {} models in {} using {} thread(s)", categories.size(), stopwatch, parallelism);
+        }
+    }
+
+    private void train(String category, Classifier<U, V> classifier, List<U> train, List<U> valid, AtomicInteger completed,
+                       int total) {
+        Stopwatch stopwatch = Stopwatch.createStarted();
+        classifier.train(train, valid);
+        int index = completed.incrementAndGet();
+        if (total > 1) {
+            log.debug("Trained model {} of {} for \"{}\" ({} instances) in {}", index, total, category, train.size(), stopwatch);
+        } else {
+            log.debug("Trained model for \"{}\" ({} instances) in {}", category, train.size(), stopwatch);
         }
     }
 
+    /**
+     * Set the number of threads used to train sub-models. Sub-models are trained independently, so the resulting model does not
+     * depend on the number of threads, provided that sub-models do not share mutable state during training.
+     *
+     * @param threads number of training threads, 1 to train sub-models sequentially
+     * @return this classifier
+     */
+    public MultiClassifier<U, V> threads(int threads) {
+        Preconditions.checkArgument(threads > 0, "Number of threads must be positive: %s", threads);
+        this.threads = threads;
+        return this;
+    }
+
+    /**
+     * Return an unmodifiable view of the sub-models of this classifier, by key. Sub-models read from a binary model may be
+     * placeholders that are decoded on first use.
+     *
+     * @return map from keys to sub-models
+     */
+    public Map<String, Classifier<U, V>> classifiers() {
+        return Collections.unmodifiableMap(classifierMap);
+    }
+
     @Override
     public List<Hyperparameter> hyperparameters() {
         return prototypeClassifier.get().hyperparameters();
     }
 
+    /**
+     * Return a snapshot of this classifier with an immutable map of frozen sub-models. Lazily loaded sub-models are not decoded,
+     * and remain subject to eviction from their model store.
+     */
+    @Override
+    public MultiClassifier<U, V> freeze() {
+        ImmutableMap.Builder<String, Classifier<U, V>> classifiers = ImmutableMap.builder();
+        classifierMap.forEach((key, classifier) -> classifiers.put(key, classifier.freeze()));
+        MultiClassifier<U, V> frozen = new MultiClassifier<>(keyFunction, prototypeClassifier);
+        frozen.classifierMap = classifiers.build();
+        frozen.frozen = true;
+        return frozen;
+    }
+
     @Override
     public void load(ObjectInputStream inputStream) {
         try {
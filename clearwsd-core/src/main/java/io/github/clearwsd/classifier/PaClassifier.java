@@ -16,6 +16,7 @@
 
 package io.github.clearwsd.classifier;
 
+import com.google.common.base.Preconditions;
 import com.google.common.base.Stopwatch;
 
 import java.io.IOException;
@@ -31,9 +32,11 @@ import java.util.Random;
 import java.util.Set;
 import java.util.function.BiConsumer;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 import io.github.clearwsd.eval.Evaluation;
+import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.Setter;
@@ -41,7 +44,11 @@ import lombok.experimental.Accessors;
 import lombok.extern.slf4j.Slf4j;
 
 /**
- * Multi-class passive aggressive classifier (PA-I).
+ * Multi-class passive aggressive classifier (PA-I). After training (or loading), weights are compacted into a single label-major
+ * matrix used for inference, see {@link #scoreInto(SparseVector, float[])}. Scores are only computed in multiple threads when the
+ * number of labels times the number of active features reaches {@link PaParameter#ParallelThreshold}, since fork/join overhead
+ * dominates for the small per-lemma models this classifier is typically used for. Per-label parameters are only retained during
+ * training, and are otherwise re-computed from the compact form on demand (see {@link #parameters()}).
  *
  * @author jamesgung
  */
@@ -53,6 +60,8 @@ public class PaClassifier implements SparseClassifier {
 
     private static final long serialVersionUID = 6490669996534158093L;
 
+    private static final int DEFAULT_PARALLEL_THRESHOLD = 1 << 16;
+
     public enum PaParameter implements Hyperparameter<PaClassifier> {
 
         Averaging("perform parameter averaging", "true", (c, value) -> c.averaging = Boolean.valueOf(value)),
@@ -63,7 +72,9 @@ public class PaClassifier implements SparseClassifier {
         Shuffle("shuffle data prior to training", "true", (c, value) -> c.shuffle = Boolean.valueOf(value)),
         Seed("random seed for shuffling", "0", (c, value) -> c.seed = Integer.valueOf(value)),
         Verbose("display training logs", "false", (c, value) -> c.verbose = Boolean.valueOf(value)),
-        Multithread("compute scores in multiple threads", "true", (c, value) -> c.multithread = Boolean.valueOf(value));
+        Multithread("compute scores in multiple threads", "true", (c, value) -> c.multithread = Boolean.valueOf(value)),
+        ParallelThreshold("minimum number of labels times active features before computing scores in multiple threads",
+                Integer.toString(DEFAULT_PARALLEL_THRESHOLD), (c, value) -> c.parallelThreshold = Integer.valueOf(value));
 
         private Hyperparameter<PaClassifier> parameter;
 
@@ -101,34 +112,92 @@ public class PaClassifier implements SparseClassifier {
     private int seed;
     private boolean verbose;
     private boolean multithread;
+    private int parallelThreshold;
 
     private Map<Integer, float[]> parameters = new HashMap<>();
     private Map<Integer, float[]> cachedParameters = new HashMap<>();
 
+    // compact inference form, computed from parameters after training or loading, and shared by frozen copies
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private transient float[] weights;
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private transient int[] labels;
+    @Setter(AccessLevel.NONE)
+    private transient int features;
+
     public PaClassifier() {
         initialize(new Properties());
     }
 
     @Override
     public Integer classify(SparseInstance instance) {
-        return getMax(instance);
+        if (weights == null) {
+            return getMax(instance);
+        }
+        float[] scores = new float[labels.length];
+        scoreInto(instance, scores);
+        int max = 0;
+        for (int i = 1; i < scores.length; ++i) {
+            if (scores[i] > scores[max]) {
+                max = i;
+            }
+        }
+        return labels[max];
     }
 
     @Override
     public Map<Integer, Double> score(SparseInstance instance) {
-        return entryStream()
-                .collect(Collectors.toMap(Map.Entry::getKey, i -> (double) score(instance, i.getValue())));
+        if (weights == null) {
+            return entryStream(instance.indices().length)
+                    .collect(Collectors.toMap(Map.Entry::getKey, i -> (double) score(instance, i.getValue())));
+        }
+        float[] scores = new float[labels.length];
+        scoreInto(instance, scores);
+        Map<Integer, Double> results = new HashMap<>(labels.length * 2);
+        for (int i = 0; i < labels.length; ++i) {
+            results.put(labels[i], (double) scores[i]);
+        }
+        return results;
+    }
+
+    /**
+     * Compute the score of each label for a given feature vector without allocating, storing the score for the label
+     * {@link #labels()}[i] at {@code out[i]}.
+     *
+     * @param vector feature vector
+     * @param out    output array, with length at least equal to the number of labels
+     */
+    public void scoreInto(SparseVector vector, float[] out) {
+        Preconditions.checkState(weights != null, "Classifier has not been trained or loaded.");
+        Preconditions.checkArgument(out.length >= labels.length,
+                "Output array length (%s) is smaller than the number of labels (%s)", out.length, labels.length);
+        int[] indices = vector.indices();
+        float[] values = vector.data();
+        if (parallel(indices.length)) {
+            IntStream.range(0, labels.length).parallel()
+                    .forEach(label -> out[label] = dot(indices, values, label * features));
+        } else {
+            for (int label = 0; label < labels.length; ++label) {
+                out[label] = dot(indices, values, label * features);
+            }
+        }
     }
 
     @Override
     public void train(List<SparseInstance> train, List<SparseInstance> valid) {
         if (train.size() == 0) {
+            // keep any previously trained model
             log.warn("No training instances provided, skipping training.");
             return;
         }
+        weights = null;
+        labels = null;
         initParameters(train);
         if (parameters.size() == 1) {
             log.warn("Only one class provided, skipping training.");
+            compile();
             return;
         }
         int epochsNoChange = 0;
@@ -189,6 +258,7 @@ public class PaClassifier implements SparseClassifier {
         } else {
             parameters = cachedParameters;
         }
+        compile();
         if (verbose) {
             log.debug("Training completed successfully in {}.", sw.toString());
         }
@@ -204,6 +274,7 @@ public class PaClassifier implements SparseClassifier {
         try {
             //noinspection unchecked
             parameters = (Map<Integer, float[]>) inputStream.readObject();
+            compile();
         } catch (IOException | ClassNotFoundException e) {
             throw new RuntimeException(e);
         }
@@ -212,7 +283,7 @@ public class PaClassifier implements SparseClassifier {
     @Override
     public void save(ObjectOutputStream outputStream) {
         try {
-            outputStream.writeObject(parameters);
+            outputStream.writeObject(parameters());
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
@@ -243,11 +314,127 @@ public class PaClassifier implements SparseClassifier {
         float[] values = featureVector.data();
         int i = 0;
         for (int index : featureVector.indices()) {
-            total += values[i] * weights[index];
+            total += values[i++] * weights[index];
         }
         return total;
     }
 
+    private float dot(int[] indices, float[] values, int offset) {
+        float total = 0;
+        for (int i = 0; i < indices.length; ++i) {
+            int index = indices[i];
+            if (index < features) {
+                total += values[i] * weights[offset + index];
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Return per-label parameters, re-computing them from the compact label-major weight matrix if training has completed.
+     */
+    public Map<Integer, float[]> parameters() {
+        if (parameters != null) {
+            return parameters;
+        }
+        Map<Integer, float[]> result = new HashMap<>(labels.length * 2);
+        for (int i = 0; i < labels.length; ++i) {
+            result.put(labels[i], Arrays.copyOfRange(weights, i * features, (i + 1) * features));
+        }
+        return result;
+    }
+
+    /**
+     * Initialize this classifier directly from a compact label-major weight matrix, such as one read from a binary model.
+     *
+     * @param labels   label for each row of the weight matrix
+     * @param features number of features (columns) in the weight matrix
+     * @param weights  label-major weight matrix, of length labels.length * features
+     */
+    public void weights(int[] labels, int features, float[] weights) {
+        Preconditions.checkArgument(weights.length == labels.length * features,
+                "Expected %s weights for %s labels and %s features, got %s", labels.length * features, labels.length, features,
+                weights.length);
+        this.labels = labels;
+        this.features = features;
+        this.weights = weights;
+        this.parameters = null;
+        this.cachedParameters = new HashMap<>();
+    }
+
+    /**
+     * Return true if this classifier has been trained or loaded, and has a compiled weight matrix.
+     */
+    public boolean compiled() {
+        return weights != null;
+    }
+
+    /**
+     * Return a copy of the label of each row of the compiled weight matrix, in ascending order.
+     */
+    public int[] labels() {
+        Preconditions.checkState(weights != null, "Classifier has not been trained or loaded.");
+        return labels.clone();
+    }
+
+    /**
+     * Return a copy of the compiled label-major weight matrix, of length {@link #labels()}.length * {@link #features()}.
+     */
+    public float[] weights() {
+        Preconditions.checkState(weights != null, "Classifier has not been trained or loaded.");
+        return weights.clone();
+    }
+
+    /**
+     * Return a copy of this classifier sharing its compiled weight matrix, which is never modified after compilation (re-training
+     * this classifier allocates a new matrix). A classifier that has not been compiled is copied along with any per-label
+     * parameters.
+     */
+    @Override
+    public PaClassifier freeze() {
+        PaClassifier frozen = new PaClassifier()
+                .averaging(averaging)
+                .aggressiveness(aggressiveness)
+                .epochs(epochs)
+                .patience(patience)
+                .shuffle(shuffle)
+                .seed(seed)
+                .verbose(verbose)
+                .multithread(multithread)
+                .parallelThreshold(parallelThreshold);
+        if (weights != null) {
+            frozen.weights(labels, features, weights);
+        } else {
+            frozen.parameters = copy(parameters);
+            frozen.cachedParameters = copy(cachedParameters);
+        }
+        return frozen;
+    }
+
+    private static Map<Integer, float[]> copy(Map<Integer, float[]> parameters) {
+        return parameters.entrySet().stream().collect(Collectors.toMap(Map.Entry::getKey, e -> e.getValue().clone()));
+    }
+
+    /**
+     * Compact per-label parameters into a single label-major matrix, ordered by ascending label. Per-label and cached parameters
+     * are only needed during training, so are released here.
+     */
+    private void compile() {
+        int[] labels = parameters.keySet().stream().mapToInt(i -> i).sorted().toArray();
+        int features = parameters.values().stream().mapToInt(p -> p.length).max().orElse(0);
+        float[] weights = new float[labels.length * features];
+        for (int i = 0; i < labels.length; ++i) {
+            float[] params = parameters.get(labels[i]);
+            System.arraycopy(params, 0, weights, i * features, params.length);
+        }
+        weights(labels, features, weights);
+    }
+
+    private boolean parallel(int activeFeatures) {
+        int labelCount = labels != null ? labels.length : parameters.size();
+        return multithread && (long) labelCount * activeFeatures >= parallelThreshold;
+    }
+
     private boolean update(SparseInstance instance, int count) {
         float[] correctVec = parameters.get(instance.target());
         double correctScore = score(instance, correctVec);
@@ -263,7 +450,7 @@ public class PaClassifier implements SparseClassifier {
     }
 
     private ScoredLabel getMaxIncorrect(SparseVector instance, int correctLabel) {
-        return entryStream()
+        return entryStream(instance.indices().length)
                 .filter(p -> p.getKey() != correctLabel)
                 .map(p -> new ScoredLabel(p.getKey(), score(instance, p.getValue())))
                 .max((p1, p2) -> Float.compare(p1.score, p2.score))
@@ -293,14 +480,14 @@ public class PaClassifier implements SparseClassifier {
     }
 
     private int getMax(SparseVector featureVector) {
-        return entryStream()
+        return entryStream(featureVector.indices().length)
                 .map(p -> new ScoredLabel(p.getKey(), score(featureVector, p.getValue())))
                 .max((p1, p2) -> Float.compare(p1.score, p2.score))
                 .orElseThrow(() -> new IllegalStateException("No parameters found.")).label;
     }
 
     private void averageParameters(int count) {
-        entryStream().forEach(
+        entryStream(parameters.values().iterator().next().length).forEach(
                 param -> {
                     float[] params = parameters.get(param.getKey());
                     float[] cached = cachedParameters.get(param.getKey());
@@ -312,7 +499,7 @@ public class PaClassifier implements SparseClassifier {
     }
 
     private void saveParameters() {
-        entryStream().forEach(
+        entryStream(parameters.values().iterator().next().length).forEach(
                 param -> {
                     float[] params = parameters.get(param.getKey());
                     float[] cached = cachedParameters.get(param.getKey());
@@ -321,8 +508,24 @@ public class PaClassifier implements SparseClassifier {
         );
     }
 
-    private Stream<Map.Entry<Integer, float[]>> entryStream() {
-        return multithread ? parameters.entrySet().parallelStream() : parameters.entrySet().stream();
+    private Stream<Map.Entry<Integer, float[]>> entryStream(int activeFeatures) {
+        return parallel(activeFeatures) ? parameters.entrySet().parallelStream() : parameters.entrySet().stream();
+    }
+
+    private void writeObject(ObjectOutputStream oos) throws IOException {
+        Map<Integer, float[]> current = parameters;
+        parameters = parameters();
+        oos.defaultWriteObject();
+        parameters = current;
+    }
+
+    private void readObject(ObjectInputStream ois) throws ClassNotFoundException, IOException {
+        ois.defaultReadObject();
+        if (parallelThreshold == 0) {
+            // models saved prior to the introduction of this parameter
+            parallelThreshold = DEFAULT_PARALLEL_THRESHOLD;
+        }
+        compile();
     }
 
     @AllArgsConstructor
@@ -23,4 +23,9 @@ package io.github.clearwsd.classifier;
  */
 public interface SparseClassifier extends Classifier<SparseInstance, Integer> {
 
+    @Override
+    default SparseClassifier freeze() {
+        return this;
+    }
+
 }
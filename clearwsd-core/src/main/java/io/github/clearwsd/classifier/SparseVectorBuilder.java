@@ -16,20 +16,85 @@
 
 package io.github.clearwsd.classifier;
 
-import java.util.Comparator;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.Arrays;
+
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.Setter;
+import lombok.experimental.Accessors;
 
 /**
- * Sparse vector builder.
+ * Sparse vector builder, backed by growable primitive buffers. Duplicate indices are resolved on {@link #build()} by sorting and
+ * merging entries according to a {@link DuplicatePolicy}. Builders can be re-used across instances through {@link #reset()}, and
+ * a thread-local builder is available through {@link #pooled()}.
  *
  * @author jamesgung
  */
+@Accessors(fluent = true)
 public class SparseVectorBuilder {
 
-    private Map<Integer, Float> indexValueMap = new HashMap<>();
+    private static final int DEFAULT_CAPACITY = 64;
+
+    private static final ThreadLocal<SparseVectorBuilder> POOL = ThreadLocal.withInitial(SparseVectorBuilder::new);
+
+    /**
+     * Determines how values of duplicate indices are combined.
+     */
+    public enum DuplicatePolicy {
+        /**
+         * Keep the most recently added value.
+         */
+        Overwrite,
+        /**
+         * Add values together.
+         */
+        Sum,
+        /**
+         * Keep the largest value.
+         */
+        Max
+    }
+
+    @Getter
+    @Setter
+    @NonNull
+    private DuplicatePolicy duplicates = DuplicatePolicy.Overwrite;
+
+    private int[] indices;
+    private float[] values;
+    private long[] keys;
+    private int size;
+
+    public SparseVectorBuilder() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public SparseVectorBuilder(int capacity) {
+        indices = new int[capacity];
+        values = new float[capacity];
+        keys = new long[capacity];
+    }
+
+    /**
+     * Return a cleared builder confined to the current thread, re-using its buffers across calls. The returned builder must not be
+     * retained or shared with other threads, and is reset on the next call to this method from the same thread.
+     *
+     * @return thread-local builder
+     */
+    public static SparseVectorBuilder pooled() {
+        return pooled(DuplicatePolicy.Overwrite);
+    }
+
+    /**
+     * Return a cleared builder confined to the current thread with a given {@link DuplicatePolicy}.
+     *
+     * @param duplicates policy for combining values at duplicate indices
+     * @return thread-local builder
+     * @see #pooled()
+     */
+    public static SparseVectorBuilder pooled(DuplicatePolicy duplicates) {
+        return POOL.get().reset().duplicates(duplicates);
+    }
 
     /**
      * Add a new value to this sparse vector.
@@ -39,7 +104,13 @@ public class SparseVectorBuilder {
      * @return this {@link SparseVectorBuilder}
      */
     public SparseVectorBuilder addValue(int index, float value) {
-        indexValueMap.put(index, value);
+        if (size == indices.length) {
+            int capacity = Math.max(DEFAULT_CAPACITY, size * 2);
+            indices = Arrays.copyOf(indices, capacity);
+            values = Arrays.copyOf(values, capacity);
+        }
+        indices[size] = index;
+        values[size++] = value;
         return this;
     }
 
@@ -53,22 +124,74 @@ public class SparseVectorBuilder {
         return addValue(index, 1);
     }
 
+    /**
+     * Clear all values from this builder, retaining allocated buffers.
+     *
+     * @return this {@link SparseVectorBuilder}
+     */
+    public SparseVectorBuilder reset() {
+        size = 0;
+        return this;
+    }
+
+    /**
+     * Number of values added since the last reset, including duplicates.
+     */
+    public int size() {
+        return size;
+    }
+
     /**
      * Build an immutable sparse vector given the current state of this builder.
      *
      * @return sparse vector
      */
     public SparseVector build() {
-        List<Map.Entry<Integer, Float>> entries = indexValueMap.entrySet().stream().sorted(
-                Comparator.comparingInt(Map.Entry::getKey)).collect(Collectors.toList());
-        int[] indexArray = new int[entries.size()];
+        if (keys.length < size) {
+            keys = new long[indices.length];
+        }
+        // sort by index, then by insertion order
+        for (int i = 0; i < size; ++i) {
+            keys[i] = ((long) indices[i] << 32) | i;
+        }
+        Arrays.sort(keys, 0, size);
+
+        int unique = 0;
+        int[] indexArray = new int[countUnique()];
         float[] valueArray = new float[indexArray.length];
-        int index = 0;
-        for (Map.Entry<Integer, Float> entry : entries) {
-            indexArray[index] = entry.getKey();
-            valueArray[index++] = entry.getValue();
+        for (int i = 0; i < size; ++i) {
+            int index = (int) (keys[i] >> 32);
+            float value = values[(int) keys[i]];
+            if (unique > 0 && indexArray[unique - 1] == index) {
+                valueArray[unique - 1] = combine(valueArray[unique - 1], value);
+            } else {
+                indexArray[unique] = index;
+                valueArray[unique++] = value;
+            }
         }
         return new DefaultSparseVector(indexArray, valueArray);
     }
 
+    private int countUnique() {
+        int unique = 0;
+        for (int i = 0; i < size; ++i) {
+            if (i == 0 || (keys[i] >> 32) != (keys[i - 1] >> 32)) {
+                ++unique;
+            }
+        }
+        return unique;
+    }
+
+    private float combine(float previous, float value) {
+        switch (duplicates) {
+            case Sum:
+                return previous + value;
+            case Max:
+                return Math.max(previous, value);
+            case Overwrite:
+            default:
+                return value;
+        }
+    }
+
 }
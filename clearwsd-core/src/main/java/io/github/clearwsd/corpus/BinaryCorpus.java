@@ -0,0 +1,377 @@
+/*
+ * Copyright 2017 James Gung
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.clearwsd.corpus;
+
+import com.google.common.base.Preconditions;
+import com.google.common.base.Stopwatch;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import io.github.clearwsd.type.DefaultDepNode;
+import io.github.clearwsd.type.DefaultDepTree;
+import io.github.clearwsd.type.DefaultNlpFocus;
+import io.github.clearwsd.type.DepNode;
+import io.github.clearwsd.type.DepTree;
+import io.github.clearwsd.type.FeatureType;
+import io.github.clearwsd.type.NlpFocus;
+import io.github.clearwsd.type.NlpInstance;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Compact binary format for parsed corpora, either of {@link DepTree DepTrees} or of {@link NlpFocus} instances over dependency
+ * trees, which can be reloaded much faster than re-reading CoNLL text or re-parsing. All strings are interned in a single table,
+ * and each tree is stored as columns of string IDs for forms, lemmas, POS tags and dependency relations, plus an array of head
+ * indices. Other string-valued features of trees, tokens and focus instances (e.g. gold senses or metadata) are stored as
+ * key/value ID pairs; features with non-string values are not stored. Focus instances sharing a tree are restored sharing a
+ * single tree.
+ * <pre>
+ * int magic, int version, byte kind, int stringCount, {int length, byte[length] utf8} * stringCount,
+ * int treeCount, {int index, int size, int root, int[size] forms, int[size] lemmas, int[size] pos, int[size] deps,
+ *     int[size] heads, int[size] indices, features, features * size} * treeCount,
+ * int focusCount, {int index, int tree, int token, features} * focusCount
+ * features: int count, {int key, int value} * count
+ * </pre>
+ * Roots, heads and focus tokens are stored as positions within their tree. All values are big-endian, and missing strings or
+ * heads are stored as -1.
+ *
+ * @author jamesgung
+ */
+@Slf4j
+public final class BinaryCorpus {
+
+    /**
+     * Extension of binary corpus files, appended to the path of the corpus they were written from.
+     */
+    public static final String EXTENSION = ".cwtc";
+
+    static final int MAGIC = 0x43575443; // "CWTC"
+    static final int VERSION = 1;
+
+    private static final byte TREES = 0;
+    private static final byte FOCUS = 1;
+    private static final int NONE = -1;
+    private static final Set<FeatureType> COLUMNS = EnumSet.of(FeatureType.Text, FeatureType.Lemma, FeatureType.Pos,
+            FeatureType.Dep);
+
+    private BinaryCorpus() {
+    }
+
+    /**
+     * Read instances from a given {@link CorpusReader} and write them in the binary corpus format.
+     *
+     * @param reader      corpus reader
+     * @param inputStream corpus input stream
+     * @param path        binary corpus output path
+     * @param <T>         instance type, either {@link DepTree} or {@link NlpFocus}
+     * @return instances read from the input stream
+     */
+    public static <T extends NlpInstance> List<T> convert(CorpusReader<T> reader, InputStream inputStream, Path path) {
+        List<T> instances = reader.readInstances(inputStream);
+        write(instances, path);
+        return instances;
+    }
+
+    /**
+     * Write a list of {@link DepTree DepTrees} or {@link NlpFocus} instances over dependency trees in the binary corpus format.
+     *
+     * @param instances trees or focus instances
+     * @param path      output path
+     */
+    public static void write(List<? extends NlpInstance> instances, Path path) {
+        try (OutputStream outputStream = Files.newOutputStream(path)) {
+            write(instances, outputStream);
+        } catch (IOException e) {
+            throw new RuntimeException("Unable to write binary corpus to " + path + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Write a list of {@link DepTree DepTrees} or {@link NlpFocus} instances over dependency trees in the binary corpus format.
+     *
+     * @param instances    trees or focus instances
+     * @param outputStream output stream, not closed by this method
+     */
+    @SuppressWarnings("unchecked")
+    public static void write(List<? extends NlpInstance> instances, OutputStream outputStream) throws IOException {
+        boolean focus = !instances.isEmpty() && instances.get(0) instanceof NlpFocus;
+        // trees are de-duplicated by identity, as focus instances over the same sentence typically share a tree
+        Map<DepTree, Integer> treeIds = new IdentityHashMap<>();
+        List<DepTree> trees = new ArrayList<>();
+        for (NlpInstance instance : instances) {
+            DepTree tree;
+            if (focus) {
+                Preconditions.checkArgument(instance instanceof NlpFocus
+                                && ((NlpFocus) instance).sequence() instanceof DepTree,
+                        "Expecting focus instances over dependency trees, but got %s", instance.getClass().getName());
+                tree = ((NlpFocus<DepNode, DepTree>) instance).sequence();
+            } else {
+                Preconditions.checkArgument(instance instanceof DepTree,
+                        "Expecting dependency trees, but got %s", instance.getClass().getName());
+                tree = (DepTree) instance;
+            }
+            if (!treeIds.containsKey(tree)) {
+                treeIds.put(tree, trees.size());
+                trees.add(tree);
+            }
+        }
+
+        Map<String, Integer> strings = new LinkedHashMap<>();
+        for (DepTree tree : trees) {
+            intern(tree, strings);
+        }
+        if (focus) {
+            for (NlpInstance instance : instances) {
+                intern(instance, strings);
+            }
+        }
+
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(outputStream, 1 << 16));
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeByte(focus ? FOCUS : TREES);
+        out.writeInt(strings.size());
+        for (String string : strings.keySet()) {
+            byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+        out.writeInt(trees.size());
+        for (DepTree tree : trees) {
+            writeTree(tree, strings, out);
+        }
+        if (focus) {
+            out.writeInt(instances.size());
+            for (NlpInstance instance : instances) {
+                NlpFocus<DepNode, DepTree> focusInstance = (NlpFocus<DepNode, DepTree>) instance;
+                out.writeInt(focusInstance.index());
+                out.writeInt(treeIds.get(focusInstance.sequence()));
+                out.writeInt(focusInstance.sequence().indexOf(focusInstance.focus()));
+                writeFeatures(focusInstance, false, strings, out);
+            }
+        } else {
+            out.writeInt(0);
+        }
+        out.flush();
+    }
+
+    /**
+     * Memory-map and read a binary corpus file, returning either {@link DepTree DepTrees} or {@link NlpFocus} instances,
+     * according to the type of instances written.
+     *
+     * @param path binary corpus path
+     * @param <T>  instance type
+     * @return list of trees or focus instances
+     */
+    public static <T extends NlpInstance> List<T> read(Path path) {
+        Stopwatch stopwatch = Stopwatch.createStarted();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            Preconditions.checkArgument(channel.size() <= Integer.MAX_VALUE, "Binary corpus exceeds 2GB: %s", path);
+            List<T> results = read(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+            log.debug("Read {} instances from {} in {}", results.size(), path, stopwatch);
+            return results;
+        } catch (IOException e) {
+            throw new RuntimeException("Unable to read binary corpus at " + path + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Read a binary corpus from a buffer, returning either {@link DepTree DepTrees} or {@link NlpFocus} instances, according to
+     * the type of instances written.
+     *
+     * @param buffer binary corpus
+     * @param <T>    instance type
+     * @return list of trees or focus instances
+     */
+    @SuppressWarnings("unchecked")
+    public static <T extends NlpInstance> List<T> read(ByteBuffer buffer) {
+        buffer = buffer.duplicate();
+        Preconditions.checkArgument(buffer.remaining() >= 9 && buffer.getInt() == MAGIC, "Not a binary corpus");
+        int version = buffer.getInt();
+        Preconditions.checkArgument(version == VERSION, "Unsupported binary corpus version: %s", version);
+        boolean focus = buffer.get() == FOCUS;
+
+        String[] strings = new String[buffer.getInt()];
+        byte[] bytes = new byte[0];
+        for (int i = 0; i < strings.length; ++i) {
+            int length = buffer.getInt();
+            if (bytes.length < length) {
+                bytes = new byte[Math.max(length, 2 * bytes.length)];
+            }
+            buffer.get(bytes, 0, length);
+            strings[i] = new String(bytes, 0, length, StandardCharsets.UTF_8);
+        }
+
+        List<DepTree> trees = readTrees(buffer, strings);
+        return (List<T>) (focus ? readFocus(buffer, strings, trees) : trees);
+    }
+
+    private static List<DepTree> readTrees(ByteBuffer buffer, String[] strings) {
+        int count = buffer.getInt();
+        List<DepTree> trees = new ArrayList<>(count);
+        int[] columns = new int[0];
+        for (int t = 0; t < count; ++t) {
+            int index = buffer.getInt();
+            int size = buffer.getInt();
+            int root = buffer.getInt();
+            int length = (COLUMNS.size() + 2) * size;
+            if (columns.length < length) {
+                columns = new int[Math.max(length, 2 * columns.length)];
+            }
+            buffer.asIntBuffer().get(columns, 0, length);
+            buffer.position(buffer.position() + length * Integer.BYTES);
+
+            List<DepNode> tokens = new ArrayList<>(size);
+            int indices = (COLUMNS.size() + 1) * size;
+            for (int i = 0; i < size; ++i) {
+                DefaultDepNode token = new DefaultDepNode(columns[indices + i]);
+                int column = 0;
+                for (FeatureType feature : COLUMNS) {
+                    int id = columns[column++ * size + i];
+                    if (id != NONE) {
+                        token.addFeature(feature, strings[id]);
+                    }
+                }
+                tokens.add(token);
+            }
+            int heads = COLUMNS.size() * size;
+            for (int i = 0; i < size; ++i) {
+                int head = columns[heads + i];
+                if (head != NONE) {
+                    ((DefaultDepNode) tokens.get(i)).head(tokens.get(head));
+                }
+            }
+            DepTree tree = new DefaultDepTree(index, tokens, root == NONE ? null : tokens.get(root));
+            readFeatures(buffer, tree, strings);
+            for (DepNode token : tokens) {
+                readFeatures(buffer, token, strings);
+            }
+            trees.add(tree);
+        }
+        return trees;
+    }
+
+    private static List<NlpFocus<DepNode, DepTree>> readFocus(ByteBuffer buffer, String[] strings, List<DepTree> trees) {
+        int count = buffer.getInt();
+        List<NlpFocus<DepNode, DepTree>> instances = new ArrayList<>(count);
+        for (int i = 0; i < count; ++i) {
+            int index = buffer.getInt();
+            DepTree tree = trees.get(buffer.getInt());
+            NlpFocus<DepNode, DepTree> instance = new DefaultNlpFocus<>(index, tree.get(buffer.getInt()), tree);
+            readFeatures(buffer, instance, strings);
+            instances.add(instance);
+        }
+        return instances;
+    }
+
+    private static void readFeatures(ByteBuffer buffer, NlpInstance instance, String[] strings) {
+        int count = buffer.getInt();
+        for (int i = 0; i < count; ++i) {
+            String key = strings[buffer.getInt()];
+            instance.addFeature(key, strings[buffer.getInt()]);
+        }
+    }
+
+    private static void intern(NlpInstance instance, Map<String, Integer> strings) {
+        for (Map.Entry<String, Object> feature : instance.features().entrySet()) {
+            if (feature.getValue() instanceof String) {
+                strings.computeIfAbsent(feature.getKey(), s -> strings.size());
+                strings.computeIfAbsent((String) feature.getValue(), s -> strings.size());
+            }
+        }
+        if (instance instanceof DepTree) {
+            for (DepNode token : (DepTree) instance) {
+                intern(token, strings);
+            }
+        }
+    }
+
+    private static int id(Object value, Map<String, Integer> strings) {
+        return value instanceof String ? strings.get(value) : NONE;
+    }
+
+    private static void writeTree(DepTree tree, Map<String, Integer> strings, DataOutputStream out) throws IOException {
+        Map<DepNode, Integer> positions = positions(tree);
+        out.writeInt(tree.index());
+        out.writeInt(tree.size());
+        out.writeInt(tree.root() == null ? NONE : positions.get(tree.root()));
+        for (FeatureType column : COLUMNS) {
+            for (DepNode token : tree) {
+                out.writeInt(id(token.feature(column), strings));
+            }
+        }
+        for (DepNode token : tree) {
+            out.writeInt(token.head() == null ? NONE : positions.get(token.head()));
+        }
+        for (DepNode token : tree) {
+            out.writeInt(token.index());
+        }
+        writeFeatures(tree, false, strings, out);
+        for (DepNode token : tree) {
+            writeFeatures(token, true, strings, out);
+        }
+    }
+
+    private static Map<DepNode, Integer> positions(DepTree tree) {
+        Map<DepNode, Integer> positions = new IdentityHashMap<>();
+        for (DepNode token : tree) {
+            positions.put(token, positions.size());
+        }
+        return positions;
+    }
+
+    private static void writeFeatures(NlpInstance instance, boolean token, Map<String, Integer> strings, DataOutputStream out)
+            throws IOException {
+        List<Map.Entry<String, Object>> features = new ArrayList<>();
+        for (Map.Entry<String, Object> feature : instance.features().entrySet()) {
+            if (feature.getValue() instanceof String && !(token && isColumn(feature.getKey()))) {
+                features.add(feature);
+            }
+        }
+        out.writeInt(features.size());
+        for (Map.Entry<String, Object> feature : features) {
+            out.writeInt(strings.get(feature.getKey()));
+            out.writeInt(strings.get((String) feature.getValue()));
+        }
+    }
+
+    private static boolean isColumn(String key) {
+        for (FeatureType column : COLUMNS) {
+            if (column.name().equals(key)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+}
@@ -16,6 +16,9 @@
 
 package io.github.clearwsd.corpus;
 
+import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
@@ -24,19 +27,32 @@ import java.io.OutputStream;
 import java.io.PrintWriter;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.Spliterators;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.function.Consumer;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import io.github.clearwsd.type.DepNode;
 import io.github.clearwsd.type.DepTree;
 import io.github.clearwsd.type.FeatureType;
 import io.github.clearwsd.type.DefaultDepNode;
 import io.github.clearwsd.type.DefaultDepTree;
+import lombok.AllArgsConstructor;
 import lombok.Setter;
 
 /**
@@ -47,6 +63,7 @@ import lombok.Setter;
 public class CoNllDepTreeReader implements CorpusReader<DepTree> {
 
     private static final String FIELD_DELIM = "\t";
+    private static final int BATCH_SIZE = 128;
 
     private Pattern headerPattern = Pattern.compile("^#.*$");
 
@@ -69,6 +86,35 @@ public class CoNllDepTreeReader implements CorpusReader<DepTree> {
         return new TreeIterator(inputStream);
     }
 
+    /**
+     * Stream dependency trees from a given {@link InputStream}, parsing trees in parallel while reading, so that downstream
+     * processing can begin before the whole input has been read. A single reader thread splits the input into batches of trees
+     * on blank lines, which are parsed into trees by a pool of worker threads. The returned stream should be closed if it is not
+     * fully consumed, to release these threads.
+     *
+     * @param inputStream dependency tree input stream
+     * @param threads     number of worker threads used to parse trees
+     * @param ordered     if true, trees are streamed in input order, otherwise in order of completion
+     * @return stream of dependency trees
+     */
+    public Stream<DepTree> stream(InputStream inputStream, int threads, boolean ordered) {
+        Preconditions.checkArgument(threads > 0, "Number of threads must be positive: %s", threads);
+        ParallelTreeSpliterator spliterator = new ParallelTreeSpliterator(inputStream, threads, ordered);
+        return StreamSupport.stream(spliterator, false).onClose(spliterator::close);
+    }
+
+    /**
+     * Stream dependency trees from a given {@link InputStream} in input order, parsing trees with one worker thread per available
+     * processor.
+     *
+     * @param inputStream dependency tree input stream
+     * @return stream of dependency trees
+     * @see #stream(InputStream, int, boolean)
+     */
+    public Stream<DepTree> stream(InputStream inputStream) {
+        return stream(inputStream, Runtime.getRuntime().availableProcessors(), true);
+    }
+
     private List<String> readTree(BufferedReader reader) throws IOException {
         List<String> lines = new ArrayList<>();
         String currentLine;
@@ -88,32 +134,40 @@ public class CoNllDepTreeReader implements CorpusReader<DepTree> {
     }
 
     private DepTree readTree(int id, List<String> tree) {
-        List<DepNode> depNodes = new ArrayList<>();
-        Map<DefaultDepNode, Integer> headMap = new HashMap<>();
-        Map<Integer, DepNode> depMap = new HashMap<>();
-        int index = 0;
-
+        int headerSize = 0;
+        while (headerSize < tree.size() && headerPattern.matcher(tree.get(headerSize)).matches()) {
+            ++headerSize;
+        }
+        List<String> header = tree.subList(0, headerSize);
+        tree = tree.subList(headerSize, tree.size());
 
-        List<String> header = new ArrayList<>();
+        List<DepNode> depNodes = new ArrayList<>(tree.size());
+        int[] ids = new int[tree.size()];
+        int[] heads = new int[tree.size()];
+        boolean dense = true;
         for (String line : tree) {
-            if (headerPattern.matcher(line).matches()) {
-                header.add(line);
+            int index = depNodes.size();
+            depNodes.add(getDepNode(index, line.split(FIELD_DELIM), ids, heads));
+            dense &= ids[index] >= 0 && ids[index] <= 2 * tree.size();
+        }
+        // resolve heads through an array indexed by token ID, falling back to a map for negative or sparse IDs
+        DepNode[] byId = new DepNode[dense ? 2 * tree.size() + 1 : 0];
+        Map<Integer, DepNode> byIdMap = dense ? null : new HashMap<>();
+        for (int i = 0; i < depNodes.size(); ++i) {
+            if (dense) {
+                byId[ids[i]] = depNodes.get(i);
             } else {
-                break;
+                byIdMap.put(ids[i], depNodes.get(i));
             }
         }
-
-        tree = tree.subList(header.size(), tree.size());
-        for (String line : tree) {
-            depNodes.add(getDepNode(index++, line.split(FIELD_DELIM), depMap, headMap));
-        }
         DepNode root = null;
-        for (Map.Entry<DefaultDepNode, Integer> head : headMap.entrySet()) {
-            if (head.getValue() < 0) {
-                root = head.getKey();
-                continue;
+        for (int i = 0; i < depNodes.size(); ++i) {
+            int head = heads[i];
+            if (head < 0) {
+                root = root == null ? depNodes.get(i) : root;
+            } else {
+                ((DefaultDepNode) depNodes.get(i)).head(dense ? (head < byId.length ? byId[head] : null) : byIdMap.get(head));
             }
-            head.getKey().head(depMap.get(head.getValue()));
         }
         DepTree result = new DefaultDepTree(id, depNodes, root);
         processHeader(header, result);
@@ -124,24 +178,21 @@ public class CoNllDepTreeReader implements CorpusReader<DepTree> {
         // template method
     }
 
-    private DefaultDepNode getDepNode(int index, String[] fields,
-                                      Map<Integer, DepNode> tokenMap,
-                                      Map<DefaultDepNode, Integer> tokenHeadMap) {
+    private DefaultDepNode getDepNode(int index, String[] fields, int[] ids, int[] heads) {
         try {
             DefaultDepNode depNode = new DefaultDepNode(index);
-            tokenMap.put(Integer.parseInt(fields[0]), depNode);
+            ids[index] = Integer.parseInt(fields[0]);
             depNode.addFeature(FeatureType.Text, fields[1]);
             depNode.addFeature(FeatureType.Lemma, fields[2]);
             depNode.addFeature(FeatureType.Pos, fields[3]);
             depNode.addFeature(FeatureType.Dep, fields[4]);
-            tokenHeadMap.put(depNode, Integer.parseInt(fields[5]));
+            heads[index] = Integer.parseInt(fields[5]);
             return depNode;
         } catch (RuntimeException e) {
             throw new RuntimeException("Error parsing line: " + String.join(" ", fields), e);
         }
     }
 
-
     @Override
     public void writeInstances(List<DepTree> trees, OutputStream outputStream) {
         writeDependencyTrees(trees, outputStream);
@@ -198,8 +249,8 @@ public class CoNllDepTreeReader implements CorpusReader<DepTree> {
                 return;
             }
             try {
-                List<String> tree;
-                while ((tree = readTree(reader)) != null && treeCache.size() < cacheSize) {
+                List<String> tree = null;
+                while (treeCache.size() < cacheSize && (tree = readTree(reader)) != null) {
                     treeCache.add(readTree(index++, tree));
                 }
                 if (tree == null) {
@@ -212,6 +263,126 @@ public class CoNllDepTreeReader implements CorpusReader<DepTree> {
         }
     }
 
+    private class ParallelTreeSpliterator extends Spliterators.AbstractSpliterator<DepTree> {
+
+        private final BufferedReader reader;
+        private final boolean ordered;
+        private final ExecutorService workers;
+        private final Semaphore permits;
+        private final BlockingQueue<Object> results = new LinkedBlockingQueue<>();
+        private final Thread chunker;
+
+        private Iterator<DepTree> current = Collections.emptyIterator();
+        private int consumed = 0;
+        private int total = -1;
+
+        ParallelTreeSpliterator(InputStream inputStream, int threads, boolean ordered) {
+            super(Long.MAX_VALUE, ordered ? ORDERED | NONNULL : NONNULL);
+            this.reader = new BufferedReader(new InputStreamReader(inputStream));
+            this.ordered = ordered;
+            this.workers = Executors.newFixedThreadPool(threads, new ThreadFactoryBuilder()
+                    .setNameFormat("conll-parser-%d")
+                    .setDaemon(true)
+                    .build());
+            // bound the number of batches read ahead of the consumer
+            this.permits = new Semaphore(4 * threads);
+            this.chunker = new Thread(this::chunk, "conll-reader");
+            chunker.setDaemon(true);
+            chunker.start();
+        }
+
+        private void chunk() {
+            int batches = 0;
+            try {
+                int index = 0;
+                List<List<String>> batch = new ArrayList<>(BATCH_SIZE);
+                List<String> tree;
+                while ((tree = readTree(reader)) != null) {
+                    batch.add(tree);
+                    if (batch.size() == BATCH_SIZE) {
+                        submit(batch, index);
+                        index += batch.size();
+                        ++batches;
+                        batch = new ArrayList<>(BATCH_SIZE);
+                    }
+                }
+                if (!batch.isEmpty()) {
+                    submit(batch, index);
+                    ++batches;
+                }
+                results.add(new End(batches, null));
+            } catch (IOException | RuntimeException e) {
+                results.add(new End(batches, e));
+            } catch (InterruptedException e) {
+                // stream was closed
+            }
+        }
+
+        private void submit(List<List<String>> batch, int index) throws InterruptedException {
+            permits.acquire();
+            CompletableFuture<List<DepTree>> result = CompletableFuture.supplyAsync(() -> {
+                List<DepTree> trees = new ArrayList<>(batch.size());
+                for (List<String> tree : batch) {
+                    trees.add(readTree(index + trees.size(), tree));
+                }
+                return trees;
+            }, workers);
+            if (ordered) {
+                results.add(result);
+            } else {
+                result.whenComplete((trees, e) -> results.add(result));
+            }
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super DepTree> action) {
+            while (!current.hasNext()) {
+                if (consumed == total) {
+                    close();
+                    return false;
+                }
+                try {
+                    Object result = results.take();
+                    if (result instanceof End) {
+                        End end = (End) result;
+                        if (end.error != null) {
+                            throw new RuntimeException("An error occurred while reading dependency trees.", end.error);
+                        }
+                        total = end.batches;
+                        continue;
+                    }
+                    //noinspection unchecked
+                    current = ((CompletableFuture<List<DepTree>>) result).get().iterator();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new RuntimeException("Interrupted while reading dependency trees.", e);
+                } catch (ExecutionException e) {
+                    throw new RuntimeException("An error occurred while reading dependency trees.", e.getCause());
+                }
+                ++consumed;
+                permits.release();
+            }
+            action.accept(current.next());
+            return true;
+        }
+
+        void close() {
+            chunker.interrupt();
+            workers.shutdownNow();
+            try {
+                reader.close();
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }
+    }
+
+    @AllArgsConstructor
+    private static class End {
+        private int batches;
+        private Exception error;
+    }
+
     /**
      * Write a list of {@link DepTree} to an {@link OutputStream} in a CoNLL-style format.
      *
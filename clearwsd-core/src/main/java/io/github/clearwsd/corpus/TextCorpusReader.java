@@ -16,6 +16,7 @@
 
 package io.github.clearwsd.corpus;
 
+import com.google.common.base.Preconditions;
 import com.google.common.base.Stopwatch;
 
 import java.io.BufferedReader;
@@ -40,16 +41,35 @@ import lombok.extern.slf4j.Slf4j;
 @Slf4j
 public class TextCorpusReader implements CorpusReader<DepTree> {
 
+    /**
+     * Default number of sentences passed to {@link NlpParser#parseAll(List)} at once.
+     */
+    public static final int DEFAULT_BATCH_SIZE = 64;
+
     private NlpParser parser;
+    private int batchSize;
 
-    public TextCorpusReader(NlpParser parser) {
+    /**
+     * Initialize a text corpus reader.
+     *
+     * @param parser    parser used to segment, tokenize, and parse text
+     * @param batchSize maximum number of sentences parsed at once
+     */
+    public TextCorpusReader(NlpParser parser, int batchSize) {
+        Preconditions.checkArgument(batchSize > 0, "Batch size must be positive, got %s", batchSize);
         this.parser = parser;
+        this.batchSize = batchSize;
+    }
+
+    public TextCorpusReader(NlpParser parser) {
+        this(parser, DEFAULT_BATCH_SIZE);
     }
 
     @Override
     public List<DepTree> readInstances(InputStream inputStream) {
         List<DepTree> results = new ArrayList<>();
         try (BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream))) {
+            List<List<String>> batch = new ArrayList<>();
             String line;
             while ((line = reader.readLine()) != null) {
                 line = line.trim();
@@ -57,10 +77,16 @@ public class TextCorpusReader implements CorpusReader<DepTree> {
                     continue;
                 }
                 for (String sentence : parser.segment(line)) {
-                    DepTree tree = parser.parse(parser.tokenize(sentence));
-                    results.add(tree);
+                    batch.add(parser.tokenize(sentence));
+                    if (batch.size() >= batchSize) {
+                        results.addAll(parser.parseAll(batch));
+                        batch = new ArrayList<>();
+                    }
                 }
             }
+            if (batch.size() > 0) {
+                results.addAll(parser.parseAll(batch));
+            }
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
@@ -81,7 +107,22 @@ public class TextCorpusReader implements CorpusReader<DepTree> {
      * @param maxCache     maximum number of trees to parse before writing/flushing
      */
     public void parseAndWrite(InputStream inputStream, OutputStream outputStream, int maxCache) {
+        parseAndWrite(inputStream, outputStream, maxCache, batchSize);
+    }
+
+    /**
+     * Simultaneously parse and write dependency trees to an output stream, passing sentences to the parser in batches of a
+     * given size.
+     *
+     * @param inputStream  input stream
+     * @param outputStream output stream
+     * @param maxCache     maximum number of trees to parse before writing/flushing
+     * @param batchSize    maximum number of sentences parsed at once
+     */
+    public void parseAndWrite(InputStream inputStream, OutputStream outputStream, int maxCache, int batchSize) {
+        Preconditions.checkArgument(batchSize > 0, "Batch size must be positive, got %s", batchSize);
         List<DepTree> cache = new ArrayList<>();
+        List<List<String>> batch = new ArrayList<>();
         int processed = 0;
         Stopwatch sw = Stopwatch.createStarted();
         try (BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream));
@@ -93,16 +134,22 @@ public class TextCorpusReader implements CorpusReader<DepTree> {
                     continue;
                 }
                 for (String sentence : parser.segment(line)) {
-                    DepTree tree = parser.parse(parser.tokenize(sentence));
-                    cache.add(tree);
-                    ++processed;
+                    batch.add(parser.tokenize(sentence));
+                    if (batch.size() >= Math.min(batchSize, maxCache - cache.size())) {
+                        cache.addAll(parser.parseAll(batch));
+                        processed += batch.size();
+                        batch = new ArrayList<>();
+                    }
                     if (cache.size() >= maxCache) {
                         CoNllDepTreeReader.writeDependencyTrees(cache, writer);
                         cache = new ArrayList<>();
-                        log.debug("Parsing {} trees/s", processed / sw.elapsed(TimeUnit.SECONDS));
+                        log.debug("Parsing {} trees/s", processed / Math.max(1, sw.elapsed(TimeUnit.SECONDS)));
                     }
                 }
             }
+            if (batch.size() > 0) {
+                cache.addAll(parser.parseAll(batch));
+            }
             if (cache.size() > 0) {
                 CoNllDepTreeReader.writeDependencyTrees(cache, writer);
             }
@@ -20,6 +20,7 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 
+import io.github.clearwsd.type.FeatureKeys;
 import io.github.clearwsd.type.NlpInstance;
 import io.github.clearwsd.feature.util.FeatureUtils;
 
@@ -33,6 +34,7 @@ public class ListLookupFeatureExtractor<T extends NlpInstance> implements String
     private static final long serialVersionUID = -5294861373939396232L;
 
     private List<String> keys;
+    private transient int[] keyIds;
     private String id;
 
     public ListLookupFeatureExtractor(List<String> keys) {
@@ -52,8 +54,8 @@ public class ListLookupFeatureExtractor<T extends NlpInstance> implements String
     @Override
     public List<String> extract(T instance) {
         List<String> results = new ArrayList<>();
-        for (String key : keys) {
-            List<String> feature = instance.feature(key);
+        for (int id : keyIds()) {
+            List<String> feature = FeatureKeys.feature(instance, id);
             if (feature != null) {
                 results.addAll(feature);
             }
@@ -61,4 +63,11 @@ public class ListLookupFeatureExtractor<T extends NlpInstance> implements String
         return results;
     }
 
+    private int[] keyIds() {
+        if (keyIds == null) {
+            keyIds = keys.stream().mapToInt(FeatureKeys::intern).toArray();
+        }
+        return keyIds;
+    }
+
 }
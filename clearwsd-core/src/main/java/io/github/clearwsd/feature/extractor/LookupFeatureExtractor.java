@@ -19,6 +19,7 @@ package io.github.clearwsd.feature.extractor;
 import java.util.Collections;
 import java.util.List;
 
+import io.github.clearwsd.type.FeatureKeys;
 import io.github.clearwsd.type.NlpInstance;
 import io.github.clearwsd.feature.util.FeatureUtils;
 
@@ -33,6 +34,7 @@ public class LookupFeatureExtractor<T extends NlpInstance> implements StringExtr
     private static final long serialVersionUID = -8167041300890840929L;
 
     private List<String> keys;
+    private transient int[] keyIds;
     private FeatureExtractor<T, String> fallbackExtractor;
     private String id;
 
@@ -57,8 +59,8 @@ public class LookupFeatureExtractor<T extends NlpInstance> implements StringExtr
 
     @Override
     public String extract(T instance) {
-        for (String key : keys) {
-            String feature = instance.feature(key);
+        for (int id : keyIds()) {
+            String feature = FeatureKeys.feature(instance, id);
             if (feature != null) {
                 return feature;
             }
@@ -69,4 +71,11 @@ public class LookupFeatureExtractor<T extends NlpInstance> implements StringExtr
         return fallbackExtractor.extract(instance);
     }
 
+    private int[] keyIds() {
+        if (keyIds == null) {
+            keyIds = keys.stream().mapToInt(FeatureKeys::intern).toArray();
+        }
+        return keyIds;
+    }
+
 }
@@ -23,7 +23,9 @@ import java.util.stream.Collectors;
 import io.github.clearwsd.type.NlpInstance;
 import io.github.clearwsd.feature.StringFeature;
 import lombok.AllArgsConstructor;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
+import lombok.experimental.Accessors;
 
 /**
  * Aggregation of multiple feature functions.
@@ -31,6 +33,8 @@ import lombok.NoArgsConstructor;
  * @author jamesgung
  */
 @NoArgsConstructor
+@Getter
+@Accessors(fluent = true)
 @AllArgsConstructor
 public class AggregateFeatureFunction<InputT extends NlpInstance> implements FeatureFunction<InputT> {
 
@@ -22,7 +22,9 @@ import java.util.List;
 import io.github.clearwsd.type.NlpInstance;
 import io.github.clearwsd.feature.StringFeature;
 import lombok.AllArgsConstructor;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
+import lombok.experimental.Accessors;
 
 /**
  * Bias feature function (always applied).
@@ -30,6 +32,8 @@ import lombok.NoArgsConstructor;
  * @author jamesgung
  */
 @NoArgsConstructor
+@Getter
+@Accessors(fluent = true)
 @AllArgsConstructor
 public class BiasFeatureFunction<T extends NlpInstance> implements FeatureFunction<T> {
 
@@ -0,0 +1,357 @@
+/*
+ * Copyright 2017 James Gung
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.clearwsd.feature.function;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import io.github.clearwsd.feature.StringFeature;
+import io.github.clearwsd.feature.context.NlpContext;
+import io.github.clearwsd.feature.context.NlpContextFactory;
+import io.github.clearwsd.feature.extractor.FeatureExtractor;
+import io.github.clearwsd.feature.extractor.StringExtractor;
+import io.github.clearwsd.feature.extractor.StringListExtractor;
+import io.github.clearwsd.feature.util.FeatureUtils;
+import io.github.clearwsd.type.NlpInstance;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Execution plan compiled from a tree of {@link FeatureFunction FeatureFunctions}. Each distinct {@link NlpContextFactory} in the
+ * tree is applied at most once per input instance, and its contexts are shared by every function using it. Features are passed
+ * directly to a {@link FeatureSink}, without intermediate feature lists or per-context token value lists. Produces exactly the
+ * same features, in the same order, as the original feature function. Functions of unknown types are applied as-is.
+ *
+ * @param <InputT> input type
+ * @author jamesgung
+ */
+@Slf4j
+public class CompiledFeatureFunction<InputT extends NlpInstance> implements FeatureFunction<InputT> {
+
+    private static final long serialVersionUID = -1370905385626314744L;
+
+    private final FeatureFunction<InputT> source;
+    private final List<NlpContextFactory<InputT, ?>> factories;
+    private final Step<InputT> plan;
+
+    private CompiledFeatureFunction(FeatureFunction<InputT> source) {
+        this.source = source;
+        Map<NlpContextFactory<InputT, ?>, Integer> slots = new IdentityHashMap<>();
+        this.plan = compile(source, slots);
+        this.factories = new ArrayList<>(slots.size());
+        for (int i = 0; i < slots.size(); ++i) {
+            factories.add(null);
+        }
+        slots.forEach((factory, slot) -> factories.set(slot, factory));
+    }
+
+    /**
+     * Compile a feature function into an execution plan. Compiled functions are returned unchanged.
+     *
+     * @param function  feature function
+     * @param <InputT>  input type
+     * @return compiled feature function
+     */
+    public static <InputT extends NlpInstance> CompiledFeatureFunction<InputT> compile(FeatureFunction<InputT> function) {
+        if (function instanceof CompiledFeatureFunction) {
+            return (CompiledFeatureFunction<InputT>) function;
+        }
+        return new CompiledFeatureFunction<>(function);
+    }
+
+    /**
+     * Return the feature function this plan was compiled from.
+     */
+    public FeatureFunction<InputT> source() {
+        return source;
+    }
+
+    /**
+     * Return the number of distinct context factories evaluated per input instance.
+     */
+    public int contextFactories() {
+        return factories.size();
+    }
+
+    /**
+     * Apply this plan to a given instance, passing each resulting feature to a given sink.
+     *
+     * @param input input NLP instance
+     * @param sink  feature sink
+     */
+    public void apply(InputT input, FeatureSink sink) {
+        plan.apply(input, new Contexts<>(factories, input), sink);
+    }
+
+    @Override
+    public List<StringFeature> apply(InputT input) {
+        List<StringFeature> features = new ArrayList<>();
+        apply(input, (id, value) -> features.add(new StringFeature(id, value)));
+        return features;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <InputT extends NlpInstance> Step<InputT> compile(FeatureFunction<InputT> function,
+                                                                      Map<NlpContextFactory<InputT, ?>, Integer> slots) {
+        if (function instanceof AggregateFeatureFunction) {
+            List<Step<InputT>> steps = new ArrayList<>();
+            for (FeatureFunction<InputT> child : ((AggregateFeatureFunction<InputT>) function).functions()) {
+                steps.add(compile(child, slots));
+            }
+            return new AggregateStep<>(steps);
+        } else if (function instanceof StringFeatureFunction) {
+            StringFeatureFunction<InputT, ?> stringFunction = (StringFeatureFunction<InputT, ?>) function;
+            return new StringStep<>(slot(stringFunction.contextFactory(), slots),
+                    new ArrayList<>((List<StringExtractor<NlpInstance>>) (List<?>) stringFunction.featureExtractors()));
+        } else if (function instanceof MultiStringFeatureFunction) {
+            MultiStringFeatureFunction<InputT, ?> multiFunction = (MultiStringFeatureFunction<InputT, ?>) function;
+            return new MultiStringStep<>(slot(multiFunction.contextFactory(), slots),
+                    new ArrayList<>((List<StringListExtractor<NlpInstance>>) (List<?>) multiFunction.featureExtractors()));
+        } else if (function instanceof ConjunctionFunction) {
+            ConjunctionFunction<InputT> conjunction = (ConjunctionFunction<InputT>) function;
+            Step<InputT> first = compile(conjunction.first(), slots);
+            Step<InputT> second = conjunction.second() == conjunction.first() ? first : compile(conjunction.second(), slots);
+            return new ConjunctionStep<>(first, second);
+        } else if (function instanceof CompiledFeatureFunction) {
+            return compile(((CompiledFeatureFunction<InputT>) function).source(), slots);
+        }
+        return new FunctionStep<>(function);
+    }
+
+    private static <InputT> int slot(NlpContextFactory<InputT, ?> factory, Map<NlpContextFactory<InputT, ?>, Integer> slots) {
+        return slots.computeIfAbsent(factory, f -> slots.size());
+    }
+
+    /**
+     * Contexts of a single input instance, computed on first use.
+     */
+    private static class Contexts<InputT> {
+
+        private final List<NlpContextFactory<InputT, ?>> factories;
+        private final InputT input;
+        private final List<?>[] contexts;
+
+        Contexts(List<NlpContextFactory<InputT, ?>> factories, InputT input) {
+            this.factories = factories;
+            this.input = input;
+            this.contexts = new List<?>[factories.size()];
+        }
+
+        @SuppressWarnings("unchecked")
+        List<NlpContext<NlpInstance>> get(int slot) {
+            List<?> result = contexts[slot];
+            if (result == null) {
+                result = factories.get(slot).apply(input);
+                contexts[slot] = result;
+            }
+            return (List<NlpContext<NlpInstance>>) result;
+        }
+    }
+
+    /**
+     * Feature IDs of a list of extractors, computed once per distinct context identifier, so that feature IDs are shared across
+     * instances rather than rebuilt for each feature. Shared ID strings also cache their hash codes.
+     */
+    private static class FeatureIds implements Serializable {
+
+        private static final long serialVersionUID = 2843717006541617426L;
+
+        // context identifiers are normally drawn from a small fixed set, but are not cached beyond this bound
+        private static final int MAX_CONTEXTS = 4096;
+
+        private final String[] extractorIds;
+        private transient Map<String, String[]> ids;
+
+        FeatureIds(List<? extends FeatureExtractor<?, ?>> extractors) {
+            this.extractorIds = new String[extractors.size()];
+            for (int i = 0; i < extractorIds.length; ++i) {
+                extractorIds[i] = extractors.get(i).id();
+            }
+        }
+
+        String[] get(String contextId) {
+            Map<String, String[]> ids = this.ids;
+            if (ids == null) {
+                ids = new ConcurrentHashMap<>();
+                this.ids = ids;
+            }
+            String[] result = ids.get(contextId);
+            if (result == null) {
+                result = new String[extractorIds.length];
+                for (int i = 0; i < result.length; ++i) {
+                    result[i] = FeatureUtils.computeId(contextId, extractorIds[i]);
+                }
+                if (ids.size() < MAX_CONTEXTS) {
+                    ids.put(contextId, result);
+                }
+            }
+            return result;
+        }
+    }
+
+    private interface Step<InputT> extends Serializable {
+
+        void apply(InputT input, Contexts<InputT> contexts, FeatureSink sink);
+
+    }
+
+    private static class AggregateStep<InputT> implements Step<InputT> {
+
+        private static final long serialVersionUID = 6297810441498484428L;
+
+        private final List<Step<InputT>> steps;
+
+        AggregateStep(List<Step<InputT>> steps) {
+            this.steps = steps;
+        }
+
+        @Override
+        public void apply(InputT input, Contexts<InputT> contexts, FeatureSink sink) {
+            for (Step<InputT> step : steps) {
+                step.apply(input, contexts, sink);
+            }
+        }
+    }
+
+    private static class StringStep<InputT> implements Step<InputT> {
+
+        private static final long serialVersionUID = -2421848735305366271L;
+
+        private final int slot;
+        private final List<StringExtractor<NlpInstance>> extractors;
+        private final FeatureIds ids;
+
+        StringStep(int slot, List<StringExtractor<NlpInstance>> extractors) {
+            this.slot = slot;
+            this.extractors = extractors;
+            this.ids = new FeatureIds(extractors);
+        }
+
+        @Override
+        public void apply(InputT input, Contexts<InputT> contexts, FeatureSink sink) {
+            for (NlpContext<NlpInstance> context : contexts.get(slot)) {
+                List<NlpInstance> tokens = context.tokens();
+                String[] contextIds = ids.get(context.identifier());
+                for (int e = 0; e < contextIds.length; ++e) {
+                    StringExtractor<NlpInstance> extractor = extractors.get(e);
+                    String id = contextIds[e];
+                    if (tokens.size() == 1) {
+                        sink.add(id, String.valueOf(extractor.extract(tokens.get(0))));
+                        continue;
+                    }
+                    StringBuilder value = new StringBuilder();
+                    for (int i = 0; i < tokens.size(); ++i) {
+                        if (i > 0) {
+                            value.append(FeatureUtils.CONTEXT_DELIM);
+                        }
+                        value.append(extractor.extract(tokens.get(i)));
+                    }
+                    sink.add(id, value.toString());
+                }
+            }
+        }
+    }
+
+    private static class MultiStringStep<InputT> implements Step<InputT> {
+
+        private static final long serialVersionUID = 4455826224584722232L;
+
+        private final int slot;
+        private final List<StringListExtractor<NlpInstance>> extractors;
+        private final FeatureIds ids;
+
+        MultiStringStep(int slot, List<StringListExtractor<NlpInstance>> extractors) {
+            this.slot = slot;
+            this.extractors = extractors;
+            this.ids = new FeatureIds(extractors);
+        }
+
+        @Override
+        public void apply(InputT input, Contexts<InputT> contexts, FeatureSink sink) {
+            for (NlpContext<NlpInstance> context : contexts.get(slot)) {
+                if (context.tokens().size() > 1) {
+                    log.warn("Warning: using a multi-string feature extractor for a multi-token context.");
+                }
+                String[] contextIds = ids.get(context.identifier());
+                for (int e = 0; e < contextIds.length; ++e) {
+                    String id = contextIds[e];
+                    for (NlpInstance token : context.tokens()) {
+                        for (String result : extractors.get(e).extract(token)) {
+                            sink.add(id, result);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private static class ConjunctionStep<InputT> implements Step<InputT> {
+
+        private static final long serialVersionUID = -8757800950063307457L;
+
+        private final Step<InputT> first;
+        private final Step<InputT> second;
+
+        ConjunctionStep(Step<InputT> first, Step<InputT> second) {
+            this.first = first;
+            this.second = second;
+        }
+
+        @Override
+        public void apply(InputT input, Contexts<InputT> contexts, FeatureSink sink) {
+            List<StringFeature> firstFeatures = new ArrayList<>();
+            first.apply(input, contexts, (id, value) -> firstFeatures.add(new StringFeature(id, value)));
+            List<StringFeature> secondFeatures = firstFeatures;
+            if (second != first) {
+                List<StringFeature> features = new ArrayList<>();
+                second.apply(input, contexts, (id, value) -> features.add(new StringFeature(id, value)));
+                secondFeatures = features;
+            }
+            for (StringFeature left : firstFeatures) {
+                for (StringFeature right : secondFeatures) {
+                    if (left.equals(right)) {
+                        continue;
+                    }
+                    sink.add(left.id() + FeatureUtils.CONCAT_DELIM + right.id(),
+                            left.value() + FeatureUtils.CONCAT_DELIM + right.value());
+                }
+            }
+        }
+    }
+
+    private static class FunctionStep<InputT extends NlpInstance> implements Step<InputT> {
+
+        private static final long serialVersionUID = 5286452335722005096L;
+
+        private final FeatureFunction<InputT> function;
+
+        FunctionStep(FeatureFunction<InputT> function) {
+            this.function = function;
+        }
+
+        @Override
+        public void apply(InputT input, Contexts<InputT> contexts, FeatureSink sink) {
+            for (StringFeature feature : function.apply(input)) {
+                sink.add(feature.id(), feature.value());
+            }
+        }
+    }
+
+}
@@ -23,12 +23,16 @@ import io.github.clearwsd.type.NlpInstance;
 import io.github.clearwsd.feature.StringFeature;
 import io.github.clearwsd.feature.util.FeatureUtils;
 import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.experimental.Accessors;
 
 /**
  * Conjoin the results of two feature functions.
  *
  * @author jamesgung
  */
+@Getter
+@Accessors(fluent = true)
 @AllArgsConstructor
 public class ConjunctionFunction<InputT extends NlpInstance> implements FeatureFunction<InputT> {
 
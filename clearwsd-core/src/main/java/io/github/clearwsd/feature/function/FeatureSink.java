@@ -0,0 +1,36 @@
+/*
+ * Copyright 2017 James Gung
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.clearwsd.feature.function;
+
+/**
+ * Receiver of features produced by a {@link CompiledFeatureFunction}, avoiding intermediate {@link
+ * io.github.clearwsd.feature.StringFeature} lists.
+ *
+ * @author jamesgung
+ */
+@FunctionalInterface
+public interface FeatureSink {
+
+    /**
+     * Accept a single feature.
+     *
+     * @param id    feature ID
+     * @param value feature value
+     */
+    void add(String id, String value);
+
+}
@@ -27,6 +27,8 @@ import io.github.clearwsd.feature.context.NlpContext;
 import io.github.clearwsd.feature.context.NlpContextFactory;
 import io.github.clearwsd.feature.util.FeatureUtils;
 import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.experimental.Accessors;
 import lombok.extern.slf4j.Slf4j;
 
 /**
@@ -36,6 +38,8 @@ import lombok.extern.slf4j.Slf4j;
  * @author jamesgung
  */
 @Slf4j
+@Getter
+@Accessors(fluent = true)
 @AllArgsConstructor
 public class MultiStringFeatureFunction<InputT extends NlpInstance, OutputT extends NlpInstance>
         implements FeatureFunction<InputT> {
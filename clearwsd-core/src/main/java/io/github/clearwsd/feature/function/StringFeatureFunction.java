@@ -27,12 +27,16 @@ import io.github.clearwsd.feature.extractor.FeatureExtractor;
 import io.github.clearwsd.feature.extractor.StringExtractor;
 import io.github.clearwsd.feature.util.FeatureUtils;
 import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.experimental.Accessors;
 
 /**
  * String feature function.
  *
  * @author jamesgung
  */
+@Getter
+@Accessors(fluent = true)
 @AllArgsConstructor
 public class StringFeatureFunction<InputT extends NlpInstance, OutputT extends NlpInstance>
         implements FeatureFunction<InputT> {
@@ -16,9 +16,13 @@
 
 package io.github.clearwsd.feature.model;
 
-import com.google.common.collect.BiMap;
-import com.google.common.collect.HashBiMap;
-
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
 import lombok.Getter;
@@ -26,33 +30,106 @@ import lombok.Setter;
 import lombok.experimental.Accessors;
 
 /**
- * Default vocabulary implementation.
+ * Default vocabulary implementation, immutable apart from its default index. Features are stored in a compact {@link FeatureTable}.
  *
  * @author jamesgung
  */
-@Getter
 @Accessors(fluent = true)
 public class BaseVocabulary implements Vocabulary {
 
     private static final long serialVersionUID = 5268053360096219564L;
 
-    private BiMap<String, Integer> indices;
+    private FeatureTable table;
+    // index of each table entry in increasing order, or null if entries are indexed by their positions
+    private int[] ids;
 
+    @Getter
     @Setter
     private int defaultIndex = 0;
 
     public BaseVocabulary(Map<String, Integer> indices) {
-        this.indices = HashBiMap.create(indices);
+        initialize(indices);
+    }
+
+    /**
+     * Initialize a vocabulary from a table of features, indexing each feature by its position in the table.
+     *
+     * @param table feature table
+     */
+    public BaseVocabulary(FeatureTable table) {
+        this.table = table;
     }
 
     @Override
     public int index(String value) {
-        return indices.getOrDefault(value, 0);
+        return index(table.find(value));
+    }
+
+    /**
+     * Return the index for a feature given its ID and value, or 0 if it is not found, without building the feature string.
+     *
+     * @param id    feature ID
+     * @param value feature value
+     * @return corresponding index
+     */
+    @Override
+    public int index(String id, String value) {
+        return index(table.find(id, value));
     }
 
     @Override
     public String value(int index) {
-        return indices.inverse().get(index);
+        int position = ids == null ? index : Arrays.binarySearch(ids, index);
+        if (position < 0 || position >= table.size()) {
+            return null;
+        }
+        return table.get(position);
+    }
+
+    /**
+     * Return a new map of features to corresponding indices.
+     */
+    @Override
+    public Map<String, Integer> indices() {
+        Map<String, Integer> indices = new LinkedHashMap<>(table.size() * 2);
+        for (int position = 0; position < table.size(); ++position) {
+            indices.put(table.get(position), ids == null ? position : ids[position]);
+        }
+        return indices;
+    }
+
+    private int index(int position) {
+        if (position < 0) {
+            return 0;
+        }
+        return ids == null ? position : ids[position];
+    }
+
+    private void initialize(Map<String, Integer> indices) {
+        List<Map.Entry<String, Integer>> entries = new ArrayList<>(indices.entrySet());
+        entries.sort(Comparator.comparing(Map.Entry::getValue));
+        FeatureTable table = new FeatureTable(entries.size());
+        int[] ids = new int[entries.size()];
+        boolean dense = true;
+        for (Map.Entry<String, Integer> entry : entries) {
+            int position = table.add(entry.getKey());
+            ids[position] = entry.getValue();
+            dense &= ids[position] == position;
+        }
+        this.table = table.compact();
+        this.ids = dense ? null : ids;
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        ObjectInputStream.GetField fields = in.readFields();
+        defaultIndex = fields.get("defaultIndex", 0);
+        table = (FeatureTable) fields.get("table", null);
+        ids = (int[]) fields.get("ids", null);
+        if (table == null) {
+            // vocabularies serialized before the introduction of feature tables hold a map of features to indices
+            //noinspection unchecked
+            initialize((Map<String, Integer>) fields.get("indices", null));
+        }
     }
 
 }
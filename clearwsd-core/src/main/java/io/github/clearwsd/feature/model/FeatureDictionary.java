@@ -0,0 +1,167 @@
+/*
+ * Copyright 2017 James Gung
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.clearwsd.feature.model;
+
+import com.google.common.base.Preconditions;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+import io.github.clearwsd.feature.util.FeatureUtils;
+
+/**
+ * Global feature dictionary shared by multiple feature pipelines, such as the per-predicate sub-models of a
+ * {@link io.github.clearwsd.classifier.MultiClassifier}, assigning each distinct feature a global ID. Each feature string is stored
+ * once, however many sub-models use it, and sub-models map global IDs onto their own indices using a {@link SharedVocabulary}.
+ * Features may be added concurrently, e.g. by sub-models trained in parallel. {@link #freeze() Frozen} dictionaries are read-only
+ * and are looked up without locking.
+ *
+ * @author jamesgung
+ */
+public class FeatureDictionary implements Serializable {
+
+    private static final long serialVersionUID = -2087454129650532147L;
+
+    private final FeatureTable table;
+    private final boolean frozen;
+
+    private transient ReadWriteLock lock = new ReentrantReadWriteLock();
+    private transient FeatureDictionary snapshot;
+
+    /**
+     * Initialize an empty dictionary.
+     */
+    public FeatureDictionary() {
+        this(new FeatureTable(), false);
+    }
+
+    /**
+     * Initialize a dictionary containing the given features, each assigned its position in the list as its global ID.
+     *
+     * @param features distinct feature strings, in order of global ID
+     */
+    public FeatureDictionary(List<String> features) {
+        this(new FeatureTable(features.size()), false);
+        for (String feature : features) {
+            Preconditions.checkArgument(table.add(feature) == table.size() - 1, "Duplicate feature in dictionary: %s", feature);
+        }
+    }
+
+    private FeatureDictionary(FeatureTable table, boolean frozen) {
+        this.table = table;
+        this.frozen = frozen;
+    }
+
+    /**
+     * Return the global ID of a feature given its ID and value, adding it to this dictionary if it is not already present.
+     *
+     * @param id    feature ID
+     * @param value feature value
+     * @return global feature ID
+     */
+    public int index(String id, String value) {
+        Preconditions.checkState(!frozen, "Features cannot be added to a frozen dictionary.");
+        int index = read(() -> table.find(id, value));
+        if (index >= 0) {
+            return index;
+        }
+        Lock writeLock = lock.writeLock();
+        writeLock.lock();
+        try {
+            index = table.find(id, value);
+            return index >= 0 ? index : table.add(id + FeatureUtils.FEATURE_ID_SEP + value);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Return the global ID of a given feature, or -1 if it is not in this dictionary.
+     *
+     * @param feature feature string
+     * @return global feature ID, or -1 if not found
+     */
+    public int find(String feature) {
+        return frozen ? table.find(feature) : read(() -> table.find(feature));
+    }
+
+    /**
+     * Return the global ID of a feature given its ID and value, or -1 if it is not in this dictionary.
+     *
+     * @param id    feature ID
+     * @param value feature value
+     * @return global feature ID, or -1 if not found
+     */
+    public int find(String id, String value) {
+        return frozen ? table.find(id, value) : read(() -> table.find(id, value));
+    }
+
+    /**
+     * Return the feature with a given global ID.
+     *
+     * @param index global feature ID
+     * @return feature string
+     */
+    public String get(int index) {
+        return frozen ? table.get(index) : read(() -> table.get(index));
+    }
+
+    /**
+     * Return the number of features in this dictionary.
+     */
+    public int size() {
+        return frozen ? table.size() : read(table::size);
+    }
+
+    /**
+     * Return a read-only snapshot of this dictionary. Snapshots are reused until features are added, so that sub-models frozen
+     * together continue to share a single dictionary.
+     */
+    public synchronized FeatureDictionary freeze() {
+        if (frozen) {
+            return this;
+        }
+        return read(() -> {
+            if (snapshot == null || snapshot.size() != table.size()) {
+                snapshot = new FeatureDictionary(table.compact(), true);
+            }
+            return snapshot;
+        });
+    }
+
+    private <T> T read(Supplier<T> function) {
+        Lock readLock = lock.readLock();
+        readLock.lock();
+        try {
+            return function.get();
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        lock = new ReentrantReadWriteLock();
+    }
+
+}
@@ -0,0 +1,259 @@
+/*
+ * Copyright 2017 James Gung
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.clearwsd.feature.model;
+
+import com.google.common.base.Preconditions;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.Arrays;
+
+import io.github.clearwsd.feature.util.FeatureUtils;
+
+/**
+ * Compact append-only set of strings, each identified by its insertion position. Characters of all strings are stored in a single
+ * contiguous array, and strings are located through an open-addressing hash table of positions, so that no {@link String} or boxed
+ * integer is retained per entry. Lookups do not allocate, and features may be looked up by their ID and value without building
+ * the feature string. Serialized as raw arrays, with the hash table rebuilt on deserialization. Not safe for concurrent
+ * modification, but safe for concurrent lookups.
+ *
+ * @author jamesgung
+ */
+public class FeatureTable implements Serializable {
+
+    private static final long serialVersionUID = -6032416815749045338L;
+
+    private static final int AVERAGE_LENGTH = 16;
+
+    private transient char[] chars;
+    // start offset of each string in chars, followed by the end offset of the last string
+    private transient int[] offsets;
+    private transient int size;
+    // open-addressing hash table of positions + 1, with 0 marking empty slots
+    private transient int[] slots;
+    private transient int mask;
+
+    /**
+     * Initialize an empty table.
+     */
+    public FeatureTable() {
+        this(16);
+    }
+
+    /**
+     * Initialize an empty table with room for a given number of strings before growing.
+     *
+     * @param expectedSize expected number of strings
+     */
+    public FeatureTable(int expectedSize) {
+        Preconditions.checkArgument(expectedSize >= 0, "Expected size must be non-negative, got %s", expectedSize);
+        this.chars = new char[Math.max(1, expectedSize) * AVERAGE_LENGTH];
+        this.offsets = new int[expectedSize + 1];
+        rehash(capacity(expectedSize));
+    }
+
+    /**
+     * Return the number of strings in this table.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Return the string at a given position.
+     *
+     * @param position string position
+     * @return string at position
+     */
+    public String get(int position) {
+        Preconditions.checkElementIndex(position, size);
+        return new String(chars, offsets[position], offsets[position + 1] - offsets[position]);
+    }
+
+    /**
+     * Return the position of a given string, or -1 if it is null or not in this table.
+     *
+     * @param value string to find
+     * @return position of string, or -1 if not found
+     */
+    public int find(String value) {
+        if (value == null) {
+            return -1;
+        }
+        int slot = mix(value.hashCode()) & mask;
+        int entry;
+        while ((entry = slots[slot]) != 0) {
+            if (matches(entry - 1, value)) {
+                return entry - 1;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * Return the position of a feature string given its ID and value, or -1 if it is not in this table, without building the
+     * feature string.
+     *
+     * @param id    feature ID
+     * @param value feature value
+     * @return position of feature string, or -1 if not found
+     */
+    public int find(String id, String value) {
+        int slot = mix(FeatureUtils.featureHash(id, value)) & mask;
+        int entry;
+        while ((entry = slots[slot]) != 0) {
+            if (matches(entry - 1, id, value)) {
+                return entry - 1;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * Add a string to this table if it is not already present.
+     *
+     * @param value string to add
+     * @return position of string
+     */
+    public int add(String value) {
+        int position = find(value);
+        if (position >= 0) {
+            return position;
+        }
+        return append(value);
+    }
+
+    /**
+     * Return a copy of this table without any spare capacity.
+     */
+    public FeatureTable compact() {
+        FeatureTable table = new FeatureTable(0);
+        table.chars = Arrays.copyOf(chars, offsets[size]);
+        table.offsets = Arrays.copyOf(offsets, size + 1);
+        table.size = size;
+        table.rehash(capacity(size));
+        return table;
+    }
+
+    private int append(String value) {
+        int start = offsets[size];
+        if (start + value.length() > chars.length) {
+            chars = Arrays.copyOf(chars, Math.max(chars.length * 2, start + value.length()));
+        }
+        if (size + 2 > offsets.length) {
+            offsets = Arrays.copyOf(offsets, Math.max(offsets.length * 2, size + 2));
+        }
+        value.getChars(0, value.length(), chars, start);
+        int position = size++;
+        offsets[size] = start + value.length();
+        if (size * 2 > slots.length) {
+            rehash(slots.length * 2);
+        } else {
+            insert(position, value.hashCode());
+        }
+        return position;
+    }
+
+    private void rehash(int capacity) {
+        this.slots = new int[capacity];
+        this.mask = capacity - 1;
+        for (int position = 0; position < size; ++position) {
+            insert(position, hash(position));
+        }
+    }
+
+    private void insert(int position, int hash) {
+        int slot = mix(hash) & mask;
+        while (slots[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        slots[slot] = position + 1;
+    }
+
+    private int hash(int position) {
+        // equal to the String hash code
+        int hash = 0;
+        for (int i = offsets[position]; i < offsets[position + 1]; ++i) {
+            hash = 31 * hash + chars[i];
+        }
+        return hash;
+    }
+
+    private boolean matches(int position, String value) {
+        int start = offsets[position];
+        if (offsets[position + 1] - start != value.length()) {
+            return false;
+        }
+        for (int i = 0; i < value.length(); ++i) {
+            if (chars[start + i] != value.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean matches(int position, String id, String value) {
+        int start = offsets[position];
+        if (offsets[position + 1] - start != id.length() + 1 + value.length()) {
+            return false;
+        }
+        for (int i = 0; i < id.length(); ++i) {
+            if (chars[start + i] != id.charAt(i)) {
+                return false;
+            }
+        }
+        start += id.length();
+        if (chars[start++] != FeatureUtils.FEATURE_ID_SEP.charAt(0)) {
+            return false;
+        }
+        for (int i = 0; i < value.length(); ++i) {
+            if (chars[start + i] != value.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int capacity(int size) {
+        // keep the load factor at or below 1/2
+        return Integer.highestOneBit(Math.max(2, size * 2 - 1)) << 1;
+    }
+
+    private static int mix(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        out.writeInt(size);
+        out.writeObject(Arrays.copyOf(chars, offsets[size]));
+        out.writeObject(Arrays.copyOf(offsets, size + 1));
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        size = in.readInt();
+        chars = (char[]) in.readObject();
+        offsets = (int[]) in.readObject();
+        rehash(capacity(size));
+    }
+
+}
@@ -0,0 +1,174 @@
+/*
+ * Copyright 2017 James Gung
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.clearwsd.feature.model;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import io.github.clearwsd.feature.util.FeatureHashing;
+import io.github.clearwsd.feature.util.FeatureUtils;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.experimental.Accessors;
+
+/**
+ * Vocabulary that maps features onto a fixed-width index space using the hashing trick, with no stored feature strings. Distinct
+ * features may collide on the same index. Optionally records the first feature seen at each index for debugging purposes.
+ * <p>
+ * A vocabulary can be {@link #compact(int[]) compacted} to the hashed indices seen in training, so that classifier weights only
+ * cover those indices rather than the whole index space. Compacted indices start at 1, with 0 reserved for unseen features.
+ *
+ * @author jamesgung
+ */
+@Getter
+@Accessors(fluent = true)
+public class HashingVocabulary implements Vocabulary {
+
+    private static final long serialVersionUID = -2278424437826186153L;
+
+    private final int bits;
+    private final int seed;
+    @Getter(AccessLevel.NONE)
+    private final Map<Integer, String> debugValues;
+    // sorted hashed indices covered by a compacted vocabulary, or null to use the whole index space
+    @Getter(AccessLevel.NONE)
+    private final int[] seen;
+
+    /**
+     * Initialize a hashing vocabulary.
+     *
+     * @param bits  number of bits in index space (the vocabulary has 2^bits dimensions)
+     * @param seed  hash seed
+     * @param debug if true, record feature strings for each index
+     */
+    public HashingVocabulary(int bits, int seed, boolean debug) {
+        FeatureHashing.index(0, bits); // validate bits
+        this.bits = bits;
+        this.seed = seed;
+        this.debugValues = debug ? new HashMap<>() : null;
+        this.seen = null;
+    }
+
+    private HashingVocabulary(int bits, int seed, Map<Integer, String> debugValues, int[] seen) {
+        this.bits = bits;
+        this.seed = seed;
+        this.debugValues = debugValues;
+        this.seen = seen;
+    }
+
+    /**
+     * Return a vocabulary covering only the given hashed indices, such as those seen in training. Features hashed to any other
+     * index are mapped to 0. Recorded feature strings are shared with this vocabulary.
+     *
+     * @param indices hashed indices, as returned by an uncompacted vocabulary
+     * @return compacted vocabulary
+     */
+    public HashingVocabulary compact(int[] indices) {
+        return new HashingVocabulary(bits, seed, debugValues, Arrays.stream(indices).distinct().sorted().toArray());
+    }
+
+    /**
+     * Return a copy of this vocabulary covering the same indices, which does not record feature strings.
+     */
+    public HashingVocabulary withoutDebugging() {
+        return new HashingVocabulary(bits, seed, null, seen);
+    }
+
+    /**
+     * Return the index for a feature given its ID and value, without concatenating them.
+     *
+     * @param id    feature ID
+     * @param value feature value
+     * @return feature index
+     */
+    @Override
+    public int index(String id, String value) {
+        int index = FeatureHashing.index(FeatureHashing.hash(id, value, seed), bits);
+        if (debugValues != null) {
+            synchronized (debugValues) {
+                debugValues.putIfAbsent(index, id + FeatureUtils.FEATURE_ID_SEP + value);
+            }
+        }
+        return local(index);
+    }
+
+    @Override
+    public int index(String value) {
+        return local(FeatureHashing.index(FeatureHashing.hash(value, seed), bits));
+    }
+
+    @Override
+    public String value(int index) {
+        if (debugValues == null || (seen != null && (index < 1 || index > seen.length))) {
+            return null;
+        }
+        synchronized (debugValues) {
+            return debugValues.get(seen == null ? index : seen[index - 1]);
+        }
+    }
+
+    /**
+     * Return recorded features mapped to their indices (empty unless debugging is enabled).
+     */
+    @Override
+    public Map<String, Integer> indices() {
+        if (debugValues == null) {
+            return Collections.emptyMap();
+        }
+        Map<String, Integer> indices = new HashMap<>();
+        synchronized (debugValues) {
+            debugValues.forEach((index, value) -> {
+                int local = local(index);
+                if (seen == null || local > 0) {
+                    indices.put(value, local);
+                }
+            });
+        }
+        return indices;
+    }
+
+    /**
+     * Number of dimensions in the index space, including the index of unseen features if compacted.
+     */
+    public int size() {
+        return seen == null ? 1 << bits : seen.length + 1;
+    }
+
+    /**
+     * Return true if this vocabulary only covers the hashed indices seen in training.
+     */
+    public boolean compacted() {
+        return seen != null;
+    }
+
+    /**
+     * Return the index in this vocabulary of a hashed index, as returned by an uncompacted vocabulary.
+     *
+     * @param index hashed index
+     * @return index in this vocabulary, or 0 if this vocabulary is compacted and does not cover the hashed index
+     */
+    public int local(int index) {
+        if (seen == null) {
+            return index;
+        }
+        int position = Arrays.binarySearch(seen, index);
+        return position < 0 ? 0 : position + 1;
+    }
+
+}
@@ -0,0 +1,153 @@
+/*
+ * Copyright 2017 James Gung
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.clearwsd.feature.model;
+
+import com.google.common.base.Preconditions;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import lombok.Getter;
+import lombok.experimental.Accessors;
+
+/**
+ * Vocabulary of a single model backed by a {@link FeatureDictionary} shared with other models. Feature strings are stored only in
+ * the dictionary, while this vocabulary holds a sparse table mapping the global IDs of features used by its model onto the model's
+ * own indices, so that model weights remain indexed by dense local indices.
+ *
+ * @author jamesgung
+ */
+@Accessors(fluent = true)
+public class SharedVocabulary implements Vocabulary {
+
+    private static final long serialVersionUID = 2113405706434937154L;
+
+    @Getter
+    private final FeatureDictionary dictionary;
+    // global IDs in increasing order, and their corresponding local indices
+    private final int[] globals;
+    private final int[] locals;
+
+    /**
+     * Initialize a shared vocabulary.
+     *
+     * @param dictionary shared feature dictionary
+     * @param indices    map from global feature IDs to local indices
+     */
+    public SharedVocabulary(FeatureDictionary dictionary, Map<Integer, Integer> indices) {
+        this.dictionary = dictionary;
+        this.globals = indices.keySet().stream().mapToInt(Integer::intValue).sorted().toArray();
+        this.locals = new int[globals.length];
+        for (int i = 0; i < globals.length; ++i) {
+            locals[i] = indices.get(globals[i]);
+        }
+    }
+
+    /**
+     * Initialize a shared vocabulary from parallel arrays of global IDs and local indices.
+     *
+     * @param dictionary shared feature dictionary
+     * @param globals    global feature IDs, in increasing order
+     * @param locals     local index of each global feature ID
+     */
+    public SharedVocabulary(FeatureDictionary dictionary, int[] globals, int[] locals) {
+        Preconditions.checkArgument(globals.length == locals.length, "Expected %s local indices, got %s", globals.length,
+                locals.length);
+        for (int i = 1; i < globals.length; ++i) {
+            Preconditions.checkArgument(globals[i - 1] < globals[i], "Global feature IDs must be in increasing order");
+        }
+        this.dictionary = dictionary;
+        this.globals = globals;
+        this.locals = locals;
+    }
+
+    @Override
+    public int index(String value) {
+        return local(dictionary.find(value));
+    }
+
+    @Override
+    public int index(String id, String value) {
+        return local(dictionary.find(id, value));
+    }
+
+    /**
+     * Return the feature for a given local index, or null if none is found. Requires a linear scan, so is intended for
+     * inspecting models rather than feature extraction.
+     *
+     * @param index local index
+     * @return feature
+     */
+    @Override
+    public String value(int index) {
+        for (int i = 0; i < locals.length; ++i) {
+            if (locals[i] == index) {
+                return dictionary.get(globals[i]);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Return a new map of features to corresponding local indices.
+     */
+    @Override
+    public Map<String, Integer> indices() {
+        Map<String, Integer> indices = new HashMap<>(globals.length * 2);
+        for (int i = 0; i < globals.length; ++i) {
+            indices.put(dictionary.get(globals[i]), locals[i]);
+        }
+        return indices;
+    }
+
+    /**
+     * Return the global IDs of features used by this vocabulary's model, in increasing order.
+     */
+    public int[] globals() {
+        return globals.clone();
+    }
+
+    /**
+     * Return the local index of each global feature ID in {@link #globals()}.
+     */
+    public int[] locals() {
+        return locals.clone();
+    }
+
+    /**
+     * Return a copy of this vocabulary backed by a read-only snapshot of its dictionary.
+     */
+    public SharedVocabulary freeze() {
+        return new SharedVocabulary(dictionary.freeze(), globals, locals);
+    }
+
+    /**
+     * Return the local index of a feature given its global ID, or 0 if it is not used by this vocabulary's model.
+     *
+     * @param global global feature ID
+     * @return local index
+     */
+    public int local(int global) {
+        if (global < 0) {
+            return 0;
+        }
+        int position = Arrays.binarySearch(globals, global);
+        return position < 0 ? 0 : locals[position];
+    }
+
+}
@@ -19,6 +19,8 @@ package io.github.clearwsd.feature.model;
 import java.io.Serializable;
 import java.util.Map;
 
+import io.github.clearwsd.feature.util.FeatureUtils;
+
 /**
  * Feature vocabulary used to convert features to one-hot representations.
  *
@@ -39,6 +41,18 @@ public interface Vocabulary extends Serializable {
      */
     int index(String value);
 
+    /**
+     * Return an index for a feature given its ID and value, or a default value if it is not found. Implementations may avoid
+     * building the feature string.
+     *
+     * @param id    feature ID
+     * @param value feature value
+     * @return corresponding index
+     */
+    default int index(String id, String value) {
+        return index(id + FeatureUtils.FEATURE_ID_SEP + value);
+    }
+
     /**
      * Return a feature for a given index, or null if none is found.
      *
@@ -28,8 +28,10 @@ import io.github.clearwsd.classifier.Classifier;
 import io.github.clearwsd.classifier.Hyperparameter;
 import io.github.clearwsd.feature.optim.ga.CrossValidatingFitnessFunction;
 import io.github.clearwsd.feature.optim.ga.GeneticAlgorithm;
+import io.github.clearwsd.feature.pipeline.FeatureCache;
 import io.github.clearwsd.feature.pipeline.NlpClassifier;
 import lombok.Getter;
+import lombok.Setter;
 import lombok.experimental.Accessors;
 import lombok.extern.slf4j.Slf4j;
 
@@ -48,6 +50,9 @@ public class EvolutionaryModelTrainer<U extends NlpInstance> implements Classifi
 
     @Getter
     private NlpClassifier<U> classifier;
+    // maximum size in megabytes of extracted features held in memory across folds and genotypes
+    @Setter
+    private int cacheSize = 256;
 
     public EvolutionaryModelTrainer(GeneticAlgorithm<NlpClassifier<U>> ga) {
         this.ga = ga;
@@ -66,8 +71,14 @@ public class EvolutionaryModelTrainer<U extends NlpInstance> implements Classifi
     @Override
     public void train(List<U> train, List<U> valid) {
         // find the optimal feature architecture through cross-validation on training data
-        ((CrossValidatingFitnessFunction<U>) ga.fitnessFunction()).initialize(train);
-        ga.run();
+        CrossValidatingFitnessFunction<U> fitness = (CrossValidatingFitnessFunction<U>) ga.fitnessFunction();
+        fitness.initialize(train);
+        try (FeatureCache cache = FeatureCache.forInstances(train, (long) cacheSize << 20)) {
+            fitness.featureCache(cache);
+            ga.run();
+        } finally {
+            fitness.featureCache(null);
+        }
         // train on best genotype w/ full training set
         classifier = ga.best().phenotype();
         classifier.train(train, valid);
@@ -40,6 +40,7 @@ import io.github.clearwsd.eval.CrossValidation;
 import io.github.clearwsd.eval.CrossValidation.Fold;
 import io.github.clearwsd.eval.Evaluation;
 import io.github.clearwsd.feature.pipeline.DefaultFeaturePipeline;
+import io.github.clearwsd.feature.pipeline.FeatureCache;
 import io.github.clearwsd.feature.pipeline.FeaturePipeline;
 import io.github.clearwsd.feature.pipeline.NlpClassifier;
 import lombok.Setter;
@@ -67,6 +68,8 @@ public class MetaModelTrainer<U extends NlpInstance> implements Classifier<U, St
         TrainRatio("percentage of data to use in training per fold", "0.8",
                 (c, value) -> c.ratio = Double.valueOf(value)),
         Seed("random seed for shuffling", "0", (c, value) -> c.seed = Integer.valueOf(value)),
+        CacheSize("maximum size in megabytes of extracted features held in memory across folds and iterations", "256",
+                (c, value) -> c.cacheSize = Integer.valueOf(value)),
         Verbose("display training logs", "true", (c, value) -> c.verbose = Boolean.valueOf(value));
         private Hyperparameter<MetaModelTrainer> parameter;
 
@@ -115,6 +118,8 @@ public class MetaModelTrainer<U extends NlpInstance> implements Classifier<U, St
     private boolean parallel = true;
     @Setter
     private boolean verbose = true;
+    @Setter
+    private int cacheSize = 256;
 
     private NlpClassifier<U> classifier;
 
@@ -142,29 +147,34 @@ public class MetaModelTrainer<U extends NlpInstance> implements Classifier<U, St
         FeaturePipeline<U> result = null;
         List<Fold<U>> folds = cv.createFolds(train, this.folds, ratio);
         int epochsNoChange = 0;
-        for (int i = 1; i <= iterations && epochsNoChange < patience; ++i) {
-            FeatureFunction<U> featureFunction = featureFactory.create();
-            NlpClassifier<U> classifier = new NlpClassifier<>(classifierFactory.create(),
-                    new DefaultFeaturePipeline<>(featureFunction));
-
-            Evaluation eval = new Evaluation(
-                    parallel ? cv.crossValidateParallel(() -> new NlpClassifier<>(classifierFactory.create(),
-                            new DefaultFeaturePipeline<>(featureFunction)), folds)
-                            : cv.crossValidate(classifier, folds)
-            );
-
-            if (eval.f1() > best.f1() || result == null) {
-                epochsNoChange = 0;
-                best = eval;
-                result = new DefaultFeaturePipeline<>(featureFunction);
-                if (verbose) {
-                    log.debug("Iteration {}/{} (F1: {})", i, iterations, new DecimalFormat("#.###").format(best.f1()));
+        try (FeatureCache cache = FeatureCache.forInstances(train, (long) cacheSize << 20)) {
+            for (int i = 1; i <= iterations && epochsNoChange < patience; ++i) {
+                FeatureFunction<U> featureFunction = featureFactory.create();
+                NlpClassifier<U> classifier = new NlpClassifier<>(classifierFactory.create(),
+                        new DefaultFeaturePipeline<>(featureFunction).featureCache(cache));
+
+                Evaluation eval = new Evaluation(
+                        parallel ? cv.crossValidateParallel(() -> new NlpClassifier<>(classifierFactory.create(),
+                                new DefaultFeaturePipeline<>(featureFunction).featureCache(cache)), folds)
+                                : cv.crossValidate(classifier, folds)
+                );
+
+                if (eval.f1() > best.f1() || result == null) {
+                    epochsNoChange = 0;
+                    best = eval;
+                    result = new DefaultFeaturePipeline<>(featureFunction);
+                    if (verbose) {
+                        log.debug("Iteration {}/{} (F1: {})", i, iterations, new DecimalFormat("#.###").format(best.f1()));
+                    }
+                } else {
+                    epochsNoChange++;
+                }
+                if (best.f1() >= maxScore) {
+                    break;
                 }
-            } else {
-                epochsNoChange++;
             }
-            if (best.f1() >= maxScore) {
-                break;
+            if (verbose && cache != null) {
+                log.debug("Extracted features {} times ({} reads from disk)", cache.extractions(), cache.diskReads());
             }
         }
         // train final classifier using the top-scoring feature function
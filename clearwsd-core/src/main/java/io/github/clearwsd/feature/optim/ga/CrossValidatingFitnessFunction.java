@@ -25,6 +25,8 @@ import io.github.clearwsd.type.NlpInstance;
 import io.github.clearwsd.eval.CrossValidation;
 import io.github.clearwsd.eval.CrossValidation.Fold;
 import io.github.clearwsd.eval.Evaluation;
+import io.github.clearwsd.feature.pipeline.DefaultFeaturePipeline;
+import io.github.clearwsd.feature.pipeline.FeatureCache;
 import io.github.clearwsd.feature.pipeline.NlpClassifier;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
@@ -49,6 +51,8 @@ public class CrossValidatingFitnessFunction<T extends NlpInstance> implements Fu
 
     private int numFolds = 5;
     private double samplingRatio = 0.8;
+    // cache of extracted features shared by all evaluated genotypes, or null to extract features for each fold
+    private FeatureCache featureCache;
 
     public CrossValidatingFitnessFunction(CrossValidation<T> cv) {
         this.cv = cv;
@@ -61,6 +65,9 @@ public class CrossValidatingFitnessFunction<T extends NlpInstance> implements Fu
     @Override
     public Double apply(NlpClassifier<T> genotype) {
         Preconditions.checkState(folds != null, "Must initialize with data before applying function.");
+        if (featureCache != null && genotype.featurePipeline() instanceof DefaultFeaturePipeline) {
+            ((DefaultFeaturePipeline<T>) genotype.featurePipeline()).featureCache(featureCache);
+        }
         Evaluation evaluations = new Evaluation(cv.crossValidate(genotype, folds));
         return evaluations.f1();
     }
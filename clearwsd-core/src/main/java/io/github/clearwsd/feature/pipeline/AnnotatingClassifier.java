@@ -30,18 +30,24 @@ import io.github.clearwsd.classifier.Classifier;
 import io.github.clearwsd.classifier.Hyperparameter;
 import io.github.clearwsd.feature.annotator.Annotator;
 import io.github.clearwsd.feature.resource.FeatureResourceManager;
+import lombok.Getter;
+import lombok.experimental.Accessors;
 
 /**
  * Classifier wrapper that applies provided annotations prior to training, classification and scoring.
  *
  * @author jamesgung
  */
+@Accessors(fluent = true)
 public class AnnotatingClassifier<T> implements Classifier<T, String> {
 
     private static final long serialVersionUID = -6677942446282205271L;
 
+    @Getter
     private Classifier<T, String> classifier;
+    @Getter
     private Annotator<T> annotator;
+    private boolean frozen;
 
     public AnnotatingClassifier(Classifier<T, String> classifier,
                                 Annotator<T> annotator) {
@@ -74,6 +80,7 @@ public class AnnotatingClassifier<T> implements Classifier<T, String> {
 
     @Override
     public void train(List<T> train, List<T> valid) {
+        Preconditions.checkState(!frozen, "Frozen classifiers cannot be trained.");
         Preconditions.checkState(annotator.initialized(), "Annotator is not initialized.");
         train = train.parallelStream().map(annotator::annotate).collect(Collectors.toList());
         valid = valid.parallelStream().map(annotator::annotate).collect(Collectors.toList());
@@ -90,6 +97,17 @@ public class AnnotatingClassifier<T> implements Classifier<T, String> {
         classifier.initialize(properties);
     }
 
+    /**
+     * Return a snapshot of this classifier with a frozen base classifier. Annotators are shared, and must be initialized first.
+     */
+    @Override
+    public AnnotatingClassifier<T> freeze() {
+        Preconditions.checkState(annotator.initialized(), "Annotator is not initialized.");
+        AnnotatingClassifier<T> frozen = new AnnotatingClassifier<>(classifier.freeze(), annotator);
+        frozen.frozen = true;
+        return frozen;
+    }
+
     @Override
     public void load(ObjectInputStream inputStream) {
         try {
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2017 James Gung
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.clearwsd.feature.pipeline;
+
+import java.util.List;
+
+import io.github.clearwsd.feature.function.CompiledFeatureFunction;
+import io.github.clearwsd.feature.function.FeatureFunction;
+import io.github.clearwsd.type.NlpInstance;
+
+/**
+ * Base feature pipeline, holding the execution plan compiled from the pipeline's {@link FeatureFunction}. The plan is compiled
+ * on first use, and again whenever the feature function is replaced, so subclasses only need to store the feature function.
+ *
+ * @author jamesgung
+ */
+public abstract class BaseFeaturePipeline<I extends NlpInstance> implements FeaturePipeline<I> {
+
+    private static final long serialVersionUID = -3969416154305768233L;
+
+    // execution plan of the current feature function, compiled on first use
+    private transient volatile Plan<I> plan;
+
+    /**
+     * Return the feature function applied by this pipeline.
+     *
+     * @return feature function
+     */
+    public abstract FeatureFunction<I> features();
+
+    /**
+     * Return the execution plan compiled from the current feature function.
+     *
+     * @return compiled feature function
+     */
+    protected CompiledFeatureFunction<I> plan() {
+        return compiledPlan().function;
+    }
+
+    /**
+     * Return the current feature function split into separately cached {@link FeatureCache} units.
+     *
+     * @return feature cache units
+     */
+    protected List<FeatureCache.Unit<I>> units() {
+        Plan<I> plan = compiledPlan();
+        List<FeatureCache.Unit<I>> units = plan.units;
+        if (units == null) {
+            units = FeatureCache.units(plan.source);
+            plan.units = units;
+        }
+        return units;
+    }
+
+    private Plan<I> compiledPlan() {
+        FeatureFunction<I> features = features();
+        Plan<I> plan = this.plan;
+        if (plan == null || plan.source != features) {
+            // compilation is deterministic, so concurrent callers may safely race to initialize the plan
+            plan = new Plan<>(features);
+            this.plan = plan;
+        }
+        return plan;
+    }
+
+    private static class Plan<I extends NlpInstance> {
+
+        private final FeatureFunction<I> source;
+        private final CompiledFeatureFunction<I> function;
+        private volatile List<FeatureCache.Unit<I>> units;
+
+        private Plan(FeatureFunction<I> source) {
+            this.source = source;
+            this.function = CompiledFeatureFunction.compile(source);
+        }
+    }
+
+}
@@ -18,7 +18,9 @@ package io.github.clearwsd.feature.pipeline;
 
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.function.Function;
 
 import io.github.clearwsd.type.FeatureType;
@@ -26,10 +28,11 @@ import io.github.clearwsd.type.NlpInstance;
 import io.github.clearwsd.classifier.DefaultSparseInstance;
 import io.github.clearwsd.classifier.SparseInstance;
 import io.github.clearwsd.classifier.SparseVectorBuilder;
-import io.github.clearwsd.feature.StringFeature;
 import io.github.clearwsd.feature.function.FeatureFunction;
 import io.github.clearwsd.feature.model.BaseFeatureModel;
+import io.github.clearwsd.feature.model.FeatureDictionary;
 import io.github.clearwsd.feature.model.FeatureModel;
+import io.github.clearwsd.feature.model.SharedVocabulary;
 import io.github.clearwsd.feature.util.VocabularyBuilder;
 import lombok.Getter;
 import lombok.Setter;
@@ -43,12 +46,16 @@ import lombok.experimental.Accessors;
 @Setter
 @Getter
 @Accessors(fluent = true)
-public class DefaultFeaturePipeline<I extends NlpInstance> implements FeaturePipeline<I> {
+public class DefaultFeaturePipeline<I extends NlpInstance> extends BaseFeaturePipeline<I> {
 
     private static final long serialVersionUID = 7756681760870831311L;
 
     private FeatureFunction<I> features;
     private FeatureModel model;
+    // global dictionary shared with other pipelines, or null to use a vocabulary local to this pipeline
+    private FeatureDictionary dictionary;
+    // cache of extracted features shared with other pipelines, or null to extract features on each call
+    private transient FeatureCache featureCache;
 
     private Function<I, String> labelFunction = (Serializable & Function<I, String>) i -> i.feature(FeatureType.Gold);
 
@@ -56,13 +63,30 @@ public class DefaultFeaturePipeline<I extends NlpInstance> implements FeaturePip
         this.features = features;
     }
 
+    /**
+     * Set a cache of extracted features, shared with other pipelines trained or applied on the same instances, e.g. across
+     * cross-validation folds. While a cache is set, training indexes features in the cache's dictionary rather than in
+     * {@link #dictionary()}, so that cached feature IDs only need to be mapped onto model indices.
+     *
+     * @param featureCache feature cache, or null to extract features on each call
+     * @return this pipeline
+     */
+    public DefaultFeaturePipeline<I> featureCache(FeatureCache featureCache) {
+        this.featureCache = featureCache;
+        return this;
+    }
+
     @Override
     public SparseInstance process(I instance) {
-        List<StringFeature> features = this.features.apply(instance);
-
-        SparseVectorBuilder builder = new SparseVectorBuilder();
-        features.stream().map(feature -> model.featureIndex(feature.toString()))
-                .forEach(builder::addIndex);
+        SparseVectorBuilder builder = SparseVectorBuilder.pooled();
+        FeatureCache featureCache = this.featureCache;
+        if (featureCache != null && model.features() instanceof SharedVocabulary
+                && ((SharedVocabulary) model.features()).dictionary() == featureCache.dictionary()) {
+            SharedVocabulary vocabulary = (SharedVocabulary) model.features();
+            featureCache.apply(units(), instance, global -> builder.addIndex(vocabulary.local(global)));
+        } else {
+            plan().apply(instance, (id, value) -> builder.addIndex(model.features().index(id, value)));
+        }
 
         int target = model.labelIndex(labelFunction.apply(instance));
         return new DefaultSparseInstance(instance.index(), target, builder.build());
@@ -74,21 +98,31 @@ public class DefaultFeaturePipeline<I extends NlpInstance> implements FeaturePip
 
         VocabularyBuilder featureVocab = new VocabularyBuilder();
         VocabularyBuilder labelVocab = new VocabularyBuilder();
+        // local indices of global feature IDs, in order of first occurrence
+        Map<Integer, Integer> sharedIndices = new HashMap<>();
+
+        FeatureCache featureCache = this.featureCache;
+        FeatureDictionary dictionary = featureCache == null ? this.dictionary : featureCache.dictionary();
 
         List<SparseInstance> results = new ArrayList<>();
         for (I instance : instances) {
-            List<StringFeature> features = this.features.apply(instance);
-
-            SparseVectorBuilder builder = new SparseVectorBuilder();
-            features.stream().map(f -> featureVocab.index(f.toString()))
-                    .forEach(builder::addIndex);
+            SparseVectorBuilder builder = SparseVectorBuilder.pooled();
+            if (featureCache != null) {
+                featureCache.apply(units(), instance, global -> builder.addIndex(
+                        sharedIndices.computeIfAbsent(global, none -> sharedIndices.size())));
+            } else if (dictionary == null) {
+                plan().apply(instance, (id, value) -> builder.addIndex(featureVocab.index(id, value)));
+            } else {
+                plan().apply(instance, (id, value) -> builder.addIndex(
+                        sharedIndices.computeIfAbsent(dictionary.index(id, value), none -> sharedIndices.size())));
+            }
 
             int target = labelVocab.index(labelFunction.apply(instance));
             results.add(new DefaultSparseInstance(instance.index(), target, builder.build()));
         }
 
-        model.features(featureVocab.build());
-        if (labelVocab.counts().size() == 0) {
+        model.features(dictionary == null ? featureVocab.build() : new SharedVocabulary(dictionary, sharedIndices));
+        if (labelVocab.size() == 0) {
             labelVocab.index(VocabularyBuilder.DEFAULT);
         }
         model.labels(labelVocab.build());
@@ -96,4 +130,21 @@ public class DefaultFeaturePipeline<I extends NlpInstance> implements FeaturePip
         return results;
     }
 
+    /**
+     * Return a copy of this pipeline sharing its feature functions and current model, which is replaced rather than modified
+     * when this pipeline is re-trained. Vocabularies backed by a shared dictionary are switched to a read-only snapshot of the
+     * dictionary, which is shared by all pipelines frozen before further features are added.
+     */
+    @Override
+    public DefaultFeaturePipeline<I> freeze() {
+        FeatureModel model = this.model;
+        if (model != null && model.features() instanceof SharedVocabulary) {
+            model = new BaseFeatureModel(model.labels(), ((SharedVocabulary) model.features()).freeze());
+        }
+        return new DefaultFeaturePipeline<>(features)
+                .model(model)
+                .dictionary(dictionary == null ? null : dictionary.freeze())
+                .labelFunction(labelFunction);
+    }
+
 }
@@ -0,0 +1,467 @@
+/*
+ * Copyright 2017 James Gung
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.clearwsd.feature.pipeline;
+
+import com.google.common.base.Preconditions;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.cache.RemovalNotification;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntConsumer;
+
+import io.github.clearwsd.feature.function.AggregateFeatureFunction;
+import io.github.clearwsd.feature.function.BiasFeatureFunction;
+import io.github.clearwsd.feature.function.CompiledFeatureFunction;
+import io.github.clearwsd.feature.function.ConjunctionFunction;
+import io.github.clearwsd.feature.function.FeatureFunction;
+import io.github.clearwsd.feature.function.FeatureSink;
+import io.github.clearwsd.feature.function.MultiStringFeatureFunction;
+import io.github.clearwsd.feature.function.StringFeatureFunction;
+import io.github.clearwsd.feature.model.FeatureDictionary;
+import io.github.clearwsd.type.NlpInstance;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Cache of extracted features, shared by feature pipelines that are repeatedly trained and evaluated on the same instances, such
+ * as across cross-validation folds and candidate feature functions during feature search. Feature functions are split into units
+ * (the functions of an {@link AggregateFeatureFunction}), and the features of each unit are cached per instance as arrays of IDs
+ * in a shared {@link FeatureDictionary}. Units are keyed by their structure and the identity of their context factories and
+ * extractors, so that equivalent units of distinct candidate feature functions share cached features. Instances are keyed by
+ * their {@link NlpInstance#index() index}, which must be unique among cached instances.
+ * <p>
+ * Cached features are held in memory up to a given budget. Entries evicted from memory are spilled to a temporary file if a spill
+ * directory is provided, and recomputed otherwise. The in-memory index of spilled entries is counted against the memory budget,
+ * of which it may use up to a quarter, and the spill file is bounded in size. Once either is full, further evicted entries are
+ * recomputed when next needed. Safe for concurrent use.
+ *
+ * @author jamesgung
+ */
+@Slf4j
+public class FeatureCache implements AutoCloseable {
+
+    /**
+     * Default maximum size in bytes of cached features held in memory.
+     */
+    public static final long DEFAULT_MEMORY_BYTES = 256L << 20;
+    /**
+     * Default maximum size in bytes of the spill file.
+     */
+    public static final long DEFAULT_SPILL_BYTES = 4L << 30;
+
+    // approximate per-entry overhead of keys, arrays and cache structures
+    private static final int ENTRY_BYTES = 96;
+    // approximate per-entry overhead of the index of spilled entries (map node, key and offset)
+    static final int SPILLED_ENTRY_BYTES = 80;
+
+    private final FeatureDictionary dictionary = new FeatureDictionary();
+    private final Cache<EntryKey, int[]> memory;
+    private final Path spillPath;
+    private final FileChannel spillChannel;
+    // offsets of entries spilled to disk
+    private final Map<EntryKey, Long> spilled = new ConcurrentHashMap<>();
+    private final long maxSpillIndexBytes;
+    private final long maxSpillBytes;
+    private long spillIndexBytes;
+    private long spillSize;
+    private boolean spillFull;
+    private volatile boolean closed;
+
+    private final AtomicLong extractions = new AtomicLong();
+    private final AtomicLong diskReads = new AtomicLong();
+
+    /**
+     * Initialize a feature cache.
+     *
+     * @param maxMemoryBytes maximum size in bytes of cached features and the index of spilled entries held in memory
+     * @param spillDirectory directory of the temporary file holding entries evicted from memory, or null to discard them
+     * @param maxSpillBytes  maximum size in bytes of the spill file
+     */
+    public FeatureCache(long maxMemoryBytes, Path spillDirectory, long maxSpillBytes) {
+        Preconditions.checkArgument(maxMemoryBytes >= 0, "Memory budget must be non-negative, got %s", maxMemoryBytes);
+        Preconditions.checkArgument(maxSpillBytes >= 0, "Spill file size must be non-negative, got %s", maxSpillBytes);
+        this.maxSpillIndexBytes = spillDirectory == null ? 0 : maxMemoryBytes / 4;
+        this.maxSpillBytes = maxSpillBytes;
+        this.memory = CacheBuilder.newBuilder()
+                .maximumWeight(maxMemoryBytes - maxSpillIndexBytes)
+                .<EntryKey, int[]>weigher((key, value) -> ENTRY_BYTES + 4 * value.length)
+                .removalListener(this::spill)
+                .recordStats()
+                .build();
+        if (spillDirectory == null) {
+            this.spillPath = null;
+            this.spillChannel = null;
+            return;
+        }
+        try {
+            Files.createDirectories(spillDirectory);
+            this.spillPath = Files.createTempFile(spillDirectory, "features", ".spill");
+            this.spillChannel = FileChannel.open(spillPath, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        } catch (IOException e) {
+            throw new RuntimeException("Unable to create feature cache spill file in " + spillDirectory + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Initialize a feature cache with a spill file of at most {@link #DEFAULT_SPILL_BYTES}.
+     *
+     * @param maxMemoryBytes maximum size in bytes of cached features and the index of spilled entries held in memory
+     * @param spillDirectory directory of the temporary file holding entries evicted from memory, or null to discard them
+     */
+    public FeatureCache(long maxMemoryBytes, Path spillDirectory) {
+        this(maxMemoryBytes, spillDirectory, DEFAULT_SPILL_BYTES);
+    }
+
+    /**
+     * Initialize a feature cache, spilling entries evicted from memory to the default temporary-file directory.
+     *
+     * @param maxMemoryBytes maximum size in bytes of cached features and the index of spilled entries held in memory
+     */
+    public FeatureCache(long maxMemoryBytes) {
+        this(maxMemoryBytes, Paths.get(System.getProperty("java.io.tmpdir")));
+    }
+
+    /**
+     * Return the dictionary assigning IDs to cached features.
+     */
+    public FeatureDictionary dictionary() {
+        return dictionary;
+    }
+
+    /**
+     * Return a new cache for the features of given instances, or null if their features cannot be cached. Used by trainers that
+     * repeatedly train pipelines on the same instances, so that the features of each instance are extracted once per distinct
+     * feature function unit, rather than once per cross-validation fold and candidate feature function. Cached features are
+     * keyed by {@link NlpInstance#index() instance index}, so instances sharing an index would be given each other's features.
+     *
+     * @param instances      instances whose features are to be cached
+     * @param maxMemoryBytes maximum size in bytes of cached features and the index of spilled entries held in memory
+     * @return feature cache, or null if the indices of the instances are not distinct
+     */
+    public static FeatureCache forInstances(List<? extends NlpInstance> instances, long maxMemoryBytes) {
+        if (!distinctIndices(instances)) {
+            log.warn("Instance indices are not distinct, so extracted features will not be cached");
+            return null;
+        }
+        return new FeatureCache(maxMemoryBytes);
+    }
+
+    /**
+     * Return true if the indices of given instances are distinct, so that their features may be cached.
+     *
+     * @param instances input instances
+     * @return true if no two instances share an index
+     */
+    public static boolean distinctIndices(List<? extends NlpInstance> instances) {
+        Set<Integer> indices = new HashSet<>(instances.size() * 2);
+        for (NlpInstance instance : instances) {
+            if (!indices.add(instance.index())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Split a feature function into separately cached units.
+     *
+     * @param function feature function
+     * @param <I>      input type
+     * @return list of units
+     */
+    public static <I extends NlpInstance> List<Unit<I>> units(FeatureFunction<I> function) {
+        List<Unit<I>> units = new ArrayList<>();
+        addUnits(function, units);
+        return units;
+    }
+
+    /**
+     * Pass the dictionary IDs of the features of a given instance to a consumer, in the order produced by the units' feature
+     * functions. Features are extracted only for units not already cached for the instance.
+     *
+     * @param units    feature function units
+     * @param instance input instance
+     * @param consumer feature ID consumer
+     * @param <I>      input type
+     */
+    public <I extends NlpInstance> void apply(List<Unit<I>> units, I instance, IntConsumer consumer) {
+        Preconditions.checkState(!closed, "Feature cache has been closed.");
+        for (Unit<I> unit : units) {
+            EntryKey key = new EntryKey(unit, instance.index());
+            int[] features;
+            try {
+                features = memory.get(key, () -> load(key, unit, instance));
+            } catch (ExecutionException e) {
+                throw new RuntimeException("Error extracting features: " + e.getCause().getMessage(), e.getCause());
+            }
+            for (int feature : features) {
+                consumer.accept(feature);
+            }
+        }
+    }
+
+    /**
+     * Return the number of unit features extracted, having been missing from both memory and disk.
+     */
+    public long extractions() {
+        return extractions.get();
+    }
+
+    /**
+     * Return the number of unit features read from disk, having been evicted from memory.
+     */
+    public long diskReads() {
+        return diskReads.get();
+    }
+
+    /**
+     * Return the number of unit features spilled to disk.
+     */
+    public long spills() {
+        return spilled.size();
+    }
+
+    /**
+     * Return the size in bytes of the spill file.
+     */
+    public synchronized long spillBytes() {
+        return spillSize;
+    }
+
+    /**
+     * Return hit/miss statistics of the in-memory cache.
+     */
+    public CacheStats memoryStats() {
+        return memory.stats();
+    }
+
+    /**
+     * Release cached features and delete the spill file.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        memory.invalidateAll();
+        spilled.clear();
+        if (spillChannel != null) {
+            try {
+                spillChannel.close();
+                Files.deleteIfExists(spillPath);
+            } catch (IOException e) {
+                log.warn("Unable to delete feature cache spill file at {}", spillPath, e);
+            }
+        }
+    }
+
+    private <I extends NlpInstance> int[] load(EntryKey key, Unit<I> unit, I instance) throws IOException {
+        Long offset = spilled.get(key);
+        if (offset != null) {
+            diskReads.incrementAndGet();
+            return read(offset);
+        }
+        extractions.incrementAndGet();
+        FeatureIds features = new FeatureIds();
+        unit.plan.apply(instance, features);
+        return Arrays.copyOf(features.ids, features.size);
+    }
+
+    private void spill(RemovalNotification<EntryKey, int[]> notification) {
+        if (spillChannel == null || closed || !notification.wasEvicted() || spilled.containsKey(notification.getKey())) {
+            return;
+        }
+        int[] features = notification.getValue();
+        ByteBuffer buffer = ByteBuffer.allocate(4 + 4 * features.length);
+        buffer.putInt(features.length);
+        buffer.asIntBuffer().put(features);
+        buffer.rewind();
+        try {
+            long offset;
+            synchronized (this) {
+                if (spillIndexBytes + SPILLED_ENTRY_BYTES > maxSpillIndexBytes || spillSize + buffer.capacity() > maxSpillBytes) {
+                    if (!spillFull) {
+                        spillFull = true;
+                        log.debug("Feature cache spill limit reached ({} entries, {} bytes), discarding evicted features",
+                                spilled.size(), spillSize);
+                    }
+                    return;
+                }
+                offset = spillSize;
+                spillSize += buffer.capacity();
+                spillIndexBytes += SPILLED_ENTRY_BYTES;
+            }
+            while (buffer.hasRemaining()) {
+                spillChannel.write(buffer, offset + buffer.position());
+            }
+            spilled.put(notification.getKey(), offset);
+        } catch (IOException e) {
+            log.warn("Unable to spill cached features to {}", spillPath, e);
+        }
+    }
+
+    private int[] read(long offset) throws IOException {
+        ByteBuffer length = ByteBuffer.allocate(4);
+        readFully(length, offset);
+        ByteBuffer buffer = ByteBuffer.allocate(4 * length.getInt(0));
+        readFully(buffer, offset + 4);
+        int[] features = new int[buffer.capacity() / 4];
+        buffer.asIntBuffer().get(features);
+        return features;
+    }
+
+    private void readFully(ByteBuffer buffer, long offset) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (spillChannel.read(buffer, offset + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of feature cache spill file at " + spillPath);
+            }
+        }
+        buffer.flip();
+    }
+
+    private static <I extends NlpInstance> void addUnits(FeatureFunction<I> function, List<Unit<I>> units) {
+        if (function instanceof AggregateFeatureFunction) {
+            for (FeatureFunction<I> child : ((AggregateFeatureFunction<I>) function).functions()) {
+                addUnits(child, units);
+            }
+        } else {
+            units.add(new Unit<>(key(function), CompiledFeatureFunction.compile(function)));
+        }
+    }
+
+    private static Object key(FeatureFunction<?> function) {
+        if (function instanceof StringFeatureFunction) {
+            StringFeatureFunction<?, ?> stringFunction = (StringFeatureFunction<?, ?>) function;
+            return Arrays.asList(StringFeatureFunction.class, new IdentityKey(stringFunction.contextFactory()),
+                    identityKeys(stringFunction.featureExtractors()));
+        } else if (function instanceof MultiStringFeatureFunction) {
+            MultiStringFeatureFunction<?, ?> multiFunction = (MultiStringFeatureFunction<?, ?>) function;
+            return Arrays.asList(MultiStringFeatureFunction.class, new IdentityKey(multiFunction.contextFactory()),
+                    identityKeys(multiFunction.featureExtractors()));
+        } else if (function instanceof ConjunctionFunction) {
+            ConjunctionFunction<?> conjunction = (ConjunctionFunction<?>) function;
+            return Arrays.asList(ConjunctionFunction.class, key(conjunction.first()), key(conjunction.second()));
+        } else if (function instanceof BiasFeatureFunction) {
+            return Arrays.asList(BiasFeatureFunction.class, ((BiasFeatureFunction<?>) function).bias());
+        }
+        return new IdentityKey(function);
+    }
+
+    private static List<IdentityKey> identityKeys(List<?> values) {
+        List<IdentityKey> keys = new ArrayList<>(values.size());
+        for (Object value : values) {
+            keys.add(new IdentityKey(value));
+        }
+        return keys;
+    }
+
+    /**
+     * Separately cached part of a feature function.
+     *
+     * @param <I> input type
+     */
+    public static class Unit<I extends NlpInstance> {
+
+        private final Object key;
+        private final int hash;
+        private final CompiledFeatureFunction<I> plan;
+
+        private Unit(Object key, CompiledFeatureFunction<I> plan) {
+            this.key = key;
+            this.hash = key.hashCode();
+            this.plan = plan;
+        }
+    }
+
+    /**
+     * Feature sink collecting the dictionary IDs of features.
+     */
+    private class FeatureIds implements FeatureSink {
+
+        private int[] ids = new int[16];
+        private int size;
+
+        @Override
+        public void add(String id, String value) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            ids[size++] = dictionary.index(id, value);
+        }
+    }
+
+    private static class IdentityKey {
+
+        private final Object value;
+
+        IdentityKey(Object value) {
+            this.value = value;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof IdentityKey && ((IdentityKey) other).value == value;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(value);
+        }
+    }
+
+    private static class EntryKey {
+
+        private final Object unit;
+        private final int index;
+        private final int hash;
+
+        EntryKey(Unit<?> unit, int index) {
+            this.unit = unit.key;
+            this.index = index;
+            this.hash = 31 * unit.hash + index;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof EntryKey)) {
+                return false;
+            }
+            EntryKey key = (EntryKey) other;
+            return index == key.index && hash == key.hash && unit.equals(key.unit);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+}
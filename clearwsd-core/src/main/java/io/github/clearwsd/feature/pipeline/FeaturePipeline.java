@@ -52,4 +52,14 @@ public interface FeaturePipeline<I extends NlpInstance> extends Serializable {
      */
     List<SparseInstance> train(List<I> instances);
 
+    /**
+     * Return a read-only snapshot of this pipeline, safe for concurrent calls to {@link #process(NlpInstance)} and unaffected by
+     * later training of this pipeline. Pipelines that never change state outside of training may return themselves.
+     *
+     * @return frozen feature pipeline
+     */
+    default FeaturePipeline<I> freeze() {
+        return this;
+    }
+
 }
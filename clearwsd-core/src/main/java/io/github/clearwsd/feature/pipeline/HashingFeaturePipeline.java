@@ -0,0 +1,143 @@
+/*
+ * Copyright 2017 James Gung
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.clearwsd.feature.pipeline;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import io.github.clearwsd.classifier.DefaultSparseInstance;
+import io.github.clearwsd.classifier.DefaultSparseVector;
+import io.github.clearwsd.classifier.SparseInstance;
+import io.github.clearwsd.classifier.SparseVector;
+import io.github.clearwsd.classifier.SparseVectorBuilder;
+import io.github.clearwsd.feature.function.FeatureFunction;
+import io.github.clearwsd.feature.model.BaseFeatureModel;
+import io.github.clearwsd.feature.model.FeatureModel;
+import io.github.clearwsd.feature.model.HashingVocabulary;
+import io.github.clearwsd.feature.util.FeatureHashing;
+import io.github.clearwsd.feature.util.VocabularyBuilder;
+import io.github.clearwsd.type.FeatureType;
+import io.github.clearwsd.type.NlpInstance;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.experimental.Accessors;
+
+/**
+ * Feature pipeline using the hashing trick. Features are hashed directly from their ID and value into a fixed index space of
+ * 2^{@link #bits()} dimensions, so no feature vocabulary is stored and no concatenated feature strings are built. Labels are
+ * still indexed through a vocabulary.
+ * <p>
+ * After training, the feature vocabulary is {@link HashingVocabulary#compact(int[]) compacted} to the hashed indices seen in the
+ * training data, so that trainable classifiers (such as {@link io.github.clearwsd.classifier.PaClassifier}), which allocate dense
+ * weights for each label, only store weights for those indices, plus one shared by all unseen features. The size of a trained
+ * model therefore depends on the number of distinct features seen (less collisions), not on the size of the index space, and
+ * the vocabulary only stores a 4-byte hashed index per seen feature, rather than the feature string.
+ *
+ * @author jamesgung
+ */
+@Setter
+@Getter
+@Accessors(fluent = true)
+public class HashingFeaturePipeline<I extends NlpInstance> extends BaseFeaturePipeline<I> {
+
+    private static final long serialVersionUID = 2818049127478950316L;
+
+    /**
+     * Default number of bits of the hashed index space.
+     */
+    public static final int DEFAULT_BITS = 18;
+
+    private FeatureFunction<I> features;
+    private FeatureModel model;
+
+    private Function<I, String> labelFunction = (Serializable & Function<I, String>) i -> i.feature(FeatureType.Gold);
+
+    private int bits = DEFAULT_BITS;
+    private int seed = FeatureHashing.DEFAULT_SEED;
+    // record feature strings for each index (for debugging only)
+    private boolean debug = false;
+
+    public HashingFeaturePipeline(FeatureFunction<I> features) {
+        this.features = features;
+    }
+
+    public HashingFeaturePipeline(FeatureFunction<I> features, int bits) {
+        this.features = features;
+        this.bits = bits;
+    }
+
+    @Override
+    public SparseInstance process(I instance) {
+        HashingVocabulary vocabulary = (HashingVocabulary) model.features();
+        int target = model.labelIndex(labelFunction.apply(instance));
+        return new DefaultSparseInstance(instance.index(), target, vectorize(instance, vocabulary));
+    }
+
+    @Override
+    public List<SparseInstance> train(List<I> instances) {
+        model = new BaseFeatureModel();
+        HashingVocabulary vocabulary = new HashingVocabulary(bits, seed, debug);
+        VocabularyBuilder labelVocab = new VocabularyBuilder();
+
+        List<SparseInstance> results = new ArrayList<>();
+        for (I instance : instances) {
+            int target = labelVocab.index(labelFunction.apply(instance));
+            results.add(new DefaultSparseInstance(instance.index(), target, vectorize(instance, vocabulary)));
+        }
+
+        // only keep weights for hashed indices seen in training, re-indexing the training vectors accordingly
+        HashingVocabulary compacted = vocabulary.compact(results.stream()
+                .flatMapToInt(instance -> Arrays.stream(instance.indices()))
+                .toArray());
+        results = results.stream()
+                .map(instance -> new DefaultSparseInstance(instance.id(), instance.target(), new DefaultSparseVector(
+                        Arrays.stream(instance.indices()).map(compacted::local).toArray(), instance.data())))
+                .collect(Collectors.toList());
+
+        model.features(compacted);
+        if (labelVocab.size() == 0) {
+            labelVocab.index(VocabularyBuilder.DEFAULT);
+        }
+        model.labels(labelVocab.build());
+
+        return results;
+    }
+
+    /**
+     * Return a copy of this pipeline sharing its feature functions and current model. Feature strings are not recorded by the
+     * copy, even when debugging is enabled.
+     */
+    @Override
+    public HashingFeaturePipeline<I> freeze() {
+        HashingVocabulary vocabulary = (HashingVocabulary) model.features();
+        return new HashingFeaturePipeline<>(features, bits)
+                .seed(seed)
+                .labelFunction(labelFunction)
+                .model(new BaseFeatureModel(model.labels(), vocabulary.withoutDebugging()));
+    }
+
+    private SparseVector vectorize(I instance, HashingVocabulary vocabulary) {
+        SparseVectorBuilder builder = SparseVectorBuilder.pooled();
+        plan().apply(instance, (id, value) -> builder.addIndex(vocabulary.index(id, value)));
+        return builder.build();
+    }
+
+}
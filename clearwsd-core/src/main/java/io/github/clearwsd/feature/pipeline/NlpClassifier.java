@@ -16,6 +16,8 @@
 
 package io.github.clearwsd.feature.pipeline;
 
+import com.google.common.base.Preconditions;
+
 import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
@@ -59,6 +61,7 @@ public class NlpClassifier<U extends NlpInstance> implements Classifier<U, Strin
 
     private SparseClassifier sparseClassifier;
     private FeaturePipeline<U> featurePipeline;
+    private boolean frozen;
 
     public NlpClassifier(SparseClassifier sparseClassifier, FeaturePipeline<U> featurePipeline) {
         this.sparseClassifier = sparseClassifier;
@@ -79,6 +82,7 @@ public class NlpClassifier<U extends NlpInstance> implements Classifier<U, Strin
 
     @Override
     public void train(List<U> train, List<U> valid) {
+        Preconditions.checkState(!frozen, "Frozen classifiers cannot be trained.");
         List<SparseInstance> trainInstances = featurePipeline.train(train);
         List<SparseInstance> validInstances = valid.stream()
                 .map(featurePipeline::process)
@@ -94,6 +98,24 @@ public class NlpClassifier<U extends NlpInstance> implements Classifier<U, Strin
         }
     }
 
+    /**
+     * Return true if this classifier always predicts a single label, as when trained on data containing only one label.
+     */
+    public boolean singleLabel() {
+        return sparseClassifier instanceof DummyClassifier;
+    }
+
+    /**
+     * Initialize a classifier that always predicts a single label.
+     *
+     * @param label label to predict
+     * @param <U>   input type
+     * @return single-label classifier
+     */
+    public static <U extends NlpInstance> NlpClassifier<U> singleLabel(String label) {
+        return new NlpClassifier<>(new DummyClassifier(0), new DummyPipeline<>(label));
+    }
+
     @Override
     public List<Hyperparameter> hyperparameters() {
         return sparseClassifier.hyperparameters();
@@ -125,6 +147,13 @@ public class NlpClassifier<U extends NlpInstance> implements Classifier<U, Strin
         }
     }
 
+    @Override
+    public NlpClassifier<U> freeze() {
+        NlpClassifier<U> frozen = new NlpClassifier<>(sparseClassifier.freeze(), featurePipeline.freeze());
+        frozen.frozen = true;
+        return frozen;
+    }
+
     private static class DummyPipeline<I extends NlpInstance> implements FeaturePipeline<I> {
 
         private static final long serialVersionUID = -1320433214836264964L;
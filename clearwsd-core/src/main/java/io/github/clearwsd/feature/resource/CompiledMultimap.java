@@ -0,0 +1,280 @@
+/*
+ * Copyright 2017 James Gung
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.clearwsd.feature.resource;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ListMultimap;
+import com.google.common.io.ByteStreams;
+import com.google.common.primitives.UnsignedBytes;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compiled, read-only string multimap, stored as a sorted key dictionary with offset-indexed blocks of value references into a
+ * table of distinct values. Lookups binary search the encoded keys directly, so a compiled multimap can be memory-mapped and used
+ * without materializing its keys on the heap. Only distinct values are decoded, on first use.
+ *
+ * <p>Layout (big-endian): magic, version, key count, distinct value count, value reference count; key offsets (key count + 1);
+ * value reference offsets (key count + 1); value references; distinct value offsets (value count + 1); UTF-8 key bytes in unsigned
+ * lexicographic order; UTF-8 value bytes.</p>
+ *
+ * @author jamesgung
+ */
+public class CompiledMultimap {
+
+    /**
+     * Extension of compiled multimap files, appended to the path of the resource they were compiled from.
+     */
+    public static final String EXTENSION = ".cwsr";
+
+    static final int MAGIC = 0x43575352; // "CWSR"
+    static final int VERSION = 1;
+
+    private final int keys;
+    private final IntBuffer keyOffsets;
+    private final IntBuffer refOffsets;
+    private final IntBuffer refs;
+    private final IntBuffer valueOffsets;
+    private final ByteBuffer keyBytes;
+    private final ByteBuffer valueBytes;
+    private final String[] values;
+
+    private CompiledMultimap(ByteBuffer buffer) {
+        buffer = buffer.duplicate();
+        Preconditions.checkArgument(buffer.remaining() >= 5 * Integer.BYTES && buffer.getInt() == MAGIC,
+                "Not a compiled multimap resource");
+        int version = buffer.getInt();
+        Preconditions.checkArgument(version == VERSION, "Unsupported compiled multimap version: %s", version);
+        keys = buffer.getInt();
+        int distinctValues = buffer.getInt();
+        int refCount = buffer.getInt();
+        keyOffsets = ints(buffer, keys + 1);
+        refOffsets = ints(buffer, keys + 1);
+        refs = ints(buffer, refCount);
+        valueOffsets = ints(buffer, distinctValues + 1);
+        keyBytes = bytes(buffer, keyOffsets.get(keys));
+        valueBytes = bytes(buffer, valueOffsets.get(distinctValues));
+        values = new String[distinctValues];
+    }
+
+    /**
+     * Read a compiled multimap from a buffer, typically memory-mapped. The buffer is not copied.
+     *
+     * @param buffer compiled multimap
+     * @return compiled multimap
+     */
+    public static CompiledMultimap read(ByteBuffer buffer) {
+        return new CompiledMultimap(buffer);
+    }
+
+    /**
+     * Open a compiled multimap. Files are memory-mapped, while other resources (e.g. JAR entries) are copied into a direct buffer.
+     *
+     * @param path compiled multimap URL
+     * @return compiled multimap
+     */
+    public static CompiledMultimap open(URL path) {
+        try {
+            if ("file".equals(path.getProtocol())) {
+                return open(Paths.get(path.toURI()));
+            }
+            try (InputStream inputStream = path.openStream()) {
+                byte[] data = ByteStreams.toByteArray(inputStream);
+                ByteBuffer buffer = ByteBuffer.allocateDirect(data.length);
+                buffer.put(data).flip();
+                return read(buffer);
+            }
+        } catch (IOException | URISyntaxException e) {
+            throw new RuntimeException("Unable to read compiled resource at " + path + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Memory-map a compiled multimap file.
+     *
+     * @param path compiled multimap file
+     * @return compiled multimap
+     */
+    public static CompiledMultimap open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return read(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Write a multimap in compiled form.
+     *
+     * @param multimap     multimap
+     * @param outputStream output stream, not closed by this method
+     */
+    public static void write(ListMultimap<String, String> multimap, OutputStream outputStream) throws IOException {
+        List<byte[]> keys = new ArrayList<>();
+        for (String key : multimap.keySet()) {
+            keys.add(key.getBytes(StandardCharsets.UTF_8));
+        }
+        keys.sort(UnsignedBytes.lexicographicalComparator());
+
+        Map<String, Integer> valueIds = new HashMap<>();
+        List<byte[]> values = new ArrayList<>();
+        int[] refOffsets = new int[keys.size() + 1];
+        List<Integer> refs = new ArrayList<>();
+        for (int i = 0; i < keys.size(); ++i) {
+            refOffsets[i] = refs.size();
+            for (String value : multimap.get(new String(keys.get(i), StandardCharsets.UTF_8))) {
+                refs.add(valueIds.computeIfAbsent(value, v -> {
+                    values.add(v.getBytes(StandardCharsets.UTF_8));
+                    return values.size() - 1;
+                }));
+            }
+        }
+        refOffsets[keys.size()] = refs.size();
+
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(outputStream));
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(keys.size());
+        out.writeInt(values.size());
+        out.writeInt(refs.size());
+        writeOffsets(keys, out);
+        for (int offset : refOffsets) {
+            out.writeInt(offset);
+        }
+        for (int ref : refs) {
+            out.writeInt(ref);
+        }
+        writeOffsets(values, out);
+        for (byte[] key : keys) {
+            out.write(key);
+        }
+        for (byte[] value : values) {
+            out.write(value);
+        }
+        out.flush();
+    }
+
+    /**
+     * Return the number of keys in this multimap.
+     */
+    public int size() {
+        return keys;
+    }
+
+    /**
+     * Return the values associated with a given key, or an empty list if there are none (or the key is null).
+     *
+     * @param key key
+     * @return unmodifiable list of values
+     */
+    public List<String> get(String key) {
+        int index = key == null ? -1 : find(key.getBytes(StandardCharsets.UTF_8));
+        if (index < 0) {
+            return Collections.emptyList();
+        }
+        int start = refOffsets.get(index);
+        String[] result = new String[refOffsets.get(index + 1) - start];
+        for (int i = 0; i < result.length; ++i) {
+            result[i] = value(refs.get(start + i));
+        }
+        return Collections.unmodifiableList(Arrays.asList(result));
+    }
+
+    private int find(byte[] key) {
+        int low = 0;
+        int high = keys - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int comparison = compare(mid, key);
+            if (comparison < 0) {
+                low = mid + 1;
+            } else if (comparison > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    private int compare(int index, byte[] key) {
+        int start = keyOffsets.get(index);
+        int length = keyOffsets.get(index + 1) - start;
+        int shared = Math.min(length, key.length);
+        for (int i = 0; i < shared; ++i) {
+            int comparison = UnsignedBytes.compare(keyBytes.get(start + i), key[i]);
+            if (comparison != 0) {
+                return comparison;
+            }
+        }
+        return length - key.length;
+    }
+
+    private String value(int id) {
+        // racy, but idempotent: concurrent callers may each decode a value, and any decoded copy is equivalent
+        String value = values[id];
+        if (value == null) {
+            int start = valueOffsets.get(id);
+            byte[] bytes = new byte[valueOffsets.get(id + 1) - start];
+            ByteBuffer buffer = valueBytes.duplicate();
+            buffer.position(start);
+            buffer.get(bytes);
+            value = new String(bytes, StandardCharsets.UTF_8);
+            values[id] = value;
+        }
+        return value;
+    }
+
+    private static void writeOffsets(List<byte[]> entries, DataOutputStream out) throws IOException {
+        int offset = 0;
+        for (byte[] entry : entries) {
+            out.writeInt(offset);
+            offset += entry.length;
+        }
+        out.writeInt(offset);
+    }
+
+    private static IntBuffer ints(ByteBuffer buffer, int count) {
+        ByteBuffer slice = bytes(buffer, count * Integer.BYTES);
+        return slice.asIntBuffer();
+    }
+
+    private static ByteBuffer bytes(ByteBuffer buffer, int length) {
+        ByteBuffer slice = buffer.slice();
+        slice.limit(length);
+        buffer.position(buffer.position() + length);
+        return slice;
+    }
+
+}
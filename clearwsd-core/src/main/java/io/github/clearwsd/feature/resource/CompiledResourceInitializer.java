@@ -0,0 +1,96 @@
+/*
+ * Copyright 2017 James Gung
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.clearwsd.feature.resource;
+
+import com.google.common.base.Preconditions;
+
+import java.io.IOException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import io.github.clearwsd.feature.extractor.FeatureExtractor;
+import io.github.clearwsd.feature.extractor.IdentityFeatureExtractor;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.experimental.Accessors;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Initializer for a {@link MultimapResource} backed by a {@link CompiledMultimap}. Unlike {@link TsvResourceInitializer}, only the
+ * location of the compiled resource is serialized, which is resolved first as a file path and then as a classpath resource. If
+ * the compiled resource cannot be located, such as when a model is loaded on a host without it, an optional fallback initializer
+ * (e.g. one reading the original TSV resource) is used instead.
+ *
+ * @author jamesgung
+ */
+@Slf4j
+@Accessors(fluent = true)
+public class CompiledResourceInitializer<K> implements StringResourceInitializer<MultimapResource<K>> {
+
+    private static final long serialVersionUID = -2306021386517954381L;
+
+    @Setter
+    private FeatureExtractor<K, String> mappingFunction = new IdentityFeatureExtractor<>();
+    // initializer used when the compiled resource cannot be located, or null
+    @Setter
+    private StringResourceInitializer<MultimapResource<K>> fallback;
+
+    private final String key;
+    @Getter
+    private final String path;
+
+    /**
+     * Initialize with a resource key and the location of a compiled resource.
+     *
+     * @param key  resource key
+     * @param path compiled resource file path or classpath resource
+     */
+    public CompiledResourceInitializer(String key, String path) {
+        this.key = key;
+        this.path = path;
+    }
+
+    @Override
+    public MultimapResource<K> get() {
+        CompiledMultimap compiled = open();
+        if (compiled == null) {
+            Preconditions.checkState(fallback != null, "Unable to locate compiled resource at %s", path);
+            log.warn("Unable to locate compiled resource at {}, using fallback initializer", path);
+            return fallback.get();
+        }
+        MultimapResource<K> resource = new MultimapResource<>(key);
+        resource.compiled(compiled);
+        resource.mappingFunction(mappingFunction);
+        return resource;
+    }
+
+    private CompiledMultimap open() {
+        Path file = Paths.get(path);
+        if (Files.isRegularFile(file)) {
+            try {
+                return CompiledMultimap.open(file);
+            } catch (IOException e) {
+                throw new RuntimeException("Error reading compiled resource: " + e.getMessage(), e);
+            }
+        }
+        URL url = CompiledResourceInitializer.class.getClassLoader().getResource(path);
+        return url == null ? null : CompiledMultimap.open(url);
+    }
+
+}
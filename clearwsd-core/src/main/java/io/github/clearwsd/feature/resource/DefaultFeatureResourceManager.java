@@ -40,6 +40,13 @@ public class DefaultFeatureResourceManager implements FeatureResourceManager, Se
         }
     }
 
+    @Override
+    public void release() {
+        for (FeatureResourceProxy resource : resourceMap.values()) {
+            resource.release();
+        }
+    }
+
     @Override
     public <ResourceT extends FeatureResource> ResourceT getResource(String identifier) {
         try {
@@ -16,12 +16,14 @@
 
 package io.github.clearwsd.feature.resource;
 
-import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
 
 import java.io.File;
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.function.Supplier;
@@ -43,7 +45,7 @@ import lombok.experimental.Accessors;
  *
  * @author jamesgung
  */
-public class DynamicDependencyNeighborsResource implements FeatureResource<DepNode, List<String>> {
+public class DynamicDependencyNeighborsResource implements FeatureResource<DepNode, List<String>>, AutoCloseable {
 
     public static final String DDN_KEY = "DDN";
     public static final String OBJECT = "object";
@@ -53,13 +55,18 @@ public class DynamicDependencyNeighborsResource implements FeatureResource<DepNo
     private final int maxSearch; // Maximum number of hits when searching Lucene index
     private final Pattern tokenPattern = Pattern.compile("^[a-z]+$");
 
-    private Cache<String, List<String>> ddnCache;
+    private LoadingCache<String, List<String>> ddnCache;
 
     public DynamicDependencyNeighborsResource(LuceneWrapper ddnIndex, int maxNeighbors, int maxSearch) {
         this.ddnIndex = ddnIndex;
         this.maxNeighbors = maxNeighbors;
         this.maxSearch = maxSearch;
-        ddnCache = CacheBuilder.newBuilder().build();
+        ddnCache = CacheBuilder.newBuilder().build(new CacheLoader<String, List<String>>() {
+            @Override
+            public List<String> load(String lemma) {
+                return neighbors(ddnIndex.search(lemma, OBJECT, maxSearch));
+            }
+        });
     }
 
     @Override
@@ -74,19 +81,41 @@ public class DynamicDependencyNeighborsResource implements FeatureResource<DepNo
             return new ArrayList<>();
         }
         String lemma = token.feature(FeatureType.Lemma);
-        List<String> ddnFeature = ddnCache.getIfPresent(lemma);
-        if (ddnFeature != null) {
-            return ddnFeature;
+        // concurrent lookups of the same lemma wait for a single search
+        return ddnCache.getUnchecked(lemma);
+    }
+
+    /**
+     * Search for and cache the DDN features of multiple lemmas at once, e.g. all argument lemmas in a corpus.
+     *
+     * @param lemmas lemmas to prefetch
+     */
+    public void prefetch(Collection<String> lemmas) {
+        List<String> missing = lemmas.stream()
+                .filter(lemma -> ddnCache.getIfPresent(lemma) == null)
+                .distinct()
+                .collect(Collectors.toList());
+        for (Map.Entry<String, Map<String, Integer>> entry : ddnIndex.searchAll(missing, OBJECT, maxSearch).entrySet()) {
+            ddnCache.put(entry.getKey(), neighbors(entry.getValue()));
         }
-        ddnFeature = ddnIndex.search(lemma, OBJECT, maxSearch)
-                .entrySet().stream()
+    }
+
+    /**
+     * Release cached features and this resource's reference to its Lucene index.
+     */
+    @Override
+    public void close() {
+        ddnCache.invalidateAll();
+        ddnIndex.close();
+    }
+
+    private List<String> neighbors(Map<String, Integer> verbFreqs) {
+        return verbFreqs.entrySet().stream()
                 .sorted((e1, e2) -> e2.getValue() - e1.getValue())
                 .map(Map.Entry::getKey)
                 .limit(maxNeighbors)
                 .distinct()
                 .collect(Collectors.toList());
-        ddnCache.put(lemma, ddnFeature);
-        return ddnFeature;
     }
 
     @Accessors(fluent = true)
@@ -30,6 +30,12 @@ public interface FeatureResourceManager {
      */
     void initialize();
 
+    /**
+     * Release any initialized resources, closing those holding external resources such as open index files. Resources are
+     * initialized again if used afterwards.
+     */
+    void release();
+
     /**
      * Retrieve the feature resource with the provided identifier, initializing the resource if it is not available.
      *
@@ -30,7 +30,7 @@ public class FeatureResourceProxy<K, T> implements FeatureResource<K, T>, Serial
 
     private String key;
     private Supplier<FeatureResource<K, T>> initializer;
-    private transient FeatureResource<K, T> resource;
+    private transient volatile FeatureResource<K, T> resource;
 
     public FeatureResourceProxy(String key, Supplier<FeatureResource<K, T>> initializer) {
         this.key = key;
@@ -39,7 +39,27 @@ public class FeatureResourceProxy<K, T> implements FeatureResource<K, T>, Serial
 
     public void initialize() {
         if (resource == null) {
-            resource = initializer.get();
+            synchronized (this) {
+                if (resource == null) {
+                    resource = initializer.get();
+                }
+            }
+        }
+    }
+
+    /**
+     * Drop the initialized resource, closing it if it is {@link AutoCloseable} (e.g. to release open index files). The resource is
+     * initialized again if used afterwards.
+     */
+    public synchronized void release() {
+        FeatureResource<K, T> resource = this.resource;
+        this.resource = null;
+        if (resource instanceof AutoCloseable) {
+            try {
+                ((AutoCloseable) resource).close();
+            } catch (Exception e) {
+                throw new RuntimeException("Error closing feature resource \"" + key + "\": " + e.getMessage(), e);
+            }
         }
     }
 
@@ -50,7 +70,11 @@ public class FeatureResourceProxy<K, T> implements FeatureResource<K, T>, Serial
 
     @Override
     public T lookup(K key) {
-        initialize();
+        FeatureResource<K, T> resource = this.resource;
+        if (resource == null) {
+            initialize();
+            resource = this.resource;
+        }
         return resource.lookup(key);
     }
 
@@ -28,7 +28,8 @@ import lombok.experimental.Accessors;
 
 /**
  * Multimap-based resource. Can define an arbitrary initializer for loading the multimap.
- * Function applied to keys upon lookup, and function applied to values in multimap are also configurable.
+ * Function applied to keys upon lookup, and function applied to values in multimap are also configurable. Values may alternatively
+ * be backed by a {@link CompiledMultimap}, which takes precedence over the heap multimap when present.
  *
  * @param <K> input key type used during lookup
  * @author jamesgung
@@ -40,6 +41,7 @@ public class MultimapResource<K> implements FeatureResource<K, List<String>> {
 
     private String key;
     private ImmutableListMultimap<String, String> multimap;
+    private CompiledMultimap compiled;
     private FeatureExtractor<K, String> mappingFunction = new IdentityFeatureExtractor<>();
 
     public MultimapResource(String key) {
@@ -48,7 +50,8 @@ public class MultimapResource<K> implements FeatureResource<K, List<String>> {
 
     @Override
     public List<String> lookup(K key) {
-        return multimap.get(mappingFunction.extract(key));
+        String mapped = mappingFunction.extract(key);
+        return compiled != null ? compiled.get(mapped) : multimap.get(mapped);
     }
 
 }
@@ -26,6 +26,7 @@ import java.io.BufferedReader;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.io.OutputStream;
 import java.net.URL;
 import java.util.Arrays;
 import java.util.List;
@@ -68,8 +69,24 @@ public abstract class TsvResourceInitializer<K> implements StringResourceInitial
 
     @Override
     public MultimapResource<K> get() {
-        ListMultimap<String, String> multimap = ArrayListMultimap.create();
         MultimapResource<K> resource = new MultimapResource<>(key);
+        resource.multimap(ImmutableListMultimap.copyOf(read()));
+        resource.mappingFunction(mappingFunction);
+        return resource;
+    }
+
+    /**
+     * Write this resource in the {@link CompiledMultimap compiled} format, after applying key and value functions. Mapping functions
+     * are applied on lookup, and are not included in the compiled resource.
+     *
+     * @param outputStream compiled resource output stream
+     */
+    public void compile(OutputStream outputStream) throws IOException {
+        CompiledMultimap.write(read(), outputStream);
+    }
+
+    private ListMultimap<String, String> read() {
+        ListMultimap<String, String> multimap = ArrayListMultimap.create();
         try (BufferedReader reader = new BufferedReader(new InputStreamReader(new ByteArrayInputStream(this.data)))) {
             String line;
             while ((line = reader.readLine()) != null) {
@@ -83,9 +100,7 @@ public abstract class TsvResourceInitializer<K> implements StringResourceInitial
         } catch (Exception e) {
             throw new RuntimeException("Error initializing TSV resource.", e);
         }
-        resource.multimap(ImmutableListMultimap.copyOf(multimap));
-        resource.mappingFunction(mappingFunction);
-        return resource;
+        return multimap;
     }
 
     protected abstract void apply(List<String> fields, Multimap<String, String> multimap);
@@ -16,13 +16,29 @@
 
 package io.github.clearwsd.feature.resource;
 
+import com.google.common.base.Preconditions;
+import com.google.common.base.Stopwatch;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.CacheStats;
+import com.google.common.cache.LoadingCache;
+
+import java.io.BufferedReader;
+import java.io.IOException;
 import java.io.Serializable;
-import java.util.ArrayList;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Supplier;
 
+import io.github.clearwsd.feature.util.PosUtils;
 import io.github.clearwsd.type.FeatureType;
 import io.github.clearwsd.type.NlpInstance;
 import io.github.clearwsd.utils.ExtJwnlWordNet;
@@ -33,7 +49,8 @@ import lombok.extern.slf4j.Slf4j;
 
 
 /**
- * WordNet feature resource.
+ * WordNet feature resource. Hypernyms and synonyms are cached in a bounded, concurrent cache keyed by lemma and coarse
+ * part-of-speech (noun, verb, adjective, or adverb), since the same lemma/POS pairs recur constantly across instances.
  *
  * @author jamesgung
  */
@@ -42,14 +59,36 @@ import lombok.extern.slf4j.Slf4j;
 public class WordNetResource<K extends NlpInstance> implements FeatureResource<K, List<String>> {
 
     public static final String WN_KEY = "WN";
+    /**
+     * Default maximum number of cached lemma/POS entries.
+     */
+    public static final int DEFAULT_CACHE_SIZE = 100000;
+
+    private static final char SEPARATOR = '\t';
 
     @Getter
     private String key = WN_KEY;
     @Getter
     private WordNetFacade<?> wordNet;
 
-    public WordNetResource(WordNetFacade wordNet) {
+    private final LoadingCache<String, String[]> cache;
+
+    public WordNetResource(WordNetFacade<?> wordNet, int cacheSize) {
         this.wordNet = wordNet;
+        this.cache = CacheBuilder.newBuilder()
+                .maximumSize(cacheSize)
+                .recordStats()
+                .build(new CacheLoader<String, String[]>() {
+                    @Override
+                    public String[] load(String key) {
+                        int separator = key.lastIndexOf(SEPARATOR);
+                        return hypernyms(key.substring(0, separator), key.substring(separator + 1));
+                    }
+                });
+    }
+
+    public WordNetResource(WordNetFacade<?> wordNet) {
+        this(wordNet, DEFAULT_CACHE_SIZE);
     }
 
     public WordNetResource() {
@@ -58,24 +97,106 @@ public class WordNetResource<K extends NlpInstance> implements FeatureResource<K
 
     @Override
     public List<String> lookup(K key) {
-        return new ArrayList<>(hypernyms(key.feature(FeatureType.Lemma), key.feature(FeatureType.Pos)));
+        String lemma = key.feature(FeatureType.Lemma);
+        String pos = key.feature(FeatureType.Pos);
+        if (lemma == null || pos == null) {
+            return Collections.emptyList();
+        }
+        return Collections.unmodifiableList(Arrays.asList(cache.getUnchecked(lemma + SEPARATOR + coarsePos(pos))));
+    }
+
+    /**
+     * Return hit/miss statistics for the lemma/POS cache.
+     */
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    /**
+     * Pre-populate the lemma/POS cache from a frequency list, with one tab-separated lemma and POS tag per line (any further
+     * columns, such as counts, are ignored), ordered from most to least frequent.
+     *
+     * @param frequencyList path to frequency list
+     * @param limit         maximum number of entries to load
+     * @return number of entries loaded
+     */
+    public int warmUp(Path frequencyList, int limit) throws IOException {
+        Stopwatch stopwatch = Stopwatch.createStarted();
+        int count = 0;
+        try (BufferedReader reader = Files.newBufferedReader(frequencyList, StandardCharsets.UTF_8)) {
+            String line;
+            while (count < limit && (line = reader.readLine()) != null) {
+                String[] fields = line.trim().split("\t");
+                if (fields.length < 2) {
+                    continue;
+                }
+                cache.getUnchecked(fields[0] + SEPARATOR + coarsePos(fields[1]));
+                ++count;
+            }
+        }
+        log.debug("Loaded {} WordNet cache entries in {}", count, stopwatch);
+        return count;
     }
 
-    private Set<String> hypernyms(String lemma, String pos) {
+    private String[] hypernyms(String lemma, String pos) {
         Set<String> words = new HashSet<>();
         words.addAll(wordNet.hypernyms(lemma, pos));
         words.addAll(wordNet.synonyms(lemma, pos));
-        return words;
+        return words.toArray(new String[words.size()]);
     }
 
+    private static String coarsePos(String pos) {
+        pos = pos.toUpperCase();
+        if (PosUtils.isNoun(pos)) {
+            return "NN";
+        } else if (PosUtils.isVerb(pos)) {
+            return "VB";
+        } else if (PosUtils.isAdjective(pos)) {
+            return "JJ";
+        } else if (PosUtils.isAdverb(pos)) {
+            return "RB";
+        }
+        return pos;
+    }
+
+    /**
+     * Initializer returning a {@link WordNetResource} shared across the JVM by all initializers with the same cache size, so that
+     * cached lookups are shared between models with the same configuration. The WordNet dictionary is only loaded once, and is
+     * shared by all configurations.
+     */
     public static class WordNetInitializer<K extends NlpInstance> implements Supplier<WordNetResource<K>>, Serializable {
 
         private static final long serialVersionUID = -1210563042105427915L;
 
+        private static final Map<Integer, WordNetResource<?>> SHARED = new ConcurrentHashMap<>();
+
+        private final int cacheSize;
+
+        /**
+         * Initialize with a given maximum number of cached lemma/POS entries.
+         *
+         * @param cacheSize maximum number of cached entries
+         */
+        public WordNetInitializer(int cacheSize) {
+            Preconditions.checkArgument(cacheSize > 0, "Cache size must be positive, got %s", cacheSize);
+            this.cacheSize = cacheSize;
+        }
+
+        public WordNetInitializer() {
+            this(DEFAULT_CACHE_SIZE);
+        }
+
         @Override
         public WordNetResource<K> get() {
-            return new WordNetResource<>();
+            // initializers deserialized from older versions have no cache size
+            int size = cacheSize > 0 ? cacheSize : DEFAULT_CACHE_SIZE;
+            //noinspection unchecked
+            return (WordNetResource<K>) SHARED.computeIfAbsent(size, none -> new WordNetResource<>(SharedWordNet.INSTANCE, size));
         }
     }
 
+    private static class SharedWordNet {
+        private static final WordNetFacade<?> INSTANCE = new ExtJwnlWordNet();
+    }
+
 }
@@ -0,0 +1,129 @@
+/*
+ * Copyright 2017 James Gung
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.clearwsd.feature.util;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Allocation-free feature hashing utilities. Features are hashed with 32-bit MurmurHash3 over their UTF-16 code units, so hashing
+ * an ID and value separately produces the same result as hashing the concatenated feature string
+ * (ID + {@link FeatureUtils#FEATURE_ID_SEP} + value), without ever building that string.
+ *
+ * @author jamesgung
+ */
+public class FeatureHashing {
+
+    public static final int DEFAULT_SEED = 0;
+
+    private static final int C1 = 0xcc9e2d51;
+    private static final int C2 = 0x1b873593;
+
+    private static final char SEP = FeatureUtils.FEATURE_ID_SEP.charAt(0);
+
+    private FeatureHashing() {
+    }
+
+    /**
+     * Hash a feature from its ID and value, equivalent to hashing the concatenated feature string.
+     *
+     * @param id    feature ID
+     * @param value feature value
+     * @param seed  hash seed
+     * @return 32-bit hash
+     */
+    public static int hash(CharSequence id, CharSequence value, int seed) {
+        int idLength = id.length();
+        int length = idLength + 1 + value.length();
+        int h1 = seed;
+        int i = 1;
+        for (; i < length; i += 2) {
+            int k1 = charAt(id, value, idLength, i - 1) | (charAt(id, value, idLength, i) << 16);
+            h1 = mixH1(h1, mixK1(k1));
+        }
+        if (i == length) {
+            h1 ^= mixK1(charAt(id, value, idLength, i - 1));
+        }
+        return fmix(h1, 2 * length);
+    }
+
+    /**
+     * Hash a full feature string.
+     *
+     * @param feature feature string
+     * @param seed    hash seed
+     * @return 32-bit hash
+     */
+    public static int hash(CharSequence feature, int seed) {
+        int length = feature.length();
+        int h1 = seed;
+        int i = 1;
+        for (; i < length; i += 2) {
+            int k1 = feature.charAt(i - 1) | (feature.charAt(i) << 16);
+            h1 = mixH1(h1, mixK1(k1));
+        }
+        if (i == length) {
+            h1 ^= mixK1(feature.charAt(i - 1));
+        }
+        return fmix(h1, 2 * length);
+    }
+
+    /**
+     * Map a hash onto an index in a space of 2^bits dimensions.
+     *
+     * @param hash 32-bit hash
+     * @param bits number of bits in index space
+     * @return non-negative index
+     */
+    public static int index(int hash, int bits) {
+        Preconditions.checkArgument(bits > 0 && bits < 31, "Number of bits must be between 1 and 30, got %s", bits);
+        return hash & ((1 << bits) - 1);
+    }
+
+    private static char charAt(CharSequence id, CharSequence value, int idLength, int index) {
+        if (index < idLength) {
+            return id.charAt(index);
+        } else if (index == idLength) {
+            return SEP;
+        }
+        return value.charAt(index - idLength - 1);
+    }
+
+    private static int mixK1(int k1) {
+        k1 *= C1;
+        k1 = Integer.rotateLeft(k1, 15);
+        k1 *= C2;
+        return k1;
+    }
+
+    private static int mixH1(int h1, int k1) {
+        h1 ^= k1;
+        h1 = Integer.rotateLeft(h1, 13);
+        h1 = h1 * 5 + 0xe6546b64;
+        return h1;
+    }
+
+    private static int fmix(int h1, int length) {
+        h1 ^= length;
+        h1 ^= h1 >>> 16;
+        h1 *= 0x85ebca6b;
+        h1 ^= h1 >>> 13;
+        h1 *= 0xc2b2ae35;
+        h1 ^= h1 >>> 16;
+        return h1;
+    }
+
+}
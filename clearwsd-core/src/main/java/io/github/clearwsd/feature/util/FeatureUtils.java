@@ -38,4 +38,35 @@ public class FeatureUtils {
         return contextId + CONTEXT_FEATURE_SEP + featureId;
     }
 
+    /**
+     * Return the hash code of a feature string given its ID and value, equal to the {@link String#hashCode()} of
+     * {@code id + FEATURE_ID_SEP + value}, without building the feature string.
+     *
+     * @param id    feature ID
+     * @param value feature value
+     * @return feature string hash code
+     */
+    public static int featureHash(String id, String value) {
+        int hash = 31 * id.hashCode() + FEATURE_ID_SEP.charAt(0);
+        for (int i = 0; i < value.length(); ++i) {
+            hash = 31 * hash + value.charAt(i);
+        }
+        return hash;
+    }
+
+    /**
+     * Return true if a given feature string equals {@code id + FEATURE_ID_SEP + value}, without building the feature string.
+     *
+     * @param feature feature string
+     * @param id      feature ID
+     * @param value   feature value
+     * @return true if the feature string consists of the given ID and value
+     */
+    public static boolean isFeature(String feature, String id, String value) {
+        return feature.length() == id.length() + 1 + value.length()
+                && feature.startsWith(id)
+                && feature.charAt(id.length()) == FEATURE_ID_SEP.charAt(0)
+                && feature.regionMatches(id.length() + 1, value, 0, value.length());
+    }
+
 }
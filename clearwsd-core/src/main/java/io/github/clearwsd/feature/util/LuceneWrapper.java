@@ -16,85 +16,255 @@
 
 package io.github.clearwsd.feature.util;
 
+import com.google.common.base.Preconditions;
 import com.google.common.base.Stopwatch;
+import com.google.common.collect.ImmutableSet;
 
 import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.TokenStream;
 import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
 import org.apache.lucene.document.Document;
-import org.apache.lucene.index.DirectoryReader;
-import org.apache.lucene.queryparser.classic.ParseException;
-import org.apache.lucene.queryparser.classic.QueryParser;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.NumericDocValues;
+import org.apache.lucene.index.ReaderUtil;
+import org.apache.lucene.index.SortedDocValues;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
 import org.apache.lucene.search.IndexSearcher;
 import org.apache.lucene.search.Query;
 import org.apache.lucene.search.ScoreDoc;
-import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.TermQuery;
 import org.apache.lucene.store.FSDirectory;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import lombok.extern.slf4j.Slf4j;
 
 /**
- * Lucene wrapper.
+ * Lucene wrapper, searching an index of verb/object frequencies. Searchers are managed per index directory by a
+ * {@link SearcherManager} shared across wrappers and safe for concurrent searches. The shared searcher manager and directory of
+ * an index are closed once every wrapper of that index has been {@link #close() closed}. Verbs and frequencies are read from doc
+ * values when the index provides them, falling back to stored fields otherwise.
  *
  * @author jamesgung
  */
 @Slf4j
-public class LuceneWrapper implements Serializable {
+public class LuceneWrapper implements Serializable, AutoCloseable {
 
     private static final long serialVersionUID = -3704052454877512322L;
 
     private static final String VERB = "verb";
     private static final String FREQ = "frequency";
+    private static final Set<String> FIELDS = ImmutableSet.of(VERB, FREQ);
 
-    private static IndexSearcher indexSearcher;
-    private static Analyzer analyzer;
+    // open indices by path, guarded by the map itself
+    private static final Map<Path, SharedIndex> INDICES = new HashMap<>();
+    private static final Analyzer ANALYZER = new StandardAnalyzer();
 
     private File index;
+    private transient volatile SharedIndex shared;
 
     public LuceneWrapper(File indexDir) {
         index = indexDir;
-        if (indexSearcher == null) {
-            initialize(indexDir);
+        acquire();
+    }
+
+    private void acquire() {
+        Path path = index.toPath().toAbsolutePath().normalize();
+        synchronized (INDICES) {
+            SharedIndex shared = INDICES.get(path);
+            if (shared == null) {
+                try {
+                    Stopwatch stopwatch = Stopwatch.createStarted();
+                    shared = new SharedIndex(path, FSDirectory.open(path));
+                    log.info("Initialized lucene index at {} ({})", path, stopwatch.stop());
+                } catch (IOException e) {
+                    throw new RuntimeException("Unable to locate Lucene index.", e);
+                }
+                INDICES.put(path, shared);
+            }
+            ++shared.references;
+            this.shared = shared;
         }
     }
 
-    private void initialize(File indexDir) {
+    /**
+     * Release this wrapper's reference to its index, closing the index once no other wrapper of the same index remains open. The
+     * wrapper can no longer be searched once closed.
+     */
+    @Override
+    public void close() {
+        synchronized (INDICES) {
+            SharedIndex shared = this.shared;
+            if (shared == null) {
+                return;
+            }
+            this.shared = null;
+            if (--shared.references == 0) {
+                INDICES.remove(shared.path);
+                try {
+                    shared.manager.close();
+                    shared.directory.close();
+                } catch (IOException e) {
+                    log.warn("Error closing Lucene index at {}", shared.path, e);
+                }
+            }
+        }
+    }
+
+    private SearcherManager searcherManager() {
+        SharedIndex shared = this.shared;
+        Preconditions.checkState(shared != null, "Lucene index at %s has been closed.", index);
+        return shared.manager;
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        acquire();
+    }
+
+    /**
+     * Refresh the searcher for this index if the index has changed, so that subsequent searches observe the changes.
+     */
+    public void refresh() {
         try {
-            Stopwatch stopwatch = Stopwatch.createStarted();
-            indexSearcher = new IndexSearcher(DirectoryReader.open(FSDirectory.open(indexDir.toPath())));
-            analyzer = new StandardAnalyzer();
-            log.info("Initialized lucene index at {} ({})", indexDir.getPath(), stopwatch.stop());
+            searcherManager().maybeRefresh();
         } catch (IOException e) {
-            throw new RuntimeException("Unable to locate Lucene index.", e);
+            log.warn("Error refreshing Lucene index.", e);
         }
     }
 
     public Map<String, Integer> search(String word, String field, int maxSearch) {
-        if (indexSearcher == null) {
-            initialize(index);
+        return searchAll(Collections.singletonList(word), field, maxSearch).get(word);
+    }
+
+    /**
+     * Search for multiple words with a single searcher.
+     *
+     * @param words     words to search
+     * @param field     field to search
+     * @param maxSearch maximum number of hits per word
+     * @return map from each word to verb frequencies
+     */
+    public Map<String, Map<String, Integer>> searchAll(Collection<String> words, String field, int maxSearch) {
+        Map<String, Map<String, Integer>> results = new LinkedHashMap<>();
+        SearcherManager manager = searcherManager();
+        try {
+            IndexSearcher searcher = manager.acquire();
+            try {
+                for (String word : words) {
+                    results.computeIfAbsent(word, w -> search(searcher, w, field, maxSearch));
+                }
+            } finally {
+                manager.release(searcher);
+            }
+        } catch (IOException e) {
+            log.warn("Error acquiring Lucene searcher.", e);
+        }
+        for (String word : words) {
+            results.putIfAbsent(word, new HashMap<>());
         }
+        return results;
+    }
+
+    private static Map<String, Integer> search(IndexSearcher searcher, String word, String field, int maxSearch) {
         Map<String, Integer> verbFreqs = new HashMap<>();
-        QueryParser queryParser = new QueryParser(field, analyzer);
         try {
-            Query query = queryParser.parse(word);
-            TopDocs topDocs = indexSearcher.search(query, maxSearch);
-            ScoreDoc[] doc = topDocs.scoreDocs;
-            for (int i = 0; i < maxSearch && i < doc.length; ++i) {
-                int documentId = doc[i].doc;
-                Document document = indexSearcher.doc(documentId);
-                String verb = document.get(VERB);
-                String frequency = document.get(FREQ);
-                verbFreqs.put(verb, Integer.parseInt(frequency));
+            Query query = query(word, field);
+            if (query == null) {
+                return verbFreqs;
+            }
+            ScoreDoc[] docs = searcher.search(query, maxSearch).scoreDocs;
+            String[] verbs = new String[docs.length];
+            int[] frequencies = new int[docs.length];
+            // doc values iterators are forward-only, so hits are visited in document order, and results kept in score order
+            Integer[] order = new Integer[docs.length];
+            for (int i = 0; i < docs.length; ++i) {
+                order[i] = i;
+            }
+            Arrays.sort(order, Comparator.comparingInt(i -> docs[i].doc));
+            List<LeafReaderContext> leaves = searcher.getIndexReader().leaves();
+            LeafReaderContext leaf = null;
+            SortedDocValues verbValues = null;
+            NumericDocValues freqValues = null;
+            for (int i : order) {
+                int doc = docs[i].doc;
+                if (leaf == null || doc >= leaf.docBase + leaf.reader().maxDoc()) {
+                    leaf = leaves.get(ReaderUtil.subIndex(doc, leaves));
+                    verbValues = leaf.reader().getSortedDocValues(VERB);
+                    freqValues = leaf.reader().getNumericDocValues(FREQ);
+                }
+                if (verbValues != null && freqValues != null
+                        && verbValues.advanceExact(doc - leaf.docBase) && freqValues.advanceExact(doc - leaf.docBase)) {
+                    verbs[i] = verbValues.binaryValue().utf8ToString();
+                    frequencies[i] = (int) freqValues.longValue();
+                } else {
+                    Document document = searcher.doc(doc, FIELDS);
+                    verbs[i] = document.get(VERB);
+                    frequencies[i] = Integer.parseInt(document.get(FREQ));
+                }
+            }
+            for (int i = 0; i < docs.length; ++i) {
+                verbFreqs.put(verbs[i], frequencies[i]);
             }
-        } catch (ParseException | IOException e) {
+        } catch (IOException e) {
             log.warn("Error searching Lucene index.", e);
         }
         return verbFreqs;
     }
 
+    /**
+     * Build a query directly from the analyzed terms of a word, equivalent to the default (OR) query of a classic query parser.
+     */
+    private static Query query(String word, String field) throws IOException {
+        List<Term> terms = new ArrayList<>();
+        try (TokenStream stream = ANALYZER.tokenStream(field, word)) {
+            CharTermAttribute term = stream.addAttribute(CharTermAttribute.class);
+            stream.reset();
+            while (stream.incrementToken()) {
+                terms.add(new Term(field, term.toString()));
+            }
+            stream.end();
+        }
+        if (terms.size() <= 1) {
+            return terms.isEmpty() ? null : new TermQuery(terms.get(0));
+        }
+        BooleanQuery.Builder builder = new BooleanQuery.Builder();
+        for (Term term : terms) {
+            builder.add(new TermQuery(term), BooleanClause.Occur.SHOULD);
+        }
+        return builder.build();
+    }
+
+    private static class SharedIndex {
+
+        private final Path path;
+        private final FSDirectory directory;
+        private final SearcherManager manager;
+        private int references;
+
+        private SharedIndex(Path path, FSDirectory directory) throws IOException {
+            this.path = path;
+            this.directory = directory;
+            this.manager = new SearcherManager(directory, null);
+        }
+    }
+
 }
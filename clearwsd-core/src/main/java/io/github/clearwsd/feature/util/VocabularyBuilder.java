@@ -16,46 +16,90 @@
 
 package io.github.clearwsd.feature.util;
 
-import com.google.common.collect.BiMap;
-import com.google.common.collect.HashBiMap;
-
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 
 import io.github.clearwsd.feature.model.BaseVocabulary;
+import io.github.clearwsd.feature.model.FeatureTable;
 import io.github.clearwsd.feature.model.Vocabulary;
-import lombok.Getter;
-import lombok.experimental.Accessors;
 
 /**
  * Vocabulary builder used during feature extraction to keep track of feature counts, and produce vector representations of inputs.
+ * Features are indexed in order of first occurrence.
  *
  * @author jamesgung
  */
-@Accessors(fluent = true)
 public class VocabularyBuilder implements Vocabulary {
 
     private static final long serialVersionUID = 4581175527928695153L;
 
     public static final String DEFAULT = "<NONE>";
 
-    @Getter
-    private Map<String, Integer> counts = new HashMap<>();
-    @Getter
-    private BiMap<String, Integer> indices = HashBiMap.create();
+    private FeatureTable features = new FeatureTable();
+    private int[] counts = new int[16];
 
     public int index(String feature) {
-        counts.merge(feature, 1, (old, val) -> old + val);
-        return indices.computeIfAbsent(feature, none -> indices.size());
+        return count(features.add(feature));
+    }
+
+    @Override
+    public int index(String id, String value) {
+        int index = features.find(id, value);
+        if (index < 0) {
+            index = features.add(id + FeatureUtils.FEATURE_ID_SEP + value);
+        }
+        return count(index);
     }
 
     @Override
     public String value(int index) {
-        return indices.inverse().get(index);
+        if (index < 0 || index >= features.size()) {
+            return null;
+        }
+        return features.get(index);
+    }
+
+    /**
+     * Return the number of distinct features.
+     */
+    public int size() {
+        return features.size();
+    }
+
+    /**
+     * Return a new map of features to their number of occurrences.
+     */
+    public Map<String, Integer> counts() {
+        Map<String, Integer> result = new HashMap<>(features.size() * 2);
+        for (int index = 0; index < features.size(); ++index) {
+            result.put(features.get(index), counts[index]);
+        }
+        return result;
+    }
+
+    /**
+     * Return a new map of features to corresponding indices.
+     */
+    @Override
+    public Map<String, Integer> indices() {
+        Map<String, Integer> result = new HashMap<>(features.size() * 2);
+        for (int index = 0; index < features.size(); ++index) {
+            result.put(features.get(index), index);
+        }
+        return result;
     }
 
     public Vocabulary build() {
-        return new BaseVocabulary(indices);
+        return new BaseVocabulary(features.compact());
+    }
+
+    private int count(int index) {
+        if (index >= counts.length) {
+            counts = Arrays.copyOf(counts, Math.max(counts.length * 2, index + 1));
+        }
+        counts[index]++;
+        return index;
     }
 
 }
@@ -0,0 +1,217 @@
+/*
+ * Copyright 2017 James Gung
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.clearwsd.io;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.experimental.Accessors;
+
+/**
+ * Constants and primitive encoding utilities for the versioned binary model container format. A model file consists of a header
+ * (magic number, format version, and a table of contents giving the tag, offset and length of each section), followed by section
+ * payloads. All values are big-endian.
+ * <pre>
+ * int magic, int version, int sectionCount, {int tag, long offset, long length} * sectionCount, payloads...
+ * </pre>
+ * Sections are described by {@link Section}. Although offsets and lengths are stored as longs, models are read through a single
+ * buffer, so may be at most {@link #MAX_MODEL_BYTES} bytes.
+ *
+ * @author jamesgung
+ */
+public final class BinaryModelFormat {
+
+    public static final int MAGIC = 0x43575344; // "CWSD"
+    // version 2 adds the feature dictionaries section, and a type to each sub-model vocabulary
+    public static final int VERSION = 2;
+    /**
+     * Maximum size in bytes of a binary model, limited by the capacity of a single {@link java.nio.ByteBuffer}.
+     */
+    public static final long MAX_MODEL_BYTES = Integer.MAX_VALUE;
+
+    // sense inventory encodings
+    static final byte INVENTORY_SERIALIZED = 0;
+    static final byte INVENTORY_COUNTING = 1;
+
+    // sub-model encodings
+    static final byte MODEL_SERIALIZED = 0;
+    static final byte MODEL_LINEAR = 1;
+    static final byte MODEL_SINGLE_LABEL = 2;
+
+    // vocabulary encodings
+    static final byte VOCABULARY_BASE = 0;
+    static final byte VOCABULARY_SHARED = 1;
+
+    private static final int NULL_LENGTH = -1;
+
+    private BinaryModelFormat() {
+    }
+
+    /**
+     * Model file sections.
+     */
+    @Getter
+    @Accessors(fluent = true)
+    @AllArgsConstructor
+    public enum Section {
+        /**
+         * Sense inventory, either as sense counts per lemma or as a serialized object.
+         */
+        Inventory(1),
+        /**
+         * Lemma dictionary entries (lemma, POS, predicate).
+         */
+        LemmaDictionary(2),
+        /**
+         * Shared string table, referenced by index from vocabularies of all sub-models.
+         */
+        Strings(3),
+        /**
+         * De-duplicated serialized feature function configurations, shared by sub-models.
+         */
+        FeatureFunctions(4),
+        /**
+         * Per-sub-model label/feature vocabularies and weight blocks. Feature vocabularies backed by a shared dictionary are stored
+         * as global to local index mappings into {@link #Dictionaries}.
+         */
+        Models(5),
+        /**
+         * Serialized classifier structure, with sub-models replaced by references into {@link #Models}.
+         */
+        Classifier(6),
+        /**
+         * Offset of each sub-model within {@link #Models}, allowing sub-models to be decoded individually on demand.
+         */
+        ModelIndex(7),
+        /**
+         * Global feature dictionaries shared by sub-models, stored once however many sub-model vocabularies reference them.
+         */
+        Dictionaries(8);
+
+        private final int tag;
+
+        static Section fromTag(int tag) {
+            for (Section section : values()) {
+                if (section.tag == tag) {
+                    return section;
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Placeholder for a sub-model stored in the {@link Section#Models} section, written in place of the sub-model in the
+     * serialized classifier structure.
+     */
+    @AllArgsConstructor
+    static final class ModelReference implements Serializable {
+
+        private static final long serialVersionUID = -1857391052931425176L;
+
+        final int id;
+
+    }
+
+    /**
+     * Return true if the given bytes begin with the binary model magic number.
+     *
+     * @param header first (at least 4) bytes of a file
+     */
+    public static boolean isBinaryModel(byte[] header) {
+        return header.length >= 4 && ByteBuffer.wrap(header).getInt() == MAGIC;
+    }
+
+    static void writeString(DataOutput out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(NULL_LENGTH);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    static String readString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length == NULL_LENGTH) {
+            return null;
+        }
+        String result;
+        if (buffer.hasArray()) {
+            result = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length, StandardCharsets.UTF_8);
+            buffer.position(buffer.position() + length);
+        } else {
+            byte[] bytes = new byte[length];
+            buffer.get(bytes);
+            result = new String(bytes, StandardCharsets.UTF_8);
+        }
+        return result;
+    }
+
+    static void writeBytes(DataOutput out, byte[] bytes) throws IOException {
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    static byte[] readBytes(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return bytes;
+    }
+
+    static void writeInts(DataOutput out, int[] values) throws IOException {
+        out.writeInt(values.length);
+        for (int value : values) {
+            out.writeInt(value);
+        }
+    }
+
+    static int[] readInts(ByteBuffer buffer) {
+        int[] values = new int[buffer.getInt()];
+        buffer.asIntBuffer().get(values);
+        buffer.position(buffer.position() + values.length * Integer.BYTES);
+        return values;
+    }
+
+    static long[] readLongs(ByteBuffer buffer) {
+        long[] values = new long[buffer.getInt()];
+        buffer.asLongBuffer().get(values);
+        buffer.position(buffer.position() + values.length * Long.BYTES);
+        return values;
+    }
+
+    static void writeFloats(DataOutput out, float[] values) throws IOException {
+        out.writeInt(values.length);
+        for (float value : values) {
+            out.writeFloat(value);
+        }
+    }
+
+    static float[] readFloats(ByteBuffer buffer) {
+        float[] values = new float[buffer.getInt()];
+        buffer.asFloatBuffer().get(values);
+        buffer.position(buffer.position() + values.length * Float.BYTES);
+        return values;
+    }
+
+}
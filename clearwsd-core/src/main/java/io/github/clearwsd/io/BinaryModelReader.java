@@ -0,0 +1,449 @@
+/*
+ * Copyright 2017 James Gung
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.clearwsd.io;
+
+import com.google.common.io.ByteStreams;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import io.github.clearwsd.WordSenseClassifier;
+import io.github.clearwsd.classifier.Classifier;
+import io.github.clearwsd.classifier.PaClassifier;
+import io.github.clearwsd.feature.function.FeatureFunction;
+import io.github.clearwsd.feature.model.BaseFeatureModel;
+import io.github.clearwsd.feature.model.BaseVocabulary;
+import io.github.clearwsd.feature.model.FeatureDictionary;
+import io.github.clearwsd.feature.model.SharedVocabulary;
+import io.github.clearwsd.feature.model.Vocabulary;
+import io.github.clearwsd.feature.pipeline.DefaultFeaturePipeline;
+import io.github.clearwsd.feature.pipeline.NlpClassifier;
+import io.github.clearwsd.io.BinaryModelFormat.ModelReference;
+import io.github.clearwsd.io.BinaryModelFormat.Section;
+import io.github.clearwsd.type.DepNode;
+import io.github.clearwsd.type.DepTree;
+import io.github.clearwsd.type.NlpFocus;
+import io.github.clearwsd.type.NlpInstance;
+import io.github.clearwsd.utils.CountingSenseInventory;
+import io.github.clearwsd.utils.LemmaDictionary;
+import io.github.clearwsd.utils.SenseInventory;
+
+import static io.github.clearwsd.io.BinaryModelFormat.readBytes;
+import static io.github.clearwsd.io.BinaryModelFormat.readFloats;
+import static io.github.clearwsd.io.BinaryModelFormat.readInts;
+import static io.github.clearwsd.io.BinaryModelFormat.readLongs;
+import static io.github.clearwsd.io.BinaryModelFormat.readString;
+
+/**
+ * Reads a {@link WordSenseClassifier} stored in the binary model format described by {@link BinaryModelFormat}. Files are
+ * memory-mapped, and weight and vocabulary blocks are read directly into primitive arrays. Feature strings are shared by all
+ * sub-models, as are feature functions with identical configurations and feature dictionaries.
+ * <p>
+ * By default, sub-models are not decoded until first used, and are held in a {@link ModelStore} with a bounded cache, so that
+ * only sub-models for frequently seen keys (such as predicate lemmas) occupy the heap. Sub-models can instead be decoded up front
+ * by passing {@link #EAGER} as the cache size.
+ *
+ * @author jamesgung
+ */
+public class BinaryModelReader {
+
+    /**
+     * Default maximum total encoded size of decoded sub-models retained in memory (64 MB).
+     */
+    public static final long DEFAULT_CACHE_BYTES = 64L << 20;
+    /**
+     * Cache size indicating that all sub-models should be decoded up front.
+     */
+    public static final long EAGER = 0;
+
+    private final Map<Section, ByteBuffer> sections = new EnumMap<>(Section.class);
+    private final long maxCachedBytes;
+
+    private ByteBuffer stringBuffer;
+    private int[] stringOffsets;
+    private String[] strings;
+    private ByteBuffer featureFunctionBuffer;
+    private int[] featureFunctionOffsets;
+    private Object[][] featureFunctions;
+    private ByteBuffer dictionaryBuffer;
+    private int[] dictionaryOffsets;
+    private FeatureDictionary[] dictionaries;
+    private int version;
+    private NlpClassifier[] models;
+    private ModelStore store;
+
+    private BinaryModelReader(ByteBuffer buffer, long maxCachedBytes) {
+        this.maxCachedBytes = maxCachedBytes;
+        if (buffer.getInt() != BinaryModelFormat.MAGIC) {
+            throw new IllegalArgumentException("Not a binary model file (invalid header)");
+        }
+        version = buffer.getInt();
+        if (version > BinaryModelFormat.VERSION) {
+            throw new IllegalArgumentException(String.format("Unsupported binary model version %d (expected at most %d)",
+                    version, BinaryModelFormat.VERSION));
+        }
+        int sectionCount = buffer.getInt();
+        for (int i = 0; i < sectionCount; ++i) {
+            Section section = Section.fromTag(buffer.getInt());
+            long offset = buffer.getLong();
+            long length = buffer.getLong();
+            if (offset < 0 || length < 0 || offset + length > buffer.limit()) {
+                throw new IllegalArgumentException(String.format("Binary model section %s at offset %d with length %d lies "
+                        + "outside the %d-byte model (truncated or corrupt file?)", section, offset, length, buffer.limit()));
+            }
+            if (section != null) { // skip sections unknown to this version
+                ByteBuffer slice = buffer.duplicate();
+                slice.position((int) offset).limit((int) (offset + length));
+                sections.put(section, slice.slice());
+            }
+        }
+    }
+
+    /**
+     * Read a word sense classifier from a buffer containing a binary model, decoding sub-models on demand.
+     *
+     * @param buffer binary model buffer
+     * @return word sense classifier
+     */
+    public static WordSenseClassifier read(ByteBuffer buffer) {
+        return read(buffer, DEFAULT_CACHE_BYTES);
+    }
+
+    /**
+     * Read a word sense classifier from a buffer containing a binary model.
+     *
+     * @param buffer         binary model buffer
+     * @param maxCachedBytes maximum total encoded size of decoded sub-models to retain, or {@link #EAGER} to decode all
+     *                       sub-models up front
+     * @return word sense classifier
+     */
+    public static WordSenseClassifier read(ByteBuffer buffer, long maxCachedBytes) {
+        return new BinaryModelReader(buffer, maxCachedBytes).readClassifier();
+    }
+
+    /**
+     * Read a word sense classifier from a binary model file, which is memory-mapped, decoding sub-models on demand.
+     *
+     * @param path binary model path
+     * @return word sense classifier
+     */
+    public static WordSenseClassifier read(Path path) {
+        return read(path, DEFAULT_CACHE_BYTES);
+    }
+
+    /**
+     * Read a word sense classifier from a binary model file, which is memory-mapped.
+     *
+     * @param path           binary model path
+     * @param maxCachedBytes maximum total encoded size of decoded sub-models to retain, or {@link #EAGER} to decode all
+     *                       sub-models up front
+     * @return word sense classifier
+     */
+    public static WordSenseClassifier read(Path path, long maxCachedBytes) {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > BinaryModelFormat.MAX_MODEL_BYTES) {
+                throw new IllegalArgumentException(String.format("Binary model at %s is %d bytes, but models larger than %d "
+                        + "bytes are not supported", path, channel.size(), BinaryModelFormat.MAX_MODEL_BYTES));
+            }
+            return read(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()), maxCachedBytes);
+        } catch (IOException e) {
+            throw new RuntimeException("Unable to read binary model at " + path + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Read a word sense classifier from a binary model at a given {@link URL}, decoding sub-models on demand. Local files are
+     * memory-mapped, while other resources (such as those within JARs) are read into memory.
+     *
+     * @param url binary model URL
+     * @return word sense classifier
+     */
+    public static WordSenseClassifier read(URL url) {
+        return read(url, DEFAULT_CACHE_BYTES);
+    }
+
+    /**
+     * Read a word sense classifier from a binary model at a given {@link URL}. Local files are memory-mapped, while other
+     * resources (such as those within JARs) are read into memory.
+     *
+     * @param url            binary model URL
+     * @param maxCachedBytes maximum total encoded size of decoded sub-models to retain, or {@link #EAGER} to decode all
+     *                       sub-models up front
+     * @return word sense classifier
+     */
+    public static WordSenseClassifier read(URL url, long maxCachedBytes) {
+        if ("file".equals(url.getProtocol())) {
+            try {
+                return read(Paths.get(url.toURI()), maxCachedBytes);
+            } catch (URISyntaxException e) {
+                throw new RuntimeException(e);
+            }
+        }
+        try (InputStream inputStream = url.openStream()) {
+            return read(ByteBuffer.wrap(ByteStreams.toByteArray(inputStream)), maxCachedBytes);
+        } catch (IOException e) {
+            throw new RuntimeException("Unable to read binary model at " + url + ": " + e.getMessage(), e);
+        }
+    }
+
+    private WordSenseClassifier readClassifier() {
+        indexStrings(section(Section.Strings));
+        indexFeatureFunctions(section(Section.FeatureFunctions));
+        indexDictionaries(version < 2 ? ByteBuffer.allocate(Integer.BYTES) : section(Section.Dictionaries));
+        ByteBuffer modelBuffer = section(Section.Models);
+        ByteBuffer index = sections.get(Section.ModelIndex);
+        if (maxCachedBytes > EAGER && index != null) {
+            store = new ModelStore(modelBuffer, readLongs(index), this::readModel, maxCachedBytes);
+        } else {
+            // shared strings are only retained when all sub-models are decoded up front
+            strings = new String[stringOffsets.length];
+            models = new NlpClassifier[modelBuffer.getInt()];
+            for (int i = 0; i < models.length; ++i) {
+                models[i] = readModel(modelBuffer);
+            }
+        }
+        //noinspection unchecked
+        Classifier<NlpFocus<DepNode, DepTree>, String> classifier =
+                (Classifier<NlpFocus<DepNode, DepTree>, String>) readStructure(section(Section.Classifier));
+        SenseInventory<?> inventory = readInventory(section(Section.Inventory));
+        LemmaDictionary dictionary = readLemmaDictionary(section(Section.LemmaDictionary));
+        return new WordSenseClassifier(classifier, inventory, dictionary);
+    }
+
+    private ByteBuffer section(Section section) {
+        ByteBuffer buffer = sections.get(section);
+        if (buffer == null) {
+            throw new IllegalArgumentException("Binary model is missing required section: " + section);
+        }
+        return buffer;
+    }
+
+    private void indexStrings(ByteBuffer buffer) {
+        stringBuffer = buffer;
+        stringOffsets = new int[buffer.getInt()];
+        for (int i = 0; i < stringOffsets.length; ++i) {
+            stringOffsets[i] = buffer.position();
+            int length = buffer.getInt();
+            buffer.position(buffer.position() + Math.max(0, length));
+        }
+    }
+
+    private String string(int id) {
+        if (strings != null && strings[id] != null) {
+            return strings[id];
+        }
+        ByteBuffer buffer = stringBuffer.duplicate();
+        buffer.position(stringOffsets[id]);
+        String result = readString(buffer);
+        if (strings != null) {
+            strings[id] = result;
+        }
+        return result;
+    }
+
+    private void indexFeatureFunctions(ByteBuffer buffer) {
+        featureFunctionBuffer = buffer;
+        featureFunctionOffsets = new int[buffer.getInt()];
+        featureFunctions = new Object[featureFunctionOffsets.length][];
+        for (int i = 0; i < featureFunctionOffsets.length; ++i) {
+            featureFunctionOffsets[i] = buffer.position();
+            int length = buffer.getInt();
+            buffer.position(buffer.position() + length);
+        }
+    }
+
+    private synchronized Object[] featureFunction(int id) {
+        if (featureFunctions[id] == null) {
+            ByteBuffer buffer = featureFunctionBuffer.duplicate();
+            buffer.position(featureFunctionOffsets[id]);
+            try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(readBytes(buffer)))) {
+                featureFunctions[id] = new Object[]{in.readObject(), in.readObject()};
+            } catch (IOException | ClassNotFoundException e) {
+                throw new RuntimeException("Unable to read feature function: " + e.getMessage(), e);
+            }
+        }
+        return featureFunctions[id];
+    }
+
+    private void indexDictionaries(ByteBuffer buffer) {
+        dictionaryBuffer = buffer;
+        dictionaryOffsets = new int[buffer.getInt()];
+        dictionaries = new FeatureDictionary[dictionaryOffsets.length];
+        for (int i = 0; i < dictionaryOffsets.length; ++i) {
+            dictionaryOffsets[i] = buffer.position();
+            int size = buffer.getInt();
+            for (int j = 0; j < size; ++j) {
+                int length = buffer.getInt();
+                buffer.position(buffer.position() + Math.max(0, length));
+            }
+        }
+    }
+
+    private synchronized FeatureDictionary dictionary(int id) {
+        if (dictionaries[id] == null) {
+            ByteBuffer buffer = dictionaryBuffer.duplicate();
+            buffer.position(dictionaryOffsets[id]);
+            int size = buffer.getInt();
+            List<String> features = new ArrayList<>(size);
+            for (int i = 0; i < size; ++i) {
+                features.add(readString(buffer));
+            }
+            // loaded models are only applied, so the dictionary is read-only and looked up without locking
+            dictionaries[id] = new FeatureDictionary(features).freeze();
+        }
+        return dictionaries[id];
+    }
+
+    private NlpClassifier<?> readModel(ByteBuffer buffer) {
+        byte type = buffer.get();
+        if (type == BinaryModelFormat.MODEL_SINGLE_LABEL) {
+            return NlpClassifier.singleLabel(string(buffer.getInt()));
+        } else if (type == BinaryModelFormat.MODEL_LINEAR) {
+            return readLinearModel(buffer);
+        }
+        throw new IllegalArgumentException("Unsupported sub-model type: " + type);
+    }
+
+    private <I extends NlpInstance> NlpClassifier<I> readLinearModel(ByteBuffer buffer) {
+        Object[] functions = featureFunction(buffer.getInt());
+        //noinspection unchecked
+        DefaultFeaturePipeline<I> pipeline = new DefaultFeaturePipeline<>((FeatureFunction<I>) functions[0]);
+        //noinspection unchecked
+        pipeline.labelFunction((Function<I, String>) functions[1]);
+        Vocabulary labels = readVocabulary(buffer);
+        Vocabulary features = readVocabulary(buffer);
+        pipeline.model(new BaseFeatureModel(labels, features));
+
+        PaClassifier classifier = new PaClassifier();
+        classifier.averaging(buffer.get() != 0)
+                .aggressiveness(buffer.getFloat())
+                .epochs(buffer.getInt())
+                .patience(buffer.getInt())
+                .shuffle(buffer.get() != 0)
+                .seed(buffer.getInt())
+                .verbose(buffer.get() != 0)
+                .multithread(buffer.get() != 0)
+                .parallelThreshold(buffer.getInt());
+        int[] labelIds = readInts(buffer);
+        int featureCount = buffer.getInt();
+        classifier.weights(labelIds, featureCount, readFloats(buffer));
+        return new NlpClassifier<>(classifier, pipeline);
+    }
+
+    private Vocabulary readVocabulary(ByteBuffer buffer) {
+        // vocabularies are untyped before version 2, which only stored base vocabularies
+        byte type = version < 2 ? BinaryModelFormat.VOCABULARY_BASE : buffer.get();
+        if (type == BinaryModelFormat.VOCABULARY_SHARED) {
+            FeatureDictionary dictionary = dictionary(buffer.getInt());
+            int[] globals = readInts(buffer);
+            return new SharedVocabulary(dictionary, globals, readInts(buffer));
+        } else if (type != BinaryModelFormat.VOCABULARY_BASE) {
+            throw new IllegalArgumentException("Unsupported vocabulary type: " + type);
+        }
+        int defaultIndex = buffer.getInt();
+        int size = buffer.getInt();
+        Map<String, Integer> indices = new HashMap<>(size * 2);
+        for (int i = 0; i < size; ++i) {
+            String value = string(buffer.getInt());
+            indices.put(value, buffer.getInt());
+        }
+        BaseVocabulary vocabulary = new BaseVocabulary(indices);
+        vocabulary.defaultIndex(defaultIndex);
+        return vocabulary;
+    }
+
+    private Object readStructure(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        try (ObjectInputStream in = new ResolvingInputStream(new ByteArrayInputStream(bytes))) {
+            return in.readObject();
+        } catch (IOException | ClassNotFoundException e) {
+            throw new RuntimeException("Unable to read classifier: " + e.getMessage(), e);
+        }
+    }
+
+    private static SenseInventory<?> readInventory(ByteBuffer buffer) {
+        byte type = buffer.get();
+        if (type == BinaryModelFormat.INVENTORY_COUNTING) {
+            CountingSenseInventory inventory = new CountingSenseInventory();
+            int lemmas = buffer.getInt();
+            for (int i = 0; i < lemmas; ++i) {
+                String lemma = readString(buffer);
+                int senses = buffer.getInt();
+                for (int j = 0; j < senses; ++j) {
+                    String sense = readString(buffer);
+                    inventory.addSense(lemma, sense, buffer.getInt());
+                }
+            }
+            return inventory;
+        }
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(readBytes(buffer)))) {
+            return (SenseInventory<?>) in.readObject();
+        } catch (IOException | ClassNotFoundException e) {
+            throw new RuntimeException("Unable to read sense inventory: " + e.getMessage(), e);
+        }
+    }
+
+    private static LemmaDictionary readLemmaDictionary(ByteBuffer buffer) {
+        LemmaDictionary dictionary = new LemmaDictionary();
+        dictionary.train(buffer.get() != 0);
+        int size = buffer.getInt();
+        for (int i = 0; i < size; ++i) {
+            String form = readString(buffer);
+            String pos = readString(buffer);
+            dictionary.put(form, pos, readString(buffer));
+        }
+        return dictionary;
+    }
+
+    /**
+     * Object stream that resolves {@link ModelReference ModelReferences} to sub-models read from the models section.
+     */
+    private class ResolvingInputStream extends ObjectInputStream {
+
+        ResolvingInputStream(InputStream in) throws IOException {
+            super(in);
+            enableResolveObject(true);
+        }
+
+        @Override
+        protected Object resolveObject(Object obj) {
+            if (obj instanceof ModelReference) {
+                int id = ((ModelReference) obj).id;
+                return store != null ? new LazyClassifier<>(store, id) : models[id];
+            }
+            return obj;
+        }
+
+    }
+
+}
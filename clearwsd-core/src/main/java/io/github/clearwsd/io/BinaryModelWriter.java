@@ -0,0 +1,350 @@
+/*
+ * Copyright 2017 James Gung
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.clearwsd.io;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import io.github.clearwsd.WordSenseClassifier;
+import io.github.clearwsd.classifier.PaClassifier;
+import io.github.clearwsd.feature.model.BaseVocabulary;
+import io.github.clearwsd.feature.model.FeatureDictionary;
+import io.github.clearwsd.feature.model.FeatureModel;
+import io.github.clearwsd.feature.model.SharedVocabulary;
+import io.github.clearwsd.feature.model.Vocabulary;
+import io.github.clearwsd.feature.pipeline.DefaultFeaturePipeline;
+import io.github.clearwsd.feature.pipeline.NlpClassifier;
+import io.github.clearwsd.io.BinaryModelFormat.ModelReference;
+import io.github.clearwsd.io.BinaryModelFormat.Section;
+import io.github.clearwsd.utils.CountingSenseInventory;
+import io.github.clearwsd.utils.LemmaDictionary;
+import io.github.clearwsd.utils.SenseInventory;
+
+import static io.github.clearwsd.io.BinaryModelFormat.writeBytes;
+import static io.github.clearwsd.io.BinaryModelFormat.writeFloats;
+import static io.github.clearwsd.io.BinaryModelFormat.writeInts;
+import static io.github.clearwsd.io.BinaryModelFormat.writeString;
+
+/**
+ * Writes a {@link WordSenseClassifier} in the binary model format described by {@link BinaryModelFormat}. Linear sub-models
+ * ({@link NlpClassifier NlpClassifiers} with a {@link DefaultFeaturePipeline} and {@link PaClassifier}) are written as primitive
+ * vocabulary and weight blocks, with feature strings shared across all sub-models in a single string table, and identical
+ * feature function configurations stored once. Vocabularies backed by a shared {@link FeatureDictionary} are written as mappings
+ * from global to local indices, and each dictionary is written once. Any other components are written with Java serialization.
+ *
+ * @author jamesgung
+ */
+public class BinaryModelWriter {
+
+    private final Map<String, Integer> strings = new LinkedHashMap<>();
+    private final Map<ByteBuffer, Integer> featureFunctions = new LinkedHashMap<>();
+    private final Map<FeatureDictionary, Integer> dictionaries = new IdentityHashMap<>();
+    private final List<NlpClassifier<?>> models = new ArrayList<>();
+    private long[] modelOffsets;
+
+    private BinaryModelWriter() {
+    }
+
+    /**
+     * Write a word sense classifier to a given path.
+     *
+     * @param classifier word sense classifier
+     * @param path       output path
+     */
+    public static void write(WordSenseClassifier classifier, Path path) {
+        try (OutputStream outputStream = new BufferedOutputStream(Files.newOutputStream(path))) {
+            write(classifier, outputStream);
+        } catch (IOException e) {
+            throw new RuntimeException("Unable to save classifier to " + path + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Write a word sense classifier to a given output stream, which is not closed.
+     *
+     * @param classifier   word sense classifier
+     * @param outputStream output stream
+     */
+    public static void write(WordSenseClassifier classifier, OutputStream outputStream) throws IOException {
+        new BinaryModelWriter().writeClassifier(classifier, outputStream);
+    }
+
+    private void writeClassifier(WordSenseClassifier classifier, OutputStream outputStream) throws IOException {
+        Map<Section, byte[]> sections = new EnumMap<>(Section.class);
+        // structure must be written first, to collect sub-models
+        sections.put(Section.Classifier, writeStructure(classifier));
+        sections.put(Section.Models, writeModels());
+        sections.put(Section.ModelIndex, writeModelIndex());
+        sections.put(Section.FeatureFunctions, writeFeatureFunctions());
+        sections.put(Section.Dictionaries, writeDictionaries());
+        sections.put(Section.Strings, writeStrings());
+        sections.put(Section.Inventory, writeInventory(classifier.senseInventory()));
+        sections.put(Section.LemmaDictionary, writeLemmaDictionary(classifier.predicateDictionary()));
+
+        long offset = 3 * Integer.BYTES + sections.size() * (Integer.BYTES + 2 * Long.BYTES);
+        long size = offset + sections.values().stream().mapToLong(payload -> payload.length).sum();
+        if (size > BinaryModelFormat.MAX_MODEL_BYTES) {
+            throw new IllegalArgumentException(String.format("Binary model would be %d bytes, but models larger than %d bytes are "
+                    + "not supported", size, BinaryModelFormat.MAX_MODEL_BYTES));
+        }
+        DataOutputStream out = new DataOutputStream(outputStream);
+        out.writeInt(BinaryModelFormat.MAGIC);
+        out.writeInt(BinaryModelFormat.VERSION);
+        out.writeInt(sections.size());
+        for (Map.Entry<Section, byte[]> section : sections.entrySet()) {
+            out.writeInt(section.getKey().tag());
+            out.writeLong(offset);
+            out.writeLong(section.getValue().length);
+            offset += section.getValue().length;
+        }
+        for (byte[] payload : sections.values()) {
+            out.write(payload);
+        }
+        out.flush();
+    }
+
+    private byte[] writeStructure(WordSenseClassifier classifier) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ExternalizingOutputStream(bytes)) {
+            out.writeObject(classifier.classifier());
+        }
+        return bytes.toByteArray();
+    }
+
+    private byte[] writeModels() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(models.size());
+        modelOffsets = new long[models.size()];
+        for (int i = 0; i < models.size(); ++i) {
+            NlpClassifier<?> model = models.get(i);
+            modelOffsets[i] = out.size();
+            if (model.singleLabel()) {
+                out.writeByte(BinaryModelFormat.MODEL_SINGLE_LABEL);
+                out.writeInt(intern(model.featurePipeline().model().label(0)));
+            } else {
+                writeLinearModel(model, out);
+            }
+        }
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    private byte[] writeModelIndex() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(modelOffsets.length);
+        for (long offset : modelOffsets) {
+            out.writeLong(offset);
+        }
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    private void writeLinearModel(NlpClassifier<?> model, DataOutputStream out) throws IOException {
+        DefaultFeaturePipeline<?> pipeline = (DefaultFeaturePipeline<?>) model.featurePipeline();
+        PaClassifier classifier = (PaClassifier) model.sparseClassifier();
+        out.writeByte(BinaryModelFormat.MODEL_LINEAR);
+        out.writeInt(featureFunction(pipeline));
+        FeatureModel featureModel = pipeline.model();
+        writeVocabulary(featureModel.labels(), out);
+        writeVocabulary(featureModel.features(), out);
+
+        out.writeBoolean(classifier.averaging());
+        out.writeFloat(classifier.aggressiveness());
+        out.writeInt(classifier.epochs());
+        out.writeInt(classifier.patience());
+        out.writeBoolean(classifier.shuffle());
+        out.writeInt(classifier.seed());
+        out.writeBoolean(classifier.verbose());
+        out.writeBoolean(classifier.multithread());
+        out.writeInt(classifier.parallelThreshold());
+
+        writeInts(out, classifier.labels());
+        out.writeInt(classifier.features());
+        writeFloats(out, classifier.weights());
+    }
+
+    private void writeVocabulary(Vocabulary vocabulary, DataOutputStream out) throws IOException {
+        if (vocabulary instanceof SharedVocabulary) {
+            SharedVocabulary shared = (SharedVocabulary) vocabulary;
+            out.writeByte(BinaryModelFormat.VOCABULARY_SHARED);
+            out.writeInt(dictionary(shared.dictionary()));
+            writeInts(out, shared.globals());
+            writeInts(out, shared.locals());
+            return;
+        }
+        out.writeByte(BinaryModelFormat.VOCABULARY_BASE);
+        Map<String, Integer> indices = vocabulary.indices();
+        out.writeInt(vocabulary instanceof BaseVocabulary ? ((BaseVocabulary) vocabulary).defaultIndex() : 0);
+        out.writeInt(indices.size());
+        for (Map.Entry<String, Integer> entry : indices.entrySet()) {
+            out.writeInt(intern(entry.getKey()));
+            out.writeInt(entry.getValue());
+        }
+    }
+
+    private int featureFunction(DefaultFeaturePipeline<?> pipeline) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(pipeline.features());
+            out.writeObject(pipeline.labelFunction());
+        }
+        return featureFunctions.computeIfAbsent(ByteBuffer.wrap(bytes.toByteArray()), key -> featureFunctions.size());
+    }
+
+    private byte[] writeFeatureFunctions() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(featureFunctions.size());
+        for (ByteBuffer featureFunction : featureFunctions.keySet()) {
+            writeBytes(out, featureFunction.array());
+        }
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    private int dictionary(FeatureDictionary dictionary) {
+        return dictionaries.computeIfAbsent(dictionary, key -> dictionaries.size());
+    }
+
+    private byte[] writeDictionaries() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        FeatureDictionary[] ordered = new FeatureDictionary[dictionaries.size()];
+        dictionaries.forEach((dictionary, id) -> ordered[id] = dictionary);
+        out.writeInt(ordered.length);
+        for (FeatureDictionary original : ordered) {
+            // global IDs are only ever appended, so a snapshot taken after writing all sub-models covers their vocabularies
+            FeatureDictionary dictionary = original.freeze();
+            out.writeInt(dictionary.size());
+            for (int i = 0; i < dictionary.size(); ++i) {
+                writeString(out, dictionary.get(i));
+            }
+        }
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    private byte[] writeStrings() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(strings.size());
+        for (String value : strings.keySet()) {
+            writeString(out, value);
+        }
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    private byte[] writeInventory(SenseInventory<?> inventory) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        if (inventory instanceof CountingSenseInventory) {
+            out.writeByte(BinaryModelFormat.INVENTORY_COUNTING);
+            Map<String, Map<String, Integer>> counts = ((CountingSenseInventory) inventory).counts();
+            out.writeInt(counts.size());
+            for (Map.Entry<String, Map<String, Integer>> lemma : counts.entrySet()) {
+                writeString(out, lemma.getKey());
+                out.writeInt(lemma.getValue().size());
+                for (Map.Entry<String, Integer> sense : lemma.getValue().entrySet()) {
+                    writeString(out, sense.getKey());
+                    out.writeInt(sense.getValue());
+                }
+            }
+        } else {
+            out.writeByte(BinaryModelFormat.INVENTORY_SERIALIZED);
+            ByteArrayOutputStream serialized = new ByteArrayOutputStream();
+            try (ObjectOutputStream oos = new ObjectOutputStream(serialized)) {
+                oos.writeObject(inventory);
+            }
+            writeBytes(out, serialized.toByteArray());
+        }
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    private byte[] writeLemmaDictionary(LemmaDictionary dictionary) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeBoolean(dictionary.train());
+        out.writeInt(dictionary.mappings().size());
+        for (Map.Entry<LemmaDictionary.LemmaKey, String> entry : dictionary.mappings().entrySet()) {
+            writeString(out, entry.getKey().form());
+            writeString(out, entry.getKey().pos());
+            writeString(out, entry.getValue());
+        }
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    private int intern(String value) {
+        return strings.computeIfAbsent(value, key -> strings.size());
+    }
+
+    private static boolean isLinearModel(NlpClassifier<?> model) {
+        return model.featurePipeline() instanceof DefaultFeaturePipeline
+                && ((DefaultFeaturePipeline<?>) model.featurePipeline()).model() != null
+                && model.featurePipeline().model().labels() instanceof BaseVocabulary
+                && (model.featurePipeline().model().features() instanceof BaseVocabulary
+                || model.featurePipeline().model().features() instanceof SharedVocabulary)
+                && model.sparseClassifier() instanceof PaClassifier
+                && ((PaClassifier) model.sparseClassifier()).compiled();
+    }
+
+    /**
+     * Object stream that replaces sub-models with {@link ModelReference ModelReferences}, collecting them for primitive encoding.
+     */
+    private class ExternalizingOutputStream extends ObjectOutputStream {
+
+        private final Map<Object, ModelReference> references = new IdentityHashMap<>();
+
+        ExternalizingOutputStream(OutputStream out) throws IOException {
+            super(out);
+            enableReplaceObject(true);
+        }
+
+        @Override
+        protected Object replaceObject(Object obj) {
+            if (obj instanceof NlpClassifier) {
+                NlpClassifier<?> model = (NlpClassifier<?>) obj;
+                if (model.singleLabel() || isLinearModel(model)) {
+                    return references.computeIfAbsent(obj, key -> {
+                        models.add(model);
+                        return new ModelReference(models.size() - 1);
+                    });
+                }
+            }
+            return obj;
+        }
+
+    }
+
+}
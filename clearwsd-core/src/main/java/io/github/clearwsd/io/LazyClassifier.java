@@ -0,0 +1,109 @@
+/*
+ * Copyright 2017 James Gung
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.clearwsd.io;
+
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import io.github.clearwsd.classifier.Classifier;
+import io.github.clearwsd.classifier.Hyperparameter;
+import io.github.clearwsd.feature.pipeline.NlpClassifier;
+import io.github.clearwsd.type.NlpInstance;
+import lombok.Getter;
+import lombok.experimental.Accessors;
+
+/**
+ * Placeholder for a sub-model in a {@link ModelStore}, decoded from the store on first use (and again after eviction). When
+ * serialized, the placeholder is replaced by the decoded sub-model.
+ *
+ * @param <U> input type
+ * @author jamesgung
+ */
+@Accessors(fluent = true)
+public class LazyClassifier<U extends NlpInstance> implements Classifier<U, String> {
+
+    private static final long serialVersionUID = 2503960451622212440L;
+
+    @Getter
+    private final transient ModelStore store;
+    @Getter
+    private final int id;
+
+    LazyClassifier(ModelStore store, int id) {
+        this.store = store;
+        this.id = id;
+    }
+
+    /**
+     * Return the decoded sub-model, decoding it if not currently cached by the {@link ModelStore}.
+     */
+    public NlpClassifier<U> model() {
+        //noinspection unchecked
+        return (NlpClassifier<U>) store.get(id);
+    }
+
+    @Override
+    public String classify(U instance) {
+        return model().classify(instance);
+    }
+
+    @Override
+    public Map<String, Double> score(U instance) {
+        return model().score(instance);
+    }
+
+    @Override
+    public void train(List<U> train, List<U> valid) {
+        throw new UnsupportedOperationException("Lazily loaded sub-models cannot be re-trained");
+    }
+
+    @Override
+    public List<Hyperparameter> hyperparameters() {
+        return model().hyperparameters();
+    }
+
+    @Override
+    public void initialize(Properties properties) {
+        throw new UnsupportedOperationException("Lazily loaded sub-models cannot be re-initialized, since they may be evicted");
+    }
+
+    /**
+     * Return this placeholder, without decoding the sub-model. Sub-models are frozen by the {@link ModelStore} when decoded.
+     */
+    @Override
+    public Classifier<U, String> freeze() {
+        return this;
+    }
+
+    @Override
+    public void load(ObjectInputStream inputStream) {
+        throw new UnsupportedOperationException("Lazily loaded sub-models are loaded from a model store");
+    }
+
+    @Override
+    public void save(ObjectOutputStream outputStream) {
+        model().save(outputStream);
+    }
+
+    private Object writeReplace() {
+        return model();
+    }
+
+}
@@ -0,0 +1,167 @@
+/*
+ * Copyright 2017 James Gung
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.clearwsd.io;
+
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.CacheStats;
+import com.google.common.cache.LoadingCache;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+
+import java.nio.ByteBuffer;
+import java.util.function.Function;
+
+import io.github.clearwsd.feature.pipeline.NlpClassifier;
+import lombok.Getter;
+import lombok.experimental.Accessors;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Store of sub-models encoded in the {@link BinaryModelFormat.Section#Models models section} of a (typically memory-mapped)
+ * binary model. Sub-models are decoded only when first requested, and kept in a concurrent cache bounded by the (approximate)
+ * total encoded size of cached sub-models, so that sub-models for rarely seen keys can be evicted and decoded again when needed.
+ * Cached sub-models are returned without locking, and concurrent requests for a sub-model that is not cached wait for a single
+ * decoding of that sub-model. Decoded sub-models are {@link NlpClassifier#freeze() frozen}.
+ *
+ * @author jamesgung
+ */
+@Slf4j
+@Accessors(fluent = true)
+public class ModelStore {
+
+    private final ByteBuffer models;
+    private final long[] offsets;
+    private final Function<ByteBuffer, NlpClassifier<?>> decoder;
+    private final LoadingCache<Integer, NlpClassifier<?>> cache;
+
+    @Getter
+    private final long maxCachedBytes;
+
+    /**
+     * Initialize a model store.
+     *
+     * @param models         models section buffer
+     * @param offsets        offset of each sub-model within the models section
+     * @param decoder        function decoding a single sub-model, given a buffer positioned at its start
+     * @param maxCachedBytes maximum total encoded size of cached sub-models
+     */
+    ModelStore(ByteBuffer models, long[] offsets, Function<ByteBuffer, NlpClassifier<?>> decoder, long maxCachedBytes) {
+        this.models = models;
+        this.offsets = offsets;
+        this.decoder = decoder;
+        this.maxCachedBytes = maxCachedBytes;
+        this.cache = CacheBuilder.newBuilder()
+                .maximumWeight(maxCachedBytes)
+                .<Integer, NlpClassifier<?>>weigher((id, model) -> (int) encodedSize(id))
+                .recordStats()
+                .build(CacheLoader.from(this::decode));
+    }
+
+    /**
+     * Return the total number of sub-models in this store.
+     */
+    public int size() {
+        return offsets.length;
+    }
+
+    /**
+     * Return the sub-model with a given ID, decoding it if it is not already cached.
+     *
+     * @param id sub-model ID
+     * @return sub-model
+     */
+    public NlpClassifier<?> get(int id) {
+        try {
+            return cache.getUnchecked(id);
+        } catch (UncheckedExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Return the number of currently cached (decoded) sub-models.
+     */
+    public int cached() {
+        return (int) cache.size();
+    }
+
+    /**
+     * Return the total encoded size of currently cached sub-models.
+     */
+    public long cachedBytes() {
+        return cache.asMap().keySet().stream().mapToLong(this::encodedSize).sum();
+    }
+
+    /**
+     * Return the number of requests for cached sub-models.
+     */
+    public long hits() {
+        return cache.stats().hitCount();
+    }
+
+    /**
+     * Return the number of requests requiring a sub-model to be decoded.
+     */
+    public long misses() {
+        return cache.stats().missCount();
+    }
+
+    /**
+     * Return the number of times a sub-model was decoded. Concurrent requests for the same sub-model share a single decoding.
+     */
+    public long decodes() {
+        return cache.stats().loadCount();
+    }
+
+    /**
+     * Return the number of sub-models evicted from the cache.
+     */
+    public long evictions() {
+        return cache.stats().evictionCount();
+    }
+
+    /**
+     * Remove all decoded sub-models from the cache.
+     */
+    public void clear() {
+        cache.invalidateAll();
+    }
+
+    private NlpClassifier<?> decode(int id) {
+        log.trace("Decoding sub-model {} ({} bytes)", id, encodedSize(id));
+        ByteBuffer buffer = models.duplicate();
+        buffer.position((int) offsets[id]);
+        // decoded sub-models are only used for prediction, so they are frozen once here rather than by each caller
+        return decoder.apply(buffer).freeze();
+    }
+
+    private long encodedSize(int id) {
+        long end = id + 1 < offsets.length ? offsets[id + 1] : models.limit();
+        return end - offsets[id];
+    }
+
+    @Override
+    public String toString() {
+        CacheStats stats = cache.stats();
+        return String.format("ModelStore{size=%d, cached=%d, cachedBytes=%d, hits=%d, misses=%d, evictions=%d}",
+                offsets.length, cached(), cachedBytes(), stats.hitCount(), stats.missCount(), stats.evictionCount());
+    }
+
+}
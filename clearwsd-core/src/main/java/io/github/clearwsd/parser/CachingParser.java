@@ -0,0 +1,244 @@
+/*
+ * Copyright 2017 James Gung
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.clearwsd.parser;
+
+import com.google.common.base.Preconditions;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.github.clearwsd.corpus.BinaryCorpus;
+import io.github.clearwsd.type.DepTree;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * {@link NlpParser} decorator caching parses persistently on disk, so that parses are reused across corpus readers and runs. Trees
+ * are content-addressed by a hash of a parser ID (identifying the parser and its configuration) and the input tokens, and stored
+ * in the {@link BinaryCorpus} format, one file per sentence. Recently used entries are also kept in a bounded in-memory cache.
+ * Each call returns a new tree, so callers may annotate returned trees freely. Safe for concurrent use if the wrapped parser is.
+ *
+ * @author jamesgung
+ */
+@Slf4j
+public class CachingParser implements NlpParser {
+
+    /**
+     * Default maximum size in bytes of encoded trees held in memory.
+     */
+    public static final long DEFAULT_MEMORY_BYTES = 64L << 20;
+
+    private static final String EXTENSION = ".tree";
+
+    private final NlpParser parser;
+    private final Path directory;
+    private final String parserId;
+    private final Cache<String, byte[]> memory;
+
+    private final AtomicLong diskHits = new AtomicLong();
+    private final AtomicLong parses = new AtomicLong();
+
+    /**
+     * Initialize a caching parser.
+     *
+     * @param parser         parser producing trees on cache misses
+     * @param directory      cache directory, created if it does not exist
+     * @param parserId       identifier of the parser, its models, and its configuration -- parses are only shared between equal IDs
+     * @param maxMemoryBytes maximum size in bytes of encoded trees held in memory
+     */
+    public CachingParser(NlpParser parser, Path directory, String parserId, long maxMemoryBytes) {
+        Preconditions.checkArgument(parserId != null && !parserId.isEmpty(), "A parser ID is required for the parse cache");
+        this.parser = parser;
+        this.directory = directory;
+        this.parserId = parserId;
+        this.memory = CacheBuilder.newBuilder()
+                .maximumWeight(maxMemoryBytes)
+                .<String, byte[]>weigher((key, value) -> value.length)
+                .recordStats()
+                .build();
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new RuntimeException("Unable to create parse cache directory at " + directory + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Initialize a caching parser holding up to {@link #DEFAULT_MEMORY_BYTES} of encoded trees in memory.
+     *
+     * @param parser    parser producing trees on cache misses
+     * @param directory cache directory, created if it does not exist
+     * @param parserId  identifier of the parser, its models, and its configuration -- parses are only shared between equal IDs
+     */
+    public CachingParser(NlpParser parser, Path directory, String parserId) {
+        this(parser, directory, parserId, DEFAULT_MEMORY_BYTES);
+    }
+
+    @Override
+    public List<String> segment(String input) {
+        return parser.segment(input);
+    }
+
+    @Override
+    public List<String> tokenize(String sentence) {
+        return parser.tokenize(sentence);
+    }
+
+    @Override
+    public DepTree parse(List<String> tokens) {
+        String key = key(tokens);
+        try {
+            return decode(memory.get(key, () -> {
+                byte[] cached = readCached(key);
+                if (cached != null) {
+                    diskHits.incrementAndGet();
+                    return cached;
+                }
+                parses.incrementAndGet();
+                return store(key, parser.parse(tokens));
+            }));
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Error parsing sentence: " + String.join(" ", tokens), e.getCause());
+        }
+    }
+
+    /**
+     * Parse a batch of sentences, passing only sentences missing from the cache to the wrapped parser as a single batch.
+     *
+     * @param sentences list of tokenized sentences
+     * @return list of syntactic dependency trees, one per input sentence
+     */
+    @Override
+    public List<DepTree> parseAll(List<List<String>> sentences) {
+        List<DepTree> results = new ArrayList<>(Collections.nCopies(sentences.size(), null));
+        List<String> missingKeys = new ArrayList<>();
+        List<Integer> missingIndices = new ArrayList<>();
+        for (int i = 0; i < sentences.size(); ++i) {
+            String key = key(sentences.get(i));
+            byte[] cached = memory.getIfPresent(key);
+            if (cached == null && (cached = readCached(key)) != null) {
+                diskHits.incrementAndGet();
+                memory.put(key, cached);
+            }
+            if (cached != null) {
+                results.set(i, decode(cached));
+            } else {
+                missingKeys.add(key);
+                missingIndices.add(i);
+            }
+        }
+        if (!missingIndices.isEmpty()) {
+            List<List<String>> missing = new ArrayList<>(missingIndices.size());
+            for (int index : missingIndices) {
+                missing.add(sentences.get(index));
+            }
+            List<DepTree> parsed = parser.parseAll(missing);
+            parses.addAndGet(parsed.size());
+            for (int i = 0; i < parsed.size(); ++i) {
+                byte[] encoded = store(missingKeys.get(i), parsed.get(i));
+                memory.put(missingKeys.get(i), encoded);
+                results.set(missingIndices.get(i), parsed.get(i));
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Return the number of parses read from disk, having been missing from memory.
+     */
+    public long diskHits() {
+        return diskHits.get();
+    }
+
+    /**
+     * Return the number of sentences parsed by the wrapped parser, having been missing from both memory and disk.
+     */
+    public long parses() {
+        return parses.get();
+    }
+
+    /**
+     * Return hit/miss statistics of the in-memory cache.
+     */
+    public CacheStats memoryStats() {
+        return memory.stats();
+    }
+
+    private String key(List<String> tokens) {
+        Hasher hasher = Hashing.sha256().newHasher()
+                .putString(parserId, StandardCharsets.UTF_8)
+                .putInt(tokens.size());
+        for (String token : tokens) {
+            // length-prefixed, so that token boundaries are part of the key
+            hasher.putInt(token.length()).putString(token, StandardCharsets.UTF_8);
+        }
+        return hasher.hash().toString();
+    }
+
+    private Path path(String key) {
+        return directory.resolve(key.substring(0, 2)).resolve(key + EXTENSION);
+    }
+
+    private byte[] readCached(String key) {
+        Path path = path(key);
+        if (!Files.exists(path)) {
+            return null;
+        }
+        try {
+            return Files.readAllBytes(path);
+        } catch (IOException e) {
+            log.warn("Unable to read cached parse at {}", path, e);
+            return null;
+        }
+    }
+
+    private byte[] store(String key, DepTree tree) {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        Path path = path(key);
+        try {
+            BinaryCorpus.write(Collections.singletonList(tree), outputStream);
+            // write to a temporary file first, so that concurrent readers never observe partially written entries
+            Files.createDirectories(path.getParent());
+            Path temp = Files.createTempFile(path.getParent(), key, ".tmp");
+            Files.write(temp, outputStream.toByteArray());
+            Files.move(temp, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            log.warn("Unable to cache parse at {}", path, e);
+        }
+        return outputStream.toByteArray();
+    }
+
+    private static DepTree decode(byte[] encoded) {
+        List<DepTree> trees = BinaryCorpus.read(ByteBuffer.wrap(encoded));
+        return trees.get(0);
+    }
+
+}
@@ -0,0 +1,151 @@
+/*
+ * Copyright 2017 James Gung
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.clearwsd.parser;
+
+import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import io.github.clearwsd.type.DepTree;
+import lombok.Getter;
+import lombok.experimental.Accessors;
+
+/**
+ * {@link NlpParser} decorator holding a fixed pool of parser instances, each of which is only used by one thread at a time. This
+ * allows parsers that are not safe to share, or only share read-only model data, to be called concurrently, e.g. from parallel
+ * streams. {@link #parseAll(List)} splits batches across all pooled instances, parsing them in parallel.
+ *
+ * @author jamesgung
+ */
+@Accessors(fluent = true)
+public class PooledNlpParser implements NlpParser, AutoCloseable {
+
+    private final BlockingQueue<NlpParser> pool;
+    private final ExecutorService executor;
+    @Getter
+    private final int size;
+
+    /**
+     * Initialize a pool of parsers.
+     *
+     * @param factory parser factory, called once per pooled instance -- instances may share read-only model data
+     * @param size    number of pooled instances, bounding the number of sentences parsed concurrently
+     */
+    public PooledNlpParser(Supplier<? extends NlpParser> factory, int size) {
+        Preconditions.checkArgument(size > 0, "Pool size must be positive, got %s", size);
+        this.size = size;
+        this.pool = new ArrayBlockingQueue<>(size);
+        for (int i = 0; i < size; ++i) {
+            pool.add(factory.get());
+        }
+        this.executor = Executors.newFixedThreadPool(size, new ThreadFactoryBuilder()
+                .setNameFormat("nlp-parser-%d")
+                .setDaemon(true)
+                .build());
+    }
+
+    /**
+     * Initialize a pool of parsers with one instance per available processor.
+     *
+     * @param factory parser factory, called once per pooled instance
+     */
+    public PooledNlpParser(Supplier<? extends NlpParser> factory) {
+        this(factory, Runtime.getRuntime().availableProcessors());
+    }
+
+    @Override
+    public List<String> segment(String input) {
+        return apply(parser -> parser.segment(input));
+    }
+
+    @Override
+    public List<String> tokenize(String sentence) {
+        return apply(parser -> parser.tokenize(sentence));
+    }
+
+    @Override
+    public DepTree parse(List<String> tokens) {
+        return apply(parser -> parser.parse(tokens));
+    }
+
+    /**
+     * Parse a batch of sentences, splitting the batch into contiguous chunks parsed in parallel by pooled instances.
+     *
+     * @param sentences list of tokenized sentences
+     * @return list of syntactic dependency trees, one per input sentence, in input order
+     */
+    @Override
+    public List<DepTree> parseAll(List<List<String>> sentences) {
+        int chunks = Math.min(size, sentences.size());
+        if (chunks <= 1) {
+            return apply(parser -> parser.parseAll(sentences));
+        }
+        List<Future<List<DepTree>>> futures = new ArrayList<>(chunks);
+        for (int i = 0; i < chunks; ++i) {
+            List<List<String>> chunk = sentences.subList(i * sentences.size() / chunks, (i + 1) * sentences.size() / chunks);
+            futures.add(executor.submit(() -> apply(parser -> parser.parseAll(chunk))));
+        }
+        List<DepTree> results = new ArrayList<>(sentences.size());
+        try {
+            for (Future<List<DepTree>> future : futures) {
+                results.addAll(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while parsing sentences.", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("An error occurred while parsing sentences: " + e.getCause().getMessage(), e.getCause());
+        } finally {
+            futures.forEach(future -> future.cancel(true));
+        }
+        return results;
+    }
+
+    /**
+     * Stop the threads used to parse batches. Single sentences may still be parsed after closing.
+     */
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    private <T> T apply(Function<NlpParser, T> function) {
+        NlpParser parser;
+        try {
+            parser = pool.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for a parser.", e);
+        }
+        try {
+            return function.apply(parser);
+        } finally {
+            pool.add(parser);
+        }
+    }
+
+}
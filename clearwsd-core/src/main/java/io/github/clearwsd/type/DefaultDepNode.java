@@ -18,11 +18,7 @@ package io.github.clearwsd.type;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
 
-import io.github.clearwsd.type.DepNode;
-import io.github.clearwsd.type.FeatureType;
-import io.github.clearwsd.type.NlpInstance;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.experimental.Accessors;
@@ -34,16 +30,14 @@ import lombok.experimental.Accessors;
  */
 @Getter
 @Accessors(fluent = true)
-public class DefaultDepNode implements DepNode {
+public class DefaultDepNode extends DefaultNlpInstance implements DepNode {
 
     private DepNode head;
     @Setter
-    private NlpInstance nlpToken;
-    @Setter
     private List<DepNode> children;
 
     public DefaultDepNode(int index) {
-        this.nlpToken = new DefaultNlpInstance(index);
+        super(index);
         children = new ArrayList<>();
     }
 
@@ -52,9 +46,27 @@ public class DefaultDepNode implements DepNode {
         return feature(FeatureType.Dep);
     }
 
-    @Override
-    public int index() {
-        return nlpToken.index();
+    /**
+     * Return the instance holding the features of this node, which is the node itself.
+     *
+     * @deprecated nodes now store their own features, use this node directly
+     */
+    @Deprecated
+    public NlpInstance nlpToken() {
+        return this;
+    }
+
+    /**
+     * Replace the index and features of this node with those of a given instance.
+     *
+     * @deprecated nodes now store their own features, add features to this node directly
+     */
+    @Deprecated
+    public DefaultDepNode nlpToken(NlpInstance nlpToken) {
+        features().clear();
+        index(nlpToken.index());
+        nlpToken.features().forEach(this::addFeature);
+        return this;
     }
 
     public void head(DepNode depNode) {
@@ -62,39 +74,9 @@ public class DefaultDepNode implements DepNode {
         depNode.children().add(this);
     }
 
-    @Override
-    public Map<String, Object> features() {
-        return nlpToken.features();
-    }
-
-    @Override
-    public <T> T feature(FeatureType featureType) {
-        return nlpToken.feature(featureType);
-    }
-
-
-    @Override
-    public <T> T feature(String feature) {
-        return nlpToken.feature(feature);
-    }
-
-    @Override
-    public <T> void addFeature(FeatureType featureType, T value) {
-        nlpToken.addFeature(featureType, value);
-    }
-
-    @Override
-    public <T> void addFeature(String featureKey, T value) {
-        nlpToken.addFeature(featureKey, value);
-    }
-
     @Override
     public boolean isRoot() {
         return null == head;
     }
 
-    @Override
-    public String toString() {
-        return nlpToken.toString();
-    }
 }
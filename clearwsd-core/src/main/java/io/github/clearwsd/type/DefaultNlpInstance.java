@@ -16,9 +16,15 @@
 
 package io.github.clearwsd.type;
 
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Comparator;
-import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 import lombok.Getter;
@@ -26,43 +32,122 @@ import lombok.Setter;
 import lombok.experimental.Accessors;
 
 /**
- * Default {@link NlpInstance} implementation.
+ * Default {@link NlpInstance} implementation. Features are stored in fixed slots for each {@link FeatureType}, while other
+ * features (such as resource annotations) are stored in small arrays keyed by their {@link FeatureKeys interned key IDs}, avoiding
+ * a hash map per instance and string hashing when looking up core features.
  *
  * @author jamesgung
  */
-@Getter
 @Accessors(fluent = true)
 public class DefaultNlpInstance implements NlpInstance {
 
+    private static final int[] EMPTY_KEYS = new int[0];
+    private static final Object[] EMPTY_VALUES = new Object[0];
+
+    @Getter
     @Setter
     private int index;
-    private Map<String, Object> features;
+    private final Object[] core = new Object[FeatureKeys.CORE_KEYS];
+    private int[] keys = EMPTY_KEYS;
+    private Object[] values = EMPTY_VALUES;
+    private int size;
 
     public DefaultNlpInstance(int index) {
         this.index = index;
-        this.features = new HashMap<>();
+    }
+
+    /**
+     * Return a view of the features of this instance, through which features can be added, replaced, or removed. Null values are
+     * not stored, so putting a null value removes the feature.
+     */
+    @Override
+    public Map<String, Object> features() {
+        return new FeatureMap();
     }
 
     @Override
     public <T> T feature(FeatureType featureType) {
         //noinspection unchecked
-        return (T) features.get(featureType.name());
+        return (T) core[featureType.ordinal()];
     }
 
     @Override
     public <T> T feature(String feature) {
-        //noinspection unchecked
-        return (T) features.get(feature);
+        int id = FeatureKeys.find(feature);
+        return id < 0 ? null : feature(id);
+    }
+
+    /**
+     * Return the feature for a corresponding {@link FeatureKeys interned key ID}.
+     *
+     * @param id  key ID
+     * @param <T> type of resulting feature
+     * @return feature value
+     */
+    public <T> T feature(int id) {
+        if (id < core.length) {
+            //noinspection unchecked
+            return (T) core[id];
+        }
+        for (int i = 0; i < size; ++i) {
+            if (keys[i] == id) {
+                //noinspection unchecked
+                return (T) values[i];
+            }
+        }
+        return null;
     }
 
     @Override
     public <T> void addFeature(FeatureType featureType, T value) {
-        features.put(featureType.name(), value);
+        core[featureType.ordinal()] = value;
     }
 
     @Override
     public <T> void addFeature(String featureKey, T value) {
-        features.put(featureKey, value);
+        addFeature(FeatureKeys.intern(featureKey), value);
+    }
+
+    /**
+     * Add a feature with a given {@link FeatureKeys interned key ID} to this instance.
+     *
+     * @param id    key ID
+     * @param value feature value
+     * @param <T>   value type
+     */
+    public <T> void addFeature(int id, T value) {
+        if (id < core.length) {
+            core[id] = value;
+            return;
+        }
+        for (int i = 0; i < size; ++i) {
+            if (keys[i] == id) {
+                values[i] = value;
+                return;
+            }
+        }
+        if (size == keys.length) {
+            int capacity = Math.max(4, size * 2);
+            keys = Arrays.copyOf(keys, capacity);
+            values = Arrays.copyOf(values, capacity);
+        }
+        keys[size] = id;
+        values[size++] = value;
+    }
+
+    private List<Map.Entry<String, Object>> entries() {
+        List<Map.Entry<String, Object>> entries = new ArrayList<>();
+        for (int id = 0; id < core.length; ++id) {
+            if (core[id] != null) {
+                entries.add(new AbstractMap.SimpleImmutableEntry<>(FeatureKeys.key(id), core[id]));
+            }
+        }
+        for (int i = 0; i < size; ++i) {
+            if (values[i] != null) {
+                entries.add(new AbstractMap.SimpleImmutableEntry<>(FeatureKeys.key(keys[i]), values[i]));
+            }
+        }
+        return entries;
     }
 
     @Override
@@ -71,9 +156,78 @@ public class DefaultNlpInstance implements NlpInstance {
         if (null != feat) {
             return feat.toString();
         }
-        return index + "\t" + features.entrySet().stream()
+        return index + "\t" + entries().stream()
                 .sorted(Comparator.comparing(Map.Entry::getKey))
                 .map((e) -> e.getKey() + ":" + e.getValue())
                 .collect(Collectors.joining("\t"));
     }
+
+    private class FeatureMap extends AbstractMap<String, Object> {
+
+        @Override
+        public Object get(Object key) {
+            return key instanceof String ? feature((String) key) : null;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return get(key) != null;
+        }
+
+        @Override
+        public Object put(String key, Object value) {
+            Object previous = feature(key);
+            addFeature(key, value);
+            return previous;
+        }
+
+        @Override
+        public Object remove(Object key) {
+            Object previous = get(key);
+            if (previous != null) {
+                addFeature((String) key, null);
+            }
+            return previous;
+        }
+
+        @Override
+        public Set<Entry<String, Object>> entrySet() {
+            return new AbstractSet<Entry<String, Object>>() {
+                @Override
+                public Iterator<Entry<String, Object>> iterator() {
+                    Iterator<Entry<String, Object>> entries = entries().iterator();
+                    return new Iterator<Entry<String, Object>>() {
+                        private Entry<String, Object> last;
+
+                        @Override
+                        public boolean hasNext() {
+                            return entries.hasNext();
+                        }
+
+                        @Override
+                        public Entry<String, Object> next() {
+                            last = entries.next();
+                            return last;
+                        }
+
+                        @Override
+                        public void remove() {
+                            if (last == null) {
+                                throw new IllegalStateException();
+                            }
+                            addFeature(last.getKey(), null);
+                            last = null;
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return entries().size();
+                }
+            };
+        }
+
+    }
+
 }
@@ -0,0 +1,111 @@
+/*
+ * Copyright 2017 James Gung
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.clearwsd.type;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Interned table of feature keys, assigning each distinct key a small integer ID for the lifetime of the JVM. Keys of
+ * {@link FeatureType FeatureTypes} are assigned their ordinal, so that IDs below {@link #CORE_KEYS} correspond to fixed slots.
+ * Other keys, such as those of resource annotations, are assigned IDs on first use. IDs are not stable across JVMs, and should
+ * not be serialized.
+ *
+ * @author jamesgung
+ */
+public final class FeatureKeys {
+
+    /**
+     * Number of core keys, corresponding to {@link FeatureType FeatureTypes}.
+     */
+    public static final int CORE_KEYS = FeatureType.values().length;
+
+    private static final Map<String, Integer> IDS = new ConcurrentHashMap<>();
+    private static volatile String[] keys = new String[0];
+
+    static {
+        for (FeatureType featureType : FeatureType.values()) {
+            intern(featureType.name());
+        }
+    }
+
+    private FeatureKeys() {
+    }
+
+    /**
+     * Return the ID of a given key, assigning a new ID if the key has not been seen before.
+     *
+     * @param key feature key
+     * @return key ID
+     */
+    public static int intern(String key) {
+        Integer id = IDS.get(key);
+        if (id != null) {
+            return id;
+        }
+        synchronized (FeatureKeys.class) {
+            id = IDS.get(key);
+            if (id == null) {
+                String[] updated = Arrays.copyOf(keys, keys.length + 1);
+                id = keys.length;
+                updated[id] = key;
+                // publish the key before its ID, so that any visible ID can be resolved
+                keys = updated;
+                IDS.put(key, id);
+            }
+            return id;
+        }
+    }
+
+    /**
+     * Return the ID of a given key, or -1 if the key has not been interned.
+     *
+     * @param key feature key
+     * @return key ID, or -1 if no such key exists
+     */
+    public static int find(String key) {
+        Integer id = IDS.get(key);
+        return id == null ? -1 : id;
+    }
+
+    /**
+     * Return the key with a given ID.
+     *
+     * @param id key ID
+     * @return feature key
+     */
+    public static String key(int id) {
+        return keys[id];
+    }
+
+    /**
+     * Return the feature of an instance with a given key ID, avoiding string lookups for {@link DefaultNlpInstance} instances.
+     *
+     * @param instance NLP instance
+     * @param id       key ID
+     * @param <T>      type of resulting feature
+     * @return feature value
+     */
+    public static <T> T feature(NlpInstance instance, int id) {
+        if (instance instanceof DefaultNlpInstance) {
+            return ((DefaultNlpInstance) instance).feature(id);
+        }
+        return instance.feature(key(id));
+    }
+
+}
@@ -16,7 +16,11 @@
 
 package io.github.clearwsd.utils;
 
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableMap;
+
 import java.io.Serializable;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
@@ -33,6 +37,7 @@ public class CountingSenseInventory implements SenseInventory<String>, Serializa
     private static final long serialVersionUID = -8129315817036077873L;
 
     private Map<String, Map<String, Integer>> inventoryMap = new HashMap<>();
+    private boolean frozen;
 
     @Override
     public Set<String> senses(String lemma) {
@@ -53,8 +58,27 @@ public class CountingSenseInventory implements SenseInventory<String>, Serializa
 
     @Override
     public void addSense(String lemma, String sense) {
+        addSense(lemma, sense, 1);
+    }
+
+    /**
+     * Add a sense to the sense inventory with a given count.
+     *
+     * @param lemma base word
+     * @param sense sense of word
+     * @param count number of occurrences of sense
+     */
+    public void addSense(String lemma, String sense, int count) {
+        Preconditions.checkState(!frozen, "Senses cannot be added to a frozen sense inventory.");
         Map<String, Integer> current = inventoryMap.computeIfAbsent(lemma, k -> new HashMap<>());
-        current.merge(sense, 1, (old, one) -> old + one);
+        current.merge(sense, count, (old, added) -> old + added);
+    }
+
+    /**
+     * Return an unmodifiable view of sense counts for each lemma.
+     */
+    public Map<String, Map<String, Integer>> counts() {
+        return Collections.unmodifiableMap(inventoryMap);
     }
 
     @Override
@@ -62,4 +86,17 @@ public class CountingSenseInventory implements SenseInventory<String>, Serializa
         return id;
     }
 
+    /**
+     * Return an immutable copy of this inventory.
+     */
+    @Override
+    public CountingSenseInventory freeze() {
+        ImmutableMap.Builder<String, Map<String, Integer>> counts = ImmutableMap.builder();
+        inventoryMap.forEach((lemma, senses) -> counts.put(lemma, ImmutableMap.copyOf(senses)));
+        CountingSenseInventory frozen = new CountingSenseInventory();
+        frozen.inventoryMap = counts.build();
+        frozen.frozen = true;
+        return frozen;
+    }
+
 }
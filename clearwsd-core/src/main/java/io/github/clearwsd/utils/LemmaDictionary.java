@@ -16,6 +16,9 @@
 
 package io.github.clearwsd.utils;
 
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableMap;
+
 import java.io.Serializable;
 import java.util.HashMap;
 import java.util.Map;
@@ -23,6 +26,7 @@ import java.util.function.Function;
 
 import io.github.clearwsd.type.FeatureType;
 import io.github.clearwsd.type.NlpInstance;
+import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.Getter;
@@ -44,6 +48,8 @@ public class LemmaDictionary implements Function<NlpInstance, String>, Serializa
 
     private Map<LemmaKey, String> mappings = new HashMap<>();
     private boolean train = false;
+    @Setter(AccessLevel.NONE)
+    private boolean frozen;
 
     @Override
     public String apply(NlpInstance instance) {
@@ -59,10 +65,47 @@ public class LemmaDictionary implements Function<NlpInstance, String>, Serializa
         return mappings.getOrDefault(key, lemma);
     }
 
+    /**
+     * Add a mapping from a lemma/POS pair to a predicate lemma, if none exists.
+     *
+     * @param form      lemma
+     * @param pos       part-of-speech
+     * @param predicate predicate lemma
+     */
+    public void put(String form, String pos, String predicate) {
+        Preconditions.checkState(!frozen, "Mappings cannot be added to a frozen dictionary.");
+        mappings.putIfAbsent(new LemmaKey(form, pos), predicate);
+    }
+
+    /**
+     * Set training mode. In training mode, mappings are added from the {@link FeatureType#Predicate} of each instance.
+     *
+     * @param train true to enable training mode
+     * @return this dictionary
+     */
+    public LemmaDictionary train(boolean train) {
+        Preconditions.checkState(!train || !frozen, "Frozen dictionaries cannot be trained.");
+        this.train = train;
+        return this;
+    }
+
+    /**
+     * Return an immutable copy of this dictionary, not in training mode.
+     */
+    public LemmaDictionary freeze() {
+        LemmaDictionary frozen = new LemmaDictionary();
+        frozen.mappings = ImmutableMap.copyOf(mappings);
+        frozen.frozen = true;
+        return frozen;
+    }
+
+    /**
+     * Lemma/POS pair used as a key in the dictionary.
+     */
     @Data
     @Accessors(fluent = true)
     @AllArgsConstructor
-    private static final class LemmaKey implements Serializable {
+    public static final class LemmaKey implements Serializable {
 
         private static final long serialVersionUID = -8067578806656259547L;
 
@@ -69,4 +69,15 @@ public interface SenseInventory<T> {
      */
     T getSense(String id);
 
+    /**
+     * Return a read-only snapshot of this sense inventory, safe for concurrent lookups by multiple threads without external
+     * synchronization. Senses may not be added to the snapshot. Inventories that are never modified after construction may
+     * return themselves.
+     *
+     * @return frozen sense inventory
+     */
+    default SenseInventory<T> freeze() {
+        return this;
+    }
+
 }
@@ -63,4 +63,15 @@ public abstract class WordNetSenseInventory<T> implements SenseInventory<T>, Ser
         return wordNet.lookup(id).orElse(null);
     }
 
+    /**
+     * Initialize the backing WordNet instance, which is otherwise initialized lazily on first use.
+     */
+    @Override
+    public WordNetSenseInventory<T> freeze() {
+        if (wordNet == null) {
+            wordNet = initializeWordNet();
+        }
+        return this;
+    }
+
 }
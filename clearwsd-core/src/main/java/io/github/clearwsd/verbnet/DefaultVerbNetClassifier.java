@@ -16,17 +16,22 @@
 
 package io.github.clearwsd.verbnet;
 
+import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Sets;
 
 import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
+import java.io.OutputStream;
 import java.io.Serializable;
 import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
@@ -45,24 +50,34 @@ import io.github.clearwsd.feature.annotator.DepNodeListAnnotator;
 import io.github.clearwsd.feature.annotator.ListAnnotator;
 import io.github.clearwsd.feature.context.DepChildrenContextFactory;
 import io.github.clearwsd.feature.context.DepContextFactory;
+import io.github.clearwsd.feature.extractor.FeatureExtractor;
+import io.github.clearwsd.feature.extractor.IdentityFeatureExtractor;
 import io.github.clearwsd.feature.extractor.StringExtractor;
 import io.github.clearwsd.feature.extractor.StringListExtractor;
 import io.github.clearwsd.feature.extractor.string.LowercaseFunction;
 import io.github.clearwsd.feature.function.AggregateFeatureFunction;
 import io.github.clearwsd.feature.function.FeatureFunction;
+import io.github.clearwsd.feature.model.FeatureDictionary;
 import io.github.clearwsd.feature.pipeline.AnnotatingClassifier;
 import io.github.clearwsd.feature.pipeline.DefaultFeaturePipeline;
 import io.github.clearwsd.feature.pipeline.FeaturePipeline;
 import io.github.clearwsd.feature.pipeline.NlpClassifier;
 import io.github.clearwsd.feature.resource.BrownClusterResourceInitializer;
+import io.github.clearwsd.feature.resource.CompiledMultimap;
+import io.github.clearwsd.feature.resource.CompiledResourceInitializer;
 import io.github.clearwsd.feature.resource.DefaultFeatureResourceManager;
 import io.github.clearwsd.feature.resource.DefaultTsvResourceInitializer;
 import io.github.clearwsd.feature.resource.FeatureResourceManager;
+import io.github.clearwsd.feature.resource.MultimapResource;
+import io.github.clearwsd.feature.resource.StringResourceInitializer;
+import io.github.clearwsd.feature.resource.TsvResourceInitializer;
 import io.github.clearwsd.feature.resource.WordNetResource.WordNetInitializer;
 import io.github.clearwsd.type.DepNode;
 import io.github.clearwsd.type.DepTree;
 import io.github.clearwsd.type.FeatureType;
 import io.github.clearwsd.type.NlpFocus;
+import lombok.Getter;
+import lombok.experimental.Accessors;
 import lombok.extern.slf4j.Slf4j;
 
 import static com.google.common.collect.Lists.newArrayList;
@@ -92,6 +107,7 @@ import static io.github.clearwsd.type.FeatureType.Pos;
  * @author jamesgung
  */
 @Slf4j
+@Accessors(fluent = true)
 public class DefaultVerbNetClassifier implements Classifier<NlpFocus<DepNode, DepTree>, String> {
 
     private static final long serialVersionUID = -3815702452161005214L;
@@ -101,14 +117,19 @@ public class DefaultVerbNetClassifier implements Classifier<NlpFocus<DepNode, De
     private static final String BWC_PATH = BASE_PATH + "BWC.tsv";
     private static final String DDN_PATH = BASE_PATH + "DDN.tsv";
 
-    private Set<String> clusters = Sets.newHashSet("cluster-100", "cluster-320", "cluster-1000", "cluster-3200",
+    private static final List<String> CLUSTERS = Arrays.asList("cluster-100", "cluster-320", "cluster-1000", "cluster-3200",
             "cluster-10000");
+
+    private Set<String> clusters = Sets.newHashSet(CLUSTERS);
     private Set<String> includedRels = Sets.newHashSet("dobj", "obj");
     private Set<String> excludedRels = Sets.newHashSet("punct");
     private Set<Integer> offsets = Sets.newHashSet(-2, -1, 1, 2);
 
+    @Getter
     private AnnotatingClassifier<NlpFocus<DepNode, DepTree>> classifier;
     private FeatureResourceManager resources;
+    // feature dictionary shared by all sub-models, or null for per-predicate vocabularies
+    private FeatureDictionary dictionary;
 
     public DefaultVerbNetClassifier() {
         resources = initializeResources();
@@ -117,6 +138,12 @@ public class DefaultVerbNetClassifier implements Classifier<NlpFocus<DepNode, De
         classifier.initialize(resources);
     }
 
+    private DefaultVerbNetClassifier(AnnotatingClassifier<NlpFocus<DepNode, DepTree>> classifier,
+                                     FeatureResourceManager resources) {
+        this.classifier = classifier;
+        this.resources = resources;
+    }
+
     private AnnotatingClassifier<NlpFocus<DepNode, DepTree>> initialize() {
         MultiClassifier<NlpFocus<DepNode, DepTree>, String> multiClassifier
                 = new MultiClassifier<>((Serializable & Function<NlpFocus<DepNode, DepTree>, String>)
@@ -126,6 +153,31 @@ public class DefaultVerbNetClassifier implements Classifier<NlpFocus<DepNode, De
         return new AnnotatingClassifier<>(multiClassifier, initializeAnnotator());
     }
 
+    /**
+     * Set the number of threads used to train per-predicate sub-models.
+     *
+     * @param threads number of training threads
+     * @return this classifier
+     * @see MultiClassifier#threads(int)
+     */
+    public DefaultVerbNetClassifier threads(int threads) {
+        //noinspection unchecked
+        ((MultiClassifier<NlpFocus<DepNode, DepTree>, String>) classifier.classifier()).threads(threads);
+        return this;
+    }
+
+    /**
+     * Train per-predicate sub-models against a single global feature dictionary, so that features common to many predicates are
+     * stored once rather than once per sub-model. Applies to sub-models trained after this call.
+     *
+     * @param shared if true, share a feature dictionary across sub-models
+     * @return this classifier
+     */
+    public DefaultVerbNetClassifier sharedFeatures(boolean shared) {
+        this.dictionary = shared ? new FeatureDictionary() : null;
+        return this;
+    }
+
     @Override
     public String classify(NlpFocus<DepNode, DepTree> instance) {
         return classifier.classify(instance);
@@ -173,19 +225,72 @@ public class DefaultVerbNetClassifier implements Classifier<NlpFocus<DepNode, De
         }
     }
 
+    @Override
+    public DefaultVerbNetClassifier freeze() {
+        resources.initialize();
+        return new DefaultVerbNetClassifier(classifier.freeze(), resources);
+    }
+
     private FeatureResourceManager initializeResources() {
         FeatureResourceManager resources = new DefaultFeatureResourceManager();
         for (String cluster : clusters) {
-            resources.registerInitializer(cluster, new DefaultTsvResourceInitializer<>(cluster, getURL(CLUSTER_PATH + cluster))
-                    .keyFunction(new LowercaseFunction()));
+            resources.registerInitializer(cluster, multimapInitializer(cluster, CLUSTER_PATH + cluster,
+                    new IdentityFeatureExtractor<DepNode>()));
         }
-        resources.registerInitializer(BWC_KEY, new BrownClusterResourceInitializer<>(BWC_KEY, getURL(BWC_PATH)));
-        resources.registerInitializer(DDN_KEY, new DefaultTsvResourceInitializer<DepNode>(DDN_KEY, getURL(DDN_PATH))
-                .mappingFunction(lemma()));
+        resources.registerInitializer(BWC_KEY, multimapInitializer(BWC_KEY, BWC_PATH, new IdentityFeatureExtractor<DepNode>()));
+        resources.registerInitializer(DDN_KEY, multimapInitializer(DDN_KEY, DDN_PATH, lemma()));
         resources.registerInitializer(WN_KEY, new WordNetInitializer<>());
         return resources;
     }
 
+    /**
+     * Compile the TSV resources used by this classifier, writing them to the given directory under their resource paths (with
+     * {@link CompiledMultimap#EXTENSION}). When on the classpath, compiled resources are used in place of the original TSVs.
+     *
+     * @param outputDirectory output resource directory
+     */
+    public static void compileResources(Path outputDirectory) throws IOException {
+        Map<String, String> paths = new LinkedHashMap<>();
+        for (String cluster : CLUSTERS) {
+            paths.put(cluster, CLUSTER_PATH + cluster);
+        }
+        paths.put(BWC_KEY, BWC_PATH);
+        paths.put(DDN_KEY, DDN_PATH);
+        for (Map.Entry<String, String> entry : paths.entrySet()) {
+            if (getURL(entry.getValue()) == null) {
+                log.warn("Skipping missing resource: {}", entry.getValue());
+                continue;
+            }
+            Path output = outputDirectory.resolve(entry.getValue() + CompiledMultimap.EXTENSION);
+            Files.createDirectories(output.getParent());
+            try (OutputStream outputStream = Files.newOutputStream(output)) {
+                tsvInitializer(entry.getKey(), entry.getValue()).compile(outputStream);
+            }
+            log.info("Compiled {} to {} ({} bytes)", entry.getValue(), output, Files.size(output));
+        }
+    }
+
+    private static <K> StringResourceInitializer<MultimapResource<K>> multimapInitializer(
+            String key, String path, FeatureExtractor<K, String> mappingFunction) {
+        String compiled = path + CompiledMultimap.EXTENSION;
+        if (getURL(compiled) != null) {
+            // models store only the location of compiled resources, so fall back to the TSV on hosts without them
+            return new CompiledResourceInitializer<K>(key, compiled)
+                    .mappingFunction(mappingFunction)
+                    .fallback(new TsvFallbackInitializer<>(key, path, mappingFunction));
+        }
+        return DefaultVerbNetClassifier.<K>tsvInitializer(key, path).mappingFunction(mappingFunction);
+    }
+
+    private static <K> TsvResourceInitializer<K> tsvInitializer(String key, String path) {
+        if (BWC_KEY.equals(key)) {
+            return new BrownClusterResourceInitializer<>(key, getURL(path));
+        } else if (DDN_KEY.equals(key)) {
+            return new DefaultTsvResourceInitializer<>(key, getURL(path));
+        }
+        return new DefaultTsvResourceInitializer<K>(key, getURL(path)).keyFunction(new LowercaseFunction());
+    }
+
     private Annotator<NlpFocus<DepNode, DepTree>> initializeAnnotator() {
         List<Annotator<NlpFocus<DepNode, DepTree>>> annotators = new ArrayList<>();
         for (String cluster : clusters) {
@@ -226,15 +331,39 @@ public class DefaultVerbNetClassifier implements Classifier<NlpFocus<DepNode, De
                 function(head(), Arrays.asList(dep, lemma, pos)),
                 bias());
 
-        return new DefaultFeaturePipeline<>(new AggregateFeatureFunction<>(features));
+        return new DefaultFeaturePipeline<>(new AggregateFeatureFunction<>(features)).dictionary(dictionary);
     }
 
     private SparseClassifier initializeClassifier() {
         return new PaClassifier();
     }
 
-    private URL getURL(String path) {
-        return this.getClass().getClassLoader().getResource(path);
+    private static URL getURL(String path) {
+        return DefaultVerbNetClassifier.class.getClassLoader().getResource(path);
+    }
+
+    /**
+     * Initializer reading a TSV resource from the classpath only when needed, used in place of a missing compiled resource.
+     */
+    private static class TsvFallbackInitializer<K> implements StringResourceInitializer<MultimapResource<K>> {
+
+        private static final long serialVersionUID = 4871694126386720519L;
+
+        private final String key;
+        private final String path;
+        private final FeatureExtractor<K, String> mappingFunction;
+
+        private TsvFallbackInitializer(String key, String path, FeatureExtractor<K, String> mappingFunction) {
+            this.key = key;
+            this.path = path;
+            this.mappingFunction = mappingFunction;
+        }
+
+        @Override
+        public MultimapResource<K> get() {
+            Preconditions.checkState(getURL(path) != null, "Unable to locate resource at %s", path);
+            return DefaultVerbNetClassifier.<K>tsvInitializer(key, path).mappingFunction(mappingFunction).get();
+        }
     }
 
 }
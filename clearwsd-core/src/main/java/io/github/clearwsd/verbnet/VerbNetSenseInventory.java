@@ -16,7 +16,8 @@
 
 package io.github.clearwsd.verbnet;
 
-import com.google.common.collect.Sets;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.io.ByteStreams;
 
 import java.io.ByteArrayInputStream;
@@ -28,10 +29,13 @@ import java.io.ObjectOutputStream;
 import java.io.Serializable;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
-import java.util.stream.Collectors;
 
 import io.github.clearwsd.utils.CountingSenseInventory;
 import io.github.clearwsd.utils.SenseInventory;
@@ -39,7 +43,9 @@ import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 
 /**
- * VerbNetXml XML-based {@link SenseInventory} implementation.
+ * VerbNetXml XML-based {@link SenseInventory} implementation. Candidate senses and default senses of each VerbNet lemma are
+ * precomputed into immutable tables when the inventory is initialized or loaded, and combined with trained sense counts as
+ * senses are added, so that lookups during inference neither scan VerbNet nor allocate.
  *
  * @author jamesgung
  */
@@ -55,6 +61,13 @@ public class VerbNetSenseInventory implements SenseInventory<VnClass>, Serializa
     private URL url;
     private byte[] data; // we persist this as a byte[] for model loading when the URL is no longer valid
 
+    // VerbNet senses and default senses by base form, derived from the index
+    private transient Map<String, Set<String>> verbNetSenses;
+    private transient Map<String, String> verbNetDefaults;
+    // senses and default senses of lemmas with trained counts, combined with VerbNet senses
+    private transient Map<String, Set<String>> senses;
+    private transient Map<String, String> defaults;
+
     /**
      * Initialize sense inventory from directory.
      *
@@ -79,6 +92,17 @@ public class VerbNetSenseInventory implements SenseInventory<VnClass>, Serializa
         initialize();
     }
 
+    private VerbNetSenseInventory(VerbNetSenseInventory inventory, CountingSenseInventory countingSenseInventory) {
+        this.verbnet = inventory.verbnet;
+        this.url = inventory.url;
+        this.data = inventory.data;
+        this.countingSenseInventory = countingSenseInventory;
+        this.verbNetSenses = inventory.verbNetSenses;
+        this.verbNetDefaults = inventory.verbNetDefaults;
+        this.senses = ImmutableMap.copyOf(inventory.senses);
+        this.defaults = ImmutableMap.copyOf(inventory.defaults);
+    }
+
     /**
      * Initialize sense inventory with default VerbNetXml from classpath resources.
      */
@@ -88,30 +112,26 @@ public class VerbNetSenseInventory implements SenseInventory<VnClass>, Serializa
 
     @Override
     public Set<String> senses(String lemma) {
-        return Sets.union(verbnet.getByLemma(lemma).stream()
-            .map(cls -> cls.verbNetId().rootId())
-            .collect(Collectors.toSet()), countingSenseInventory.senses(lemma));
+        Set<String> result = senses.get(lemma);
+        if (result == null) {
+            result = verbNetSenses.getOrDefault(baseForm(lemma), Collections.emptySet());
+        }
+        return result;
     }
 
     @Override
     public String defaultSense(String lemma) {
-        Optional<WnKey> wnKey = verbnet.getWordNetKeysByLemma(lemma).stream()
-            .min(Comparator.comparingInt(WnKey::lexicalId));
-        if (wnKey.isPresent()) {
-            Optional<VnClassId> member = verbnet.getMembersByWordNetKey(wnKey.get()).stream()
-                .map(VnMember::verbClass)
-                .map(VnClass::verbNetId)
-                .min(VnClassId::compareTo);
-            if (member.isPresent()) {
-                return member.get().rootId();
-            }
+        String result = defaults.get(lemma);
+        if (result == null) {
+            result = verbNetDefaults.getOrDefault(baseForm(lemma), countingSenseInventory.defaultSense(lemma));
         }
-        return countingSenseInventory.defaultSense(lemma);
+        return result;
     }
 
     @Override
     public void addSense(String lemma, String sense) {
         countingSenseInventory.addSense(lemma, sense);
+        updateLemma(lemma);
     }
 
     @Override
@@ -119,6 +139,14 @@ public class VerbNetSenseInventory implements SenseInventory<VnClass>, Serializa
         return verbnet.getById(id);
     }
 
+    /**
+     * Return a copy of this inventory sharing its (read-only) VerbNet index, with frozen sense counts.
+     */
+    @Override
+    public VerbNetSenseInventory freeze() {
+        return new VerbNetSenseInventory(this, countingSenseInventory.freeze());
+    }
+
     private void initialize() {
         if (this.data == null) {
             try (InputStream inputStream = url.openStream()) {
@@ -130,6 +158,72 @@ public class VerbNetSenseInventory implements SenseInventory<VnClass>, Serializa
         } else {
             verbnet = DefaultVnIndex.fromInputStream(new ByteArrayInputStream(data));
         }
+        index();
+    }
+
+    private void index() {
+        Set<String> lemmas = new HashSet<>();
+        for (VnClass root : verbnet.roots()) {
+            for (VnClass cls : root.descendants(true)) {
+                for (VnMember member : cls.members()) {
+                    lemmas.add(DefaultVnIndex.getBaseForm(member.name()));
+                }
+            }
+        }
+        ImmutableMap.Builder<String, Set<String>> senses = ImmutableMap.builder();
+        ImmutableMap.Builder<String, String> defaults = ImmutableMap.builder();
+        for (String lemma : lemmas) {
+            ImmutableSet.Builder<String> rootIds = ImmutableSet.builder();
+            for (VnClass cls : verbnet.getByLemma(lemma)) {
+                rootIds.add(cls.verbNetId().rootId());
+            }
+            senses.put(lemma, rootIds.build());
+            verbNetDefault(lemma).ifPresent(sense -> defaults.put(lemma, sense));
+        }
+        verbNetSenses = senses.build();
+        verbNetDefaults = defaults.build();
+
+        this.senses = new HashMap<>();
+        this.defaults = new HashMap<>();
+        countingSenseInventory.counts().keySet().forEach(this::updateLemma);
+    }
+
+    private Optional<String> verbNetDefault(String lemma) {
+        Optional<WnKey> wnKey = verbnet.getWordNetKeysByLemma(lemma).stream()
+            .min(Comparator.comparingInt(WnKey::lexicalId));
+        if (wnKey.isPresent()) {
+            Optional<VnClassId> member = verbnet.getMembersByWordNetKey(wnKey.get()).stream()
+                .map(VnMember::verbClass)
+                .map(VnClass::verbNetId)
+                .min(VnClassId::compareTo);
+            if (member.isPresent()) {
+                return Optional.of(member.get().rootId());
+            }
+        }
+        return Optional.empty();
+    }
+
+    private void updateLemma(String lemma) {
+        String base = baseForm(lemma);
+        senses.put(lemma, ImmutableSet.<String>builder()
+                .addAll(verbNetSenses.getOrDefault(base, Collections.emptySet()))
+                .addAll(countingSenseInventory.senses(lemma))
+                .build());
+        defaults.put(lemma, verbNetDefaults.getOrDefault(base, countingSenseInventory.defaultSense(lemma)));
+    }
+
+    /**
+     * Return the VerbNet base form of a lemma, avoiding {@link DefaultVnIndex#getBaseForm(String)} for lemmas that are already
+     * base forms (lowercase, without spaces or underscores).
+     */
+    private static String baseForm(String lemma) {
+        for (int i = 0; i < lemma.length(); ++i) {
+            char c = lemma.charAt(i);
+            if (c == '_' || Character.isWhitespace(c) || Character.isUpperCase(c)) {
+                return DefaultVnIndex.getBaseForm(lemma);
+            }
+        }
+        return lemma;
     }
 
     private VnClass getRoot(VnClass cls) {
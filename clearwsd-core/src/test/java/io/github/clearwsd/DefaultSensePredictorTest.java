@@ -0,0 +1,196 @@
+/*
+ * Copyright 2017 James Gung
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.clearwsd;
+
+import com.google.common.collect.Sets;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import io.github.clearwsd.feature.TestClassifiers;
+import io.github.clearwsd.parser.NlpParser;
+import io.github.clearwsd.parser.WhitespaceTokenizer;
+import io.github.clearwsd.type.DefaultDepNode;
+import io.github.clearwsd.type.DefaultDepTree;
+import io.github.clearwsd.type.DepNode;
+import io.github.clearwsd.type.DepTree;
+import io.github.clearwsd.type.FeatureType;
+import io.github.clearwsd.type.NlpFocus;
+import io.github.clearwsd.verbnet.DefaultPredicateAnnotator;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static io.github.clearwsd.feature.TestClassifiers.instance;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * {@link DefaultSensePredictor} unit tests.
+ *
+ * @author jamesgung
+ */
+public class DefaultSensePredictorTest {
+
+    private static final Set<String> VERBS = Sets.newHashSet("run", "eat");
+
+    private static final List<String> SENTENCES = Arrays.asList(
+            "the dog run fast", "they run the business", "we eat lunch quickly", "the acid eat metal", "we walk home");
+    private static final List<String> SENSES = Arrays.asList("run.01", "run.02", "eat.01", "eat.02", null);
+
+    /**
+     * Parser tagging known verbs, and recording the size of each batch it parses.
+     */
+    private static class TaggingParser extends WhitespaceTokenizer implements NlpParser {
+
+        private final List<Integer> batches = Collections.synchronizedList(new ArrayList<>());
+
+        @Override
+        public DepTree parse(List<String> tokens) {
+            List<DepNode> nodes = new ArrayList<>();
+            for (String token : tokens) {
+                DefaultDepNode node = new DefaultDepNode(nodes.size());
+                node.addFeature(FeatureType.Text, token);
+                node.addFeature(FeatureType.Lemma, token);
+                node.addFeature(FeatureType.Pos, VERBS.contains(token) ? "VB" : "NN");
+                node.addFeature(FeatureType.Dep, "dep");
+                nodes.add(node);
+            }
+            return new DefaultDepTree(0, nodes, nodes.get(0));
+        }
+
+        @Override
+        public List<DepTree> parseAll(List<List<String>> sentences) {
+            batches.add(sentences.size());
+            return NlpParser.super.parseAll(sentences);
+        }
+    }
+
+    private TaggingParser parser;
+    private DefaultSensePredictor<Object> predictor;
+    private ExecutorService executor;
+
+    @Before
+    public void setUp() {
+        WordSenseClassifier classifier = TestClassifiers.wordSenseClassifier();
+        List<NlpFocus<DepNode, DepTree>> instances = new ArrayList<>();
+        for (int i = 0; i < 5; ++i) {
+            for (int s = 0; s < 4; ++s) {
+                String sentence = SENTENCES.get(s);
+                int focus = Arrays.asList(sentence.split(" ")).indexOf(SENSES.get(s).substring(0, 3));
+                instances.add(instance(sentence, focus, SENSES.get(s).substring(0, 3), SENSES.get(s)));
+            }
+        }
+        classifier.train(instances, new ArrayList<>());
+        WordSenseClassifier frozen = classifier.freeze();
+        parser = new TaggingParser();
+        predictor = new DefaultSensePredictor<>(new WordSenseAnnotator(frozen,
+                new DefaultPredicateAnnotator(frozen.predicateDictionary())), parser);
+        executor = Executors.newFixedThreadPool(3);
+    }
+
+    @After
+    public void tearDown() throws InterruptedException {
+        executor.shutdownNow();
+        executor.awaitTermination(1, TimeUnit.MINUTES);
+    }
+
+    private static List<List<String>> sentences(int count) {
+        List<List<String>> sentences = new ArrayList<>();
+        for (int i = 0; i < count; ++i) {
+            sentences.add(Arrays.asList(SENTENCES.get(i % SENTENCES.size()).split(" ")));
+        }
+        return sentences;
+    }
+
+    private static void assertSenses(int count, List<List<SensePrediction<Object>>> results) {
+        assertEquals(count, results.size());
+        for (int i = 0; i < count; ++i) {
+            String sense = SENSES.get(i % SENSES.size());
+            List<SensePrediction<Object>> predictions = results.get(i);
+            if (sense == null) {
+                assertEquals(Collections.emptyList(), predictions);
+            } else {
+                assertEquals(1, predictions.size());
+                assertEquals(sense, predictions.get(0).id());
+            }
+        }
+    }
+
+    @Test
+    public void testPredictBatchOrder() {
+        List<List<String>> sentences = sentences(23);
+        List<List<SensePrediction<Object>>> expected = new ArrayList<>();
+        for (List<String> sentence : sentences) {
+            expected.add(predictor.predict(sentence));
+        }
+        assertSenses(23, expected);
+
+        List<List<SensePrediction<Object>>> results = predictor.executor(executor).batchSize(4).predictBatch(sentences);
+        assertEquals(expected, results);
+        List<Integer> batches = new ArrayList<>(parser.batches);
+        Collections.sort(batches);
+        assertEquals(Arrays.asList(3, 4, 4, 4, 4, 4), batches);
+    }
+
+    @Test
+    public void testPredictAllChunks() {
+        AtomicBoolean closed = new AtomicBoolean();
+        Stream<String> input = sentences(10).stream()
+                .map(tokens -> String.join(" ", tokens))
+                .onClose(() -> closed.set(true));
+        List<List<SensePrediction<Object>>> results;
+        try (Stream<List<SensePrediction<Object>>> stream = predictor.batchSize(4).predictAll(input)) {
+            results = stream.collect(Collectors.toList());
+        }
+        assertSenses(10, results);
+        assertEquals(Arrays.asList(4, 4, 2), parser.batches);
+        assertEquals(3, predictor.statistics().batches());
+        assertTrue(closed.get());
+    }
+
+    @Test
+    public void testStatistics() {
+        List<List<String>> sentences = sentences(12);
+        predictor.executor(executor).batchSize(5).predictBatch(sentences);
+        predictor.predictBatch(sentences(3));
+
+        PredictionStatistics statistics = predictor.statistics();
+        assertEquals(2, statistics.batches());
+        assertEquals(15, statistics.sentences());
+        assertEquals(sentences.stream().mapToInt(List::size).sum() + 4 + 4 + 4, statistics.tokens());
+        // every sentence but "we walk home" has a single predicate
+        assertEquals(10 + 3, statistics.predictions());
+        assertTrue(statistics.elapsed(TimeUnit.NANOSECONDS) > 0);
+
+        statistics.reset();
+        assertEquals(0, statistics.batches());
+        assertEquals(0, statistics.sentences());
+        assertEquals(0, statistics.predictions());
+        assertEquals(0, statistics.sentencesPerSecond(), 0);
+    }
+
+}
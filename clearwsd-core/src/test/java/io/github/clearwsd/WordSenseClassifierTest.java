@@ -0,0 +1,187 @@
+/*
+ * Copyright 2017 James Gung
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.clearwsd;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import io.github.clearwsd.classifier.Classifier;
+import io.github.clearwsd.classifier.MultiClassifier;
+import io.github.clearwsd.feature.TestClassifiers;
+import io.github.clearwsd.feature.pipeline.NlpClassifier;
+import io.github.clearwsd.type.DepNode;
+import io.github.clearwsd.type.DepTree;
+import io.github.clearwsd.type.FeatureType;
+import io.github.clearwsd.type.NlpFocus;
+import io.github.clearwsd.utils.CountingSenseInventory;
+import io.github.clearwsd.utils.LemmaDictionary;
+import io.github.clearwsd.utils.SenseInventory;
+import org.junit.Test;
+
+import static io.github.clearwsd.feature.TestClassifiers.instance;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * {@link WordSenseClassifier} unit tests.
+ *
+ * @author jamesgung
+ */
+public class WordSenseClassifierTest {
+
+    private static final int THREADS = 8;
+    private static final int ITERATIONS = 5000;
+
+    private static List<NlpFocus<DepNode, DepTree>> instances() {
+        List<NlpFocus<DepNode, DepTree>> instances = new ArrayList<>();
+        for (int i = 0; i < 5; ++i) {
+            instances.add(instance("the dog run fast", 2, "run", "run.01"));
+            instances.add(instance("they run the business", 1, "run", "run.02"));
+            instances.add(instance("we eat lunch quickly", 1, "eat", "eat.01"));
+            instances.add(instance("the acid eat metal", 2, "eat", "eat.02"));
+        }
+        return instances;
+    }
+
+    private static WordSenseClassifier classifier() {
+        return TestClassifiers.wordSenseClassifier();
+    }
+
+    @Test
+    public void testFrozenConcurrentInference() throws Exception {
+        WordSenseClassifier classifier = classifier();
+        List<NlpFocus<DepNode, DepTree>> instances = instances();
+        classifier.train(instances, new ArrayList<>());
+        WordSenseClassifier frozen = classifier.freeze();
+
+        List<String> expectedLabels = new ArrayList<>();
+        List<Map<String, Double>> expectedScores = new ArrayList<>();
+        for (NlpFocus<DepNode, DepTree> instance : instances) {
+            expectedLabels.add(frozen.classify(instance));
+            expectedScores.add(frozen.score(instance));
+            assertEquals(instance.focus().feature(FeatureType.Gold), expectedLabels.get(expectedLabels.size() - 1));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS + 1);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Integer>> workers = new ArrayList<>();
+            for (int thread = 0; thread < THREADS; ++thread) {
+                int seed = thread;
+                workers.add(executor.submit(() -> {
+                    start.await();
+                    Random random = new Random(seed);
+                    int mismatches = 0;
+                    for (int i = 0; i < ITERATIONS; ++i) {
+                        int index = random.nextInt(instances.size());
+                        NlpFocus<DepNode, DepTree> instance = instances.get(index);
+                        if (!expectedLabels.get(index).equals(frozen.classify(instance))
+                                || !expectedScores.get(index).equals(frozen.score(instance))) {
+                            ++mismatches;
+                        }
+                    }
+                    return mismatches;
+                }));
+            }
+            // re-train the original classifier on different labels while the snapshot is in use
+            Future<?> trainer = executor.submit(() -> {
+                start.await();
+                List<NlpFocus<DepNode, DepTree>> relabeled = new ArrayList<>();
+                for (int i = 0; i < 10; ++i) {
+                    relabeled.add(instance("the dog run fast", 2, "run", "run.03"));
+                    relabeled.add(instance("they run the business", 1, "run", "run.04"));
+                }
+                classifier.train(relabeled, new ArrayList<>());
+                return null;
+            });
+            start.countDown();
+            for (Future<Integer> worker : workers) {
+                assertEquals(0, (int) worker.get(1, TimeUnit.MINUTES));
+            }
+            trainer.get(1, TimeUnit.MINUTES);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals("run.03", classifier.classify(instances.get(0)));
+        assertEquals("run.01", frozen.classify(instances.get(0)));
+        assertEquals(2, frozen.senseInventory().senses("run").size());
+    }
+
+    @Test
+    public void testTopK() {
+        WordSenseClassifier classifier = classifier();
+        classifier.train(instances(), new ArrayList<>());
+        for (NlpFocus<DepNode, DepTree> instance : instances()) {
+            List<SenseScore> all = classifier.classify(instance, 5);
+            assertEquals(2, all.size());
+            assertEquals(classifier.classify(instance), all.get(0).id());
+            assertTrue(all.get(0).score() >= all.get(1).score());
+            assertEquals(1, all.get(0).confidence() + all.get(1).confidence(), 1e-9);
+            Map<String, Double> scores = classifier.score(instance);
+            double expected = 1 / (1 + Math.exp(scores.get(all.get(1).id()) - scores.get(all.get(0).id())));
+            assertEquals(expected, all.get(0).confidence(), 1e-9);
+
+            List<SenseScore> top = classifier.classify(instance, 1);
+            assertEquals(Collections.singletonList(all.get(0)), top);
+        }
+        // unseen predicates fall back to the default sense
+        List<SenseScore> unseen = classifier.classify(instance("we walk home", 1, "walk", "walk.01"), 3);
+        assertEquals(1, unseen.size());
+        assertEquals(SenseInventory.DEFAULT_SENSE, unseen.get(0).id());
+        assertEquals(1, unseen.get(0).confidence(), 0);
+    }
+
+    @Test
+    public void testFrozenSubModels() {
+        WordSenseClassifier classifier = classifier();
+        classifier.train(instances(), new ArrayList<>());
+        WordSenseClassifier frozen = classifier.freeze();
+        MultiClassifier<NlpFocus<DepNode, DepTree>, String> multi =
+                (MultiClassifier<NlpFocus<DepNode, DepTree>, String>) frozen.classifier();
+        assertEquals(2, multi.classifiers().size());
+        for (Classifier<NlpFocus<DepNode, DepTree>, String> model : multi.classifiers().values()) {
+            assertTrue(model instanceof NlpClassifier);
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testFrozenTrain() {
+        WordSenseClassifier classifier = classifier();
+        classifier.train(instances(), new ArrayList<>());
+        classifier.freeze().train(instances(), new ArrayList<>());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testFrozenDictionary() {
+        new LemmaDictionary().freeze().train(true);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testFrozenInventory() {
+        new CountingSenseInventory().freeze().addSense("run", "run.01");
+    }
+
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright 2017 James Gung
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.clearwsd.classifier;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import io.github.clearwsd.feature.TestClassifiers;
+import io.github.clearwsd.feature.model.FeatureDictionary;
+import io.github.clearwsd.feature.model.SharedVocabulary;
+import io.github.clearwsd.feature.model.Vocabulary;
+import io.github.clearwsd.feature.pipeline.NlpClassifier;
+import io.github.clearwsd.type.DepNode;
+import io.github.clearwsd.type.DepTree;
+import io.github.clearwsd.type.NlpFocus;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * {@link MultiClassifier} unit tests.
+ *
+ * @author jamesgung
+ */
+public class MultiClassifierTest {
+
+    private static final List<String> LEMMAS = Arrays.asList("run", "eat", "take", "make", "give", "call", "hold", "turn");
+    private static final List<String> OBJECTS = Arrays.asList("car", "lunch", "money", "dog", "water", "paper");
+
+    private static List<NlpFocus<DepNode, DepTree>> instances() {
+        List<NlpFocus<DepNode, DepTree>> instances = new ArrayList<>();
+        for (int i = 0; i < LEMMAS.size(); ++i) {
+            String lemma = LEMMAS.get(i);
+            // differing numbers of instances per lemma
+            for (int j = 0; j < 4 * (i + 1); ++j) {
+                String object = OBJECTS.get(j % OBJECTS.size());
+                instances.add(TestClassifiers.instance("they " + lemma + " the " + object, 1, lemma, lemma + ".0" + (j % 3 + 1)));
+            }
+        }
+        return instances;
+    }
+
+    private static MultiClassifier<NlpFocus<DepNode, DepTree>, String> classifier() {
+        return classifier(null);
+    }
+
+    private static MultiClassifier<NlpFocus<DepNode, DepTree>, String> classifier(FeatureDictionary dictionary) {
+        return TestClassifiers.multiClassifier(TestClassifiers.textFeatures(0, 1, 2), dictionary);
+    }
+
+    @Test
+    public void testParallelTrainingDeterministic() {
+        List<NlpFocus<DepNode, DepTree>> instances = instances();
+        MultiClassifier<NlpFocus<DepNode, DepTree>, String> sequential = classifier();
+        sequential.train(instances, new ArrayList<>());
+        MultiClassifier<NlpFocus<DepNode, DepTree>, String> parallel = classifier().threads(4);
+        parallel.train(instances, new ArrayList<>());
+
+        assertEquals(new ArrayList<>(sequential.classifiers().keySet()), new ArrayList<>(parallel.classifiers().keySet()));
+        for (NlpFocus<DepNode, DepTree> instance : instances) {
+            assertEquals(sequential.score(instance), parallel.score(instance));
+        }
+    }
+
+    @Test
+    public void testMoreThreadsThanModels() {
+        List<NlpFocus<DepNode, DepTree>> instances = instances().subList(0, 4);
+        MultiClassifier<NlpFocus<DepNode, DepTree>, String> classifier = classifier().threads(16);
+        classifier.train(instances, new ArrayList<>());
+        assertEquals(1, classifier.classifiers().size());
+    }
+
+    @Test
+    public void testSharedFeatures() {
+        List<NlpFocus<DepNode, DepTree>> instances = instances();
+        MultiClassifier<NlpFocus<DepNode, DepTree>, String> local = classifier();
+        local.train(instances, new ArrayList<>());
+        FeatureDictionary dictionary = new FeatureDictionary();
+        MultiClassifier<NlpFocus<DepNode, DepTree>, String> shared = classifier(dictionary).threads(4);
+        shared.train(instances, new ArrayList<>());
+
+        int localFeatures = 0;
+        for (String key : local.classifiers().keySet()) {
+            Vocabulary localVocabulary = features(local, key);
+            Vocabulary sharedVocabulary = features(shared, key);
+            assertTrue(sharedVocabulary instanceof SharedVocabulary);
+            assertEquals(localVocabulary.indices(), sharedVocabulary.indices());
+            localFeatures += localVocabulary.indices().size();
+        }
+        // features such as the determiner at offset 1 are stored once for all predicates
+        assertTrue(dictionary.size() < localFeatures);
+
+        MultiClassifier<NlpFocus<DepNode, DepTree>, String> frozen = shared.freeze();
+        FeatureDictionary snapshot = ((SharedVocabulary) features(frozen, "run")).dictionary();
+        assertSame(snapshot, ((SharedVocabulary) features(frozen, "eat")).dictionary());
+        assertEquals(dictionary.size(), snapshot.size());
+        for (NlpFocus<DepNode, DepTree> instance : instances) {
+            assertEquals(local.score(instance), shared.score(instance));
+            assertEquals(local.score(instance), frozen.score(instance));
+        }
+    }
+
+    private static Vocabulary features(MultiClassifier<NlpFocus<DepNode, DepTree>, String> classifier, String key) {
+        return ((NlpClassifier<?>) classifier.classifiers().get(key)).featurePipeline().model().features();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidThreads() {
+        classifier().threads(0);
+    }
+
+}
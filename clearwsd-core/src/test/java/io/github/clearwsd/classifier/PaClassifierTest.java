@@ -0,0 +1,137 @@
+/*
+ * Copyright 2017 James Gung
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.clearwsd.classifier;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+
+/**
+ * {@link PaClassifier} unit tests.
+ *
+ * @author jamesgung
+ */
+public class PaClassifierTest {
+
+    private static final double DELTA = 0.00001;
+
+    private static List<SparseInstance> instances() {
+        List<SparseInstance> instances = new ArrayList<>();
+        for (int i = 0; i < 30; ++i) {
+            int label = i % 3;
+            instances.add(new DefaultSparseInstance(i, label, new SparseVectorBuilder()
+                    .addIndex(0)
+                    .addIndex(1 + label)
+                    .addIndex(4 + (i % 2))
+                    .build()));
+        }
+        return instances;
+    }
+
+    private static PaClassifier train(String parallelThreshold) {
+        Properties properties = new Properties();
+        properties.setProperty(PaClassifier.PaParameter.ParallelThreshold.name(), parallelThreshold);
+        PaClassifier classifier = new PaClassifier();
+        classifier.initialize(properties);
+        classifier.train(instances(), Collections.emptyList());
+        return classifier;
+    }
+
+    @Test
+    public void testClassify() {
+        PaClassifier classifier = train("65536");
+        for (SparseInstance instance : instances()) {
+            assertEquals(instance.target(), (int) classifier.classify(instance));
+        }
+    }
+
+    @Test
+    public void testScoreInto() {
+        PaClassifier classifier = train("65536");
+        assertArrayEquals(new int[]{0, 1, 2}, classifier.labels());
+        SparseInstance instance = instances().get(1);
+        float[] scores = new float[classifier.labels().length];
+        classifier.scoreInto(instance, scores);
+        Map<Integer, Double> scoreMap = classifier.score(instance);
+        assertEquals(3, scoreMap.size());
+        for (int i = 0; i < scores.length; ++i) {
+            assertEquals(scores[i], scoreMap.get(classifier.labels()[i]), DELTA);
+        }
+    }
+
+    @Test
+    public void testParallelScoresMatch() {
+        PaClassifier sequential = train("65536");
+        PaClassifier parallel = train("1");
+        for (SparseInstance instance : instances()) {
+            float[] expected = new float[3];
+            float[] actual = new float[3];
+            sequential.scoreInto(instance, expected);
+            parallel.scoreInto(instance, actual);
+            assertArrayEquals(expected, actual, (float) DELTA);
+        }
+    }
+
+    @Test
+    public void testEmptyRetrainKeepsModel() {
+        for (String parallelThreshold : new String[]{"65536", "1"}) {
+            PaClassifier classifier = train(parallelThreshold);
+            List<Map<Integer, Double>> expected = new ArrayList<>();
+            for (SparseInstance instance : instances()) {
+                expected.add(classifier.score(instance));
+            }
+            classifier.train(new ArrayList<>(), Collections.emptyList());
+            for (int i = 0; i < expected.size(); ++i) {
+                SparseInstance instance = instances().get(i);
+                assertEquals(expected.get(i), classifier.score(instance));
+                assertEquals(instance.target(), (int) classifier.classify(instance));
+            }
+            assertEquals(3, classifier.parameters().size());
+        }
+    }
+
+    @Test
+    public void testFreezeDoesNotExposeWeights() {
+        PaClassifier classifier = train("65536");
+        PaClassifier frozen = classifier.freeze();
+        SparseInstance instance = instances().get(1);
+        Map<Integer, Double> expected = frozen.score(instance);
+        // modifying returned arrays does not affect the weights shared with frozen copies
+        classifier.weights()[0] = 100;
+        classifier.labels()[0] = 100;
+        assertEquals(expected, classifier.score(instance));
+        assertEquals(expected, frozen.score(instance));
+    }
+
+    @Test
+    public void testFreezeUntrained() {
+        PaClassifier classifier = new PaClassifier();
+        PaClassifier frozen = classifier.freeze();
+        assertNotSame(classifier, frozen);
+        assertFalse(frozen.compiled());
+    }
+
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright 2017 James Gung
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.clearwsd.classifier;
+
+import org.junit.Test;
+
+import io.github.clearwsd.classifier.SparseVectorBuilder.DuplicatePolicy;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * {@link SparseVectorBuilder} unit tests.
+ *
+ * @author jamesgung
+ */
+public class SparseVectorBuilderTest {
+
+    private static final float DELTA = 0.00001f;
+
+    private static SparseVector build(DuplicatePolicy policy) {
+        return new SparseVectorBuilder(2).duplicates(policy)
+                .addValue(5, 1)
+                .addValue(2, 3)
+                .addValue(5, 4)
+                .addValue(0, 1)
+                .addValue(5, 2)
+                .build();
+    }
+
+    @Test
+    public void testOverwrite() {
+        SparseVector vector = build(DuplicatePolicy.Overwrite);
+        assertArrayEquals(new int[]{0, 2, 5}, vector.indices());
+        assertArrayEquals(new float[]{1, 3, 2}, vector.data(), DELTA);
+    }
+
+    @Test
+    public void testSum() {
+        SparseVector vector = build(DuplicatePolicy.Sum);
+        assertArrayEquals(new int[]{0, 2, 5}, vector.indices());
+        assertArrayEquals(new float[]{1, 3, 7}, vector.data(), DELTA);
+    }
+
+    @Test
+    public void testMax() {
+        SparseVector vector = build(DuplicatePolicy.Max);
+        assertArrayEquals(new int[]{0, 2, 5}, vector.indices());
+        assertArrayEquals(new float[]{1, 3, 4}, vector.data(), DELTA);
+    }
+
+    @Test
+    public void testReset() {
+        SparseVectorBuilder builder = SparseVectorBuilder.pooled();
+        SparseVector first = builder.addIndex(3).addIndex(1).build();
+        builder = SparseVectorBuilder.pooled();
+        assertEquals(0, builder.size());
+        SparseVector second = builder.addIndex(2).build();
+        assertArrayEquals(new int[]{1, 3}, first.indices());
+        assertArrayEquals(new int[]{2}, second.indices());
+        assertEquals(0, new SparseVectorBuilder().build().indices().length);
+    }
+
+}
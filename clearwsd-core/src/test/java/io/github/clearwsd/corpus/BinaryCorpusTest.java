@@ -0,0 +1,95 @@
+/*
+ * Copyright 2017 James Gung
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.clearwsd.corpus;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import io.github.clearwsd.corpus.semlink.VerbNetReader;
+import io.github.clearwsd.type.DepNode;
+import io.github.clearwsd.type.DepTree;
+import io.github.clearwsd.type.FeatureType;
+import io.github.clearwsd.type.NlpFocus;
+import io.github.clearwsd.type.NlpInstance;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+/**
+ * {@link BinaryCorpus} unit tests.
+ *
+ * @author jamesgung
+ */
+public class BinaryCorpusTest {
+
+    private static final String TEST_PATH = "src/test/resources/test.dep";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static <T extends NlpInstance> List<T> roundTrip(List<T> instances) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        BinaryCorpus.write(instances, outputStream);
+        return BinaryCorpus.read(ByteBuffer.wrap(outputStream.toByteArray()));
+    }
+
+    private static List<String> toStrings(List<DepTree> trees) {
+        return trees.stream()
+                .map(tree -> tree.index() + "\t" + tree.root().index() + "\n"
+                        + CoNllDepTreeReader.treeToString(tree, FeatureType.Sense.name()))
+                .collect(Collectors.toList());
+    }
+
+    @Test
+    public void testTrees() throws IOException {
+        List<DepTree> trees = new CoNllDepTreeReader().readInstances(new FileInputStream(TEST_PATH));
+        List<DepTree> result = roundTrip(trees);
+        assertEquals(toStrings(trees), toStrings(result));
+        assertEquals(trees.get(0).root().children().size(), result.get(0).root().children().size());
+    }
+
+    @Test
+    public void testFocusInstances() throws IOException {
+        Path path = folder.getRoot().toPath().resolve("test" + BinaryCorpus.EXTENSION);
+        List<NlpFocus<DepNode, DepTree>> instances = BinaryCorpus.convert(new VerbNetReader(),
+                new FileInputStream(TEST_PATH), path);
+        List<NlpFocus<DepNode, DepTree>> result = BinaryCorpus.read(path);
+
+        assertEquals(instances.size(), result.size());
+        for (int i = 0; i < instances.size(); ++i) {
+            NlpFocus<DepNode, DepTree> expected = instances.get(i);
+            NlpFocus<DepNode, DepTree> actual = result.get(i);
+            assertEquals(expected.index(), actual.index());
+            assertEquals(expected.features(), actual.features());
+            assertEquals(expected.focus().index(), actual.focus().index());
+            assertEquals(expected.focus().features(), actual.focus().features());
+            assertEquals(expected.sequence().features(), actual.sequence().features());
+            assertSame(actual.sequence().get(expected.sequence().indexOf(expected.focus())), actual.focus());
+        }
+        assertEquals(toStrings(instances.stream().map(NlpFocus::sequence).collect(Collectors.toList())),
+                toStrings(result.stream().map(NlpFocus::sequence).collect(Collectors.toList())));
+    }
+
+}
@@ -16,11 +16,20 @@
 
 package io.github.clearwsd.corpus;
 
+import com.google.common.collect.Iterators;
+
 import org.junit.Test;
 
+import java.io.ByteArrayInputStream;
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Comparator;
 import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import io.github.clearwsd.type.DepTree;
 import io.github.clearwsd.type.FeatureType;
@@ -46,4 +55,52 @@ public class CoNllDepTreeReaderTest {
         assertEquals("calling", depTrees.get(1).root().feature(FeatureType.Text));
     }
 
+    private static byte[] corpus(int copies) throws IOException {
+        String trees = new String(Files.readAllBytes(Paths.get(TEST_PATH)), StandardCharsets.UTF_8).trim() + "\n\n";
+        StringBuilder corpus = new StringBuilder();
+        for (int i = 0; i < copies; ++i) {
+            corpus.append(trees);
+        }
+        return corpus.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static List<String> toStrings(List<DepTree> trees) {
+        return trees.stream()
+                .map(tree -> tree.index() + "\n" + CoNllDepTreeReader.treeToString(tree))
+                .collect(Collectors.toList());
+    }
+
+    @Test
+    public void testInstanceIterator() throws IOException {
+        // more trees than the iterator's internal buffer
+        assertEquals(2500, Iterators.size(new CoNllDepTreeReader().instanceIterator(new ByteArrayInputStream(corpus(1250)))));
+    }
+
+    @Test
+    public void testOrderedStream() throws IOException {
+        byte[] corpus = corpus(500);
+        List<DepTree> expected = new CoNllDepTreeReader().readInstances(new ByteArrayInputStream(corpus));
+        try (Stream<DepTree> stream = new CoNllDepTreeReader().stream(new ByteArrayInputStream(corpus), 4, true)) {
+            assertEquals(toStrings(expected), toStrings(stream.collect(Collectors.toList())));
+        }
+    }
+
+    @Test
+    public void testUnorderedStream() throws IOException {
+        byte[] corpus = corpus(500);
+        List<DepTree> expected = new CoNllDepTreeReader().readInstances(new ByteArrayInputStream(corpus));
+        try (Stream<DepTree> stream = new CoNllDepTreeReader().stream(new ByteArrayInputStream(corpus), 4, false)) {
+            List<DepTree> trees = stream.sorted(Comparator.comparingInt(DepTree::index)).collect(Collectors.toList());
+            assertEquals(toStrings(expected), toStrings(trees));
+        }
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void testStreamError() {
+        byte[] corpus = "0\tfox\tfox\tNN\troot\tnot-a-head\n".getBytes(StandardCharsets.UTF_8);
+        try (Stream<DepTree> stream = new CoNllDepTreeReader().stream(new ByteArrayInputStream(corpus), 2, true)) {
+            stream.count();
+        }
+    }
+
 }
\ No newline at end of file
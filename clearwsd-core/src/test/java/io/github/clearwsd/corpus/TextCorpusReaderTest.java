@@ -0,0 +1,107 @@
+/*
+ * Copyright 2017 James Gung
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.clearwsd.corpus;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import io.github.clearwsd.parser.NlpParser;
+import io.github.clearwsd.parser.WhitespaceTokenizer;
+import io.github.clearwsd.type.DefaultDepNode;
+import io.github.clearwsd.type.DefaultDepTree;
+import io.github.clearwsd.type.DepNode;
+import io.github.clearwsd.type.DepTree;
+import io.github.clearwsd.type.FeatureType;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * {@link TextCorpusReader} unit tests.
+ *
+ * @author jamesgung
+ */
+public class TextCorpusReaderTest {
+
+    private static final String TEXT = "the dog barked\n\na cat\nbirds sing loudly today\none\n";
+
+    private static class BatchRecordingParser extends WhitespaceTokenizer implements NlpParser {
+
+        private List<Integer> batches = new ArrayList<>();
+
+        @Override
+        public DepTree parse(List<String> tokens) {
+            List<DepNode> nodes = new ArrayList<>();
+            for (String token : tokens) {
+                DefaultDepNode node = new DefaultDepNode(nodes.size());
+                node.addFeature(FeatureType.Text, token);
+                node.addFeature(FeatureType.Lemma, token);
+                node.addFeature(FeatureType.Pos, "NN");
+                node.addFeature(FeatureType.Dep, nodes.isEmpty() ? "root" : "dep");
+                if (!nodes.isEmpty()) {
+                    node.head(nodes.get(0));
+                }
+                nodes.add(node);
+            }
+            return new DefaultDepTree(0, nodes, nodes.get(0));
+        }
+
+        @Override
+        public List<DepTree> parseAll(List<List<String>> sentences) {
+            batches.add(sentences.size());
+            return NlpParser.super.parseAll(sentences);
+        }
+    }
+
+    private static String parseAndWrite(NlpParser parser, int maxCache, int batchSize) {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        new TextCorpusReader(parser).parseAndWrite(new ByteArrayInputStream(TEXT.getBytes(StandardCharsets.UTF_8)),
+                outputStream, maxCache, batchSize);
+        return new String(outputStream.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void testParseAndWriteBatches() {
+        BatchRecordingParser parser = new BatchRecordingParser();
+        String expected = parseAndWrite(parser, 1, 1);
+        assertEquals(Arrays.asList(1, 1, 1, 1), parser.batches);
+
+        parser.batches.clear();
+        assertEquals(expected, parseAndWrite(parser, 3, 2));
+        // batches do not extend past the number of trees cached before writing
+        assertEquals(Arrays.asList(2, 1, 1), parser.batches);
+
+        parser.batches.clear();
+        assertEquals(expected, parseAndWrite(parser, 100, 100));
+        assertEquals(Arrays.asList(4), parser.batches);
+    }
+
+    @Test
+    public void testReadInstances() {
+        BatchRecordingParser parser = new BatchRecordingParser();
+        List<DepTree> trees = new TextCorpusReader(parser, 3)
+                .readInstances(new ByteArrayInputStream(TEXT.getBytes(StandardCharsets.UTF_8)));
+        assertEquals(4, trees.size());
+        assertEquals("birds", trees.get(2).get(0).feature(FeatureType.Text));
+        assertEquals(Arrays.asList(3, 1), parser.batches);
+    }
+
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2017 James Gung
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.clearwsd.feature;
+
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.function.Function;
+
+import io.github.clearwsd.WordSenseClassifier;
+import io.github.clearwsd.classifier.MultiClassifier;
+import io.github.clearwsd.classifier.PaClassifier;
+import io.github.clearwsd.feature.context.OffsetContextFactory;
+import io.github.clearwsd.feature.extractor.LookupFeatureExtractor;
+import io.github.clearwsd.feature.function.FeatureFunction;
+import io.github.clearwsd.feature.function.StringFeatureFunction;
+import io.github.clearwsd.feature.model.FeatureDictionary;
+import io.github.clearwsd.feature.pipeline.DefaultFeaturePipeline;
+import io.github.clearwsd.feature.pipeline.NlpClassifier;
+import io.github.clearwsd.type.DepNode;
+import io.github.clearwsd.type.DepTree;
+import io.github.clearwsd.type.FeatureType;
+import io.github.clearwsd.type.NlpFocus;
+import io.github.clearwsd.utils.CountingSenseInventory;
+import io.github.clearwsd.utils.LemmaDictionary;
+
+/**
+ * Small word sense instances and per-predicate classifiers shared by unit tests.
+ *
+ * @author jamesgung
+ */
+public final class TestClassifiers {
+
+    private TestClassifiers() {
+    }
+
+    /**
+     * Create a verb sense instance with the given lemma and gold sense at the focus.
+     *
+     * @param sentence whitespace-separated sentence
+     * @param focus    index of the focus token
+     * @param lemma    lemma and predicate of the focus token
+     * @param sense    gold sense
+     * @return sense instance
+     */
+    public static NlpFocus<DepNode, DepTree> instance(String sentence, int focus, String lemma, String sense) {
+        NlpFocus<DepNode, DepTree> instance = new TestInstanceBuilder(sentence, focus).build();
+        instance.focus().addFeature(FeatureType.Lemma, lemma);
+        instance.focus().addFeature(FeatureType.Pos, "VB");
+        instance.focus().addFeature(FeatureType.Predicate, lemma);
+        instance.focus().addFeature(FeatureType.Gold, sense);
+        instance.addFeature(FeatureType.Gold, sense);
+        return instance;
+    }
+
+    /**
+     * Return a feature function over the text of tokens at given offsets from the focus.
+     *
+     * @param offsets token offsets
+     * @return text feature function
+     */
+    public static FeatureFunction<NlpFocus<DepNode, DepTree>> textFeatures(Integer... offsets) {
+        return new StringFeatureFunction<>(new OffsetContextFactory<>(offsets), Collections.singletonList(
+                new LookupFeatureExtractor<>(Collections.singletonList(FeatureType.Text.name()))));
+    }
+
+    /**
+     * Return an untrained classifier with a {@link PaClassifier} sub-model per predicate.
+     *
+     * @param features   feature function of each sub-model
+     * @param dictionary feature dictionary shared by sub-models, or null to use a vocabulary per sub-model
+     * @return per-predicate classifier
+     */
+    public static MultiClassifier<NlpFocus<DepNode, DepTree>, String> multiClassifier(
+            FeatureFunction<NlpFocus<DepNode, DepTree>> features, FeatureDictionary dictionary) {
+        return new MultiClassifier<>(
+                (Serializable & Function<NlpFocus<DepNode, DepTree>, String>) i -> i.focus().feature(FeatureType.Predicate),
+                () -> new NlpClassifier<>(new PaClassifier(), new DefaultFeaturePipeline<>(features).dictionary(dictionary)));
+    }
+
+    /**
+     * Return an untrained word sense classifier using text features of the tokens adjacent to the focus.
+     *
+     * @return word sense classifier
+     */
+    public static WordSenseClassifier wordSenseClassifier() {
+        return new WordSenseClassifier(multiClassifier(textFeatures(-1, 1), null), new CountingSenseInventory(),
+                new LemmaDictionary());
+    }
+
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright 2017 James Gung
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.clearwsd.feature.function;
+
+import com.google.common.collect.Sets;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.github.clearwsd.feature.StringFeature;
+import io.github.clearwsd.feature.TestInstanceBuilder;
+import io.github.clearwsd.feature.context.DepChildrenContextFactory;
+import io.github.clearwsd.feature.context.NlpContext;
+import io.github.clearwsd.feature.context.NlpContextFactory;
+import io.github.clearwsd.feature.extractor.StringExtractor;
+import io.github.clearwsd.type.DepNode;
+import io.github.clearwsd.type.DepTree;
+import io.github.clearwsd.type.FeatureType;
+import io.github.clearwsd.type.NlpFocus;
+import org.junit.Test;
+
+import static io.github.clearwsd.feature.context.Contexts.head;
+import static io.github.clearwsd.feature.context.Contexts.window;
+import static io.github.clearwsd.feature.extractor.Extractors.concat;
+import static io.github.clearwsd.feature.extractor.Extractors.lookup;
+import static io.github.clearwsd.feature.extractor.Extractors.lowerForm;
+import static io.github.clearwsd.feature.function.Features.bias;
+import static io.github.clearwsd.feature.function.Features.cross;
+import static io.github.clearwsd.feature.function.Features.function;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * {@link CompiledFeatureFunction} unit tests.
+ *
+ * @author jamesgung
+ */
+public class CompiledFeatureFunctionTest {
+
+    private static class CountingContextFactory implements NlpContextFactory<NlpFocus<DepNode, DepTree>, DepNode> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final DepChildrenContextFactory base = new DepChildrenContextFactory(Sets.newHashSet("det"), Sets.newHashSet());
+        private final AtomicInteger calls = new AtomicInteger();
+
+        @Override
+        public List<NlpContext<DepNode>> apply(NlpFocus<DepNode, DepTree> instance) {
+            calls.incrementAndGet();
+            return base.apply(instance);
+        }
+    }
+
+    private static NlpFocus<DepNode, DepTree> getTestInstance() {
+        NlpFocus<DepNode, DepTree> instance = new TestInstanceBuilder("the fox jumped over the fence", 2)
+                .addHead(0, 1, "det")
+                .addHead(1, 2, "nsubj")
+                .addHead(3, 5, "prep")
+                .addHead(4, 5, "det")
+                .addHead(5, 2, "nmod")
+                .root(2)
+                .build();
+        for (DepNode token : instance.sequence().tokens()) {
+            token.addFeature(FeatureType.Pos, token.index() % 2 == 0 ? "DT" : "NN");
+        }
+        return instance;
+    }
+
+    @Test
+    public void testSameFeatures() {
+        CountingContextFactory depContexts = new CountingContextFactory();
+        StringExtractor<DepNode> form = lowerForm();
+        StringExtractor<DepNode> dep = lookup(FeatureType.Dep);
+        StringExtractor<DepNode> pos = lookup(FeatureType.Pos);
+        FeatureFunction<NlpFocus<DepNode, DepTree>> features = new AggregateFeatureFunction<>(Arrays.asList(
+                cross(function(depContexts, concat(pos, dep))),
+                function(window(-1, 0, 1), Arrays.asList(form, pos)),
+                function(depContexts, concat(dep, Arrays.asList(form, pos))),
+                function(depContexts, dep),
+                function(head(), Arrays.asList(dep, form, pos)),
+                bias()));
+        NlpFocus<DepNode, DepTree> instance = getTestInstance();
+
+        List<StringFeature> expected = features.apply(instance);
+        // the self-conjunction applies its context factory twice
+        assertEquals(5, depContexts.calls.get());
+
+        CompiledFeatureFunction<NlpFocus<DepNode, DepTree>> compiled = CompiledFeatureFunction.compile(features);
+        assertEquals(3, compiled.contextFactories());
+        List<String> actual = new ArrayList<>();
+        compiled.apply(instance, (id, value) -> actual.add(id + "=" + value));
+        assertEquals(6, depContexts.calls.get());
+
+        List<String> expectedStrings = new ArrayList<>();
+        expected.forEach(feature -> expectedStrings.add(feature.toString()));
+        assertEquals(expectedStrings, actual);
+        assertEquals(expectedStrings.toString(), compiled.apply(instance).toString());
+    }
+
+}
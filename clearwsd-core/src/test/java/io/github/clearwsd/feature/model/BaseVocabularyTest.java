@@ -0,0 +1,105 @@
+/*
+ * Copyright 2017 James Gung
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.clearwsd.feature.model;
+
+import com.google.common.collect.ImmutableMap;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
+import io.github.clearwsd.feature.util.FeatureUtils;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * {@link BaseVocabulary} unit tests.
+ *
+ * @author jamesgung
+ */
+public class BaseVocabularyTest {
+
+    private static BaseVocabulary vocabulary() {
+        return new BaseVocabulary(ImmutableMap.of(
+                "<NONE>", 0,
+                "dep[0]::dep=nsubj", 1,
+                "head::pos=VB", 2,
+                "a=b=c", 3));
+    }
+
+    @Test
+    public void testFeatureHash() {
+        for (String[] feature : new String[][]{{"head::pos", "VB"}, {"", ""}, {"a=b", "c=d"}, {"bias", "<BIAS>"}}) {
+            String string = feature[0] + FeatureUtils.FEATURE_ID_SEP + feature[1];
+            assertEquals(string.hashCode(), FeatureUtils.featureHash(feature[0], feature[1]));
+            assertTrue(FeatureUtils.isFeature(string, feature[0], feature[1]));
+        }
+        assertFalse(FeatureUtils.isFeature("head::pos=VB", "head::pos", "VBD"));
+        assertFalse(FeatureUtils.isFeature("head::pos=VB", "head::po", "s=VB"));
+    }
+
+    @Test
+    public void testIndexByIdAndValue() {
+        BaseVocabulary vocabulary = vocabulary();
+        assertEquals(1, vocabulary.index("dep[0]::dep", "nsubj"));
+        assertEquals(2, vocabulary.index("head::pos", "VB"));
+        assertEquals(3, vocabulary.index("a", "b=c"));
+        assertEquals(0, vocabulary.index("a=b", "d"));
+        assertEquals(0, vocabulary.index("head::pos", "VBD"));
+        for (String feature : vocabulary.indices().keySet()) {
+            int split = feature.indexOf(FeatureUtils.FEATURE_ID_SEP);
+            if (split >= 0) {
+                assertEquals(vocabulary.index(feature),
+                        vocabulary.index(feature.substring(0, split), feature.substring(split + 1)));
+            }
+        }
+    }
+
+    @Test
+    public void testSparseIndices() {
+        BaseVocabulary vocabulary = new BaseVocabulary(ImmutableMap.of("b=1", 7, "a=1", 3, "c=1", 12));
+        assertEquals(3, vocabulary.index("a=1"));
+        assertEquals(12, vocabulary.index("c", "1"));
+        assertEquals(0, vocabulary.index("d=1"));
+        assertEquals("b=1", vocabulary.value(7));
+        assertNull(vocabulary.value(0));
+        assertEquals(ImmutableMap.of("a=1", 3, "b=1", 7, "c=1", 12), vocabulary.indices());
+    }
+
+    @Test
+    public void testSerialization() throws IOException, ClassNotFoundException {
+        BaseVocabulary vocabulary = vocabulary();
+        assertEquals(2, vocabulary.index("head::pos", "VB"));
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream outputStream = new ObjectOutputStream(bytes)) {
+            outputStream.writeObject(vocabulary);
+        }
+        BaseVocabulary copy;
+        try (ObjectInputStream inputStream = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            copy = (BaseVocabulary) inputStream.readObject();
+        }
+        assertEquals(2, copy.index("head::pos", "VB"));
+        assertEquals(vocabulary.indices(), copy.indices());
+    }
+
+}
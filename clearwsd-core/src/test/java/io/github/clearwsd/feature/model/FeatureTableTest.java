@@ -0,0 +1,101 @@
+/*
+ * Copyright 2017 James Gung
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.clearwsd.feature.model;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
+import io.github.clearwsd.feature.util.VocabularyBuilder;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * {@link FeatureTable} unit tests.
+ *
+ * @author jamesgung
+ */
+public class FeatureTableTest {
+
+    @Test
+    public void testAddAndFind() {
+        FeatureTable table = new FeatureTable(0);
+        for (int i = 0; i < 1000; ++i) {
+            assertEquals(i, table.add("f" + i + "=" + (i % 7)));
+        }
+        assertEquals(1000, table.size());
+        assertEquals(42, table.add("f42=0"));
+        assertEquals(1000, table.size());
+        for (int i = 0; i < 1000; ++i) {
+            assertEquals(i, table.find("f" + i + "=" + (i % 7)));
+            assertEquals(i, table.find("f" + i, String.valueOf(i % 7)));
+            assertEquals("f" + i + "=" + (i % 7), table.get(i));
+        }
+        assertEquals(-1, table.find("f1000=6"));
+        assertEquals(-1, table.find("f1", "2"));
+        assertEquals(-1, table.find(""));
+        // unlabeled instances look up null labels
+        assertEquals(-1, table.find(null));
+        assertEquals(1000, table.add(""));
+        assertEquals(1000, table.find(""));
+    }
+
+    @Test
+    public void testCompactAndSerialize() throws IOException, ClassNotFoundException {
+        FeatureTable table = new FeatureTable();
+        table.add("head::pos=VB");
+        table.add("bias=<BIAS>");
+        FeatureTable compact = table.compact();
+        table.add("dep[0]::dep=nsubj");
+        assertEquals(2, compact.size());
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream outputStream = new ObjectOutputStream(bytes)) {
+            outputStream.writeObject(compact);
+        }
+        FeatureTable loaded;
+        try (ObjectInputStream inputStream = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            loaded = (FeatureTable) inputStream.readObject();
+        }
+        assertEquals(2, loaded.size());
+        assertEquals(1, loaded.find("bias", "<BIAS>"));
+        assertEquals("head::pos=VB", loaded.get(0));
+        assertEquals(2, loaded.add("dep[0]::dep=nsubj"));
+    }
+
+    @Test
+    public void testVocabularyBuilder() {
+        VocabularyBuilder builder = new VocabularyBuilder();
+        assertEquals(0, builder.index(VocabularyBuilder.DEFAULT));
+        assertEquals(1, builder.index("head::pos", "VB"));
+        assertEquals(2, builder.index("bias=<BIAS>"));
+        assertEquals(1, builder.index("head::pos=VB"));
+        assertEquals(3, builder.size());
+        assertEquals(2, (int) builder.counts().get("head::pos=VB"));
+
+        Vocabulary vocabulary = builder.build();
+        assertEquals(builder.indices(), vocabulary.indices());
+        assertEquals(2, vocabulary.index("bias", "<BIAS>"));
+        assertEquals("head::pos=VB", vocabulary.value(1));
+        assertNull(vocabulary.value(3));
+    }
+
+}
@@ -0,0 +1,183 @@
+/*
+ * Copyright 2017 James Gung
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.clearwsd.feature.pipeline;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import io.github.clearwsd.classifier.PaClassifier;
+import io.github.clearwsd.eval.CrossValidation;
+import io.github.clearwsd.eval.CrossValidation.Fold;
+import io.github.clearwsd.feature.TestInstanceBuilder;
+import io.github.clearwsd.feature.context.NlpContextFactory;
+import io.github.clearwsd.feature.context.OffsetContextFactory;
+import io.github.clearwsd.feature.extractor.LookupFeatureExtractor;
+import io.github.clearwsd.feature.extractor.StringExtractor;
+import io.github.clearwsd.feature.function.AggregateFeatureFunction;
+import io.github.clearwsd.feature.function.FeatureFunction;
+import io.github.clearwsd.feature.function.StringFeatureFunction;
+import io.github.clearwsd.type.DefaultNlpFocus;
+import io.github.clearwsd.type.DepNode;
+import io.github.clearwsd.type.DepTree;
+import io.github.clearwsd.type.FeatureType;
+import io.github.clearwsd.type.NlpFocus;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static io.github.clearwsd.feature.function.Features.bias;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * {@link FeatureCache} unit tests.
+ *
+ * @author jamesgung
+ */
+public class FeatureCacheTest {
+
+    private static final List<String> SUBJECTS = Arrays.asList("they", "we", "dogs", "people");
+    private static final List<String> OBJECTS = Arrays.asList("car", "lunch", "money", "dog", "water", "paper");
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final NlpContextFactory<NlpFocus<DepNode, DepTree>, DepNode> left = new OffsetContextFactory<>(-1);
+    private final NlpContextFactory<NlpFocus<DepNode, DepTree>, DepNode> right = new OffsetContextFactory<>(2);
+    private final StringExtractor<DepNode> text = new LookupFeatureExtractor<>(Collections.singletonList(FeatureType.Text.name()));
+
+    private static List<NlpFocus<DepNode, DepTree>> instances() {
+        List<NlpFocus<DepNode, DepTree>> instances = new ArrayList<>();
+        for (int i = 0; i < 48; ++i) {
+            String object = OBJECTS.get(i % OBJECTS.size());
+            NlpFocus<DepNode, DepTree> built = new TestInstanceBuilder(
+                    SUBJECTS.get(i % SUBJECTS.size()) + " take the " + object, 1).build();
+            NlpFocus<DepNode, DepTree> instance = new DefaultNlpFocus<>(i, built.focus(), built.sequence());
+            instance.addFeature(FeatureType.Gold, "take.0" + (OBJECTS.indexOf(object) % 3 + 1));
+            instances.add(instance);
+        }
+        return instances;
+    }
+
+    private FeatureFunction<NlpFocus<DepNode, DepTree>> features(boolean withRight) {
+        // new function instances over the same context factories and extractors, as produced by a feature search
+        List<FeatureFunction<NlpFocus<DepNode, DepTree>>> functions = new ArrayList<>();
+        functions.add(new StringFeatureFunction<>(left, Collections.singletonList(text)));
+        if (withRight) {
+            functions.add(new StringFeatureFunction<>(right, Collections.singletonList(text)));
+        }
+        functions.add(bias());
+        return new AggregateFeatureFunction<>(functions);
+    }
+
+    private static NlpClassifier<NlpFocus<DepNode, DepTree>> classifier(FeatureFunction<NlpFocus<DepNode, DepTree>> features,
+                                                                       FeatureCache cache) {
+        return new NlpClassifier<>(new PaClassifier(), new DefaultFeaturePipeline<>(features).featureCache(cache));
+    }
+
+    private List<Fold<NlpFocus<DepNode, DepTree>>> folds(List<NlpFocus<DepNode, DepTree>> instances) {
+        return new CrossValidation<NlpFocus<DepNode, DepTree>>(t -> t.feature(FeatureType.Gold.name()))
+                .createFolds(instances, 4);
+    }
+
+    private void assertSameScores(List<Fold<NlpFocus<DepNode, DepTree>>> folds, boolean withRight, FeatureCache cache) {
+        for (Fold<NlpFocus<DepNode, DepTree>> fold : folds) {
+            NlpClassifier<NlpFocus<DepNode, DepTree>> expected = classifier(features(withRight), null);
+            expected.train(fold.getTrainInstances(), new ArrayList<>());
+            NlpClassifier<NlpFocus<DepNode, DepTree>> actual = classifier(features(withRight), cache);
+            actual.train(fold.getTrainInstances(), new ArrayList<>());
+            for (NlpFocus<DepNode, DepTree> instance : fold.getTestInstances()) {
+                assertEquals(expected.score(instance), actual.score(instance));
+            }
+        }
+    }
+
+    @Test
+    public void testExtractedOncePerUnit() {
+        List<NlpFocus<DepNode, DepTree>> instances = instances();
+        List<Fold<NlpFocus<DepNode, DepTree>>> folds = folds(instances);
+        try (FeatureCache cache = new FeatureCache(FeatureCache.DEFAULT_MEMORY_BYTES, null)) {
+            assertSameScores(folds, false, cache);
+            // left context and bias units
+            assertEquals(2 * instances.size(), cache.extractions());
+
+            // only the right context unit of a new candidate is extracted
+            assertSameScores(folds, true, cache);
+            assertEquals(3 * instances.size(), cache.extractions());
+            assertSameScores(folds, true, cache);
+            assertEquals(3 * instances.size(), cache.extractions());
+        }
+    }
+
+    @Test
+    public void testSpillToDisk() throws Exception {
+        List<NlpFocus<DepNode, DepTree>> instances = instances();
+        List<Fold<NlpFocus<DepNode, DepTree>>> folds = folds(instances);
+        long budget = 1 << 12;
+        try (FeatureCache cache = new FeatureCache(budget, folder.getRoot().toPath())) {
+            assertSameScores(folds, true, cache);
+            assertTrue(cache.spills() > 0);
+            assertTrue(cache.diskReads() > 0);
+            // the index of spilled entries is bounded by a share of the memory budget
+            assertTrue(cache.spills() * FeatureCache.SPILLED_ENTRY_BYTES <= budget / 4);
+            assertEquals(1, folder.getRoot().list().length);
+        }
+        assertEquals(0, folder.getRoot().list().length);
+    }
+
+    @Test
+    public void testSpillLimit() {
+        List<NlpFocus<DepNode, DepTree>> instances = instances();
+        List<Fold<NlpFocus<DepNode, DepTree>>> folds = folds(instances);
+        try (FeatureCache cache = new FeatureCache(1 << 12, folder.getRoot().toPath(), 64)) {
+            assertSameScores(folds, true, cache);
+            assertTrue(cache.spills() > 0);
+            assertTrue(cache.spillBytes() <= 64);
+            // features evicted once the spill file is full are extracted again
+            assertTrue(cache.extractions() > 3 * instances.size());
+        }
+    }
+
+    @Test
+    public void testNoSpillWithoutBudget() {
+        List<NlpFocus<DepNode, DepTree>> instances = instances();
+        List<Fold<NlpFocus<DepNode, DepTree>>> folds = folds(instances);
+        try (FeatureCache cache = new FeatureCache(0, folder.getRoot().toPath())) {
+            assertSameScores(folds, true, cache);
+            assertEquals(0, cache.spills());
+            assertEquals(0, cache.spillBytes());
+        }
+    }
+
+    @Test
+    public void testDistinctIndices() {
+        List<NlpFocus<DepNode, DepTree>> instances = instances();
+        assertTrue(FeatureCache.distinctIndices(instances));
+        try (FeatureCache cache = FeatureCache.forInstances(instances, FeatureCache.DEFAULT_MEMORY_BYTES)) {
+            assertNotNull(cache);
+        }
+        instances.add(new TestInstanceBuilder("they take the car", 1).build());
+        assertFalse(FeatureCache.distinctIndices(instances));
+        assertNull(FeatureCache.forInstances(instances, FeatureCache.DEFAULT_MEMORY_BYTES));
+    }
+
+}
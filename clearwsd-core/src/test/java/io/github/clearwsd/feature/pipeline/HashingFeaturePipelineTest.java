@@ -0,0 +1,98 @@
+/*
+ * Copyright 2017 James Gung
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.clearwsd.feature.pipeline;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import io.github.clearwsd.classifier.PaClassifier;
+import io.github.clearwsd.feature.model.HashingVocabulary;
+import io.github.clearwsd.type.DepNode;
+import io.github.clearwsd.type.DepTree;
+import io.github.clearwsd.type.FeatureType;
+import io.github.clearwsd.type.NlpFocus;
+import org.junit.Test;
+
+import static io.github.clearwsd.feature.TestClassifiers.instance;
+import static io.github.clearwsd.feature.TestClassifiers.textFeatures;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * {@link HashingFeaturePipeline} unit tests.
+ *
+ * @author jamesgung
+ */
+public class HashingFeaturePipelineTest {
+
+    private static List<NlpFocus<DepNode, DepTree>> instances() {
+        List<NlpFocus<DepNode, DepTree>> instances = new ArrayList<>();
+        for (int i = 0; i < 5; ++i) {
+            instances.add(instance("the dog run fast", 2, "run", "run.01"));
+            instances.add(instance("they run the business", 1, "run", "run.02"));
+            instances.add(instance("cars run on gas", 1, "run", "run.03"));
+        }
+        return instances;
+    }
+
+    @Test
+    public void testTrainAndClassify() {
+        PaClassifier weights = new PaClassifier();
+        NlpClassifier<NlpFocus<DepNode, DepTree>> classifier = new NlpClassifier<>(weights,
+                new HashingFeaturePipeline<>(textFeatures(-1, 1)));
+        classifier.train(instances(), new ArrayList<>());
+
+        assertEquals(3, weights.labels().length);
+        assertTrue(weights.features() < 1 << HashingFeaturePipeline.DEFAULT_BITS);
+        NlpClassifier<NlpFocus<DepNode, DepTree>> frozen = classifier.freeze();
+        for (NlpFocus<DepNode, DepTree> instance : instances()) {
+            assertEquals(instance.feature(FeatureType.Gold), classifier.classify(instance));
+            assertEquals(classifier.score(instance), frozen.score(instance));
+        }
+        // unseen contexts hash to arbitrary indices, but are still classified
+        assertEquals(3, classifier.score(instance("we run the world", 1, "run", "run.02")).size());
+    }
+
+    @Test
+    public void testReplaceFeatures() {
+        HashingFeaturePipeline<NlpFocus<DepNode, DepTree>> pipeline = new HashingFeaturePipeline<>(textFeatures(-1, 1));
+        pipeline.train(instances());
+        NlpFocus<DepNode, DepTree> instance = instances().get(0);
+        assertEquals(2, pipeline.process(instance).indices().length);
+        // the plan compiled from the previous feature function is not reused
+        pipeline.features(textFeatures(-2, -1, 1));
+        assertEquals(3, pipeline.process(instance).indices().length);
+    }
+
+    @Test
+    public void testCompactWeights() {
+        PaClassifier weights = new PaClassifier();
+        HashingFeaturePipeline<NlpFocus<DepNode, DepTree>> pipeline = new HashingFeaturePipeline<>(textFeatures(-1, 1), 30);
+        NlpClassifier<NlpFocus<DepNode, DepTree>> classifier = new NlpClassifier<>(weights, pipeline);
+        classifier.train(instances(), new ArrayList<>());
+        // weights only cover the 6 distinct features seen in training and unseen features, not the 2^30 index space
+        HashingVocabulary vocabulary = (HashingVocabulary) pipeline.model().features();
+        assertTrue(vocabulary.compacted());
+        assertEquals(7, vocabulary.size());
+        assertEquals(vocabulary.size(), weights.features());
+        assertEquals(0, vocabulary.index(FeatureType.Text.name(), "unseen"));
+        for (NlpFocus<DepNode, DepTree> instance : instances()) {
+            assertEquals(instance.feature(FeatureType.Gold), classifier.classify(instance));
+        }
+    }
+
+}
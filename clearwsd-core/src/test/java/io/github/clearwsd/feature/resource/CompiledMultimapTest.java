@@ -0,0 +1,123 @@
+/*
+ * Copyright 2017 James Gung
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.clearwsd.feature.resource;
+
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.ListMultimap;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+
+import io.github.clearwsd.feature.extractor.string.LowercaseFunction;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * {@link CompiledMultimap} unit tests.
+ *
+ * @author jamesgung
+ */
+public class CompiledMultimapTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static CompiledMultimap compile(ListMultimap<String, String> multimap) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        CompiledMultimap.write(multimap, outputStream);
+        return CompiledMultimap.read(ByteBuffer.wrap(outputStream.toByteArray()));
+    }
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        ListMultimap<String, String> multimap = ArrayListMultimap.create();
+        multimap.putAll("dog", Arrays.asList("0110", "animal", "0110"));
+        multimap.putAll("cat", Arrays.asList("animal", "0111"));
+        multimap.put("caté", "café");
+        multimap.put("", "empty");
+        CompiledMultimap compiled = compile(multimap);
+
+        assertEquals(4, compiled.size());
+        for (String key : multimap.keySet()) {
+            assertEquals(multimap.get(key), compiled.get(key));
+        }
+        assertEquals(Collections.emptyList(), compiled.get("ca"));
+        assertEquals(Collections.emptyList(), compiled.get("zebra"));
+        assertEquals(Collections.emptyList(), compiled.get(null));
+    }
+
+    @Test
+    public void testEmpty() throws IOException {
+        CompiledMultimap compiled = compile(ArrayListMultimap.create());
+        assertEquals(0, compiled.size());
+        assertEquals(Collections.emptyList(), compiled.get("dog"));
+    }
+
+    @Test
+    public void testMatchesTsvResource() throws IOException {
+        TsvResourceInitializer<String> tsv = new DefaultTsvResourceInitializer<String>(
+                "testResource", new File("src/test/resources/test_resource.tsv").toURI().toURL())
+                .keyFunction(new LowercaseFunction());
+        File file = folder.newFile("test_resource.tsv" + CompiledMultimap.EXTENSION);
+        try (OutputStream outputStream = Files.newOutputStream(file.toPath())) {
+            tsv.compile(outputStream);
+        }
+        MultimapResource<String> expected = tsv.get();
+        MultimapResource<String> compiled = new CompiledResourceInitializer<String>("testResource", file.getPath()).get();
+
+        assertEquals(expected.multimap().keySet().size(), compiled.compiled().size());
+        for (String key : expected.multimap().keySet()) {
+            assertEquals(expected.lookup(key), compiled.lookup(key));
+        }
+        assertEquals(expected.lookup("missing"), compiled.lookup("missing"));
+    }
+
+    @Test
+    public void testFallbackWhenMissing() throws IOException {
+        TsvResourceInitializer<String> tsv = new DefaultTsvResourceInitializer<String>(
+                "testResource", new File("src/test/resources/test_resource.tsv").toURI().toURL())
+                .keyFunction(new LowercaseFunction());
+        File missing = new File(folder.getRoot(), "missing" + CompiledMultimap.EXTENSION);
+        MultimapResource<String> resource = new CompiledResourceInitializer<String>("testResource", missing.getPath())
+                .fallback(tsv)
+                .get();
+        MultimapResource<String> expected = tsv.get();
+        for (String key : expected.multimap().keySet()) {
+            assertEquals(expected.lookup(key), resource.lookup(key));
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testMissingWithoutFallback() {
+        new CompiledResourceInitializer<String>("testResource", new File(folder.getRoot(), "missing").getPath()).get();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidFormat() {
+        CompiledMultimap.read(ByteBuffer.wrap(new byte[32]));
+    }
+
+}
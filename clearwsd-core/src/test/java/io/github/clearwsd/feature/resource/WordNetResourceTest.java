@@ -0,0 +1,143 @@
+/*
+ * Copyright 2017 James Gung
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.clearwsd.feature.resource;
+
+import com.google.common.collect.Sets;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.github.clearwsd.type.DefaultNlpInstance;
+import io.github.clearwsd.type.FeatureType;
+import io.github.clearwsd.type.NlpInstance;
+import io.github.clearwsd.utils.WordNetFacade;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+/**
+ * {@link WordNetResource} unit tests.
+ *
+ * @author jamesgung
+ */
+public class WordNetResourceTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static class CountingWordNet implements WordNetFacade<String> {
+
+        private AtomicInteger lookups = new AtomicInteger();
+
+        @Override
+        public Optional<String> lookup(String id) {
+            return Optional.empty();
+        }
+
+        @Override
+        public Optional<String> mfs(String lemma, String pos) {
+            return Optional.empty();
+        }
+
+        @Override
+        public Set<String> senses(String lemma, String pos) {
+            return Collections.emptySet();
+        }
+
+        @Override
+        public Set<String> hypernyms(String lemma, String pos) {
+            lookups.incrementAndGet();
+            return pos.equals("NN") ? Sets.newHashSet("animal", "organism") : Collections.emptySet();
+        }
+
+        @Override
+        public Set<String> synonyms(String lemma, String pos) {
+            return pos.equals("NN") ? Sets.newHashSet(lemma, "canine") : Sets.newHashSet(lemma);
+        }
+
+        @Override
+        public String definition(String id) {
+            return "-";
+        }
+    }
+
+    private static NlpInstance instance(String lemma, String pos) {
+        DefaultNlpInstance instance = new DefaultNlpInstance(0);
+        instance.addFeature(FeatureType.Lemma, lemma);
+        instance.addFeature(FeatureType.Pos, pos);
+        return instance;
+    }
+
+    @Test
+    public void testCachedByCoarsePos() {
+        CountingWordNet wordNet = new CountingWordNet();
+        WordNetResource<NlpInstance> resource = new WordNetResource<>(wordNet);
+        assertEquals(Sets.newHashSet("animal", "organism", "dog", "canine"), new HashSet<>(resource.lookup(instance("dog", "NN"))));
+        assertEquals(resource.lookup(instance("dog", "NN")), resource.lookup(instance("dog", "NNS")));
+        assertEquals(Collections.singletonList("dog"), resource.lookup(instance("dog", "VBZ")));
+        assertEquals(2, wordNet.lookups.get());
+        assertEquals(2, resource.stats().hitCount());
+        assertEquals(2, resource.stats().missCount());
+        assertEquals(Collections.emptyList(), resource.lookup(new DefaultNlpInstance(0)));
+    }
+
+    @Test
+    public void testWarmUp() throws IOException {
+        CountingWordNet wordNet = new CountingWordNet();
+        WordNetResource<NlpInstance> resource = new WordNetResource<>(wordNet);
+        File frequencies = folder.newFile("frequencies.tsv");
+        Files.write(frequencies.toPath(), Arrays.asList("dog\tNN\t10", "run\tVB\t5", "", "cat\tNN\t1"));
+        assertEquals(2, resource.warmUp(frequencies.toPath(), 2));
+        resource.lookup(instance("run", "VBD"));
+        assertEquals(2, wordNet.lookups.get());
+        assertEquals(1, resource.stats().hitCount());
+    }
+
+    @Test
+    public void testSharedPerCacheSize() throws IOException, ClassNotFoundException {
+        WordNetResource<NlpInstance> resource = new WordNetResource.WordNetInitializer<NlpInstance>(10).get();
+        assertSame(resource, new WordNetResource.WordNetInitializer<NlpInstance>(10).get());
+        WordNetResource<NlpInstance> other = new WordNetResource.WordNetInitializer<NlpInstance>(20).get();
+        assertNotSame(resource, other);
+        // the dictionary is shared by all configurations
+        assertSame(resource.wordNet(), other.wordNet());
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(new WordNetResource.WordNetInitializer<NlpInstance>(10));
+        }
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            assertSame(resource, ((WordNetResource.WordNetInitializer<?>) in.readObject()).get());
+        }
+    }
+
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright 2017 James Gung
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.clearwsd.feature.util;
+
+import com.google.common.hash.Hashing;
+
+import org.junit.Test;
+
+import io.github.clearwsd.feature.StringFeature;
+import io.github.clearwsd.feature.model.HashingVocabulary;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * {@link FeatureHashing} unit tests.
+ *
+ * @author jamesgung
+ */
+public class FeatureHashingTest {
+
+    @Test
+    public void testMatchesMurmur3() {
+        for (String feature : new String[]{"", "a", "ab", "abc", "dep::lemma=run", "ctx::pos=NN|VB"}) {
+            assertEquals(Hashing.murmur3_32(7).hashUnencodedChars(feature).asInt(), FeatureHashing.hash(feature, 7));
+        }
+    }
+
+    @Test
+    public void testSplitMatchesConcatenated() {
+        for (StringFeature feature : new StringFeature[]{new StringFeature("", ""), new StringFeature("a", ""),
+                new StringFeature("", "b"), new StringFeature("dep::lemma", "run"), new StringFeature("<BIAS>", "<BIAS>")}) {
+            assertEquals(FeatureHashing.hash(feature.toString(), 0), FeatureHashing.hash(feature.id(), feature.value(), 0));
+        }
+    }
+
+    @Test
+    public void testVocabularyIndex() {
+        HashingVocabulary vocabulary = new HashingVocabulary(10, 0, true);
+        int index = vocabulary.index("dep::lemma", "run");
+        assertTrue(index >= 0 && index < vocabulary.size());
+        assertEquals(index, vocabulary.index("dep::lemma=run"));
+        assertEquals("dep::lemma=run", vocabulary.value(index));
+    }
+
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright 2017 James Gung
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.clearwsd.feature.util;
+
+import com.google.common.collect.ImmutableMap;
+
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.NumericDocValuesField;
+import org.apache.lucene.document.SortedDocValuesField;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.store.FSDirectory;
+import org.apache.lucene.util.BytesRef;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+/**
+ * {@link LuceneWrapper} unit tests.
+ *
+ * @author jamesgung
+ */
+public class LuceneWrapperTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File index(boolean docValues, String[]... entries) throws IOException {
+        File directory = folder.newFolder();
+        try (IndexWriter writer = new IndexWriter(FSDirectory.open(directory.toPath()),
+                new IndexWriterConfig(new StandardAnalyzer()))) {
+            for (String[] entry : entries) {
+                Document document = new Document();
+                document.add(new TextField("object", entry[0], Field.Store.NO));
+                document.add(new StoredField("verb", entry[1]));
+                document.add(new StoredField("frequency", entry[2]));
+                if (docValues) {
+                    document.add(new SortedDocValuesField("verb", new BytesRef(entry[1])));
+                    document.add(new NumericDocValuesField("frequency", Long.parseLong(entry[2])));
+                }
+                writer.addDocument(document);
+            }
+        }
+        return directory;
+    }
+
+    @Test
+    public void testDocValues() throws IOException {
+        LuceneWrapper wrapper = new LuceneWrapper(index(true,
+                new String[]{"car", "drive", "10"}, new String[]{"car", "wash", "3"}, new String[]{"apple", "eat", "7"}));
+        assertEquals(ImmutableMap.of("drive", 10, "wash", 3), wrapper.search("Car", "object", 10));
+        assertEquals(ImmutableMap.of("eat", 7), wrapper.search("apple", "object", 10));
+        assertEquals(Collections.emptyMap(), wrapper.search("", "object", 10));
+    }
+
+    @Test
+    public void testIndependentIndices() throws IOException {
+        LuceneWrapper first = new LuceneWrapper(index(true, new String[]{"car", "drive", "10"}));
+        LuceneWrapper second = new LuceneWrapper(index(false, new String[]{"car", "park", "4"}));
+        assertEquals(ImmutableMap.of("drive", 10), first.search("car", "object", 10));
+        // stored fields are read when the index lacks doc values
+        assertEquals(ImmutableMap.of("park", 4), second.search("car", "object", 10));
+    }
+
+    @Test
+    public void testSearchAll() throws IOException {
+        LuceneWrapper wrapper = new LuceneWrapper(index(false,
+                new String[]{"car", "drive", "10"}, new String[]{"apple", "eat", "7"}));
+        Map<String, Map<String, Integer>> results = wrapper.searchAll(Arrays.asList("apple", "car", "zebra"), "object", 10);
+        assertEquals(ImmutableMap.of(
+                "apple", ImmutableMap.of("eat", 7),
+                "car", ImmutableMap.of("drive", 10),
+                "zebra", Collections.emptyMap()), results);
+    }
+
+    @Test
+    public void testClose() throws IOException {
+        File index = index(true, new String[]{"car", "drive", "10"});
+        LuceneWrapper first = new LuceneWrapper(index);
+        LuceneWrapper second = new LuceneWrapper(index);
+        first.close();
+        first.close();
+        // the index stays open while other wrappers of it are open
+        assertEquals(ImmutableMap.of("drive", 10), second.search("car", "object", 10));
+        second.close();
+        try {
+            second.search("car", "object", 10);
+            fail("Expected closed wrapper to reject searches");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+        try (LuceneWrapper reopened = new LuceneWrapper(index)) {
+            assertEquals(ImmutableMap.of("drive", 10), reopened.search("car", "object", 10));
+        }
+    }
+
+}
@@ -0,0 +1,265 @@
+/*
+ * Copyright 2017 James Gung
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.clearwsd.io;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import io.github.clearwsd.WordSenseClassifier;
+import io.github.clearwsd.classifier.Classifier;
+import io.github.clearwsd.classifier.MultiClassifier;
+import io.github.clearwsd.feature.TestClassifiers;
+import io.github.clearwsd.feature.model.FeatureDictionary;
+import io.github.clearwsd.feature.model.SharedVocabulary;
+import io.github.clearwsd.feature.model.Vocabulary;
+import io.github.clearwsd.feature.pipeline.NlpClassifier;
+import io.github.clearwsd.type.DepNode;
+import io.github.clearwsd.type.DepTree;
+import io.github.clearwsd.type.FeatureType;
+import io.github.clearwsd.type.NlpFocus;
+import io.github.clearwsd.utils.CountingSenseInventory;
+import io.github.clearwsd.utils.LemmaDictionary;
+import org.junit.Test;
+
+import static io.github.clearwsd.feature.TestClassifiers.instance;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * {@link BinaryModelWriter} and {@link BinaryModelReader} unit tests.
+ *
+ * @author jamesgung
+ */
+public class BinaryModelFormatTest {
+
+    private static List<NlpFocus<DepNode, DepTree>> instances() {
+        List<NlpFocus<DepNode, DepTree>> instances = new ArrayList<>();
+        for (int i = 0; i < 5; ++i) {
+            instances.add(instance("the dog run fast", 2, "run", "run.01"));
+            instances.add(instance("they run the business", 1, "run", "run.02"));
+            instances.add(instance("we eat lunch", 1, "eat", "eat.01"));
+        }
+        return instances;
+    }
+
+    private static WordSenseClassifier train() {
+        WordSenseClassifier wsd = TestClassifiers.wordSenseClassifier();
+        wsd.train(instances(), new ArrayList<>());
+        return wsd;
+    }
+
+    private static WordSenseClassifier roundTrip(WordSenseClassifier classifier) throws IOException {
+        return roundTrip(classifier, BinaryModelReader.EAGER);
+    }
+
+    private static WordSenseClassifier roundTrip(WordSenseClassifier classifier, long maxCachedBytes) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        BinaryModelWriter.write(classifier, bytes);
+        assertTrue(BinaryModelFormat.isBinaryModel(bytes.toByteArray()));
+        return BinaryModelReader.read(ByteBuffer.wrap(bytes.toByteArray()), maxCachedBytes);
+    }
+
+    @Test
+    public void testRoundTripPredictions() throws IOException {
+        WordSenseClassifier classifier = train();
+        WordSenseClassifier loaded = roundTrip(classifier);
+        for (NlpFocus<DepNode, DepTree> instance : instances()) {
+            assertEquals(instance.focus().feature(FeatureType.Gold), classifier.classify(instance));
+            assertEquals(classifier.classify(instance), loaded.classify(instance));
+            assertEquals(classifier.score(instance), loaded.score(instance));
+        }
+    }
+
+    @Test
+    public void testLazyModels() throws IOException {
+        WordSenseClassifier classifier = train();
+        // budget too small for more than one sub-model, forcing eviction
+        WordSenseClassifier loaded = roundTrip(classifier, 1);
+        MultiClassifier<NlpFocus<DepNode, DepTree>, String> multi =
+                (MultiClassifier<NlpFocus<DepNode, DepTree>, String>) loaded.classifier();
+        ModelStore store = ((LazyClassifier<?>) multi.classifiers().get("run")).store();
+        assertEquals(2, store.size());
+        assertEquals(0, store.cached());
+        for (NlpFocus<DepNode, DepTree> instance : instances()) {
+            assertEquals(classifier.score(instance), loaded.score(instance));
+            assertTrue(store.cached() <= 1);
+        }
+        assertTrue(store.evictions() > 0);
+        assertEquals(store.misses(), store.decodes());
+
+        // re-serializing materializes lazily loaded sub-models
+        WordSenseClassifier reloaded = roundTrip(loaded);
+        for (NlpFocus<DepNode, DepTree> instance : instances()) {
+            assertEquals(classifier.score(instance), reloaded.score(instance));
+        }
+    }
+
+    @Test
+    public void testFreezeLazyModels() throws IOException {
+        WordSenseClassifier classifier = train();
+        WordSenseClassifier loaded = roundTrip(classifier, BinaryModelReader.DEFAULT_CACHE_BYTES);
+        MultiClassifier<NlpFocus<DepNode, DepTree>, String> multi =
+                (MultiClassifier<NlpFocus<DepNode, DepTree>, String>) loaded.classifier();
+        ModelStore store = ((LazyClassifier<?>) multi.classifiers().get("run")).store();
+        MultiClassifier<NlpFocus<DepNode, DepTree>, String> frozen = multi.freeze();
+        // freezing keeps sub-models in the store, so they are neither decoded nor pinned in memory
+        assertEquals(0, store.decodes());
+        assertTrue(frozen.classifiers().get("run") instanceof LazyClassifier);
+        for (NlpFocus<DepNode, DepTree> instance : instances()) {
+            assertEquals(classifier.score(instance), frozen.score(instance));
+        }
+        assertEquals(2, store.decodes());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testInitializeLazyModel() throws IOException {
+        WordSenseClassifier loaded = roundTrip(train(), BinaryModelReader.DEFAULT_CACHE_BYTES);
+        MultiClassifier<NlpFocus<DepNode, DepTree>, String> multi =
+                (MultiClassifier<NlpFocus<DepNode, DepTree>, String>) loaded.classifier();
+        // settings applied to a decoded sub-model would be lost when it is evicted
+        multi.classifiers().get("run").initialize(new Properties());
+    }
+
+    @Test
+    public void testConcurrentLazyModels() throws Exception {
+        WordSenseClassifier classifier = train();
+        WordSenseClassifier loaded = roundTrip(classifier, BinaryModelReader.DEFAULT_CACHE_BYTES);
+        List<NlpFocus<DepNode, DepTree>> instances = instances();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int i = 0; i < 64; ++i) {
+                NlpFocus<DepNode, DepTree> instance = instances.get(i % instances.size());
+                results.add(executor.submit(() -> classifier.score(instance).equals(loaded.score(instance))));
+            }
+            for (Future<Boolean> result : results) {
+                assertTrue(result.get(1, TimeUnit.MINUTES));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        MultiClassifier<NlpFocus<DepNode, DepTree>, String> multi =
+                (MultiClassifier<NlpFocus<DepNode, DepTree>, String>) loaded.classifier();
+        ModelStore store = ((LazyClassifier<?>) multi.classifiers().get("run")).store();
+        // each sub-model is decoded once, however many threads request it
+        assertEquals(2, store.decodes());
+        assertEquals(2, store.cached());
+        assertEquals(64, store.hits() + store.misses());
+    }
+
+    @Test
+    public void testRoundTripSharedDictionary() throws IOException {
+        WordSenseClassifier classifier = new WordSenseClassifier(
+                TestClassifiers.multiClassifier(TestClassifiers.textFeatures(-1, 1), new FeatureDictionary()),
+                new CountingSenseInventory(), new LemmaDictionary());
+        // both predicates need more than one sense, so that neither is stored as a single-label sub-model
+        List<NlpFocus<DepNode, DepTree>> instances = instances();
+        for (int i = 0; i < 5; ++i) {
+            instances.add(instance("the acid eat metal", 2, "eat", "eat.02"));
+        }
+        classifier.train(instances, new ArrayList<>());
+        for (long maxCachedBytes : new long[]{BinaryModelReader.EAGER, BinaryModelReader.DEFAULT_CACHE_BYTES}) {
+            WordSenseClassifier loaded = roundTrip(classifier, maxCachedBytes);
+            for (NlpFocus<DepNode, DepTree> instance : instances) {
+                assertEquals(classifier.score(instance), loaded.score(instance));
+            }
+            MultiClassifier<NlpFocus<DepNode, DepTree>, String> multi =
+                    (MultiClassifier<NlpFocus<DepNode, DepTree>, String>) loaded.classifier();
+            Set<FeatureDictionary> dictionaries = Collections.newSetFromMap(new IdentityHashMap<>());
+            for (Classifier<NlpFocus<DepNode, DepTree>, String> model : multi.classifiers().values()) {
+                NlpClassifier<?> subModel = model instanceof LazyClassifier ? ((LazyClassifier<?>) model).model()
+                        : (NlpClassifier<?>) model;
+                Vocabulary features = subModel.featurePipeline().model().features();
+                assertTrue(features instanceof SharedVocabulary);
+                dictionaries.add(((SharedVocabulary) features).dictionary());
+            }
+            assertEquals(2, multi.classifiers().size());
+            assertEquals(1, dictionaries.size());
+        }
+    }
+
+    @Test
+    public void testSectionOutOfBounds() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        BinaryModelWriter.write(train(), bytes);
+        // offset of the first section beyond the range of an int
+        ByteBuffer corrupt = ByteBuffer.wrap(bytes.toByteArray());
+        corrupt.putLong(4 * Integer.BYTES, 1L << 32);
+        ByteBuffer truncated = ByteBuffer.wrap(Arrays.copyOf(bytes.toByteArray(), bytes.size() / 2));
+        for (ByteBuffer buffer : Arrays.asList(corrupt, truncated)) {
+            try {
+                BinaryModelReader.read(buffer);
+                fail("Expected out-of-bounds section to be rejected");
+            } catch (IllegalArgumentException e) {
+                assertTrue(e.getMessage().contains("lies outside"));
+            }
+        }
+    }
+
+    @Test
+    public void testRoundTripInventoryAndDictionary() throws IOException {
+        WordSenseClassifier classifier = train();
+        WordSenseClassifier loaded = roundTrip(classifier);
+        assertEquals(((CountingSenseInventory) classifier.senseInventory()).counts(),
+                ((CountingSenseInventory) loaded.senseInventory()).counts());
+        assertEquals(classifier.predicateDictionary().mappings(), loaded.predicateDictionary().mappings());
+        assertEquals(classifier.predicateDictionary().train(), loaded.predicateDictionary().train());
+    }
+
+    @Test
+    public void testLoadDetectsFormat() throws IOException {
+        WordSenseClassifier classifier = train();
+        Path binary = Files.createTempFile("model", ".cwsd");
+        Path serialized = Files.createTempFile("model", ".bin");
+        try {
+            BinaryModelWriter.write(classifier, binary);
+            try (ObjectOutputStream out = new ObjectOutputStream(Files.newOutputStream(serialized))) {
+                classifier.save(out);
+            }
+            WordSenseClassifier fromBinary = WordSenseClassifier.load(binary.toUri().toURL());
+            WordSenseClassifier fromSerialized = WordSenseClassifier.load(serialized.toUri().toURL());
+            for (NlpFocus<DepNode, DepTree> instance : instances()) {
+                assertEquals(fromSerialized.score(instance), fromBinary.score(instance));
+            }
+        } finally {
+            Files.delete(binary);
+            Files.delete(serialized);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidHeader() {
+        BinaryModelReader.read(ByteBuffer.wrap(new byte[]{0, 1, 2, 3, 4, 5, 6, 7}));
+    }
+
+}
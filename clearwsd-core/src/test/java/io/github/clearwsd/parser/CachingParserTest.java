@@ -0,0 +1,143 @@
+/*
+ * Copyright 2017 James Gung
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.clearwsd.parser;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import io.github.clearwsd.type.DefaultDepNode;
+import io.github.clearwsd.type.DefaultDepTree;
+import io.github.clearwsd.type.DepNode;
+import io.github.clearwsd.type.DepTree;
+import io.github.clearwsd.type.FeatureType;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+
+/**
+ * {@link CachingParser} unit tests.
+ *
+ * @author jamesgung
+ */
+public class CachingParserTest {
+
+    private static final String PARSER_ID = "counting-parser";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static class CountingParser extends WhitespaceTokenizer implements NlpParser {
+
+        private AtomicInteger parsed = new AtomicInteger();
+        private AtomicInteger batches = new AtomicInteger();
+
+        @Override
+        public DepTree parse(List<String> tokens) {
+            parsed.incrementAndGet();
+            List<DepNode> nodes = new ArrayList<>();
+            for (String token : tokens) {
+                DefaultDepNode node = new DefaultDepNode(nodes.size());
+                node.addFeature(FeatureType.Text, token);
+                node.addFeature(FeatureType.Lemma, token.toLowerCase());
+                node.addFeature(FeatureType.Dep, nodes.isEmpty() ? "root" : "dep");
+                if (!nodes.isEmpty()) {
+                    node.head(nodes.get(0));
+                }
+                nodes.add(node);
+            }
+            return new DefaultDepTree(0, nodes, nodes.get(0));
+        }
+
+        @Override
+        public List<DepTree> parseAll(List<List<String>> sentences) {
+            batches.incrementAndGet();
+            return NlpParser.super.parseAll(sentences);
+        }
+    }
+
+    private static String toString(DepTree tree) {
+        return tree.tokens().stream()
+                .map(node -> node.feature(FeatureType.Text) + "/" + node.feature(FeatureType.Lemma) + "/" + node.dep()
+                        + "/" + (node.isRoot() ? -1 : node.head().index()))
+                .collect(Collectors.joining(" "));
+    }
+
+    @Test
+    public void testPersistentCache() throws IOException {
+        Path directory = folder.newFolder().toPath();
+        List<String> tokens = Arrays.asList("The", "dog", "barked");
+        CountingParser wrapped = new CountingParser();
+        String expected = toString(wrapped.parse(tokens));
+
+        CachingParser parser = new CachingParser(wrapped, directory, PARSER_ID);
+        DepTree first = parser.parse(tokens);
+        DepTree second = parser.parse(tokens);
+        assertEquals(expected, toString(first));
+        assertEquals(expected, toString(second));
+        assertNotSame(first, second);
+        assertEquals(2, wrapped.parsed.get());
+        assertEquals(1, parser.parses());
+
+        // annotations on returned trees do not leak into the cache
+        first.tokens().get(1).addFeature(FeatureType.Gold, "sense");
+        assertNull(parser.parse(tokens).tokens().get(1).feature(FeatureType.Gold));
+
+        CountingParser restarted = new CountingParser();
+        CachingParser reopened = new CachingParser(restarted, directory, PARSER_ID);
+        assertEquals(expected, toString(reopened.parse(tokens)));
+        assertEquals(0, restarted.parsed.get());
+        assertEquals(1, reopened.diskHits());
+    }
+
+    @Test
+    public void testParserId() throws IOException {
+        Path directory = folder.newFolder().toPath();
+        CountingParser wrapped = new CountingParser();
+        new CachingParser(wrapped, directory, "parser-a").parse(Arrays.asList("a", "b"));
+        new CachingParser(wrapped, directory, "parser-b").parse(Arrays.asList("a", "b"));
+        new CachingParser(wrapped, directory, "parser-b").parse(Arrays.asList("ab"));
+        assertEquals(3, wrapped.parsed.get());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMissingParserId() throws IOException {
+        new CachingParser(new CountingParser(), folder.newFolder().toPath(), "");
+    }
+
+    @Test
+    public void testParseAllParsesMisses() throws IOException {
+        CountingParser wrapped = new CountingParser();
+        CachingParser parser = new CachingParser(wrapped, folder.newFolder().toPath(), PARSER_ID);
+        parser.parse(Arrays.asList("a", "b"));
+        List<DepTree> trees = parser.parseAll(Arrays.asList(
+                Arrays.asList("c", "d"), Arrays.asList("a", "b"), Arrays.asList("e")));
+        assertEquals(Arrays.asList("c/c/root/-1 d/d/dep/0", "a/a/root/-1 b/b/dep/0", "e/e/root/-1"),
+                trees.stream().map(CachingParserTest::toString).collect(Collectors.toList()));
+        assertEquals(3, wrapped.parsed.get());
+        assertEquals(1, wrapped.batches.get());
+    }
+
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright 2017 James Gung
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.clearwsd.parser;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import io.github.clearwsd.type.DefaultDepNode;
+import io.github.clearwsd.type.DefaultDepTree;
+import io.github.clearwsd.type.DepNode;
+import io.github.clearwsd.type.DepTree;
+import io.github.clearwsd.type.FeatureType;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+/**
+ * {@link PooledNlpParser} unit tests.
+ *
+ * @author jamesgung
+ */
+public class PooledNlpParserTest {
+
+    /**
+     * Parser recording whether it was ever used by more than one thread at a time.
+     */
+    private static class ConfinedParser extends WhitespaceTokenizer implements NlpParser {
+
+        private final AtomicBoolean busy = new AtomicBoolean();
+        private final AtomicBoolean shared;
+        private final Set<ConfinedParser> used;
+
+        ConfinedParser(AtomicBoolean shared, Set<ConfinedParser> used) {
+            this.shared = shared;
+            this.used = used;
+        }
+
+        @Override
+        public DepTree parse(List<String> tokens) {
+            if (!busy.compareAndSet(false, true)) {
+                shared.set(true);
+            }
+            try {
+                used.add(this);
+                Thread.sleep(1);
+                DefaultDepNode node = new DefaultDepNode(0);
+                node.addFeature(FeatureType.Text, String.join(" ", tokens));
+                List<DepNode> nodes = Collections.singletonList(node);
+                return new DefaultDepTree(0, nodes, node);
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            } finally {
+                busy.set(false);
+            }
+        }
+    }
+
+    private static List<List<String>> sentences(int count) {
+        return IntStream.range(0, count)
+                .mapToObj(i -> Collections.singletonList("sentence" + i))
+                .collect(Collectors.toList());
+    }
+
+    @Test
+    public void testParseAllOrder() {
+        AtomicBoolean shared = new AtomicBoolean();
+        Set<ConfinedParser> used = ConcurrentHashMap.newKeySet();
+        AtomicInteger created = new AtomicInteger();
+        try (PooledNlpParser parser = new PooledNlpParser(() -> {
+            created.incrementAndGet();
+            return new ConfinedParser(shared, used);
+        }, 3)) {
+            List<List<String>> sentences = sentences(50);
+            List<String> parsed = parser.parseAll(sentences).stream()
+                    .map(tree -> tree.root().<String>feature(FeatureType.Text))
+                    .collect(Collectors.toList());
+            assertEquals(sentences.stream().map(tokens -> tokens.get(0)).collect(Collectors.toList()), parsed);
+            assertEquals(3, created.get());
+            assertEquals(3, used.size());
+            assertEquals(Collections.emptyList(), parser.parseAll(new ArrayList<>()));
+        }
+        assertFalse(shared.get());
+    }
+
+    @Test
+    public void testThreadConfinement() {
+        AtomicBoolean shared = new AtomicBoolean();
+        Set<ConfinedParser> used = ConcurrentHashMap.newKeySet();
+        try (PooledNlpParser parser = new PooledNlpParser(() -> new ConfinedParser(shared, used), 2)) {
+            List<String> parsed = sentences(40).parallelStream()
+                    .map(tokens -> parser.parse(tokens).root().<String>feature(FeatureType.Text))
+                    .collect(Collectors.toList());
+            assertEquals(40, parsed.size());
+            assertEquals("sentence7", parsed.get(7));
+        }
+        assertFalse(shared.get());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidSize() {
+        new PooledNlpParser(() -> new ConfinedParser(new AtomicBoolean(), ConcurrentHashMap.newKeySet()), 0);
+    }
+
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2017 James Gung
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.clearwsd.type;
+
+import com.google.common.collect.ImmutableMap;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * {@link DefaultNlpInstance} unit tests.
+ *
+ * @author jamesgung
+ */
+public class DefaultNlpInstanceTest {
+
+    @Test
+    public void testCoreFeatures() {
+        DefaultNlpInstance instance = new DefaultNlpInstance(0);
+        instance.addFeature(FeatureType.Lemma, "run");
+        assertEquals("run", instance.feature(FeatureType.Lemma));
+        assertEquals("run", instance.feature(FeatureType.Lemma.name()));
+        assertEquals("run", instance.feature(FeatureKeys.find(FeatureType.Lemma.name())));
+        instance.addFeature(FeatureType.Lemma.name(), "walk");
+        assertEquals("walk", instance.feature(FeatureType.Lemma));
+        assertNull(instance.feature(FeatureType.Pos));
+    }
+
+    @Test
+    public void testDynamicFeatures() {
+        DefaultNlpInstance instance = new DefaultNlpInstance(0);
+        List<String> clusters = Arrays.asList("c1", "c2");
+        for (int i = 0; i < 10; ++i) {
+            instance.addFeature("cluster-" + i, clusters);
+        }
+        instance.addFeature("cluster-3", "replaced");
+        assertEquals(clusters, instance.feature("cluster-9"));
+        assertEquals("replaced", instance.feature("cluster-3"));
+        assertNull(instance.feature("missing-key"));
+        assertEquals(-1, FeatureKeys.find("missing-key"));
+    }
+
+    @Test
+    public void testFeatureMap() {
+        DefaultNlpInstance instance = new DefaultNlpInstance(3);
+        instance.addFeature(FeatureType.Pos, "NN");
+        Map<String, Object> features = instance.features();
+        features.put("wn", "dog");
+        assertEquals("dog", instance.feature("wn"));
+        assertEquals(ImmutableMap.of("Pos", "NN", "wn", "dog"), features);
+        assertEquals("3\tPos:NN\twn:dog", instance.toString());
+    }
+
+    @Test
+    public void testRemoveFeatures() {
+        DefaultNlpInstance instance = new DefaultNlpInstance(0);
+        instance.addFeature(FeatureType.Pos, "NN");
+        instance.addFeature("wn", "dog");
+        Map<String, Object> features = instance.features();
+        assertEquals("dog", features.remove("wn"));
+        assertNull(instance.feature("wn"));
+        assertNull(features.remove("wn"));
+        // null values are not stored
+        features.put("Pos", null);
+        assertEquals(ImmutableMap.of(), features);
+
+        instance.addFeature("wn", "cat");
+        features.clear();
+        assertNull(instance.feature("wn"));
+    }
+
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright 2017 James Gung
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.clearwsd.verbnet;
+
+import com.google.common.collect.Sets;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Comparator;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import io.github.clearwsd.utils.SenseInventory;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * {@link VerbNetSenseInventory} unit tests.
+ *
+ * @author jamesgung
+ */
+public class VerbNetSenseInventoryTest {
+
+    private VerbNetSenseInventory inventory;
+
+    @Before
+    public void initialize() {
+        inventory = new VerbNetSenseInventory(VerbNetSenseInventoryTest.class.getClassLoader().getResource("vn_test.xml"));
+    }
+
+    private static Set<String> expectedSenses(VnIndex verbnet, String lemma) {
+        return verbnet.getByLemma(lemma).stream()
+                .map(cls -> cls.verbNetId().rootId())
+                .collect(Collectors.toSet());
+    }
+
+    private static String expectedDefault(VnIndex verbnet, String lemma) {
+        Optional<WnKey> wnKey = verbnet.getWordNetKeysByLemma(lemma).stream()
+                .min(Comparator.comparingInt(WnKey::lexicalId));
+        return wnKey.flatMap(key -> verbnet.getMembersByWordNetKey(key).stream()
+                .map(member -> member.verbClass().verbNetId())
+                .min(VnClassId::compareTo))
+                .map(VnClassId::rootId)
+                .orElse(SenseInventory.DEFAULT_SENSE);
+    }
+
+    @Test
+    public void testMatchesIndex() {
+        VnIndex verbnet = inventory.getVerbnet();
+        for (VnClass root : verbnet.roots()) {
+            for (VnClass cls : root.descendants(true)) {
+                for (VnMember member : cls.members()) {
+                    String lemma = member.name();
+                    assertEquals(expectedSenses(verbnet, lemma), inventory.senses(lemma));
+                    assertEquals(expectedDefault(verbnet, lemma), inventory.defaultSense(lemma));
+                }
+            }
+        }
+        assertEquals(expectedSenses(verbnet, "Go Up"), inventory.senses("Go Up"));
+        assertTrue(inventory.senses("unknownverb").isEmpty());
+        assertEquals(SenseInventory.DEFAULT_SENSE, inventory.defaultSense("unknownverb"));
+        // lookups of the same lemma share a precomputed set
+        assertSame(inventory.senses("drop"), inventory.senses("drop"));
+    }
+
+    @Test
+    public void testAddSense() {
+        Set<String> verbNetSenses = inventory.senses("drop");
+        String verbNetDefault = inventory.defaultSense("drop");
+        inventory.addSense("drop", "drop.99");
+        inventory.addSense("unknownverb", "unknownverb.01");
+        assertEquals(Sets.union(verbNetSenses, Sets.newHashSet("drop.99")), inventory.senses("drop"));
+        assertEquals(verbNetDefault, inventory.defaultSense("drop"));
+        assertEquals(Sets.newHashSet("unknownverb.01"), inventory.senses("unknownverb"));
+        assertEquals("unknownverb.01", inventory.defaultSense("unknownverb"));
+
+        VerbNetSenseInventory frozen = inventory.freeze();
+        inventory.addSense("unknownverb", "unknownverb.02");
+        assertTrue(inventory.hasSense("unknownverb", "unknownverb.02"));
+        assertFalse(frozen.hasSense("unknownverb", "unknownverb.02"));
+        assertEquals(Sets.union(verbNetSenses, Sets.newHashSet("drop.99")), frozen.senses("drop"));
+    }
+
+    @Test
+    public void testSerialization() throws IOException, ClassNotFoundException {
+        inventory.addSense("unknownverb", "unknownverb.01");
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream outputStream = new ObjectOutputStream(bytes)) {
+            outputStream.writeObject(inventory);
+        }
+        VerbNetSenseInventory loaded;
+        try (ObjectInputStream inputStream = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            loaded = (VerbNetSenseInventory) inputStream.readObject();
+        }
+        assertEquals(inventory.senses("unknownverb"), loaded.senses("unknownverb"));
+        assertEquals(inventory.senses("drop"), loaded.senses("drop"));
+        assertEquals(inventory.defaultSense("drop"), loaded.defaultSense("drop"));
+    }
+
+}
@@ -35,6 +35,11 @@ public class Nlp4jWordSenseCLI extends WordSenseCLI {
         return new Nlp4jDependencyParser();
     }
 
+    @Override
+    protected String parserId() {
+        return String.join(":", Nlp4jDependencyParser.class.getName(), Nlp4jDependencyParser.DEFAULT_CONFIG);
+    }
+
     public static void main(String[] args) {
         new Nlp4jWordSenseCLI(args).run();
     }
@@ -36,12 +36,18 @@ import io.github.clearwsd.type.FeatureType;
 /**
  * Dependency parser implementation wrapping <a href="https://emorynlp.github.io/nlp4j/">NLP4J</a>. Applies part-of-speech
  * annotation and performs lemmatization during parsing, adding {@link FeatureType#Pos} and {@link FeatureType#Lemma} features.
+ * <p>
+ * Parsers are not threadsafe, since the trained NLP4J components keep per-sentence decoding state. To parse concurrently, give
+ * each thread a parser that loads its own components, e.g. {@code new PooledNlpParser(Nlp4jDependencyParser::new, threads)}.
  *
  * @author jamesgung
  */
 public class Nlp4jDependencyParser implements NlpParser {
 
-    private static final String DEFAULT_CONFIG = "io/github/clearwsd/parser/nlp4j/default-config.xml";
+    /**
+     * Classpath location of the default NLP4J decoder configuration.
+     */
+    public static final String DEFAULT_CONFIG = "io/github/clearwsd/parser/nlp4j/default-config.xml";
 
     private NLPDecoder nlp4j;
     private Tokenizer tokenizer;
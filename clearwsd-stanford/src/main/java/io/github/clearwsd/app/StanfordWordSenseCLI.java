@@ -17,8 +17,10 @@
 
 package io.github.clearwsd.app;
 
+import edu.stanford.nlp.tagger.maxent.MaxentTagger;
 import io.github.clearwsd.parser.NlpParser;
 import io.github.clearwsd.parser.StanfordDependencyParser;
+import io.github.clearwsd.parser.StanfordDependencyParser.StanfordParserModel;
 
 /**
  * Word sense classifier CLI with Stanford Parser.
@@ -36,6 +38,12 @@ public class StanfordWordSenseCLI extends WordSenseCLI {
         return new StanfordDependencyParser();
     }
 
+    @Override
+    protected String parserId() {
+        return String.join(":", StanfordDependencyParser.class.getName(), MaxentTagger.DEFAULT_JAR_PATH,
+                StanfordParserModel.UD.getPath(), StanfordParserModel.UD.getLanguage().getProperty("language"));
+    }
+
     public static void main(String[] args) {
         new StanfordWordSenseCLI(args).run();
     }
@@ -18,12 +18,10 @@
 package io.github.clearwsd.parser;
 
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
 import java.util.Properties;
-import java.util.stream.Collectors;
 
 import edu.stanford.nlp.international.Language;
 import edu.stanford.nlp.ling.CoreLabel;
@@ -44,7 +42,10 @@ import static edu.stanford.nlp.parser.nndep.DependencyParser.loadFromModelFile;
 
 /**
  * Dependency parser implementation wrapping the Stanford parser. Applies part-of-speech annotation and performs lemmatization
- * during parsing, adding {@link FeatureType#Pos} and {@link FeatureType#Lemma} features. Components are threadsafe.
+ * during parsing, adding {@link FeatureType#Pos} and {@link FeatureType#Lemma} features. Components are threadsafe: the tagger and
+ * the neural dependency parser keep per-sentence state in objects created for each call and only read their models, the
+ * tokenizer creates a new tokenizer per sentence, and lemmatizers are thread-local. A single instance may therefore be shared by
+ * concurrent callers, and does not need to be wrapped in a {@link PooledNlpParser}.
  *
  * @author jamesgung
  */
@@ -69,6 +70,8 @@ public class StanfordDependencyParser implements NlpParser {
     private NlpTokenizer nlpTokenizer;
     private MaxentTagger posTagger;
     private DependencyParser depParser;
+    // Morphology keeps lexer state between calls, so is confined to a single thread
+    private ThreadLocal<Morphology> lemmatizer = ThreadLocal.withInitial(Morphology::new);
 
     /**
      * Constructor with a specific StanfordCoreNLP part-of-speech tagger and dependency parser.
@@ -116,6 +119,30 @@ public class StanfordDependencyParser implements NlpParser {
         return parseTokens(tag(sentence));
     }
 
+    /**
+     * Parse a batch of sentences, applying each stage (tagging and lemmatization, then dependency parsing) to the whole batch
+     * before the next, so that each model is applied to many sentences in a row.
+     *
+     * @param sentences list of tokenized sentences
+     * @return list of syntactic dependency trees, one per input sentence
+     */
+    @Override
+    public List<DepTree> parseAll(List<List<String>> sentences) {
+        List<List<CoreLabel>> tagged = new ArrayList<>(sentences.size());
+        for (List<String> sentence : sentences) {
+            tagged.add(tag(sentence));
+        }
+        List<GrammaticalStructure> structures = new ArrayList<>(tagged.size());
+        for (List<CoreLabel> cls : tagged) {
+            structures.add(depParser.predict(cls));
+        }
+        List<DepTree> results = new ArrayList<>(tagged.size());
+        for (int i = 0; i < tagged.size(); ++i) {
+            results.add(toTree(tagged.get(i), structures.get(i)));
+        }
+        return results;
+    }
+
     private List<CoreLabel> getStanfordTokens(List<String> tokens) {
         List<CoreLabel> cls = new ArrayList<>();
         for (String token : tokens) {
@@ -135,7 +162,7 @@ public class StanfordDependencyParser implements NlpParser {
     }
 
     private List<CoreLabel> lemmatize(List<CoreLabel> words) {
-        Morphology lemmatizer = new Morphology();
+        Morphology lemmatizer = this.lemmatizer.get();
         for (CoreLabel word : words) {
             word.setLemma(lemmatizer.lemma(word.word(), word.tag()));
         }
@@ -157,24 +184,21 @@ public class StanfordDependencyParser implements NlpParser {
     }
 
     private DepTree parseTokens(List<CoreLabel> cls) {
-        List<DepNode> tokens = toTokens(cls);
-        GrammaticalStructure structure = depParser.predict(cls);
-        Map<Integer, TypedDependency> dependencyMap = structure.typedDependencies()
-                .stream().collect(Collectors.toMap(dep -> dep.dep().index(), dep -> dep));
+        return toTree(cls, depParser.predict(cls));
+    }
 
-        Map<Integer, TypedDependency> collapsedDeps = new HashMap<>();
-        for (TypedDependency dependency : structure.typedDependenciesCollapsed()) {
-            collapsedDeps.put(dependency.dep().index(), dependency);
-        }
+    private DepTree toTree(List<CoreLabel> cls, GrammaticalStructure structure) {
+        List<DepNode> tokens = toTokens(cls);
+        // dependencies indexed by dependent position (1-based), preferring collapsed dependencies when they are usable
+        TypedDependency[] basic = index(structure.typedDependencies(), tokens.size());
+        TypedDependency[] collapsed = index(structure.typedDependenciesCollapsed(), tokens.size());
 
         DepNode root = null;
         for (DepNode token : tokens) {
             int index = token.index() + 1;
-            TypedDependency rel = collapsedDeps.get(index);
-            TypedDependency collapsedRel = dependencyMap.get(index);
-            boolean collapsed = rel == null;
-            if (collapsed || (rel.dep().index() == rel.gov().index()) || collapsedRel.gov().index() <= 0) {
-                rel = collapsedRel;
+            TypedDependency rel = collapsed[index];
+            if (rel == null || (rel.dep().index() == rel.gov().index()) || basic[index].gov().index() <= 0) {
+                rel = basic[index];
             }
             token.addFeature(FeatureType.Dep, rel.reln().toString());
             int head = rel.gov().index() - 1;
@@ -188,4 +212,15 @@ public class StanfordDependencyParser implements NlpParser {
         return new DefaultDepTree(0, tokens, root);
     }
 
+    private static TypedDependency[] index(Collection<TypedDependency> dependencies, int size) {
+        TypedDependency[] result = new TypedDependency[size + 1];
+        for (TypedDependency dependency : dependencies) {
+            int index = dependency.dep().index();
+            if (index > 0 && index <= size) {
+                result[index] = dependency;
+            }
+        }
+        return result;
+    }
+
 }
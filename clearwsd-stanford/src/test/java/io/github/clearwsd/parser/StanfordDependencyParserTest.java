@@ -20,9 +20,11 @@ import org.junit.Before;
 import org.junit.BeforeClass;
 import org.junit.Test;
 
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
 
+import io.github.clearwsd.corpus.CoNllDepTreeReader;
 import io.github.clearwsd.type.DepNode;
 import io.github.clearwsd.type.DepTree;
 import io.github.clearwsd.type.FeatureType;
@@ -98,6 +100,18 @@ public class StanfordDependencyParserTest {
         assertTrue(parse.get(2).isRoot());
     }
 
+    @Test
+    public void testParseAll() {
+        List<List<String>> sentences = Arrays.asList(tokens, parser.tokenize("The cat that I saw ran away quickly."),
+                parser.tokenize("Birds sing."));
+        List<DepTree> trees = parser.parseAll(sentences);
+        assertEquals(sentences.size(), trees.size());
+        for (int i = 0; i < sentences.size(); ++i) {
+            assertEquals(CoNllDepTreeReader.treeToString(parser.parse(sentences.get(i))),
+                    CoNllDepTreeReader.treeToString(trees.get(i)));
+        }
+    }
+
     @Test
     public void testChildren() {
         assertEquals(0, parse.get(0).children().size());